@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket;
+
+import com.wcl.pricebasket.benchmarks.BenchmarkFixtures;
+import com.wcl.pricebasket.entities.Basket;
+import com.wcl.pricebasket.entities.Product;
+import com.wcl.pricebasket.parser.PricebasketParser;
+import com.wcl.pricebasket.receipt.Receipt;
+import com.wcl.pricebasket.receipt.ReceiptGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures each stage of {@link PricebasketManager#generateShoppingReceipt(String)} separately, along with the
+ * end to end cost.
+ *
+ * The stages are :-
+ * <ul>
+ *     <li>parse - {@link PricebasketParser#retrieveShoppingList(String)}, the list based parser</li>
+ *     <li>parseBasket - {@link PricebasketParser#retrieveBasket(CharSequence)}, which parses and aggregates the
+ *     products into a basket of quantities in a single pass</li>
+ *     <li>price - {@link ReceiptGenerator#generateReceipt(Basket)}</li>
+ *     <li>render - {@link Receipt#toString()}</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PricebasketBenchmark {
+    @Param({"1", "10", "1000", "100000"})
+    public int basketSize;
+
+    @Param({"2", "16", "256"})
+    public int offerCount;
+
+    private PricebasketParser parser;
+    private ReceiptGenerator receiptGenerator;
+    private PricebasketManager manager;
+
+    private String input;
+    private Basket basket;
+    private Receipt receipt;
+
+    @Setup
+    public void setUp() {
+        parser = new PricebasketParser();
+        receiptGenerator = new ReceiptGenerator(BenchmarkFixtures.offers(offerCount));
+        manager = new PricebasketManager(parser, receiptGenerator);
+
+        input = BenchmarkFixtures.basketInput(basketSize);
+        basket = parser.retrieveBasket(input);
+        receipt = receiptGenerator.generateReceipt(basket);
+    }
+
+    @Benchmark
+    public List<Product> parse() {
+        return parser.retrieveShoppingList(input);
+    }
+
+    @Benchmark
+    public Basket parseBasket() {
+        return parser.retrieveBasket(input);
+    }
+
+    @Benchmark
+    public Receipt price() {
+        return receiptGenerator.generateReceipt(basket);
+    }
+
+    @Benchmark
+    public String render() {
+        return receipt.toString();
+    }
+
+    @Benchmark
+    public String endToEnd() {
+        return manager.generateShoppingReceipt(input).toString();
+    }
+}
@@ -0,0 +1,80 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.benchmarks;
+
+import com.wcl.pricebasket.catalog.ProductCatalog;
+import com.wcl.pricebasket.entities.Basket;
+import com.wcl.pricebasket.entities.Product;
+import com.wcl.pricebasket.offers.rules.OfferRuleCompiler;
+import com.wcl.pricebasket.parser.PricebasketParser;
+import com.wcl.pricebasket.receipt.BasketSession;
+import com.wcl.pricebasket.receipt.Receipt;
+import com.wcl.pricebasket.receipt.ReceiptGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of one scan at a till: adding an item to a basket and producing the updated receipt, through a
+ * {@link BasketSession} and by pricing the whole basket again.  The item is taken back out after each scan so that
+ * the basket stays the same size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BasketSessionBenchmark {
+    @Param({"10", "1000"})
+    public int basketSize;
+
+    @Param({"16", "256"})
+    public int offerCount;
+
+    private ReceiptGenerator receiptGenerator;
+    private BasketSession session;
+    private Basket basket;
+
+    @Setup
+    public void setUp() {
+        receiptGenerator = new ReceiptGenerator(new OfferRuleCompiler(ProductCatalog.INSTANCE)
+                                                        .compile(BenchmarkFixtures.offerRules(offerCount)));
+        basket = new PricebasketParser().retrieveBasket(BenchmarkFixtures.basketInput(basketSize));
+        session = new BasketSession(receiptGenerator);
+        for (int i = 0; i < basket.getNumberOfDistinctProducts(); i++) {
+            final int productId = basket.getDistinctProductId(i);
+            for (long j = 0; j < basket.getQuantity(productId); j++) {
+                session.add(productId);
+            }
+        }
+    }
+
+    @Benchmark
+    public Receipt scanWithSession() {
+        session.add(Product.SOUP);
+        final Receipt receipt = session.getReceipt();
+        session.remove(Product.SOUP);
+        return receipt;
+    }
+
+    @Benchmark
+    public Receipt scanWithFullRepricing() {
+        basket.add(Product.SOUP);
+        final Receipt receipt = receiptGenerator.generateReceipt(basket);
+        basket.add(Product.SOUP, -1L);
+        return receipt;
+    }
+}
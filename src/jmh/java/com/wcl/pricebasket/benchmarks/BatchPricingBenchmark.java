@@ -0,0 +1,70 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.benchmarks;
+
+import com.wcl.pricebasket.entities.Basket;
+import com.wcl.pricebasket.parser.PricebasketParser;
+import com.wcl.pricebasket.receipt.BatchReceiptGenerator;
+import com.wcl.pricebasket.receipt.Receipt;
+import com.wcl.pricebasket.receipt.ReceiptGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how pricing a batch of baskets scales with the number of threads used.
+ *
+ * Run with parallelism up to the number of cores on the machine, e.g. {@code -p parallelism=1,2,4,8,16}; the time
+ * per batch should fall close to linearly until the cores run out.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchPricingBenchmark {
+    private static final int NUMBER_OF_BASKETS = 10000;
+
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    private List<Basket> baskets;
+    private BatchReceiptGenerator batchReceiptGenerator;
+
+    @Setup
+    public void setUp() {
+        final PricebasketParser parser = new PricebasketParser();
+        baskets = new ArrayList<>();
+        for (int i = 0; i < NUMBER_OF_BASKETS; i++) {
+            baskets.add(parser.retrieveBasket(BenchmarkFixtures.basketInput(1 + i % 20)));
+        }
+        batchReceiptGenerator = new BatchReceiptGenerator(new ReceiptGenerator(BenchmarkFixtures.offers(16)),
+                                                          parallelism);
+    }
+
+    @TearDown
+    public void tearDown() {
+        batchReceiptGenerator.close();
+    }
+
+    @Benchmark
+    public List<Receipt> generateReceipts() {
+        return batchReceiptGenerator.generateReceipts(baskets);
+    }
+}
@@ -0,0 +1,146 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.benchmarks;
+
+import com.wcl.pricebasket.entities.Product;
+import com.wcl.pricebasket.offers.ConsumingOffer;
+import com.wcl.pricebasket.offers.DiscountOffer;
+import com.wcl.pricebasket.utils.MonetaryUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Shared, deterministic test data for the benchmarks.
+ *
+ * Inputs are generated from a fixed seed so that runs are comparable with each other.
+ */
+public final class BenchmarkFixtures {
+    private static final long SEED = 20191105L;
+
+    private BenchmarkFixtures() {}
+
+    /**
+     * Generates a "Pricebasket ..." input line containing the requested number of randomly chosen products.
+     *
+     * @param numberOfItems  the number of items in the basket
+     * @return the generated input line
+     */
+    public static String basketInput(final int numberOfItems) {
+        final Product[] products = Product.values();
+        final Random random = new Random(SEED);
+        final StringBuilder input = new StringBuilder("Pricebasket");
+
+        for (int i = 0; i < numberOfItems; i++) {
+            input.append(' ').append(products[random.nextInt(products.length)].getProductName());
+        }
+        return input.toString();
+    }
+
+    /**
+     * Generates the requested number of discount offers.  The first two are the current live offers, any further
+     * offers are synthetic percentage discounts spread over the products.
+     *
+     * @param numberOfOffers  the number of offers to create
+     * @return the list of offers
+     */
+    public static List<DiscountOffer> offers(final int numberOfOffers) {
+        final List<DiscountOffer> offers = new ArrayList<>();
+
+        if (numberOfOffers > 0) {
+            offers.add(new DiscountOffer("Apples 10% off",
+                    DiscountOffer.triggeredBy(Product.APPLES),
+                    p -> p.contains(Product.APPLES),
+                    p -> MonetaryUtils.percentageOf(Product.APPLES.getCostPerUnitInPence() * p.getQuantity(Product.APPLES), 10)));
+        }
+
+        if (numberOfOffers > 1) {
+            offers.add(new DiscountOffer("Bread half price if 2 tins of soup bought",
+                    DiscountOffer.triggeredBy(Product.BREAD),
+                    p -> p.getQuantity(Product.SOUP) >= 2 && p.contains(Product.BREAD),
+                    p -> {
+                        final long numberOfBreadsEligibleForOffer = Math.min(p.getQuantity(Product.BREAD),
+                                p.getQuantity(Product.SOUP) / 2);
+                        return MonetaryUtils.percentageOf(Product.BREAD.getCostPerUnitInPence() * numberOfBreadsEligibleForOffer, 50);
+                    }));
+        }
+
+        final Product[] products = Product.values();
+        for (int i = offers.size(); i < numberOfOffers; i++) {
+            final Product product = products[i % products.length];
+            final int percentage = 1 + i % 50;
+            offers.add(new DiscountOffer(String.format("%s %d%% off", product.getProductName(), percentage),
+                    DiscountOffer.triggeredBy(product),
+                    p -> p.contains(product),
+                    p -> MonetaryUtils.percentageOf(product.getCostPerUnitInPence() * p.getQuantity(product), percentage)));
+        }
+        return offers;
+    }
+
+    /**
+     * Generates the requested number of competing offers.  The first two are the current live offers, any further
+     * offers are synthetic bundles of two products at a discount of up to a quarter of the bundle price.
+     *
+     * @param numberOfOffers  the number of offers to create
+     * @return the list of offers
+     */
+    public static List<ConsumingOffer> consumingOffers(final int numberOfOffers) {
+        final List<ConsumingOffer> offers = new ArrayList<>();
+
+        if (numberOfOffers > 0) {
+            offers.add(new ConsumingOffer("Apples 10% off", DiscountOffer.triggeredBy(Product.APPLES),
+                                          new long[] {1}, 10));
+        }
+        if (numberOfOffers > 1) {
+            offers.add(new ConsumingOffer("Bread half price if 2 tins of soup bought",
+                                          DiscountOffer.triggeredBy(Product.SOUP, Product.BREAD),
+                                          new long[] {2, 1}, 40));
+        }
+
+        final Random random = new Random(SEED);
+        final Product[] products = Product.values();
+        for (int i = offers.size(); i < numberOfOffers; i++) {
+            final Product first = products[i % products.length];
+            final Product second = products[(i + 1 + i / products.length) % products.length];
+            final long firstQuantity = 1 + random.nextInt(3);
+            final long secondQuantity = first == second ? 0 : 1 + random.nextInt(3);
+            final long bundlePrice = first.getCostPerUnitInPence() * firstQuantity
+                    + second.getCostPerUnitInPence() * secondQuantity;
+            final long discount = 1 + random.nextInt((int) bundlePrice / 4);
+
+            offers.add(first == second
+                       ? new ConsumingOffer("Bundle " + i, DiscountOffer.triggeredBy(first),
+                                            new long[] {firstQuantity}, discount)
+                       : new ConsumingOffer("Bundle " + i, DiscountOffer.triggeredBy(first, second),
+                                            new long[] {firstQuantity, secondQuantity}, discount));
+        }
+        return offers;
+    }
+
+    /**
+     * Generates offer rules equivalent to the offers returned by {@link #offers(int)}.
+     *
+     * @param numberOfOffers  the number of rules to write
+     * @return the text of the rules
+     */
+    public static String offerRules(final int numberOfOffers) {
+        final StringBuilder rules = new StringBuilder();
+
+        if (numberOfOffers > 0) {
+            rules.append("\"Apples 10% off\" = APPLES pct 10\n");
+        }
+        if (numberOfOffers > 1) {
+            rules.append("\"Bread half price if 2 tins of soup bought\" = buy 2 SOUP get BREAD 50%\n");
+        }
+
+        final Product[] products = Product.values();
+        for (int i = Math.min(numberOfOffers, 2); i < numberOfOffers; i++) {
+            final Product product = products[i % products.length];
+            rules.append(product.name()).append(" pct ").append(1 + i % 50).append('\n');
+        }
+        return rules.toString();
+    }
+}
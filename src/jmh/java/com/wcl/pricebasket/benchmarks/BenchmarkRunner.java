@@ -0,0 +1,28 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmarks jar.
+ *
+ * Accepts the standard JMH command line options, for example a benchmark regex or '-p basketSize=1000', and always
+ * attaches the GC profiler so that allocation rates (gc.alloc.rate.norm) are reported alongside the timings.
+ */
+public final class BenchmarkRunner {
+    private BenchmarkRunner() {}
+
+    public static void main(String... args) throws CommandLineOptionException, RunnerException {
+        new Runner(new OptionsBuilder().parent(new CommandLineOptions(args))
+                                       .addProfiler(GCProfiler.class)
+                                       .build()).run();
+    }
+}
@@ -0,0 +1,96 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.benchmarks;
+
+import com.wcl.pricebasket.batch.BasketBatch;
+import com.wcl.pricebasket.batch.BatchPricingKernel;
+import com.wcl.pricebasket.catalog.ProductCatalog;
+import com.wcl.pricebasket.entities.Basket;
+import com.wcl.pricebasket.entities.Product;
+import com.wcl.pricebasket.offers.rules.OfferRuleCompiler;
+import com.wcl.pricebasket.receipt.ReceiptGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures repricing a large batch of baskets with the columnar {@link BatchPricingKernel}, against pricing the same
+ * baskets one at a time through {@link ReceiptGenerator}, both as receipts and as totals only.  Scores are per basket.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ColumnarPricingBenchmark {
+    private static final int NUMBER_OF_BASKETS = 100000;
+
+    @Param({"2", "16"})
+    public int offerCount;
+
+    private final List<Basket> baskets = new ArrayList<>();
+    private final BasketBatch batch = new BasketBatch(Product.values().length, NUMBER_OF_BASKETS);
+    private final long[] subtotals = new long[NUMBER_OF_BASKETS];
+    private final long[] totals = new long[NUMBER_OF_BASKETS];
+    private ReceiptGenerator receiptGenerator;
+    private BatchPricingKernel kernel;
+
+    @Setup
+    public void setUp() {
+        final OfferRuleCompiler compiler = new OfferRuleCompiler(ProductCatalog.INSTANCE);
+        final String rules = BenchmarkFixtures.offerRules(offerCount);
+        receiptGenerator = new ReceiptGenerator(compiler.compile(rules));
+        kernel = new BatchPricingKernel(compiler.parse(rules), ProductCatalog.INSTANCE);
+
+        final Random random = new Random(5);
+        for (int i = 0; i < NUMBER_OF_BASKETS; i++) {
+            final Basket basket = new Basket();
+            for (final Product product : Product.values()) {
+                basket.add(product, random.nextInt(4));
+            }
+            baskets.add(basket);
+            batch.add(basket);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUMBER_OF_BASKETS)
+    public void receipts(final Blackhole blackhole) {
+        for (final Basket basket : baskets) {
+            blackhole.consume(receiptGenerator.generateReceipt(basket));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUMBER_OF_BASKETS)
+    public void quotedTotals() {
+        for (int i = 0; i < NUMBER_OF_BASKETS; i++) {
+            totals[i] = receiptGenerator.quoteTotalInPence(baskets.get(i));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUMBER_OF_BASKETS)
+    public long[] kernel() {
+        kernel.price(batch, subtotals, totals);
+        return totals;
+    }
+}
@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.benchmarks;
+
+import com.wcl.pricebasket.currency.CurrencyRate;
+import com.wcl.pricebasket.currency.ExchangeRateSnapshot;
+import com.wcl.pricebasket.entities.Basket;
+import com.wcl.pricebasket.parser.PricebasketParser;
+import com.wcl.pricebasket.receipt.AppliedOffer;
+import com.wcl.pricebasket.receipt.Receipt;
+import com.wcl.pricebasket.receipt.ReceiptGenerator;
+import org.javamoney.moneta.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.money.Monetary;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures generating a receipt in euros through an exchange rate snapshot, against generating it in pounds and
+ * against converting a finished pound receipt amount by amount, looking up the currency each time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CurrencyConversionBenchmark {
+    private static final BigDecimal EUROS_PER_POUND = new BigDecimal("1.155");
+
+    private ReceiptGenerator receiptGenerator;
+    private CurrencyRate euros;
+    private Basket basket;
+
+    @Setup
+    public void setUp() {
+        receiptGenerator = new ReceiptGenerator(BenchmarkFixtures.offers(16));
+        euros = new ExchangeRateSnapshot(Collections.singletonMap("EUR", EUROS_PER_POUND)).getRate("EUR");
+        basket = new PricebasketParser().retrieveBasket(BenchmarkFixtures.basketInput(10));
+    }
+
+    @Benchmark
+    public Receipt poundReceipt() {
+        return receiptGenerator.generateLazyReceipt(basket).toReceipt();
+    }
+
+    @Benchmark
+    public Receipt euroReceipt() {
+        return receiptGenerator.generateReceipt(basket, euros);
+    }
+
+    @Benchmark
+    public Receipt euroReceiptConvertedPerAmount() {
+        final Receipt receipt = receiptGenerator.generateReceipt(basket);
+        final List<AppliedOffer> appliedOffers = new ArrayList<>(receipt.getAppliedOffers().size());
+        for (final AppliedOffer appliedOffer : receipt.getAppliedOffers()) {
+            appliedOffers.add(AppliedOffer.builder().description(appliedOffer.getDescription())
+                                                    .discountAmount(convert(appliedOffer.getDiscountAmount()))
+                                                    .build());
+        }
+        return Receipt.builder().subtotal(convert(receipt.getSubtotal()))
+                                .appliedOffers(appliedOffers)
+                                .finalTotal(convert(receipt.getFinalTotal()))
+                                .build();
+    }
+
+    private static Money convert(final Money pounds) {
+        return Money.of(pounds.getNumber().numberValue(BigDecimal.class).multiply(EUROS_PER_POUND)
+                              .setScale(2, RoundingMode.HALF_UP),
+                        Monetary.getCurrency("EUR"));
+    }
+}
@@ -0,0 +1,70 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.benchmarks;
+
+import com.wcl.pricebasket.entities.Basket;
+import com.wcl.pricebasket.metrics.PricingMetrics;
+import com.wcl.pricebasket.parser.PricebasketParser;
+import com.wcl.pricebasket.receipt.ReceiptGenerator;
+import com.wcl.pricebasket.receipt.ReceiptRenderer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of the {@link PricingMetrics} instrumentation, by pricing and rendering the same basket in a JVM
+ * with metrics switched off and in one with them switched on.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MetricsOverheadBenchmark {
+    @Param({"2", "16"})
+    public int offerCount;
+
+    private PricebasketParser parser;
+    private ReceiptGenerator receiptGenerator;
+    private final ReceiptRenderer renderer = new ReceiptRenderer();
+    private final Basket basket = new Basket();
+    private final StringBuilder receiptText = new StringBuilder();
+    private String input;
+
+    @Setup
+    public void setUp() {
+        parser = new PricebasketParser();
+        receiptGenerator = new ReceiptGenerator(BenchmarkFixtures.offers(offerCount));
+        input = BenchmarkFixtures.basketInput(10);
+    }
+
+    @Benchmark
+    @Fork(1)
+    public StringBuilder metricsDisabled() {
+        return priceAndRender();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dpricebasket.metrics=true")
+    public StringBuilder metricsEnabled() {
+        return priceAndRender();
+    }
+
+    private StringBuilder priceAndRender() {
+        basket.clear();
+        receiptText.setLength(0);
+        return renderer.render(receiptGenerator.generateReceipt(parser.retrieveBasket(input, basket)), receiptText);
+    }
+}
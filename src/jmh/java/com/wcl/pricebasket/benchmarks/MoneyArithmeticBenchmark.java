@@ -0,0 +1,118 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.benchmarks;
+
+import com.wcl.pricebasket.entities.Basket;
+import com.wcl.pricebasket.entities.Product;
+import com.wcl.pricebasket.receipt.AppliedOffer;
+import com.wcl.pricebasket.receipt.Receipt;
+import com.wcl.pricebasket.receipt.ReceiptGenerator;
+import com.wcl.pricebasket.utils.MonetaryUtils;
+import org.javamoney.moneta.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.money.Monetary;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Compares pricing a basket with long pence arithmetic against the previous approach of float unit costs and a
+ * {@link Money} for every subtotal, discount and total.
+ *
+ * The 'money' benchmark is a faithful copy of the original ReceiptGenerator so the two can be compared in one run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyArithmeticBenchmark {
+    @Param({"10", "1000"})
+    public int basketSize;
+
+    @Param({"2", "16"})
+    public int offerCount;
+
+    private Map<Product, Long> basket;
+    private Basket pricedBasket;
+    private ReceiptGenerator receiptGenerator;
+    private List<MoneyOffer> moneyOffers;
+
+    @Setup
+    public void setUp() {
+        basket = new EnumMap<>(Product.class);
+        for (final String name : BenchmarkFixtures.basketInput(basketSize).split(" ")) {
+            if (!"Pricebasket".equals(name)) {
+                basket.merge(Product.getProductByName(name), 1L, Long::sum);
+            }
+        }
+        pricedBasket = Basket.of(basket);
+        receiptGenerator = new ReceiptGenerator(BenchmarkFixtures.offers(offerCount));
+
+        // Same offers, with discounts handed back as Money as before.
+        moneyOffers = BenchmarkFixtures.offers(offerCount).stream()
+                .map(o -> new MoneyOffer(o.getDescription(),
+                                         p -> o.isOfferApplicable(pricedBasket),
+                                         p -> MonetaryUtils.gbpAmount(o.calculateDiscountInPence(pricedBasket) / 100.0)))
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public Receipt pence() {
+        return receiptGenerator.generateReceipt(pricedBasket);
+    }
+
+    @Benchmark
+    @SuppressWarnings("deprecation")
+    public Receipt money() {
+        final Money subtotal = Money.of(basket.entrySet().stream()
+                                              .mapToDouble(e -> e.getKey().getCostPerUnit() * e.getValue())
+                                              .sum(), Monetary.getCurrency("GBP"));
+        final List<AppliedOffer> appliedOffers = moneyOffers.stream().filter(e -> e.condition.test(basket))
+                .map(e -> AppliedOffer.builder().description(e.description)
+                                                .discountAmount(e.calculator.apply(basket))
+                                                .build())
+                .collect(Collectors.toList());
+        final Money offerTotal = Money.of(appliedOffers.stream()
+                                                       .mapToDouble(e -> e.getDiscountAmount().getNumber().doubleValueExact())
+                                                       .sum(), Monetary.getCurrency("GBP"));
+
+        return Receipt.builder().subtotal(subtotal)
+                                .appliedOffers(appliedOffers)
+                                .finalTotal(subtotal.subtract(offerTotal))
+                                .build();
+    }
+
+    /* The shape of an offer before pricing moved to pence. */
+    private static final class MoneyOffer {
+        private final String description;
+        private final Predicate<Map<Product, Long>> condition;
+        private final Function<Map<Product, Long>, Money> calculator;
+
+        private MoneyOffer(final String description,
+                           final Predicate<Map<Product, Long>> condition,
+                           final Function<Map<Product, Long>, Money> calculator) {
+            this.description = description;
+            this.condition = condition;
+            this.calculator = calculator;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.benchmarks;
+
+import com.wcl.pricebasket.entities.Basket;
+import com.wcl.pricebasket.offers.OfferCombination;
+import com.wcl.pricebasket.offers.OfferCombinationSolver;
+import com.wcl.pricebasket.parser.PricebasketParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures choosing the best combination of competing offers, against the greedy combination alone, as the number
+ * of offers and the size of the basket grow.  The search is given a budget of one millisecond.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OfferCombinationBenchmark {
+    @Param({"10", "1000"})
+    public int basketSize;
+
+    @Param({"2", "16", "256"})
+    public int offerCount;
+
+    private OfferCombinationSolver greedySolver;
+    private OfferCombinationSolver solver;
+    private Basket basket;
+
+    @Setup
+    public void setUp() {
+        greedySolver = new OfferCombinationSolver(BenchmarkFixtures.consumingOffers(offerCount),
+                                                  0, TimeUnit.MILLISECONDS);
+        solver = new OfferCombinationSolver(BenchmarkFixtures.consumingOffers(offerCount), 1, TimeUnit.MILLISECONDS);
+        basket = new PricebasketParser().retrieveBasket(BenchmarkFixtures.basketInput(basketSize));
+    }
+
+    @Benchmark
+    public OfferCombination greedy() {
+        return greedySolver.solve(basket);
+    }
+
+    @Benchmark
+    public OfferCombination solve() {
+        return solver.solve(basket);
+    }
+}
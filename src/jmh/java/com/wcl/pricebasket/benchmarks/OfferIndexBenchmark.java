@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.benchmarks;
+
+import com.wcl.pricebasket.catalog.Catalog;
+import com.wcl.pricebasket.catalog.MappedCatalog;
+import com.wcl.pricebasket.catalog.MappedCatalogWriter;
+import com.wcl.pricebasket.entities.Basket;
+import com.wcl.pricebasket.offers.DiscountOffer;
+import com.wcl.pricebasket.receipt.Receipt;
+import com.wcl.pricebasket.receipt.ReceiptGenerator;
+import com.wcl.pricebasket.utils.MonetaryUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures pricing a ten product basket as the total number of offers grows, with the offers indexed by their
+ * trigger products and with every offer evaluated against every basket.
+ *
+ * Each offer is a percentage discount on one product of a 10,000 product catalog, so the indexed cost should only
+ * grow with the number of offers per product, rather than the total number of offers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OfferIndexBenchmark {
+    private static final int CATALOG_SIZE = 10000;
+    private static final int DISTINCT_PRODUCTS_IN_BASKET = 10;
+
+    @Param({"100", "1000", "10000", "100000"})
+    public int offerCount;
+
+    private Basket basket;
+    private ReceiptGenerator indexedReceiptGenerator;
+    private ReceiptGenerator unindexedReceiptGenerator;
+
+    @Setup
+    public void setUp() throws IOException {
+        final Path catalogFile = Files.createTempFile("catalog", ".bin");
+        catalogFile.toFile().deleteOnExit();
+        final MappedCatalogWriter writer = new MappedCatalogWriter();
+        for (int productId = 0; productId < CATALOG_SIZE; productId++) {
+            writer.addProduct("Sku" + productId, 50 + productId % 500);
+        }
+        writer.writeTo(catalogFile, 1L);
+        final Catalog catalog = MappedCatalog.open(catalogFile);
+
+        final List<DiscountOffer> indexedOffers = new ArrayList<>();
+        final List<DiscountOffer> unindexedOffers = new ArrayList<>();
+        for (int i = 0; i < offerCount; i++) {
+            final int productId = i % CATALOG_SIZE;
+            final int percentage = 1 + i % 50;
+            final String description = String.format("Sku%d %d%% off", productId, percentage);
+
+            indexedOffers.add(new DiscountOffer(description,
+                    new int[] {productId},
+                    p -> p.contains(productId),
+                    p -> MonetaryUtils.percentageOf(catalog.getCostPerUnitInPence(productId) * p.getQuantity(productId),
+                                                    percentage)));
+            unindexedOffers.add(new DiscountOffer(description,
+                    p -> p.contains(productId),
+                    p -> MonetaryUtils.percentageOf(catalog.getCostPerUnitInPence(productId) * p.getQuantity(productId),
+                                                    percentage)));
+        }
+        indexedReceiptGenerator = new ReceiptGenerator(indexedOffers, catalog);
+        unindexedReceiptGenerator = new ReceiptGenerator(unindexedOffers, catalog);
+
+        final Random random = new Random(CATALOG_SIZE);
+        basket = new Basket();
+        while (basket.getNumberOfDistinctProducts() < DISTINCT_PRODUCTS_IN_BASKET) {
+            basket.add(random.nextInt(CATALOG_SIZE), 1 + random.nextInt(3));
+        }
+    }
+
+    @Benchmark
+    public Receipt indexed() {
+        return indexedReceiptGenerator.generateReceipt(basket);
+    }
+
+    @Benchmark
+    public Receipt unindexed() {
+        return unindexedReceiptGenerator.generateReceipt(basket);
+    }
+}
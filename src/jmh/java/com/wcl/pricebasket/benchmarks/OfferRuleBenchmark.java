@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.benchmarks;
+
+import com.wcl.pricebasket.catalog.ProductCatalog;
+import com.wcl.pricebasket.entities.Basket;
+import com.wcl.pricebasket.offers.DiscountOffer;
+import com.wcl.pricebasket.offers.rules.OfferRuleCompiler;
+import com.wcl.pricebasket.parser.PricebasketParser;
+import com.wcl.pricebasket.receipt.Receipt;
+import com.wcl.pricebasket.receipt.ReceiptGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures compiling offer rules, and pricing a basket with compiled offers against the equivalent hand written
+ * offers from {@link BenchmarkFixtures#offers(int)}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OfferRuleBenchmark {
+    @Param({"16", "10000"})
+    public int offerCount;
+
+    private String rules;
+    private OfferRuleCompiler compiler;
+    private Basket basket;
+    private ReceiptGenerator compiledReceiptGenerator;
+    private ReceiptGenerator handWrittenReceiptGenerator;
+
+    @Setup
+    public void setUp() {
+        rules = BenchmarkFixtures.offerRules(offerCount);
+        compiler = new OfferRuleCompiler(ProductCatalog.INSTANCE);
+        basket = new PricebasketParser().retrieveBasket(BenchmarkFixtures.basketInput(10));
+        compiledReceiptGenerator = new ReceiptGenerator(compiler.compile(rules));
+        handWrittenReceiptGenerator = new ReceiptGenerator(BenchmarkFixtures.offers(offerCount));
+    }
+
+    @Benchmark
+    public List<DiscountOffer> compile() {
+        return compiler.compile(rules);
+    }
+
+    @Benchmark
+    public Receipt priceCompiled() {
+        return compiledReceiptGenerator.generateReceipt(basket);
+    }
+
+    @Benchmark
+    public Receipt priceHandWritten() {
+        return handWrittenReceiptGenerator.generateReceipt(basket);
+    }
+}
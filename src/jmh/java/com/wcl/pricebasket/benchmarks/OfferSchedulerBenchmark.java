@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.benchmarks;
+
+import com.wcl.pricebasket.offers.DiscountOffer;
+import com.wcl.pricebasket.receipt.OfferScheduler;
+import com.wcl.pricebasket.receipt.ReceiptGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of refreshing the running offers at a window boundary, with every window overlapping a tenth of
+ * the others.  Each refresh moves the clock on a minute, so the active offers change and are indexed again.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OfferSchedulerBenchmark {
+    private static final Instant START = Instant.parse("2019-06-03T00:00:00Z");
+
+    @Param({"1000", "10000"})
+    public int offerCount;
+
+    private final SteppingClock clock = new SteppingClock();
+    private OfferScheduler scheduler;
+
+    @Setup
+    public void setUp() {
+        final List<DiscountOffer> template = BenchmarkFixtures.offers(offerCount);
+        final List<DiscountOffer> offers = new ArrayList<>(offerCount);
+        for (int i = 0; i < offerCount; i++) {
+            final Instant start = START.plus(Duration.ofMinutes(i));
+            offers.add(template.get(i).validBetween(start, start.plus(Duration.ofMinutes(offerCount / 10))));
+        }
+        scheduler = new OfferScheduler(new ReceiptGenerator(new ArrayList<>()), offers, clock);
+    }
+
+    @Benchmark
+    public Instant refreshAtBoundary() {
+        clock.minutes = (clock.minutes + 1) % offerCount;
+        return scheduler.refresh();
+    }
+
+    /* A clock that is moved on by the benchmark a minute at a time. */
+    private static final class SteppingClock extends Clock {
+        private long minutes;
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(final ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return START.plus(Duration.ofMinutes(minutes));
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.benchmarks;
+
+import com.wcl.pricebasket.entities.Basket;
+import com.wcl.pricebasket.offers.DiscountOffer;
+import com.wcl.pricebasket.parser.PricebasketParser;
+import com.wcl.pricebasket.receipt.Receipt;
+import com.wcl.pricebasket.receipt.ReceiptGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of threads pricing baskets through a shared {@link ReceiptGenerator}, on its own and while
+ * another thread replaces the offers a thousand times a second.
+ *
+ * The pricing threads' score within the swapping group should match the steady group; the swapping thread's own
+ * score is the rate of replacement.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OfferSwapBenchmark {
+    private static final int PRICING_THREADS = 3;
+
+    @Param({"16", "256"})
+    public int offerCount;
+
+    private ReceiptGenerator receiptGenerator;
+    private List<DiscountOffer> offers;
+    private List<DiscountOffer> replacementOffers;
+    private Basket basket;
+    private boolean replaced;
+
+    @Setup
+    public void setUp() {
+        offers = BenchmarkFixtures.offers(offerCount);
+        replacementOffers = BenchmarkFixtures.offers(offerCount);
+        receiptGenerator = new ReceiptGenerator(offers);
+        basket = new PricebasketParser().retrieveBasket(BenchmarkFixtures.basketInput(10));
+    }
+
+    @Benchmark
+    @Group("steady")
+    @GroupThreads(PRICING_THREADS)
+    public Receipt priceSteady() {
+        return receiptGenerator.generateReceipt(basket);
+    }
+
+    @Benchmark
+    @Group("swapping")
+    @GroupThreads(PRICING_THREADS)
+    public Receipt priceWhileSwapping() {
+        return receiptGenerator.generateReceipt(basket);
+    }
+
+    @Benchmark
+    @Group("swapping")
+    @GroupThreads(1)
+    public long swap() throws InterruptedException {
+        replaced = !replaced;
+        final long version = receiptGenerator.replaceOffers(replaced ? replacementOffers : offers);
+        TimeUnit.MILLISECONDS.sleep(1);
+        return version;
+    }
+}
@@ -0,0 +1,81 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.benchmarks;
+
+import com.wcl.pricebasket.batch.BatchSummary;
+import com.wcl.pricebasket.batch.FileBatchProcessor;
+import com.wcl.pricebasket.batch.PipelinedBatchProcessor;
+import com.wcl.pricebasket.parser.PricebasketParser;
+import com.wcl.pricebasket.receipt.ReceiptGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares pricing a file of baskets on one thread with the four stage pipeline.  The pipeline only pays off with a
+ * core free for each stage.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PipelinedBatchBenchmark {
+    private static final int NUMBER_OF_BASKETS = 100_000;
+
+    private Path input;
+    private Path output;
+    private FileBatchProcessor fileBatchProcessor;
+    private PipelinedBatchProcessor pipelinedBatchProcessor;
+
+    @Setup
+    public void setUp() throws IOException {
+        input = Files.createTempFile("baskets", ".txt");
+        output = Files.createTempFile("receipts", ".txt");
+        try (Writer writer = Files.newBufferedWriter(input, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < NUMBER_OF_BASKETS; i++) {
+                writer.write(BenchmarkFixtures.basketInput(1 + i % 20));
+                writer.write('\n');
+            }
+        }
+
+        final PricebasketParser parser = new PricebasketParser();
+        final ReceiptGenerator receiptGenerator = new ReceiptGenerator(BenchmarkFixtures.offers(16));
+        fileBatchProcessor = new FileBatchProcessor(parser, receiptGenerator);
+        pipelinedBatchProcessor = new PipelinedBatchProcessor(parser, receiptGenerator);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.delete(input);
+        Files.delete(output);
+    }
+
+    @Benchmark
+    public BatchSummary singleThreaded() throws IOException {
+        return fileBatchProcessor.process(input, output);
+    }
+
+    @Benchmark
+    public BatchSummary pipelined() throws IOException {
+        return pipelinedBatchProcessor.process(input, output);
+    }
+}
@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.benchmarks;
+
+import com.wcl.pricebasket.entities.ProductNameIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares resolving product names through {@link ProductNameIndex} with the linear equalsIgnoreCase scan it
+ * replaced, for catalogs of increasing size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductLookupBenchmark {
+    @Param({"4", "1000", "10000"})
+    public int catalogSize;
+
+    private String[] names;
+    private String[] tokens;
+    private ProductNameIndex index;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        names = new String[catalogSize];
+        tokens = new String[catalogSize];
+        for (int i = 0; i < catalogSize; i++) {
+            names[i] = "Product" + i;
+            tokens[i] = "PRODUCT" + i;
+        }
+        index = new ProductNameIndex(names);
+    }
+
+    @Benchmark
+    public int index() {
+        return index.findId(nextToken());
+    }
+
+    @Benchmark
+    public int linearScan() {
+        final String token = nextToken();
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equalsIgnoreCase(token)) {
+                return i;
+            }
+        }
+        return ProductNameIndex.NOT_FOUND;
+    }
+
+    private String nextToken() {
+        next = next + 1 == tokens.length ? 0 : next + 1;
+        return tokens[next];
+    }
+}
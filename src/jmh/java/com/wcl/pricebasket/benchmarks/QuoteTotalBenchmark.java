@@ -0,0 +1,65 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.benchmarks;
+
+import com.wcl.pricebasket.entities.Basket;
+import com.wcl.pricebasket.parser.PricebasketParser;
+import com.wcl.pricebasket.receipt.LazyReceipt;
+import com.wcl.pricebasket.receipt.Receipt;
+import com.wcl.pricebasket.receipt.ReceiptGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures finding only the total to pay for a basket, against generating a full receipt and a lazy receipt whose
+ * total alone is read.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuoteTotalBenchmark {
+    @Param({"2", "16", "256"})
+    public int offerCount;
+
+    private ReceiptGenerator receiptGenerator;
+    private Basket basket;
+
+    @Setup
+    public void setUp() {
+        receiptGenerator = new ReceiptGenerator(BenchmarkFixtures.offers(offerCount));
+        basket = new PricebasketParser().retrieveBasket(BenchmarkFixtures.basketInput(10));
+    }
+
+    @Benchmark
+    public Receipt receipt() {
+        return receiptGenerator.generateReceipt(basket);
+    }
+
+    @Benchmark
+    public void lazyReceiptTotal(final Blackhole blackhole) {
+        final LazyReceipt receipt = receiptGenerator.generateLazyReceipt(basket);
+        blackhole.consume(receipt.getFinalTotalInPence());
+    }
+
+    @Benchmark
+    public long quoteTotal() {
+        return receiptGenerator.quoteTotalInPence(basket);
+    }
+}
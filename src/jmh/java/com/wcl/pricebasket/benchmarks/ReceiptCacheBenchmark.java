@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.benchmarks;
+
+import com.wcl.pricebasket.entities.Basket;
+import com.wcl.pricebasket.parser.PricebasketParser;
+import com.wcl.pricebasket.receipt.Receipt;
+import com.wcl.pricebasket.receipt.ReceiptCache;
+import com.wcl.pricebasket.receipt.ReceiptGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures pricing baskets drawn in turn from a small set of popular baskets, with and without a receipt cache
+ * large enough to hold them all.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReceiptCacheBenchmark {
+    private static final int POPULAR_BASKETS = 100;
+
+    @Param({"16", "256"})
+    public int offerCount;
+
+    private Basket[] baskets;
+    private ReceiptGenerator receiptGenerator;
+    private ReceiptCache receiptCache;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        final PricebasketParser parser = new PricebasketParser();
+        baskets = new Basket[POPULAR_BASKETS];
+        for (int i = 0; i < POPULAR_BASKETS; i++) {
+            baskets[i] = parser.retrieveBasket(BenchmarkFixtures.basketInput(1 + i));
+        }
+        receiptGenerator = new ReceiptGenerator(BenchmarkFixtures.offers(offerCount));
+        receiptCache = new ReceiptCache(receiptGenerator, POPULAR_BASKETS);
+    }
+
+    @Benchmark
+    public Receipt uncached() {
+        return receiptGenerator.generateReceipt(nextBasket());
+    }
+
+    @Benchmark
+    public Receipt cached() {
+        return receiptCache.generateReceipt(nextBasket());
+    }
+
+    private Basket nextBasket() {
+        next = next + 1 == POPULAR_BASKETS ? 0 : next + 1;
+        return baskets[next];
+    }
+}
@@ -0,0 +1,87 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.benchmarks;
+
+import com.wcl.pricebasket.parser.PricebasketParser;
+import com.wcl.pricebasket.receipt.AppliedOffer;
+import com.wcl.pricebasket.receipt.Receipt;
+import com.wcl.pricebasket.receipt.ReceiptGenerator;
+import com.wcl.pricebasket.receipt.ReceiptRenderer;
+import com.wcl.pricebasket.utils.MonetaryUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares rendering a receipt with two applied offers through {@link ReceiptRenderer} against the previous
+ * String.format based Receipt.toString.
+ *
+ * The 'formatted' benchmark is a faithful copy of the original toString so the two can be compared in one run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReceiptRenderBenchmark {
+    private Receipt receipt;
+    private ReceiptRenderer renderer;
+    private StringBuilder text;
+    private ByteBuffer bytes;
+
+    @Setup
+    public void setUp() {
+        receipt = new ReceiptGenerator(BenchmarkFixtures.offers(2))
+                .generateReceipt(new PricebasketParser().retrieveBasket("Pricebasket Apples Bread Soup Soup"));
+        renderer = new ReceiptRenderer();
+        text = new StringBuilder(256);
+        bytes = ByteBuffer.allocateDirect(256);
+    }
+
+    @Benchmark
+    public String formatted() {
+        final StringBuilder receiptText = new StringBuilder();
+        receiptText.append(String.format("Subtotal: £%.2f", receipt.getSubtotal().getNumber().doubleValue()));
+        receiptText.append(System.lineSeparator());
+        for (final AppliedOffer appliedOffer : receipt.getAppliedOffers()) {
+            receiptText.append(appliedOffer.getDiscountAmount().isLessThan(MonetaryUtils.gbpAmount(1.00))
+                    ? String.format("%s: -%dp", appliedOffer.getDescription(),
+                                    (int) (appliedOffer.getDiscountAmount().getNumber().doubleValue() * 100))
+                    : String.format("%s: -£%.2f", appliedOffer.getDescription(),
+                                    appliedOffer.getDiscountAmount().getNumber().doubleValue()));
+            receiptText.append(System.lineSeparator());
+        }
+        receiptText.append(String.format("Total: £%.2f", receipt.getFinalTotal().getNumber().doubleValue()));
+        return receiptText.toString().trim();
+    }
+
+    @Benchmark
+    public String toStringRendered() {
+        return receipt.toString();
+    }
+
+    @Benchmark
+    public StringBuilder renderToStringBuilder() {
+        text.setLength(0);
+        return renderer.render(receipt, text);
+    }
+
+    @Benchmark
+    public ByteBuffer renderToByteBuffer() {
+        bytes.clear();
+        return renderer.render(receipt, bytes);
+    }
+}
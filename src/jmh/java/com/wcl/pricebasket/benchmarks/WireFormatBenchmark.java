@@ -0,0 +1,92 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.benchmarks;
+
+import com.wcl.pricebasket.entities.Basket;
+import com.wcl.pricebasket.parser.PricebasketParser;
+import com.wcl.pricebasket.receipt.LazyReceipt;
+import com.wcl.pricebasket.receipt.ReceiptGenerator;
+import com.wcl.pricebasket.receipt.ReceiptRenderer;
+import com.wcl.pricebasket.wire.BasketCodec;
+import com.wcl.pricebasket.wire.ReceiptCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reading a basket from its binary encoding against parsing its text, and encoding a receipt against
+ * rendering its text.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFormatBenchmark {
+    @Param({"4", "64"})
+    public int itemCount;
+
+    private final PricebasketParser parser = new PricebasketParser();
+    private final BasketCodec basketCodec = new BasketCodec();
+    private final ReceiptCodec receiptCodec = new ReceiptCodec();
+    private final ReceiptRenderer renderer = new ReceiptRenderer();
+    private final Basket basket = new Basket();
+    private final StringBuilder text = new StringBuilder();
+    private final ByteBuffer encodedReceipt = ByteBuffer.allocate(256);
+
+    private String basketText;
+    private ByteBuffer encodedBasket;
+    private LazyReceipt receipt;
+
+    @Setup
+    public void setUp() {
+        basketText = BenchmarkFixtures.basketInput(itemCount);
+        final Basket parsed = parser.retrieveBasket(basketText);
+        encodedBasket = ByteBuffer.allocate(64);
+        basketCodec.encode(parsed, encodedBasket);
+        encodedBasket.flip();
+        receipt = new ReceiptGenerator(BenchmarkFixtures.offers(16)).generateLazyReceipt(parsed);
+    }
+
+    @Benchmark
+    public Basket parseText() {
+        basket.clear();
+        return parser.retrieveBasket(basketText, basket);
+    }
+
+    @Benchmark
+    public Basket decodeBinary() {
+        basket.clear();
+        encodedBasket.rewind();
+        basketCodec.decode(encodedBasket, basket);
+        return basket;
+    }
+
+    @Benchmark
+    public StringBuilder renderReceiptText() {
+        text.setLength(0);
+        renderer.render(receipt.toReceipt(), text);
+        return text;
+    }
+
+    @Benchmark
+    public ByteBuffer encodeReceipt() {
+        encodedReceipt.clear();
+        receiptCodec.encode(receipt, encodedReceipt);
+        return encodedReceipt;
+    }
+}
@@ -4,15 +4,45 @@
  **/
 package com.wcl.pricebasket;
 
-import com.wcl.pricebasket.entities.Product;
+import com.wcl.pricebasket.batch.BatchSummary;
+import com.wcl.pricebasket.batch.FileBatchProcessor;
+import com.wcl.pricebasket.batch.PipelinedBatchProcessor;
+import com.wcl.pricebasket.catalog.Catalog;
+import com.wcl.pricebasket.catalog.MappedCatalog;
+import com.wcl.pricebasket.catalog.ProductCatalog;
+import com.wcl.pricebasket.catalog.ReloadableCatalog;
+import com.wcl.pricebasket.metrics.PricingMetrics;
+import com.wcl.pricebasket.offers.ConsumingOffer;
 import com.wcl.pricebasket.offers.DiscountOffer;
+import com.wcl.pricebasket.offers.rules.OfferRuleCompiler;
 import com.wcl.pricebasket.parser.PricebasketParser;
+import com.wcl.pricebasket.receipt.BasketPricer;
+import com.wcl.pricebasket.receipt.CompetingOfferReceiptGenerator;
 import com.wcl.pricebasket.receipt.ReceiptGenerator;
-import com.wcl.pricebasket.utils.MonetaryUtils;
+import com.wcl.pricebasket.wire.BasketCodec;
+import com.wcl.pricebasket.server.PricingServer;
+import com.wcl.pricebasket.workload.BasketSizeDistribution;
+import com.wcl.pricebasket.workload.ReplayDriver;
+import com.wcl.pricebasket.workload.ReplayReport;
+import com.wcl.pricebasket.workload.WorkloadGenerator;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
 import java.util.List;
+import java.util.Objects;
 import java.util.Scanner;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The main entry point for the application.
@@ -20,27 +50,82 @@ import java.util.Scanner;
  * The application loops awaiting user inout, ending when the user types 'EXIT'.
  *
  * Any errors in input are reported back to the terminal.
+ *
+ * The offers running are compiled from a rules file, which may be given with the --offers option; otherwise the
+ * rules packaged with the application are used.  Products and prices come from a catalog file, written by
+ * {@link com.wcl.pricebasket.catalog.MappedCatalogWriter}, given with the --catalog option; otherwise the built in
+ * products are used.  Typing 'RELOAD' reloads the catalog and the offers, and the server reloads them whenever either
+ * file changes.  The offers are compiled against the new catalog before either is swapped in.  Given the
+ * --competing-offers option, each item counts towards at most one offer, and the combination of offers giving the
+ * largest discount is applied, rather than every applicable offer.
+ *
+ * Given the --batch option, the application instead prices a file of baskets, one per line, writing the receipts to
+ * an output file, spreading the work over a pipeline of threads if --pipelined is also given.  Given the --server
+ * option, it serves pricing requests from till clients over TCP.
+ *
+ * Given the --generate option, the application writes a file of synthetic baskets, shaped by the --sizes, --zipf and
+ * --seed options.  Given the --replay option, it prices a file of baskets, generated or recorded, at the rate given by
+ * --rate or otherwise flat out, reporting the throughput and latency percentiles.
+ *
+ * Started with -Dpricebasket.metrics=true, pricing latencies and offer counters are published over JMX.
  */
 class PricebasketMain {
     private static boolean continueProcessing = true;
 
+    private static final String DEFAULT_OFFER_RULES = "/offers.rules";
+    private static final int MAXIMUM_QUEUED_REQUESTS = 1024;
+
+    private static final long RELOAD_CHECK_SECONDS = 1L;
+    private static final long COMPETING_OFFER_BUDGET_MICROS = 200L;
+
+    private final ReloadableCatalog catalog = new ReloadableCatalog(ProductCatalog.INSTANCE);
+    private Path catalogPath;
+    private Path offerRulesPath;
+    private boolean competingOffers;
+    private CompetingOfferReceiptGenerator competingOfferGenerator;
+    private Path batchInputPath;
+    private Path batchOutputPath;
+    private boolean pipelined;
+    private int serverPort = -1;
+    private int numberOfWorkers = Runtime.getRuntime().availableProcessors();
+    private Path generateOutputPath;
+    private int numberOfBasketsToGenerate;
+    private BasketSizeDistribution basketSizes = BasketSizeDistribution.geometric(4);
+    private double popularityExponent = 1.0;
+    private long seed = 1L;
+    private Path replayInputPath;
+    private double targetRatePerSecond;
+
     /*
      * Loops around awaiting user input.
      */
-    private void performWork() {
-        final PricebasketManager priceBasketManager = new PricebasketManager(new PricebasketParser(),
-                                                                             new ReceiptGenerator(constructCurrentOffers()));
+    private void performWork() throws IOException {
+        final ReceiptGenerator receiptGenerator = constructReceiptGenerator();
+        final PricebasketManager priceBasketManager = new PricebasketManager(new PricebasketParser(catalog),
+                                                                             choosePricer(receiptGenerator),
+                                                                             receiptGenerator,
+                                                                             new BasketCodec(catalog));
         final Scanner scanner = new Scanner(System.in);
         String input;
 
         while (continueProcessing) {
-            System.out.println("Please type Pricebasket followed by the items to purchase or type EXIT to quit");
+            System.out.println("Please type Pricebasket followed by the items to purchase, RELOAD to reload the "
+                                       + "catalog and offers or EXIT to quit");
             input = scanner.nextLine();
 
             if ("EXIT".equalsIgnoreCase(input)) {
                 continueProcessing = false;
                 break;
             }
+            if ("RELOAD".equalsIgnoreCase(input)) {
+                try {
+                    reloadCatalogAndOffers(receiptGenerator);
+                    System.out.println("Reloaded the catalog and offers.");
+                } catch (IOException | IllegalArgumentException e) {
+                    System.out.println(e.getMessage());
+                }
+                continue;
+            }
 
             try {
                 System.out.println(priceBasketManager.generateShoppingReceipt(input));
@@ -52,35 +137,240 @@ class PricebasketMain {
     }
 
     /*
-     * Generate current offers; in real world app, would use a different structure, ie possibly reading in and
-     * transforming JSON from an external API call.
-     *
-     * For purposes of this simple code exercise, hard-coded the current offers.
+     * Creates a receipt generator pricing from the catalog, with the current offers compiled against its snapshot.
+     */
+    private ReceiptGenerator constructReceiptGenerator() throws IOException {
+        final Catalog products = catalog.snapshot();
+        return new ReceiptGenerator(constructCurrentOffers(products), catalog, products);
+    }
+
+    /*
+     * Compile the current offers from the rules file supplied on the command line, falling back to the rules
+     * packaged with the application, resolving products against the catalog supplied.
+     */
+    private List<DiscountOffer> constructCurrentOffers(final Catalog products) throws IOException {
+        try (Reader rules = openOfferRules()) {
+            return new OfferRuleCompiler(products).compile(rules);
+        }
+    }
+
+    /*
+     * Compile the current offers as offers competing for the items they discount.
+     */
+    private List<ConsumingOffer> constructCompetingOffers(final Catalog products) throws IOException {
+        try (Reader rules = openOfferRules()) {
+            return new OfferRuleCompiler(products).compileConsuming(rules);
+        }
+    }
+
+    private Reader openOfferRules() throws IOException {
+        if (offerRulesPath != null) {
+            return Files.newBufferedReader(offerRulesPath, StandardCharsets.UTF_8);
+        }
+        return new InputStreamReader(PricebasketMain.class.getResourceAsStream(DEFAULT_OFFER_RULES),
+                                     StandardCharsets.UTF_8);
+    }
+
+    /*
+     * Returns the receipt generator supplied, or, given the --competing-offers option, a generator applying the best
+     * combination of the same offers competing for the items they discount.
      */
-    private List<DiscountOffer> constructCurrentOffers() {
-        final List<DiscountOffer> currentOffers = new ArrayList<>();
-
-        currentOffers.add(new DiscountOffer("Apples 10% off",
-                p -> p.containsKey(Product.APPLES),
-                p ->  MonetaryUtils.gbpAmount(0.1 * p.get(Product.APPLES))));
-
-        currentOffers.add(new DiscountOffer("Bread half price if 2 tins of soup bought",
-                p -> p.getOrDefault(Product.SOUP, 0L) >= 2
-                        && p.containsKey(Product.BREAD),
-                p -> {
-                    long countOfSoups = p.getOrDefault(Product.SOUP, 0L);
-
-                    int maximumNumberOfBreadsEligibleForOffer = (int)(countOfSoups / 2);
-                    long numberOfBreadsEligibleForOffer = Math.min(p.get(Product.BREAD),
-                            maximumNumberOfBreadsEligibleForOffer);
-                    return MonetaryUtils.gbpAmount(0.5 * Product.BREAD.getCostPerUnit() * numberOfBreadsEligibleForOffer);
-                }));
-
-        return currentOffers;
+    private BasketPricer choosePricer(final ReceiptGenerator receiptGenerator) throws IOException {
+        if (!competingOffers) {
+            return receiptGenerator;
+        }
+        final Catalog products = catalog.snapshot();
+        competingOfferGenerator = new CompetingOfferReceiptGenerator(constructCompetingOffers(products),
+                                                                     COMPETING_OFFER_BUDGET_MICROS,
+                                                                     TimeUnit.MICROSECONDS,
+                                                                     catalog,
+                                                                     products);
+        return competingOfferGenerator;
     }
 
-    public static void main(String... args) {
+    /*
+     * Loads the catalog file again, or keeps the built in products, and compiles the offers against it before
+     * swapping both in.  The offers are published along with the snapshot they were compiled against, so a basket
+     * resolved against either catalog, before or after the swap, finds the offers its own products trigger.
+     */
+    private void reloadCatalogAndOffers(final ReceiptGenerator receiptGenerator) throws IOException {
+        final Catalog loaded = catalogPath != null ? MappedCatalog.open(catalogPath) : catalog.snapshot();
+        final List<DiscountOffer> offers = constructCurrentOffers(loaded);
+        final List<ConsumingOffer> consumingOffers = competingOfferGenerator != null
+                                                     ? constructCompetingOffers(loaded) : null;
+        receiptGenerator.replaceOffers(offers, loaded);
+        if (competingOfferGenerator != null) {
+            competingOfferGenerator.replaceOffers(consumingOffers, loaded);
+        }
+        catalog.replace(loaded);
+    }
+
+    /*
+     * Checks the catalog and offer rules files for changes every second, reloading both when either changes.
+     */
+    private void reloadOnChange(final ReceiptGenerator receiptGenerator) throws IOException {
+        final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "catalog-reloader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final FileTime[] lastModified = {lastModified(catalogPath), lastModified(offerRulesPath)};
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                final FileTime[] modified = {lastModified(catalogPath), lastModified(offerRulesPath)};
+                if (!Objects.equals(modified[0], lastModified[0]) || !Objects.equals(modified[1], lastModified[1])) {
+                    lastModified[0] = modified[0];
+                    lastModified[1] = modified[1];
+                    reloadCatalogAndOffers(receiptGenerator);
+                    System.out.println("Reloaded the catalog and offers.");
+                }
+            } catch (IOException | UncheckedIOException | IllegalArgumentException e) {
+                // Keep serving with the catalog and offers already loaded.
+                System.out.println(e.getMessage());
+            }
+        }, RELOAD_CHECK_SECONDS, RELOAD_CHECK_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private static FileTime lastModified(final Path path) throws IOException {
+        return path == null ? null : Files.getLastModifiedTime(path);
+    }
+
+    /*
+     * Prices every basket within the batch input file, writing the receipts to the batch output file.
+     */
+    private void performBatchWork() throws IOException {
+        final PricebasketParser parser = new PricebasketParser(catalog);
+        final ReceiptGenerator receiptGenerator = constructReceiptGenerator();
+        final long startTime = System.nanoTime();
+        final BasketPricer pricer = choosePricer(receiptGenerator);
+        final BatchSummary summary = pipelined
+                ? new PipelinedBatchProcessor(parser, pricer).process(batchInputPath, batchOutputPath)
+                : new FileBatchProcessor(parser, pricer).process(batchInputPath, batchOutputPath);
+        final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+
+        System.out.println(String.format("Priced %d baskets, rejected %d lines in %dms.",
+                                         summary.getBasketsPriced(), summary.getLinesRejected(), elapsedMillis));
+    }
+
+    /*
+     * Serves pricing requests over TCP until the process is stopped.
+     */
+    private void performServerWork() throws IOException, InterruptedException {
+        final ReceiptGenerator receiptGenerator = constructReceiptGenerator();
+        final PricingServer server = new PricingServer(new InetSocketAddress(serverPort),
+                                                       new PricebasketParser(catalog),
+                                                       choosePricer(receiptGenerator),
+                                                       numberOfWorkers,
+                                                       MAXIMUM_QUEUED_REQUESTS);
+        reloadOnChange(receiptGenerator);
+        System.out.println(String.format("Pricing server listening on %s with %d workers.",
+                                         server.getLocalAddress(), numberOfWorkers));
+        Thread.currentThread().join();
+    }
+
+    /*
+     * Writes a file of synthetic baskets.
+     */
+    private void performGenerateWork() throws IOException {
+        final WorkloadGenerator generator = new WorkloadGenerator(catalog, basketSizes, popularityExponent, seed);
+        try (Writer output = Files.newBufferedWriter(generateOutputPath, StandardCharsets.UTF_8)) {
+            generator.write(output, numberOfBasketsToGenerate);
+        }
+        System.out.println(String.format("Generated %d baskets with sizes %s and popularity exponent %s.",
+                                         numberOfBasketsToGenerate, basketSizes, popularityExponent));
+    }
+
+    /*
+     * Replays a file of baskets against the pricing path, once flat out to warm it up and then at the target rate.
+     */
+    private void performReplayWork() throws IOException {
+        final ReceiptGenerator receiptGenerator = constructReceiptGenerator();
+        final PricebasketManager priceBasketManager = new PricebasketManager(new PricebasketParser(catalog),
+                                                                             choosePricer(receiptGenerator),
+                                                                             receiptGenerator,
+                                                                             new BasketCodec(catalog));
+        final List<String> baskets = ReplayDriver.readBaskets(replayInputPath);
+        final ReplayDriver driver = new ReplayDriver(priceBasketManager::generateShoppingReceipt);
+        driver.replay(baskets, 0);
+        final ReplayReport report = driver.replay(baskets, targetRatePerSecond);
+
+        System.out.println(String.format("Priced %d baskets, rejected %d in %dms: throughput=%.0f/s p50=%dus "
+                                                 + "p90=%dus p99=%dus p99.9=%dus max=%dus; "
+                                                 + "rejected p50=%dus p99=%dus max=%dus",
+                                         report.getBasketsPriced(), report.getBasketsRejected(),
+                                         TimeUnit.NANOSECONDS.toMillis(report.getElapsedNanos()),
+                                         report.getThroughputPerSecond(),
+                                         TimeUnit.NANOSECONDS.toMicros(report.getMedianNanos()),
+                                         TimeUnit.NANOSECONDS.toMicros(report.getPercentile90Nanos()),
+                                         TimeUnit.NANOSECONDS.toMicros(report.getPercentile99Nanos()),
+                                         TimeUnit.NANOSECONDS.toMicros(report.getPercentile999Nanos()),
+                                         TimeUnit.NANOSECONDS.toMicros(report.getMaxNanos()),
+                                         TimeUnit.NANOSECONDS.toMicros(report.getRejectedMedianNanos()),
+                                         TimeUnit.NANOSECONDS.toMicros(report.getRejectedPercentile99Nanos()),
+                                         TimeUnit.NANOSECONDS.toMicros(report.getRejectedMaxNanos())));
+    }
+
+    public static void main(String... args) throws IOException, InterruptedException {
         final PricebasketMain mainApp = new PricebasketMain();
-        mainApp.performWork();
+
+        for (int i = 0; i < args.length; i++) {
+            if ("--catalog".equals(args[i]) && i + 1 < args.length) {
+                mainApp.catalogPath = Paths.get(args[++i]);
+            } else if ("--offers".equals(args[i]) && i + 1 < args.length) {
+                mainApp.offerRulesPath = Paths.get(args[++i]);
+            } else if ("--competing-offers".equals(args[i])) {
+                mainApp.competingOffers = true;
+            } else if ("--batch".equals(args[i]) && i + 2 < args.length) {
+                mainApp.batchInputPath = Paths.get(args[++i]);
+                mainApp.batchOutputPath = Paths.get(args[++i]);
+            } else if ("--pipelined".equals(args[i])) {
+                mainApp.pipelined = true;
+            } else if ("--server".equals(args[i]) && i + 1 < args.length) {
+                mainApp.serverPort = Integer.parseInt(args[++i]);
+            } else if ("--workers".equals(args[i]) && i + 1 < args.length) {
+                mainApp.numberOfWorkers = Integer.parseInt(args[++i]);
+            } else if ("--generate".equals(args[i]) && i + 2 < args.length) {
+                mainApp.generateOutputPath = Paths.get(args[++i]);
+                mainApp.numberOfBasketsToGenerate = Integer.parseInt(args[++i]);
+            } else if ("--sizes".equals(args[i]) && i + 1 < args.length) {
+                mainApp.basketSizes = BasketSizeDistribution.parse(args[++i]);
+            } else if ("--zipf".equals(args[i]) && i + 1 < args.length) {
+                mainApp.popularityExponent = Double.parseDouble(args[++i]);
+            } else if ("--seed".equals(args[i]) && i + 1 < args.length) {
+                mainApp.seed = Long.parseLong(args[++i]);
+            } else if ("--replay".equals(args[i]) && i + 1 < args.length) {
+                mainApp.replayInputPath = Paths.get(args[++i]);
+            } else if ("--rate".equals(args[i]) && i + 1 < args.length) {
+                mainApp.targetRatePerSecond = Double.parseDouble(args[++i]);
+            } else {
+                System.out.println("Usage: PricebasketMain [--catalog <catalog file>] [--offers <offer rules file>] "
+                                           + "[--competing-offers] "
+                                           + "[--batch <baskets file> <receipts file> [--pipelined]] "
+                                           + "[--server <port> [--workers <number of workers>]] "
+                                           + "[--generate <baskets file> <number of baskets> [--sizes <distribution>] "
+                                           + "[--zipf <exponent>] [--seed <seed>]] "
+                                           + "[--replay <baskets file> [--rate <baskets per second>]]");
+                return;
+            }
+        }
+
+        if (mainApp.catalogPath != null) {
+            mainApp.catalog.replace(MappedCatalog.open(mainApp.catalogPath));
+        }
+        if (PricingMetrics.ENABLED) {
+            PricingMetrics.INSTANCE.registerMBeans();
+        }
+
+        if (mainApp.generateOutputPath != null) {
+            mainApp.performGenerateWork();
+        } else if (mainApp.replayInputPath != null) {
+            mainApp.performReplayWork();
+        } else if (mainApp.batchInputPath != null) {
+            mainApp.performBatchWork();
+        } else if (mainApp.serverPort >= 0) {
+            mainApp.performServerWork();
+        } else {
+            mainApp.performWork();
+        }
     }
 }
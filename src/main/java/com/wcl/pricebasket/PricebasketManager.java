@@ -4,33 +4,57 @@
  **/
 package com.wcl.pricebasket;
 
-import com.wcl.pricebasket.entities.Product;
+import com.wcl.pricebasket.entities.Basket;
+import com.wcl.pricebasket.metrics.PricingMetrics;
 import com.wcl.pricebasket.parser.PricebasketParser;
+import com.wcl.pricebasket.receipt.BasketPricer;
+import com.wcl.pricebasket.receipt.LazyReceipt;
 import com.wcl.pricebasket.receipt.Receipt;
 import com.wcl.pricebasket.receipt.ReceiptGenerator;
+import com.wcl.pricebasket.wire.BasketCodec;
 
-import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.nio.ByteBuffer;
 
 /**
  * This class performs the heavy lifting of the application.
  *
- * It takes the user input and uses that to generate a receipt for the basket provided.
+ * It takes the user input and uses that to generate a receipt for the basket provided.  Upstream systems may instead
+ * supply baskets already encoded by a {@link BasketCodec}, which are priced without going through the parser.
+ *
+ * The text is priced by the {@link BasketPricer} supplied, which may apply the best combination of competing offers
+ * rather than every applicable offer; encoded baskets are always priced by the {@link ReceiptGenerator}, as only it
+ * builds the receipt's text lazily.
  */
 final class PricebasketManager {
     private final PricebasketParser parser;
+    private final BasketPricer basketPricer;
     private final ReceiptGenerator receiptGenerator;
+    private final BasketCodec basketCodec;
 
     PricebasketManager(final PricebasketParser parser,
                        final ReceiptGenerator receiptGenerator) {
+        this(parser, receiptGenerator, new BasketCodec());
+    }
+
+    PricebasketManager(final PricebasketParser parser,
+                       final ReceiptGenerator receiptGenerator,
+                       final BasketCodec basketCodec) {
+        this(parser, receiptGenerator, receiptGenerator, basketCodec);
+    }
+
+    PricebasketManager(final PricebasketParser parser,
+                       final BasketPricer basketPricer,
+                       final ReceiptGenerator receiptGenerator,
+                       final BasketCodec basketCodec) {
         this.parser = parser;
+        this.basketPricer = basketPricer;
         this.receiptGenerator = receiptGenerator;
+        this.basketCodec = basketCodec;
     }
 
     /**
-     * Retrieves the list of Products contained within the user provided text.  The basket retrieved is then processed
-     * to return a receipt for the shopping.
+     * Retrieves the basket of Products contained within the user provided text.  The basket retrieved is then
+     * processed to return a receipt for the shopping.
      *
      * If an error occurs within the processing of the user provided text, then an {@link IllegalArgumentException}
      * is thrown with an appropriate error message.
@@ -39,14 +63,32 @@ final class PricebasketManager {
      * @return generated shopping receipt; IllegalArgumentException thrown on error.
      */
     Receipt generateShoppingReceipt(final String input) {
-        final List<Product> enteredItemNames = parser.retrieveShoppingList(input);
-
-        final Map<Product, Long> basket = enteredItemNames.stream()
-                .collect(Collectors.groupingBy(e -> e, Collectors.counting()));
-
-        return receiptGenerator.generateReceipt(basket);
+        final long startNanos = PricingMetrics.ENABLED ? System.nanoTime() : 0L;
+        final Receipt receipt = basketPricer.generateReceipt(parser.retrieveBasket(input));
+        if (PricingMetrics.ENABLED) {
+            PricingMetrics.INSTANCE.recordLatency(PricingMetrics.Stage.RECEIPT, startNanos);
+        }
+        return receipt;
     }
 
-
+    /**
+     * Decodes the next basket from the encoded baskets supplied and prices it.  The receipt's text is only built if
+     * asked for, so a receipt that is itself to be encoded for the next system costs little more than its totals.
+     *
+     * @param encodedBaskets  the encoded baskets, from the current position, which is moved past the basket
+     * @return the receipt for the basket; IllegalArgumentException thrown on error.
+     * @see BasketCodec#decode(ByteBuffer, Basket)
+     */
+    LazyReceipt priceEncodedBasket(final ByteBuffer encodedBaskets) {
+        final long startNanos = PricingMetrics.ENABLED ? System.nanoTime() : 0L;
+        final Basket basket = new Basket();
+        if (!basketCodec.decode(encodedBaskets, basket)) {
+            throw new IllegalArgumentException("Incomplete basket.");
+        }
+        final LazyReceipt receipt = receiptGenerator.generateLazyReceipt(basket);
+        if (PricingMetrics.ENABLED) {
+            PricingMetrics.INSTANCE.recordLatency(PricingMetrics.Stage.RECEIPT, startNanos);
+        }
+        return receipt;
+    }
 }
-
@@ -0,0 +1,135 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.batch;
+
+import com.wcl.pricebasket.entities.Basket;
+
+import java.util.Arrays;
+
+/**
+ * A batch of baskets held column by column: one array of quantities per product, indexed by basket.
+ *
+ * Holding millions of baskets as maps costs an object per entry; here each basket costs one long per product, and a
+ * pricing loop over a single product reads one array from start to finish.  Baskets are identified by the index
+ * {@link #add(Basket)} returns.
+ *
+ * @see BatchPricingKernel
+ */
+public final class BasketBatch {
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    /** The quantity of each product, by product id then basket index. */
+    private final long[][] quantities;
+    private int size;
+
+    /**
+     * Creates an empty batch for baskets of the number of products supplied.
+     *
+     * @param numberOfProducts  the number of products, so one more than the highest product id a basket may hold
+     */
+    public BasketBatch(final int numberOfProducts) {
+        this(numberOfProducts, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty batch with room for the number of baskets supplied before it needs to grow.
+     *
+     * @param numberOfProducts  the number of products, so one more than the highest product id a basket may hold
+     * @param capacity  the number of baskets to make room for
+     * @throws IllegalArgumentException if either number is negative
+     */
+    public BasketBatch(final int numberOfProducts, final int capacity) {
+        if (numberOfProducts < 0) {
+            throw new IllegalArgumentException(String.format("Invalid number of products %d.", numberOfProducts));
+        }
+        if (capacity < 0) {
+            throw new IllegalArgumentException(String.format("Invalid capacity %d.", capacity));
+        }
+        quantities = new long[numberOfProducts][capacity];
+    }
+
+    /**
+     * Adds the contents of the basket supplied to the end of the batch.
+     *
+     * @param basket  the basket to add
+     * @return the index of the basket within the batch
+     * @throws IllegalArgumentException if the basket holds a product beyond those the batch was created for
+     */
+    public int add(final Basket basket) {
+        for (int i = 0; i < basket.getNumberOfDistinctProducts(); i++) {
+            final int productId = basket.getDistinctProductId(i);
+            if (productId >= quantities.length) {
+                throw new IllegalArgumentException(String.format("Invalid product id %d.", productId));
+            }
+        }
+        if (quantities.length > 0 && size == quantities[0].length) {
+            grow();
+        }
+
+        for (int i = 0; i < basket.getNumberOfDistinctProducts(); i++) {
+            final int productId = basket.getDistinctProductId(i);
+            quantities[productId][size] = basket.getQuantity(productId);
+        }
+        return size++;
+    }
+
+    /**
+     * Returns the number of baskets within the batch.
+     *
+     * @return the number of baskets
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of products each basket has a quantity for.
+     *
+     * @return the number of products
+     */
+    public int getNumberOfProducts() {
+        return quantities.length;
+    }
+
+    /**
+     * Returns the quantity of a product within a basket.
+     *
+     * @param basketIndex  the index of the basket
+     * @param productId  the id of the product
+     * @return the quantity, zero if the basket does not hold the product
+     * @throws IndexOutOfBoundsException if there is no such basket
+     */
+    public long getQuantity(final int basketIndex, final int productId) {
+        if (basketIndex >= size) {
+            throw new IndexOutOfBoundsException(String.format("No basket %d.", basketIndex));
+        }
+        return quantities[productId][basketIndex];
+    }
+
+    /**
+     * Empties the batch, keeping the space it has grown to.
+     */
+    public void clear() {
+        for (final long[] column : quantities) {
+            Arrays.fill(column, 0, size, 0L);
+        }
+        size = 0;
+    }
+
+    /* Gives the pricing kernel the quantities of a product; only the first size() entries are meaningful. */
+    long[] getColumn(final int productId) {
+        return quantities[productId];
+    }
+
+    private void grow() {
+        final int capacity = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(DEFAULT_CAPACITY, size * 2L));
+        if (capacity == size) {
+            throw new IllegalStateException("The batch is full.");
+        }
+        for (int productId = 0; productId < quantities.length; productId++) {
+            quantities[productId] = Arrays.copyOf(quantities[productId], capacity);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.batch;
+
+import com.wcl.pricebasket.catalog.Catalog;
+import com.wcl.pricebasket.offers.rules.OfferRule;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Prices a whole {@link BasketBatch} at once, for bulk work such as nightly repricing where only the totals are
+ * wanted.
+ *
+ * Rather than pricing basket by basket, the kernel makes one pass over the batch per product to build the subtotals,
+ * then one pass per offer to take off its discount.  Each pass is a simple counted loop over one or two quantity
+ * columns and the totals column, with the prices and percentages held in locals, which the JIT unrolls and, where
+ * the hardware allows, vectorises.
+ *
+ * The offers are the standard kinds written as {@link OfferRule}s, and every total is the same as the final total
+ * {@link com.wcl.pricebasket.receipt.ReceiptGenerator} gives the basket using the offers compiled from the same
+ * rules.  Prices are taken from a snapshot of the catalog when the kernel is created.  Kernels are immutable and may
+ * be shared between threads.
+ */
+public final class BatchPricingKernel {
+    private final long[] pricesInPence;
+    private final OfferRule[] rules;
+
+    public BatchPricingKernel(final List<OfferRule> rules, final Catalog catalog) {
+        final Catalog prices = catalog.snapshot();
+        this.pricesInPence = new long[prices.size()];
+        for (int productId = 0; productId < pricesInPence.length; productId++) {
+            pricesInPence[productId] = prices.getCostPerUnitInPence(productId);
+        }
+        this.rules = new ArrayList<>(rules).toArray(new OfferRule[0]);
+    }
+
+    /**
+     * Prices every basket within the batch, writing the subtotal and the final total of each, in pence, to the
+     * arrays supplied at the basket's index.
+     *
+     * @param batch  the baskets to price
+     * @param subtotals  where to write the subtotal of each basket
+     * @param totals  where to write the final total of each basket
+     * @throws IllegalArgumentException if either array is shorter than the batch, or the batch holds products the
+     * catalog does not
+     */
+    public void price(final BasketBatch batch, final long[] subtotals, final long[] totals) {
+        final int size = batch.size();
+        if (subtotals.length < size || totals.length < size) {
+            throw new IllegalArgumentException(String.format("Expected room for %d baskets but found %d.",
+                                                             size, Math.min(subtotals.length, totals.length)));
+        }
+        if (batch.getNumberOfProducts() > pricesInPence.length) {
+            throw new IllegalArgumentException(String.format("Expected at most %d products but found %d.",
+                                                             pricesInPence.length, batch.getNumberOfProducts()));
+        }
+
+        addSubtotals(batch, subtotals, size);
+        System.arraycopy(subtotals, 0, totals, 0, size);
+        for (final OfferRule rule : rules) {
+            if (rule.getDiscountedProductId() >= batch.getNumberOfProducts()
+                    || rule.getBoughtProductId() >= batch.getNumberOfProducts()) {
+                // No basket in the batch can hold the product.
+                continue;
+            }
+            if (rule.isPercentageOff()) {
+                takePercentageOff(batch.getColumn(rule.getDiscountedProductId()),
+                                  pricesInPence[rule.getDiscountedProductId()], rule.getPercentage(), totals, size);
+            } else if (rule.getBoughtProductId() == rule.getDiscountedProductId()) {
+                takeGroupDiscount(batch.getColumn(rule.getDiscountedProductId()), rule.getQuantityToBuy() + 1,
+                                  pricesInPence[rule.getDiscountedProductId()], rule.getPercentage(), totals, size);
+            } else {
+                takeBuyGetDiscount(batch.getColumn(rule.getBoughtProductId()),
+                                   batch.getColumn(rule.getDiscountedProductId()), rule.getQuantityToBuy(),
+                                   pricesInPence[rule.getDiscountedProductId()], rule.getPercentage(), totals, size);
+            }
+        }
+    }
+
+    private void addSubtotals(final BasketBatch batch, final long[] subtotals, final int size) {
+        for (int i = 0; i < size; i++) {
+            subtotals[i] = 0;
+        }
+        for (int productId = 0; productId < batch.getNumberOfProducts(); productId++) {
+            final long[] quantities = batch.getColumn(productId);
+            final long price = pricesInPence[productId];
+            for (int i = 0; i < size; i++) {
+                subtotals[i] += quantities[i] * price;
+            }
+        }
+    }
+
+    /*
+     * The discount loops below round exactly as MonetaryUtils.percentageOf does, inlined so that each loop body is
+     * straight line arithmetic.  A basket an offer does not apply to works out at no discount.
+     */
+
+    private static void takePercentageOff(final long[] quantities, final long price, final long percentage,
+                                          final long[] totals, final int size) {
+        for (int i = 0; i < size; i++) {
+            totals[i] -= (quantities[i] * price * percentage + 50) / 100;
+        }
+    }
+
+    private static void takeGroupDiscount(final long[] quantities, final long groupSize, final long price,
+                                          final long percentage, final long[] totals, final int size) {
+        for (int i = 0; i < size; i++) {
+            totals[i] -= (quantities[i] / groupSize * price * percentage + 50) / 100;
+        }
+    }
+
+    private static void takeBuyGetDiscount(final long[] boughtQuantities, final long[] discountedQuantities,
+                                           final long quantityToBuy, final long price, final long percentage,
+                                           final long[] totals, final int size) {
+        for (int i = 0; i < size; i++) {
+            final long eligible = Math.min(discountedQuantities[i], boughtQuantities[i] / quantityToBuy);
+            totals[i] -= (eligible * price * percentage + 50) / 100;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.batch;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Data class summarising a run of the {@link FileBatchProcessor}.
+ */
+@Data
+@Builder
+public class BatchSummary {
+    /** The number of baskets a receipt was written for. */
+    long basketsPriced;
+    /** The number of lines that could not be priced, each reported in place of a receipt. */
+    long linesRejected;
+}
@@ -0,0 +1,116 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.batch;
+
+import com.wcl.pricebasket.entities.Basket;
+import com.wcl.pricebasket.parser.PricebasketParser;
+import com.wcl.pricebasket.receipt.BasketPricer;
+import com.wcl.pricebasket.receipt.Receipt;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Prices a file of baskets, one "Pricebasket ..." line per basket, writing a receipt for each to an output file.
+ *
+ * The input is memory mapped a window at a time and each line is parsed directly from the mapped bytes, so reading
+ * the file creates no Strings and the same basket is reused for every line.  Receipts are rendered straight into a
+ * large buffer that is written to the output channel whenever it fills.  Each receipt is followed by a blank line.
+ *
+ * A line that cannot be priced does not stop the run; "Line N: " followed by the reason is written in place of its
+ * receipt, and the line is counted as rejected.  Any other failure pricing a line is reported the same way, as being
+ * unable to price the basket.
+ */
+public final class FileBatchProcessor {
+    /** The amount of the input mapped at once. */
+    private static final int WINDOW_SIZE = 64 * 1024 * 1024;
+    /** Reported in place of the receipt when pricing fails for any reason other than invalid input. */
+    static final String UNABLE_TO_PRICE = "Unable to price the basket.";
+
+    private final PricebasketParser parser;
+    private final BasketPricer receiptGenerator;
+    private final int windowSize;
+
+    public FileBatchProcessor(final PricebasketParser parser, final BasketPricer receiptGenerator) {
+        this(parser, receiptGenerator, WINDOW_SIZE);
+    }
+
+    /* Allows tests to use windows small enough for lines to cross them. */
+    FileBatchProcessor(final PricebasketParser parser, final BasketPricer receiptGenerator,
+                       final int windowSize) {
+        this.parser = parser;
+        this.receiptGenerator = receiptGenerator;
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * Prices every basket within the input file, writing the receipts to the output file, which is replaced if it
+     * already exists.
+     *
+     * @param input  the file of baskets, one per line
+     * @param output  the file to write the receipts to
+     * @return a summary of the baskets priced and lines rejected
+     * @throws IOException if either file cannot be read or written
+     */
+    public BatchSummary process(final Path input, final Path output) throws IOException {
+        try (FileChannel inputChannel = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel outputChannel = FileChannel.open(output, StandardOpenOption.CREATE,
+                                                          StandardOpenOption.TRUNCATE_EXISTING,
+                                                          StandardOpenOption.WRITE)) {
+            return new Run(outputChannel).process(inputChannel);
+        }
+    }
+
+    /* The state of a single run, so that the processor itself can be shared. */
+    private final class Run {
+        private final ReceiptTextWriter output;
+        private final Utf8ByteSequence line = new Utf8ByteSequence();
+        private final Basket basket = new Basket();
+
+        private long lineNumber;
+        private long basketsPriced;
+        private long linesRejected;
+
+        Run(final FileChannel outputChannel) {
+            this.output = new ReceiptTextWriter(outputChannel);
+        }
+
+        BatchSummary process(final FileChannel inputChannel) throws IOException {
+            new MappedLineReader(windowSize).readLines(inputChannel, this::processLine);
+            output.flush();
+            return BatchSummary.builder().basketsPriced(basketsPriced).linesRejected(linesRejected).build();
+        }
+
+        private void processLine(final ByteBuffer window, final int start, final int end) throws IOException {
+            lineNumber++;
+
+            final Receipt receipt;
+            try {
+                basket.clear();
+                parser.retrieveBasket(line.wrap(window, start, end), basket);
+                receipt = receiptGenerator.generateReceipt(basket);
+            } catch (IllegalArgumentException e) {
+                reject(e.getMessage());
+                return;
+            } catch (RuntimeException e) {
+                reject(UNABLE_TO_PRICE);
+                return;
+            }
+
+            basketsPriced++;
+            output.write(receipt);
+            output.write(ReceiptTextWriter.RECEIPT_SEPARATOR);
+        }
+
+        private void reject(final String reason) throws IOException {
+            linesRejected++;
+            output.write("Line " + lineNumber + ": " + reason);
+            output.write(ReceiptTextWriter.RECEIPT_SEPARATOR);
+        }
+    }
+}
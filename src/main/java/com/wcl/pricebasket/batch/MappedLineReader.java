@@ -0,0 +1,77 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.batch;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads the lines of a file by memory mapping it a window at a time, handing each line to a handler as a region of
+ * the mapped bytes, without any trailing carriage return.  A partial line at the end of a window is mapped again at
+ * the start of the next, and the window grows should a single line not fit.
+ */
+final class MappedLineReader {
+    /* Receives each line of the file in turn. */
+    interface LineHandler {
+        /* Handles the line between start (inclusive) and end (exclusive) of the window. */
+        void handleLine(ByteBuffer window, int start, int end) throws IOException;
+    }
+
+    private final int windowSize;
+
+    MappedLineReader(final int windowSize) {
+        this.windowSize = windowSize;
+    }
+
+    /* Hands every line of the file to the handler, in order. */
+    void readLines(final FileChannel inputChannel, final LineHandler handler) throws IOException {
+        final long size = inputChannel.size();
+        long windowStart = 0;
+        int currentWindowSize = windowSize;
+
+        while (windowStart < size) {
+            final long windowEnd = Math.min(size, windowStart + currentWindowSize);
+            final MappedByteBuffer window = inputChannel.map(FileChannel.MapMode.READ_ONLY, windowStart,
+                                                             windowEnd - windowStart);
+            final int consumed = readLines(window, windowEnd == size, handler);
+
+            if (consumed == 0) {
+                // A single line is longer than the window; map more of it next time.
+                currentWindowSize = (int) Math.min(Integer.MAX_VALUE, currentWindowSize * 2L);
+            }
+            windowStart += consumed;
+        }
+    }
+
+    /*
+     * Handles the complete lines within the window, returning the number of bytes consumed.  A partial line at the
+     * end of the window is left for the next window, unless the window reaches the end of the file.
+     */
+    private static int readLines(final ByteBuffer window, final boolean endOfInput, final LineHandler handler)
+            throws IOException {
+        final int limit = window.limit();
+        int lineStart = 0;
+
+        for (int i = 0; i < limit; i++) {
+            if (window.get(i) == '\n') {
+                handleLine(window, lineStart, i, handler);
+                lineStart = i + 1;
+            }
+        }
+        if (endOfInput && lineStart < limit) {
+            handleLine(window, lineStart, limit, handler);
+            lineStart = limit;
+        }
+        return lineStart;
+    }
+
+    private static void handleLine(final ByteBuffer window, final int start, final int end, final LineHandler handler)
+            throws IOException {
+        final int lineEnd = end > start && window.get(end - 1) == '\r' ? end - 1 : end;
+        handler.handleLine(window, start, lineEnd);
+    }
+}
@@ -0,0 +1,282 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.batch;
+
+import com.wcl.pricebasket.entities.Basket;
+import com.wcl.pricebasket.parser.PricebasketParser;
+import com.wcl.pricebasket.receipt.BasketPricer;
+import com.wcl.pricebasket.receipt.Receipt;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Prices a file of baskets as the {@link FileBatchProcessor} does, writing the same receipts, but with the work split
+ * into four stages, each on a thread of its own :-
+ * <ol>
+ *     <li>reading, which splits the mapped input into lines;</li>
+ *     <li>parsing, which matches the product names and counts them into a basket;</li>
+ *     <li>pricing, which evaluates the offers and generates the receipt;</li>
+ *     <li>rendering, which formats the receipt and writes it out.</li>
+ * </ol>
+ * Neighbouring stages are connected by {@link SpscRingBuffer}s of preallocated slots, so a line's bytes are copied
+ * once and its basket reused, and nothing but the receipt itself is allocated per line.  Each stage handles every line
+ * in turn, so the receipts are written in the order of the input.  A stage that gets ahead fills its ring and waits,
+ * which bounds the work in flight however uneven the stages are.
+ *
+ * This is worth having when there are cores to spare for each stage; on fewer cores the stages take turns, and the
+ * handoffs make it slower than the single threaded processor.
+ *
+ * A line that cannot be parsed or priced, for whatever reason, is reported in place of its receipt, as with the
+ * {@link FileBatchProcessor}.  Should any stage fail, the others are stopped and the failure is thrown from
+ * {@link #process(Path, Path)}.
+ */
+public final class PipelinedBatchProcessor {
+    /** The amount of the input mapped at once. */
+    private static final int WINDOW_SIZE = 64 * 1024 * 1024;
+    /** The number of lines that may be in flight between each pair of stages. */
+    private static final int RING_CAPACITY = 1024;
+    private static final int INITIAL_LINE_CAPACITY = 256;
+
+    private final PricebasketParser parser;
+    private final BasketPricer receiptGenerator;
+    private final int windowSize;
+    private final int ringCapacity;
+
+    public PipelinedBatchProcessor(final PricebasketParser parser, final BasketPricer receiptGenerator) {
+        this(parser, receiptGenerator, WINDOW_SIZE, RING_CAPACITY);
+    }
+
+    /* Allows tests to use windows small enough for lines to cross them, and rings small enough to fill. */
+    PipelinedBatchProcessor(final PricebasketParser parser, final BasketPricer receiptGenerator,
+                            final int windowSize, final int ringCapacity) {
+        this.parser = parser;
+        this.receiptGenerator = receiptGenerator;
+        this.windowSize = windowSize;
+        this.ringCapacity = ringCapacity;
+    }
+
+    /**
+     * Prices every basket within the input file, writing the receipts to the output file, which is replaced if it
+     * already exists.
+     *
+     * @param input  the file of baskets, one per line
+     * @param output  the file to write the receipts to
+     * @return a summary of the baskets priced and lines rejected
+     * @throws IOException if either file cannot be read or written, or the calling thread is interrupted
+     */
+    public BatchSummary process(final Path input, final Path output) throws IOException {
+        try (FileChannel inputChannel = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel outputChannel = FileChannel.open(output, StandardOpenOption.CREATE,
+                                                          StandardOpenOption.TRUNCATE_EXISTING,
+                                                          StandardOpenOption.WRITE)) {
+            return new Run(inputChannel, outputChannel).process();
+        }
+    }
+
+    /* The body of a stage. */
+    private interface Stage {
+        void run() throws IOException, InterruptedException;
+    }
+
+    /* A line copied out of the mapped input, or the end of the input. */
+    private static final class LineSlot {
+        private byte[] bytes = new byte[INITIAL_LINE_CAPACITY];
+        private ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        private int length;
+        private boolean endOfInput;
+
+        void copy(final ByteBuffer window, final int start, final int end) {
+            length = end - start;
+            if (length > bytes.length) {
+                bytes = new byte[Math.max(length, bytes.length * 2)];
+                buffer = ByteBuffer.wrap(bytes);
+            }
+            for (int i = 0; i < length; i++) {
+                bytes[i] = window.get(start + i);
+            }
+            endOfInput = false;
+        }
+    }
+
+    /* A parsed basket, or the reason its line could not be parsed. */
+    private static final class BasketSlot {
+        private final Basket basket = new Basket();
+        private String error;
+        private boolean endOfInput;
+    }
+
+    /* A priced receipt, or the reason its line could not be priced. */
+    private static final class ReceiptSlot {
+        private Receipt receipt;
+        private String error;
+        private boolean endOfInput;
+    }
+
+    /* The state of a single run, so that the processor itself can be shared. */
+    private final class Run {
+        private final FileChannel inputChannel;
+        private final FileChannel outputChannel;
+        private final SpscRingBuffer<LineSlot> lines = new SpscRingBuffer<>(ringCapacity, LineSlot::new);
+        private final SpscRingBuffer<BasketSlot> baskets = new SpscRingBuffer<>(ringCapacity, BasketSlot::new);
+        private final SpscRingBuffer<ReceiptSlot> receipts = new SpscRingBuffer<>(ringCapacity, ReceiptSlot::new);
+        private final List<Thread> stages = new ArrayList<>();
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        /* Written by the rendering stage, and read once it has been joined. */
+        private long basketsPriced;
+        private long linesRejected;
+
+        Run(final FileChannel inputChannel, final FileChannel outputChannel) {
+            this.inputChannel = inputChannel;
+            this.outputChannel = outputChannel;
+        }
+
+        BatchSummary process() throws IOException {
+            addStage("batch-reader", this::read);
+            addStage("batch-parser", this::parse);
+            addStage("batch-pricer", this::price);
+            addStage("batch-renderer", this::render);
+            stages.forEach(Thread::start);
+
+            try {
+                for (final Thread stage : stages) {
+                    stage.join();
+                }
+            } catch (InterruptedException e) {
+                cancel();
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while pricing the batch.");
+            }
+
+            final Throwable cause = failure.get();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            return BatchSummary.builder().basketsPriced(basketsPriced).linesRejected(linesRejected).build();
+        }
+
+        /* Creates the thread for a stage, stopping every stage should it fail. */
+        private void addStage(final String name, final Stage body) {
+            final Thread stage = new Thread(() -> {
+                try {
+                    body.run();
+                } catch (InterruptedException e) {
+                    // Stopped because another stage failed.
+                } catch (Throwable e) {
+                    if (failure.compareAndSet(null, e)) {
+                        cancel();
+                    }
+                }
+            }, name);
+            stage.setDaemon(true);
+            stages.add(stage);
+        }
+
+        private void cancel() {
+            stages.forEach(Thread::interrupt);
+        }
+
+        private void read() throws IOException, InterruptedException {
+            new MappedLineReader(windowSize).readLines(inputChannel, (window, start, end) -> {
+                try {
+                    lines.claim().copy(window, start, end);
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException("Stopped reading the batch.");
+                }
+                lines.publish();
+            });
+            lines.claim().endOfInput = true;
+            lines.publish();
+        }
+
+        private void parse() throws InterruptedException {
+            final Utf8ByteSequence text = new Utf8ByteSequence();
+            boolean endOfInput = false;
+
+            while (!endOfInput) {
+                final LineSlot line = lines.take();
+                final BasketSlot slot = baskets.claim();
+                endOfInput = line.endOfInput;
+                slot.endOfInput = endOfInput;
+                slot.error = null;
+                if (!endOfInput) {
+                    slot.basket.clear();
+                    try {
+                        parser.retrieveBasket(text.wrap(line.buffer, 0, line.length), slot.basket);
+                    } catch (IllegalArgumentException e) {
+                        slot.error = e.getMessage();
+                    } catch (RuntimeException e) {
+                        slot.error = FileBatchProcessor.UNABLE_TO_PRICE;
+                    }
+                }
+                lines.release();
+                baskets.publish();
+            }
+        }
+
+        private void price() throws InterruptedException {
+            boolean endOfInput = false;
+
+            while (!endOfInput) {
+                final BasketSlot basket = baskets.take();
+                final ReceiptSlot slot = receipts.claim();
+                endOfInput = basket.endOfInput;
+                slot.endOfInput = endOfInput;
+                slot.error = basket.error;
+                slot.receipt = null;
+                if (!endOfInput && slot.error == null) {
+                    try {
+                        slot.receipt = receiptGenerator.generateReceipt(basket.basket);
+                    } catch (IllegalArgumentException e) {
+                        slot.error = e.getMessage();
+                    } catch (RuntimeException e) {
+                        slot.error = FileBatchProcessor.UNABLE_TO_PRICE;
+                    }
+                }
+                baskets.release();
+                receipts.publish();
+            }
+        }
+
+        private void render() throws IOException, InterruptedException {
+            final ReceiptTextWriter output = new ReceiptTextWriter(outputChannel);
+            long lineNumber = 0;
+
+            while (true) {
+                final ReceiptSlot slot = receipts.take();
+                if (slot.endOfInput) {
+                    receipts.release();
+                    break;
+                }
+
+                lineNumber++;
+                if (slot.error != null) {
+                    linesRejected++;
+                    output.write("Line " + lineNumber + ": " + slot.error);
+                } else {
+                    basketsPriced++;
+                    output.write(slot.receipt);
+                    // Let the receipt go rather than hold it until the slot comes round again.
+                    slot.receipt = null;
+                }
+                output.write(ReceiptTextWriter.RECEIPT_SEPARATOR);
+                receipts.release();
+            }
+            output.flush();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.batch;
+
+import com.wcl.pricebasket.receipt.Receipt;
+import com.wcl.pricebasket.receipt.ReceiptRenderer;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes receipts and messages to a channel as UTF-8 text.  Receipts are rendered straight into a large buffer that
+ * is written to the channel whenever it fills, so nothing is written until the buffer fills or is flushed.
+ */
+final class ReceiptTextWriter {
+    /** Follows each receipt, leaving a blank line between them. */
+    static final String RECEIPT_SEPARATOR = System.lineSeparator() + System.lineSeparator();
+    private static final int OUTPUT_BUFFER_SIZE = 1024 * 1024;
+
+    private final WritableByteChannel outputChannel;
+    private final ByteBuffer outputBuffer = ByteBuffer.allocateDirect(OUTPUT_BUFFER_SIZE);
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private final ReceiptRenderer renderer = new ReceiptRenderer();
+
+    ReceiptTextWriter(final WritableByteChannel outputChannel) {
+        this.outputChannel = outputChannel;
+    }
+
+    /* Renders the receipt straight into the output buffer, making room for it first if need be. */
+    void write(final Receipt receipt) throws IOException {
+        final int start = outputBuffer.position();
+        try {
+            renderer.render(receipt, outputBuffer);
+            return;
+        } catch (BufferOverflowException e) {
+            outputBuffer.position(start);
+        }
+
+        flush();
+        try {
+            renderer.render(receipt, outputBuffer);
+        } catch (BufferOverflowException e) {
+            // Larger than the whole buffer, so encode it in pieces.
+            outputBuffer.clear();
+            write(renderer.render(receipt, new StringBuilder()).toString());
+        }
+    }
+
+    void write(final String text) throws IOException {
+        final CharBuffer characters = CharBuffer.wrap(text);
+        CoderResult result;
+        while ((result = encoder.encode(characters, outputBuffer, true)).isOverflow()) {
+            flush();
+        }
+        if (result.isError()) {
+            result.throwException();
+        }
+    }
+
+    void flush() throws IOException {
+        outputBuffer.flip();
+        while (outputBuffer.hasRemaining()) {
+            outputChannel.write(outputBuffer);
+        }
+        outputBuffer.clear();
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.batch;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * A bounded ring of preallocated slots passed from a single producer thread to a single consumer thread.
+ *
+ * Rather than handing objects across, the producer claims the next free slot, fills it in place and publishes it;
+ * the consumer takes the oldest published slot, reads it and releases it for reuse.  Nothing is allocated once the
+ * ring is built, and no locks are taken: each side advances its own sequence with an ordered write, and reads the
+ * other side's sequence only when its cached copy says the ring is full or empty.
+ *
+ * A producer finding the ring full waits for the consumer, which holds a fast stage back to the pace of a slow one
+ * with no more than the capacity of the ring in between.  Waiting spins briefly, then yields, then parks, so an idle
+ * stage gives up its core.  A waiting thread that is interrupted throws {@link InterruptedException}.
+ *
+ * A slot must not be touched once published, by the producer, or released, by the consumer.
+ *
+ * @param <T>  the type of the slots
+ */
+final class SpscRingBuffer<T> {
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 200;
+    private static final long PARK_NANOS = 50_000L;
+
+    private final Object[] slots;
+    private final int mask;
+    /** The number of slots published by the producer. */
+    private final AtomicLong published = new AtomicLong();
+    /** The number of slots released by the consumer. */
+    private final AtomicLong released = new AtomicLong();
+
+    /* Written and read by the producer only. */
+    private long producerSequence;
+    private long cachedReleased;
+    /* Written and read by the consumer only. */
+    private long consumerSequence;
+    private long cachedPublished;
+
+    /* Creates a ring of the capacity supplied, a power of two, filling every slot from the factory. */
+    SpscRingBuffer(final int capacity, final Supplier<T> slotFactory) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException(String.format("Invalid ring buffer capacity %d.", capacity));
+        }
+        slots = new Object[capacity];
+        mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = slotFactory.get();
+        }
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+
+    /* Returns the next free slot for the producer to fill, waiting while the ring is full. */
+    @SuppressWarnings("unchecked")
+    T claim() throws InterruptedException {
+        if (producerSequence - cachedReleased == slots.length) {
+            int tries = 0;
+            while (producerSequence - (cachedReleased = released.get()) == slots.length) {
+                tries = idle(tries);
+            }
+        }
+        return (T) slots[(int) producerSequence & mask];
+    }
+
+    /* Hands the claimed slot to the consumer. */
+    void publish() {
+        published.lazySet(++producerSequence);
+    }
+
+    /* Returns the oldest published slot for the consumer to read, waiting while the ring is empty. */
+    @SuppressWarnings("unchecked")
+    T take() throws InterruptedException {
+        if (consumerSequence == cachedPublished) {
+            int tries = 0;
+            while (consumerSequence == (cachedPublished = published.get())) {
+                tries = idle(tries);
+            }
+        }
+        return (T) slots[(int) consumerSequence & mask];
+    }
+
+    /* Hands the taken slot back to the producer for reuse. */
+    void release() {
+        released.lazySet(++consumerSequence);
+    }
+
+    /* Backs off a little further on each try, returning the number of tries so far. */
+    private static int idle(final int tries) throws InterruptedException {
+        if (tries < SPIN_TRIES) {
+            // Busy wait; the other side is most likely just about to move.
+        } else if (tries < YIELD_TRIES) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        return tries + 1;
+    }
+}
@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.batch;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A character sequence reading UTF-8 text out of a region of a byte buffer, so that lines of a mapped file can be
+ * parsed without first being decoded into Strings.
+ *
+ * A region holding only ASCII, as most lines do, is read straight from the buffer a byte per character.  A region
+ * holding any other byte, such as a product name like "Crème" written by the --generate option, is decoded once into
+ * a character array kept for reuse, with malformed bytes replaced.  The region can be moved, so that one instance is
+ * reused for every line of a file.
+ */
+final class Utf8ByteSequence implements CharSequence {
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                                                                 .onMalformedInput(CodingErrorAction.REPLACE)
+                                                                 .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private ByteBuffer buffer;
+    private int start;
+    private int length;
+    /** Whether the region holds a byte outside ASCII, so its characters are read from the decoded array. */
+    private boolean decoded;
+    private char[] characters = new char[0];
+
+    /* Points this sequence at the bytes between start (inclusive) and end (exclusive) of the buffer. */
+    Utf8ByteSequence wrap(final ByteBuffer buffer, final int start, final int end) {
+        this.buffer = buffer;
+        this.start = start;
+        this.length = end - start;
+        this.decoded = false;
+        for (int i = start; i < end; i++) {
+            if (buffer.get(i) < 0) {
+                decode(end);
+                break;
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(final int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException(String.valueOf(index));
+        }
+        return decoded ? characters[index] : (char) buffer.get(start + index);
+    }
+
+    @Override
+    public CharSequence subSequence(final int subSequenceStart, final int subSequenceEnd) {
+        return toString().subSequence(subSequenceStart, subSequenceEnd);
+    }
+
+    @Override
+    public String toString() {
+        if (decoded) {
+            return new String(characters, 0, length);
+        }
+        final byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(start + i);
+        }
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    /* Decodes the region into the character array, which UTF-8 never needs more characters than bytes to fill. */
+    private void decode(final int end) {
+        if (characters.length < length) {
+            characters = new char[length];
+        }
+        final ByteBuffer bytes = buffer.duplicate();
+        bytes.limit(end);
+        bytes.position(start);
+        final CharBuffer output = CharBuffer.wrap(characters);
+        decoder.reset();
+        decoder.decode(bytes, output, true);
+        decoder.flush(output);
+        length = output.position();
+        decoded = true;
+    }
+}
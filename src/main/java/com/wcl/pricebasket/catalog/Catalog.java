@@ -0,0 +1,69 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.catalog;
+
+/**
+ * A catalog of the products available to buy, along with their prices.
+ *
+ * Products are identified by an id running from zero to the size of the catalog (exclusive); these ids are used to
+ * index the quantities held within a {@link com.wcl.pricebasket.entities.Basket}.
+ *
+ * Implementations may change over time, for example when a new price list is loaded.  Callers that need a
+ * consistent view across several calls, such as when pricing a single basket, should work from {@link #snapshot()}.
+ */
+public interface Catalog {
+    /** Returned by {@link #findProductId(CharSequence, int, int)} when no product has the name supplied. */
+    int NOT_FOUND = -1;
+
+    /**
+     * Returns the number of products within the catalog.
+     *
+     * @return the number of products
+     */
+    int size();
+
+    /**
+     * Returns the name of the product with the given id.
+     *
+     * @param productId  the id of the product
+     * @return the product name
+     */
+    String getProductName(int productId);
+
+    /**
+     * Returns the cost per unit, in pence, of the product with the given id.
+     *
+     * @param productId  the id of the product
+     * @return the cost per unit in pence
+     */
+    long getCostPerUnitInPence(int productId);
+
+    /**
+     * Returns the id of the product whose name matches, ignoring case, the characters between start (inclusive)
+     * and end (exclusive) of the text supplied.
+     *
+     * @param text  the text containing the name
+     * @param start  the position of the first character of the name
+     * @param end  the position after the last character of the name
+     * @return the id of the product, or {@link #NOT_FOUND}
+     */
+    int findProductId(CharSequence text, int start, int end);
+
+    /**
+     * Returns the version of the catalog contents; this changes whenever products or prices change.
+     *
+     * @return the catalog version
+     */
+    long getVersion();
+
+    /**
+     * Returns a view of the catalog that will not change while it is in use.
+     *
+     * @return the current catalog contents
+     */
+    default Catalog snapshot() {
+        return this;
+    }
+}
@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.catalog;
+
+import com.wcl.pricebasket.entities.ProductNameIndex;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A catalog read from a compact binary file that is memory mapped, rather than loaded onto the heap.
+ *
+ * Product names, prices and the name lookup table all stay within the mapped file, so catalogs of hundreds of
+ * thousands of products add next to nothing to the heap and need no parsing on load.  Files are written by
+ * {@link MappedCatalogWriter}; the layout, with all values big endian, is :-
+ * <ul>
+ *     <li>header - magic number, format version, catalog version (long), product count, lookup table size</li>
+ *     <li>lookup table - open addressing hash table of product id plus one, zero for an empty slot, hashed with
+ *     {@link ProductNameIndex#hash(CharSequence, int, int)}</li>
+ *     <li>products - per product id, the cost per unit in pence (long), the offset and the length of its name</li>
+ *     <li>names - ISO-8859-1 encoded product names</li>
+ * </ul>
+ *
+ * Instances are immutable and thread safe.
+ */
+public final class MappedCatalog implements Catalog {
+    static final int MAGIC = 0x50424354;
+    static final int FORMAT_VERSION = 1;
+
+    static final int VERSION_OFFSET = 8;
+    static final int PRODUCT_COUNT_OFFSET = 16;
+    static final int TABLE_SIZE_OFFSET = 20;
+    static final int HEADER_SIZE = 24;
+    static final int PRODUCT_RECORD_SIZE = 16;
+
+    private final ByteBuffer buffer;
+    private final long version;
+    private final int size;
+    private final int mask;
+    private final int productsOffset;
+
+    private MappedCatalog(final ByteBuffer buffer) {
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a product catalog file.");
+        }
+        if (buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IllegalArgumentException(String.format("Unsupported catalog format %d.", buffer.getInt(4)));
+        }
+
+        this.buffer = buffer;
+        this.version = buffer.getLong(VERSION_OFFSET);
+        this.size = buffer.getInt(PRODUCT_COUNT_OFFSET);
+
+        final int tableSize = buffer.getInt(TABLE_SIZE_OFFSET);
+        this.mask = tableSize - 1;
+        this.productsOffset = HEADER_SIZE + tableSize * Integer.BYTES;
+
+        if (Integer.bitCount(tableSize) != 1 || productsOffset + (long) size * PRODUCT_RECORD_SIZE > buffer.limit()) {
+            throw new IllegalArgumentException("Product catalog file is corrupt.");
+        }
+    }
+
+    /**
+     * Memory maps the catalog file at the path supplied.
+     *
+     * The file must not be modified while mapped; new versions of a catalog should be written to a new file, or
+     * moved into place, as {@link MappedCatalogWriter} does.
+     *
+     * @param path  the location of the catalog file
+     * @return the mapped catalog
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file is not a valid catalog
+     */
+    public static MappedCatalog open(final Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new MappedCatalog(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String getProductName(final int productId) {
+        final byte[] name = new byte[nameLength(productId)];
+        final int nameOffset = nameOffset(productId);
+        for (int i = 0; i < name.length; i++) {
+            name[i] = buffer.get(nameOffset + i);
+        }
+        return new String(name, StandardCharsets.ISO_8859_1);
+    }
+
+    @Override
+    public long getCostPerUnitInPence(final int productId) {
+        return buffer.getLong(productRecord(productId));
+    }
+
+    @Override
+    public int findProductId(final CharSequence text, final int start, final int end) {
+        int slot = ProductNameIndex.hash(text, start, end) & mask;
+        int entry;
+
+        while ((entry = buffer.getInt(HEADER_SIZE + slot * Integer.BYTES)) != 0) {
+            if (nameMatches(entry - 1, text, start, end)) {
+                return entry - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NOT_FOUND;
+    }
+
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    /* Compares the name of the product with a region of text, ignoring case. */
+    private boolean nameMatches(final int productId, final CharSequence text, final int start, final int end) {
+        final int length = nameLength(productId);
+        if (length != end - start) {
+            return false;
+        }
+
+        final int nameOffset = nameOffset(productId);
+        for (int i = 0; i < length; i++) {
+            final char expected = (char) (buffer.get(nameOffset + i) & 0xFF);
+            final char actual = text.charAt(start + i);
+            if (expected != actual && ProductNameIndex.fold(expected) != ProductNameIndex.fold(actual)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int productRecord(final int productId) {
+        if (productId < 0 || productId >= size) {
+            throw new IndexOutOfBoundsException(String.format("No product with id %d.", productId));
+        }
+        return productsOffset + productId * PRODUCT_RECORD_SIZE;
+    }
+
+    private int nameOffset(final int productId) {
+        return buffer.getInt(productRecord(productId) + Long.BYTES);
+    }
+
+    private int nameLength(final int productId) {
+        return buffer.getInt(productRecord(productId) + Long.BYTES + Integer.BYTES);
+    }
+}
@@ -0,0 +1,135 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.catalog;
+
+import com.wcl.pricebasket.entities.ProductNameIndex;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes catalog files in the format read by {@link MappedCatalog}.
+ *
+ * Products are given ids in the order they are added.  The file is written alongside the target and then moved into
+ * place, so a catalog that is already mapped from the target path is never modified underneath its readers.
+ */
+public final class MappedCatalogWriter {
+    private final List<String> names = new ArrayList<>();
+    private final List<Long> costsPerUnitInPence = new ArrayList<>();
+
+    /**
+     * Adds a product to the catalog being written.
+     *
+     * @param productName  the name of the product; must not contain whitespace and must be ISO-8859-1 encodable
+     * @param costPerUnitInPence  the cost per unit of the product, in pence
+     * @return this writer
+     * @throws IllegalArgumentException if the product name is invalid
+     */
+    public MappedCatalogWriter addProduct(final String productName, final long costPerUnitInPence) {
+        validateProductName(productName);
+        names.add(productName);
+        costsPerUnitInPence.add(costPerUnitInPence);
+        return this;
+    }
+
+    /**
+     * Writes the products added to the file at the path supplied, replacing any existing file.
+     *
+     * @param path  the location of the catalog file
+     * @param version  the version of the catalog contents
+     * @throws IOException if the file cannot be written
+     * @throws IllegalArgumentException if two products have the same name, ignoring case
+     */
+    public void writeTo(final Path path, final long version) throws IOException {
+        final ByteBuffer contents = encode(version);
+        final Path temporaryFile = path.resolveSibling(path.getFileName() + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.CREATE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (contents.hasRemaining()) {
+                channel.write(contents);
+            }
+            channel.force(true);
+        }
+        Files.move(temporaryFile, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /* Lays out the catalog contents, as described by MappedCatalog. */
+    private ByteBuffer encode(final long version) {
+        final String[] productNames = names.toArray(new String[0]);
+        // Rejects names that are duplicated, ignoring case.
+        new ProductNameIndex(productNames);
+
+        final int tableSize = tableSizeFor(productNames.length);
+        final int productsOffset = MappedCatalog.HEADER_SIZE + tableSize * Integer.BYTES;
+        final int namesOffset = productsOffset + productNames.length * MappedCatalog.PRODUCT_RECORD_SIZE;
+        int fileSize = namesOffset;
+        for (final String name : productNames) {
+            fileSize += name.length();
+        }
+
+        final ByteBuffer contents = ByteBuffer.allocate(fileSize);
+        contents.putInt(MappedCatalog.MAGIC)
+                .putInt(MappedCatalog.FORMAT_VERSION)
+                .putLong(version)
+                .putInt(productNames.length)
+                .putInt(tableSize);
+
+        int nameOffset = namesOffset;
+        for (int productId = 0; productId < productNames.length; productId++) {
+            final String name = productNames[productId];
+
+            int slot = ProductNameIndex.hash(name, 0, name.length()) & (tableSize - 1);
+            while (contents.getInt(MappedCatalog.HEADER_SIZE + slot * Integer.BYTES) != 0) {
+                slot = (slot + 1) & (tableSize - 1);
+            }
+            contents.putInt(MappedCatalog.HEADER_SIZE + slot * Integer.BYTES, productId + 1);
+
+            final int record = productsOffset + productId * MappedCatalog.PRODUCT_RECORD_SIZE;
+            contents.putLong(record, costsPerUnitInPence.get(productId))
+                    .putInt(record + Long.BYTES, nameOffset)
+                    .putInt(record + Long.BYTES + Integer.BYTES, name.length());
+
+            for (int i = 0; i < name.length(); i++) {
+                contents.put(nameOffset + i, (byte) name.charAt(i));
+            }
+            nameOffset += name.length();
+        }
+
+        contents.clear();
+        return contents;
+    }
+
+    private static void validateProductName(final String productName) {
+        if (productName == null || productName.isEmpty()) {
+            throw new IllegalArgumentException("Product name must not be blank.");
+        }
+        final CharsetEncoder encoder = StandardCharsets.ISO_8859_1.newEncoder();
+        for (int i = 0; i < productName.length(); i++) {
+            final char character = productName.charAt(i);
+            if (Character.isWhitespace(character) || !encoder.canEncode(character)) {
+                throw new IllegalArgumentException(String.format("Invalid product name %s.", productName));
+            }
+        }
+    }
+
+    /* Keeps the table at most half full, so that probe sequences stay short. */
+    private static int tableSizeFor(final int numberOfNames) {
+        int size = 2;
+        while (size < numberOfNames * 2) {
+            size <<= 1;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,50 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.catalog;
+
+import com.wcl.pricebasket.entities.Product;
+import com.wcl.pricebasket.entities.ProductNameIndex;
+
+import java.util.Arrays;
+
+/**
+ * The built in catalog of the products defined by {@link Product}, where the id of each product is its ordinal.
+ */
+public final class ProductCatalog implements Catalog {
+    private static final Product[] PRODUCTS = Product.values();
+
+    /** The single instance of the built in catalog. */
+    public static final ProductCatalog INSTANCE = new ProductCatalog();
+
+    private final ProductNameIndex nameIndex = new ProductNameIndex(
+            Arrays.stream(PRODUCTS).map(Product::getProductName).toArray(String[]::new));
+
+    private ProductCatalog() {}
+
+    @Override
+    public int size() {
+        return PRODUCTS.length;
+    }
+
+    @Override
+    public String getProductName(final int productId) {
+        return PRODUCTS[productId].getProductName();
+    }
+
+    @Override
+    public long getCostPerUnitInPence(final int productId) {
+        return PRODUCTS[productId].getCostPerUnitInPence();
+    }
+
+    @Override
+    public int findProductId(final CharSequence text, final int start, final int end) {
+        return nameIndex.findId(text, start, end);
+    }
+
+    @Override
+    public long getVersion() {
+        return 0L;
+    }
+}
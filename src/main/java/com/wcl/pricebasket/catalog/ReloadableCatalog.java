@@ -0,0 +1,77 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.catalog;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A catalog whose contents can be replaced while it is in use.
+ *
+ * The current contents are published through an atomic reference, so a new version is swapped in all at once and
+ * readers never block.  Pricing a basket should work from {@link #snapshot()}, so that every product in the basket
+ * is priced from the same version even if a reload happens part way through.
+ */
+public final class ReloadableCatalog implements Catalog {
+    private final AtomicReference<Catalog> current;
+
+    public ReloadableCatalog(final Catalog initialCatalog) {
+        current = new AtomicReference<>(initialCatalog.snapshot());
+    }
+
+    /**
+     * Memory maps the catalog file at the path supplied and swaps it in as the current catalog.
+     *
+     * @param path  the location of the catalog file
+     * @return the newly loaded catalog
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file is not a valid catalog
+     */
+    public Catalog reload(final Path path) throws IOException {
+        final Catalog catalog = MappedCatalog.open(path);
+        current.set(catalog);
+        return catalog;
+    }
+
+    /**
+     * Swaps in the catalog supplied as the current catalog.
+     *
+     * @param catalog  the new catalog contents
+     */
+    public void replace(final Catalog catalog) {
+        current.set(catalog.snapshot());
+    }
+
+    @Override
+    public Catalog snapshot() {
+        return current.get();
+    }
+
+    @Override
+    public int size() {
+        return current.get().size();
+    }
+
+    @Override
+    public String getProductName(final int productId) {
+        return current.get().getProductName(productId);
+    }
+
+    @Override
+    public long getCostPerUnitInPence(final int productId) {
+        return current.get().getCostPerUnitInPence(productId);
+    }
+
+    @Override
+    public int findProductId(final CharSequence text, final int start, final int end) {
+        return current.get().findProductId(text, start, end);
+    }
+
+    @Override
+    public long getVersion() {
+        return current.get().getVersion();
+    }
+}
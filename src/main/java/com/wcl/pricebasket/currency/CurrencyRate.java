@@ -0,0 +1,99 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.currency;
+
+import org.javamoney.moneta.Money;
+
+import javax.money.CurrencyUnit;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * The rate at which pence convert into the minor units of another currency, such as euro or dollar cents.
+ *
+ * The currency unit is resolved and the rate scaled to millionths when the rate is created, so converting an amount
+ * is a single long multiplication and creating a {@link Money} needs no lookups.  Instances are immutable and thread
+ * safe, and are obtained from an {@link ExchangeRateSnapshot}.
+ */
+public final class CurrencyRate {
+    static final int MINOR_UNIT_SCALE = 2;
+
+    private static final int RATE_SCALE = 6;
+    private static final long RATE_DENOMINATOR = 1_000_000L;
+
+    private final CurrencyUnit currency;
+    private final BigDecimal rate;
+    private final long rateInMillionths;
+
+    CurrencyRate(final CurrencyUnit currency, final BigDecimal rate) {
+        this.currency = currency;
+        this.rate = rate.setScale(RATE_SCALE, RoundingMode.HALF_UP);
+        this.rateInMillionths = this.rate.unscaledValue().longValueExact();
+    }
+
+    /**
+     * Returns the currency amounts are converted into.
+     *
+     * @return the currency unit
+     */
+    public CurrencyUnit getCurrency() {
+        return currency;
+    }
+
+    /**
+     * Returns the number of units of the currency to the pound, to six decimal places.
+     *
+     * @return the rate
+     */
+    public BigDecimal getRate() {
+        return rate;
+    }
+
+    /**
+     * Converts an amount of pence into the minor units of the currency, rounding half away from zero.
+     *
+     * @param pence  the amount in pence
+     * @return the amount in the currency's minor units
+     */
+    public long convertPence(final long pence) {
+        if (rateInMillionths == RATE_DENOMINATOR) {
+            return pence;
+        }
+        try {
+            // Adding half away from zero before truncating rounds half up, as BigDecimal does.
+            final long scaled = Math.multiplyExact(pence, rateInMillionths);
+            return Math.addExact(scaled, scaled < 0 ? -RATE_DENOMINATOR / 2 : RATE_DENOMINATOR / 2) / RATE_DENOMINATOR;
+        } catch (ArithmeticException e) {
+            // The product overflows a long above about £77bn at a rate near 1.2, so real receipts never reach here.
+            return BigDecimal.valueOf(pence).multiply(rate).setScale(0, RoundingMode.HALF_UP).longValueExact();
+        }
+    }
+
+    /**
+     * Creates an amount of the currency from a number of its minor units.
+     *
+     * @param minorUnits  the amount in minor units, such as cents
+     * @return the amount
+     */
+    public Money amountFromMinorUnits(final long minorUnits) {
+        return Money.of(BigDecimal.valueOf(minorUnits, MINOR_UNIT_SCALE), currency);
+    }
+
+    /**
+     * Converts an amount of pence into an amount of the currency, rounding half away from zero to the nearest minor
+     * unit.
+     *
+     * @param pence  the amount in pence
+     * @return the converted amount
+     */
+    public Money amountFromPence(final long pence) {
+        return amountFromMinorUnits(convertPence(pence));
+    }
+
+    @Override
+    public String toString() {
+        return currency.getCurrencyCode() + ' ' + rate.toPlainString();
+    }
+}
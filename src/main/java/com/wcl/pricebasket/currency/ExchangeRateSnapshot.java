@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.currency;
+
+import javax.money.CurrencyUnit;
+import javax.money.Monetary;
+import javax.money.UnknownCurrencyException;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable set of exchange rates from pounds sterling, taken at a single point in time.
+ *
+ * Prices and offers are held in pence; stores selling in another currency convert amounts through the
+ * {@link CurrencyRate} for that currency.  Currencies are resolved and rates scaled once, when the snapshot is taken,
+ * so converting a receipt costs little more than pricing it in pounds.  New rates are taken up by creating a new
+ * snapshot, so a receipt is always converted at a single consistent set of rates.
+ *
+ * The rate for pounds sterling is always present, at one.  Only currencies with two decimal places are supported.
+ * Instances are thread safe.
+ */
+public final class ExchangeRateSnapshot {
+    private static final String GBP = "GBP";
+
+    private final Map<String, CurrencyRate> rates;
+
+    /**
+     * Takes a snapshot of the rates supplied.
+     *
+     * @param ratesPerPound  the number of units of each currency to the pound, keyed by ISO 4217 currency code
+     * @throws IllegalArgumentException if a currency is unknown or does not have two decimal places, a rate is not
+     * positive, or the rate given for pounds sterling is not one
+     */
+    public ExchangeRateSnapshot(final Map<String, BigDecimal> ratesPerPound) {
+        final Map<String, CurrencyRate> resolved = new HashMap<>();
+        resolved.put(GBP, new CurrencyRate(resolveCurrency(GBP), BigDecimal.ONE));
+
+        for (final Map.Entry<String, BigDecimal> entry : ratesPerPound.entrySet()) {
+            final String currencyCode = entry.getKey();
+            final BigDecimal rate = entry.getValue();
+            if (rate == null || rate.signum() <= 0 || GBP.equals(currencyCode) && rate.compareTo(BigDecimal.ONE) != 0) {
+                throw new IllegalArgumentException(String.format("Invalid exchange rate %s for %s.",
+                                                                 rate, currencyCode));
+            }
+            resolved.put(currencyCode, new CurrencyRate(resolveCurrency(currencyCode), rate));
+        }
+        rates = Collections.unmodifiableMap(resolved);
+    }
+
+    /**
+     * Returns the rate for the currency supplied.
+     *
+     * @param currencyCode  the ISO 4217 code of the currency
+     * @return the rate
+     * @throws IllegalArgumentException if the snapshot holds no rate for the currency
+     */
+    public CurrencyRate getRate(final String currencyCode) {
+        final CurrencyRate rate = rates.get(currencyCode);
+        if (rate == null) {
+            throw new IllegalArgumentException(String.format("No exchange rate for %s.", currencyCode));
+        }
+        return rate;
+    }
+
+    /**
+     * Returns the rate for the currency supplied.
+     *
+     * @param currency  the currency
+     * @return the rate
+     * @throws IllegalArgumentException if the snapshot holds no rate for the currency
+     */
+    public CurrencyRate getRate(final CurrencyUnit currency) {
+        return getRate(currency.getCurrencyCode());
+    }
+
+    /**
+     * Returns the codes of the currencies the snapshot holds rates for.
+     *
+     * @return the currency codes, which cannot be modified
+     */
+    public Set<String> getCurrencyCodes() {
+        return rates.keySet();
+    }
+
+    private static CurrencyUnit resolveCurrency(final String currencyCode) {
+        final CurrencyUnit currency;
+        try {
+            currency = Monetary.getCurrency(currencyCode);
+        } catch (UnknownCurrencyException e) {
+            throw new IllegalArgumentException(String.format("No such currency %s.", currencyCode), e);
+        }
+        if (currency.getDefaultFractionDigits() != CurrencyRate.MINOR_UNIT_SCALE) {
+            throw new IllegalArgumentException(String.format("Unsupported currency %s with %d decimal places.",
+                                                             currencyCode, currency.getDefaultFractionDigits()));
+        }
+        return currency;
+    }
+}
@@ -0,0 +1,336 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.entities;
+
+import com.wcl.pricebasket.catalog.Catalog;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Models a basket of shopping, holding the quantity bought of each product.
+ *
+ * Products are identified by their id within a catalog; for the built in {@link Product} catalog the id is the
+ * {@link Product#ordinal()}.  The quantities are held in a primitive array indexed by product id, so counting items
+ * and reading quantities when evaluating offers are plain array accesses with no boxing.  The array grows to fit the
+ * highest product id added.  The ids of the products bought are also tracked, so that the contents can be iterated
+ * without visiting every product in the catalog.
+ *
+ * A {@link Map} of the contents can be obtained via {@link #asMap()} for callers that need one.
+ *
+ * A basket also records the snapshot of the catalog its product ids were resolved against, so that it is priced from
+ * the same version of the catalog even if a new one is loaded in between.  The parser records the snapshot it read the
+ * products from, and a basket built by hand is tied to the catalog it is first priced from, until it is cleared.
+ *
+ * Baskets are mutable and not thread safe.
+ */
+public final class Basket {
+    private static final Product[] PRODUCTS = Product.values();
+
+    private long[] quantities;
+    private int[] productIds;
+    private int numberOfDistinctProducts;
+    /** The catalog snapshot the product ids were resolved against, null until known. */
+    private Catalog catalog;
+
+    public Basket() {
+        this(PRODUCTS.length);
+    }
+
+    /**
+     * Creates an empty basket, sized for product ids up to, but not including, the capacity supplied.
+     *
+     * @param capacity  the number of product ids to allow for
+     */
+    public Basket(final int capacity) {
+        quantities = new long[capacity];
+        productIds = new int[Math.min(capacity, PRODUCTS.length)];
+    }
+
+    /**
+     * Creates a basket from a Map of products to the quantity bought.
+     *
+     * @param items  the products and quantities
+     * @return the basket containing the supplied items
+     * @throws IllegalArgumentException if a quantity is negative
+     */
+    public static Basket of(final Map<Product, Long> items) {
+        final Basket basket = new Basket();
+        items.forEach(basket::add);
+        return basket;
+    }
+
+    /**
+     * Adds a single unit of the product to the basket.
+     *
+     * @param product  the product to add
+     */
+    public void add(final Product product) {
+        add(product.ordinal(), 1L);
+    }
+
+    /**
+     * Adds the given quantity of the product to the basket.
+     *
+     * @param product  the product to add
+     * @param quantity  the quantity to add
+     * @throws IllegalArgumentException if the quantity would leave less than none of the product in the basket, or
+     * more than a long can hold
+     * @see #add(int, long)
+     */
+    public void add(final Product product, final long quantity) {
+        add(product.ordinal(), quantity);
+    }
+
+    /**
+     * Adds a single unit of the product with the given id to the basket.
+     *
+     * @param productId  the id of the product to add
+     */
+    public void add(final int productId) {
+        add(productId, 1L);
+    }
+
+    /**
+     * Adds the given quantity of the product with the given id to the basket.  A negative quantity takes units of
+     * the product back out, down to none at all, when the product is no longer within the basket.
+     *
+     * @param productId  the id of the product to add
+     * @param quantity  the quantity to add
+     * @throws IllegalArgumentException if the product id is negative, or the quantity would leave less than none of
+     * the product in the basket or more than a long can hold; the basket is then left as it was
+     */
+    public void add(final int productId, final long quantity) {
+        if (productId < 0) {
+            throw new IllegalArgumentException(String.format("Invalid product id %d.", productId));
+        }
+        final long previousQuantity = getQuantity(productId);
+        final long newQuantity;
+        try {
+            newQuantity = Math.addExact(previousQuantity, quantity);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException(String.format("Cannot add %d of product id %d to a quantity of %d.",
+                                                             quantity, productId, previousQuantity));
+        }
+        if (newQuantity < 0) {
+            // Negated as unsigned, so that taking Long.MIN_VALUE is reported as a positive amount.
+            throw new IllegalArgumentException(String.format("Cannot take %s of product id %d from a quantity of %d.",
+                                                             Long.toUnsignedString(-quantity), productId,
+                                                             previousQuantity));
+        }
+
+        if (productId >= quantities.length) {
+            quantities = Arrays.copyOf(quantities, Math.max(productId + 1, quantities.length * 2));
+        }
+        quantities[productId] = newQuantity;
+
+        if (previousQuantity == 0 && newQuantity != 0) {
+            addProductId(productId);
+        } else if (previousQuantity != 0 && newQuantity == 0) {
+            removeProductId(productId);
+        }
+    }
+
+    /**
+     * Returns the quantity of the product within the basket, zero if it has not been bought.
+     *
+     * @param product  the product to look for
+     * @return the quantity of the product
+     */
+    public long getQuantity(final Product product) {
+        return getQuantity(product.ordinal());
+    }
+
+    /**
+     * Returns the quantity of the product with the given id within the basket, zero if it has not been bought.
+     *
+     * @param productId  the id of the product to look for
+     * @return the quantity of the product
+     */
+    public long getQuantity(final int productId) {
+        return productId < quantities.length ? quantities[productId] : 0L;
+    }
+
+    /**
+     * Returns true if at least one unit of the product is within the basket.
+     *
+     * @param product  the product to look for
+     * @return true if the product has been bought, false otherwise
+     */
+    public boolean contains(final Product product) {
+        return getQuantity(product.ordinal()) > 0;
+    }
+
+    /**
+     * Returns true if at least one unit of the product with the given id is within the basket.
+     *
+     * @param productId  the id of the product to look for
+     * @return true if the product has been bought, false otherwise
+     */
+    public boolean contains(final int productId) {
+        return getQuantity(productId) > 0;
+    }
+
+    /**
+     * Returns true if nothing has been added to the basket.
+     *
+     * @return true if the basket is empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return numberOfDistinctProducts == 0;
+    }
+
+    /**
+     * Returns the number of different products within the basket.
+     *
+     * @return the number of distinct products
+     */
+    public int getNumberOfDistinctProducts() {
+        return numberOfDistinctProducts;
+    }
+
+    /**
+     * Returns the id of one of the different products within the basket, in the order they were first added.
+     * Together with {@link #getNumberOfDistinctProducts()} this allows the contents to be iterated.
+     *
+     * @param index  the index, from zero to the number of distinct products (exclusive)
+     * @return the id of the product
+     */
+    public int getDistinctProductId(final int index) {
+        if (index >= numberOfDistinctProducts) {
+            throw new IndexOutOfBoundsException(String.valueOf(index));
+        }
+        return productIds[index];
+    }
+
+    /**
+     * Returns the snapshot of the catalog the product ids within the basket were resolved against.
+     *
+     * @return the catalog snapshot, or null if the basket has not yet been tied to a catalog
+     */
+    public Catalog getCatalog() {
+        return catalog;
+    }
+
+    /**
+     * Ties the basket to the snapshot of the catalog its product ids were resolved against, so that it is priced from
+     * that snapshot.
+     *
+     * @param catalog  the catalog snapshot
+     */
+    public void setCatalog(final Catalog catalog) {
+        this.catalog = catalog;
+    }
+
+    /**
+     * Empties the basket, so that it can be reused, and unties it from its catalog.
+     */
+    public void clear() {
+        for (int i = 0; i < numberOfDistinctProducts; i++) {
+            quantities[productIds[i]] = 0L;
+        }
+        numberOfDistinctProducts = 0;
+        catalog = null;
+    }
+
+    /**
+     * Returns a copy of this basket.
+     *
+     * @return the copied basket
+     */
+    public Basket copy() {
+        final Basket copy = new Basket(quantities.length);
+        for (int i = 0; i < numberOfDistinctProducts; i++) {
+            copy.add(productIds[i], quantities[productIds[i]]);
+        }
+        copy.catalog = catalog;
+        return copy;
+    }
+
+    /**
+     * Returns the contents of the basket as a Map of each product bought to its quantity.
+     * Products not within the basket, or ids outside of the built in {@link Product} catalog, are not present in the
+     * Map.
+     *
+     * @return the contents of the basket
+     */
+    public EnumMap<Product, Long> asMap() {
+        final EnumMap<Product, Long> items = new EnumMap<>(Product.class);
+        for (final Product product : PRODUCTS) {
+            if (contains(product)) {
+                items.put(product, getQuantity(product));
+            }
+        }
+        return items;
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof Basket)) {
+            return false;
+        }
+
+        final Basket otherBasket = (Basket) other;
+        if (numberOfDistinctProducts != otherBasket.numberOfDistinctProducts) {
+            return false;
+        }
+        for (int i = 0; i < numberOfDistinctProducts; i++) {
+            if (quantities[productIds[i]] != otherBasket.getQuantity(productIds[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns a hash of the contents, independent of the order that products were added.
+     *
+     * @return the hash code
+     */
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for (int i = 0; i < numberOfDistinctProducts; i++) {
+            hash += productIds[i] * 31 ^ Long.hashCode(quantities[productIds[i]]);
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder text = new StringBuilder("Basket{");
+        for (int i = 0; i < numberOfDistinctProducts; i++) {
+            if (i > 0) {
+                text.append(", ");
+            }
+            final int productId = productIds[i];
+            text.append(productId < PRODUCTS.length ? PRODUCTS[productId].name() : String.valueOf(productId))
+                .append('=')
+                .append(quantities[productId]);
+        }
+        return text.append('}').toString();
+    }
+
+    private void addProductId(final int productId) {
+        if (numberOfDistinctProducts == productIds.length) {
+            productIds = Arrays.copyOf(productIds, Math.max(4, productIds.length * 2));
+        }
+        productIds[numberOfDistinctProducts++] = productId;
+    }
+
+    private void removeProductId(final int productId) {
+        for (int i = 0; i < numberOfDistinctProducts; i++) {
+            if (productIds[i] == productId) {
+                System.arraycopy(productIds, i + 1, productIds, i, numberOfDistinctProducts - i - 1);
+                numberOfDistinctProducts--;
+                return;
+            }
+        }
+    }
+}
@@ -4,6 +4,9 @@
  **/
 package com.wcl.pricebasket.entities;
 
+import com.wcl.pricebasket.currency.CurrencyRate;
+import org.javamoney.moneta.Money;
+
 import java.util.Arrays;
 
 /**
@@ -14,17 +17,23 @@ import java.util.Arrays;
  * simple example then this hardcoded solution suffices.
  */
 public enum Product {
-    APPLES("Apples", 1.0f),
-    BREAD("Bread", 0.8f),
-    MILK("Milk",1.3f),
-    SOUP("Soup", 0.65f);
+    APPLES("Apples", 100),
+    BREAD("Bread", 80),
+    MILK("Milk",130),
+    SOUP("Soup", 65);
+
+    /** Cached, as values() returns a new copy of the array on every call. */
+    private static final Product[] PRODUCTS = values();
+    /** Built once on class load; product ids within the index are the ordinals. */
+    private static final ProductNameIndex NAME_INDEX = new ProductNameIndex(
+            Arrays.stream(PRODUCTS).map(Product::getProductName).toArray(String[]::new));
 
     private final String productName;
-    private final float costPerUnit;
+    private final long costPerUnitInPence;
 
-    Product(final String nameOfProduct, final float unitCost) {
+    Product(final String nameOfProduct, final long unitCostInPence) {
         productName = nameOfProduct;
-        costPerUnit = unitCost;
+        costPerUnitInPence = unitCostInPence;
     }
 
     /**
@@ -37,12 +46,33 @@ public enum Product {
     }
 
     /**
-     * Returns the cost per unit of the product.
+     * Returns the cost per unit of the product, in pounds.
      *
      * @return the cost per unit
+     * @deprecated floating point amounts are prone to rounding errors, use {@link #getCostPerUnitInPence()}
      */
+    @Deprecated
     public float getCostPerUnit() {
-        return costPerUnit;
+        return costPerUnitInPence / 100f;
+    }
+
+    /**
+     * Returns the cost per unit of the product, in pence.
+     *
+     * @return the cost per unit in pence
+     */
+    public long getCostPerUnitInPence() {
+        return costPerUnitInPence;
+    }
+
+    /**
+     * Returns the cost per unit of the product, converted into another currency.
+     *
+     * @param rate  the rate to convert at
+     * @return the cost per unit in the rate's currency
+     */
+    public Money getCostPerUnitIn(final CurrencyRate rate) {
+        return rate.amountFromPence(costPerUnitInPence);
     }
 
     /**
@@ -56,9 +86,30 @@ public enum Product {
      * @throws IllegalArgumentException thrown if no match on supplied product name
      */
     public static Product getProductByName(final String productName) {
-        return Arrays.stream(Product.values())
-                .filter(e -> e.productName.equalsIgnoreCase(productName))
-                .findFirst()
-                .orElseThrow(() -> new IllegalArgumentException(String.format("No such product %s.", productName)));
+        if (productName == null) {
+            throw new IllegalArgumentException("No such product null.");
+        }
+        return getProductByName(productName, 0, productName.length());
+    }
+
+    /**
+     * Helper method to retrieve the correct Product based upon the product name held between start (inclusive) and
+     * end (exclusive) of the text supplied, without creating a String for the name.
+     * The match is performed ignoring case.
+     *
+     * If no match occurs, then a {@link IllegalArgumentException} is thrown.
+     *
+     * @param text - the text containing the name of the product to find
+     * @param start - the position of the first character of the name
+     * @param end - the position after the last character of the name
+     * @return found Product
+     * @throws IllegalArgumentException thrown if no match on supplied product name
+     */
+    public static Product getProductByName(final CharSequence text, final int start, final int end) {
+        final int ordinal = NAME_INDEX.findId(text, start, end);
+        if (ordinal == ProductNameIndex.NOT_FOUND) {
+            throw new IllegalArgumentException(String.format("No such product %s.", text.subSequence(start, end)));
+        }
+        return PRODUCTS[ordinal];
     }
 }
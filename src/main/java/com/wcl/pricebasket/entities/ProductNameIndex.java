@@ -0,0 +1,145 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.entities;
+
+/**
+ * A case insensitive index from product names to product ids, where a product's id is the position of its name
+ * within the names supplied to the constructor.
+ *
+ * The index is an open addressing hash table over the case folded names, built once up front.  Lookups hash the
+ * characters in place, so a name can be resolved from a region of a larger piece of text without creating a String,
+ * and the cost of a lookup does not depend upon the number of names indexed.
+ *
+ * Instances are immutable and thread safe.
+ */
+public final class ProductNameIndex {
+    /** Returned by the find methods when no product has the name supplied. */
+    public static final int NOT_FOUND = -1;
+
+    private final String[] names;
+    /** Each slot holds the id of the product plus one, zero marks an empty slot. */
+    private final int[] slots;
+    private final int mask;
+
+    /**
+     * Builds the index over the supplied names.
+     *
+     * @param names  the product names, indexed by product id
+     * @throws IllegalArgumentException if two names are the same, ignoring case
+     */
+    public ProductNameIndex(final String... names) {
+        this.names = names.clone();
+        this.slots = new int[tableSizeFor(names.length)];
+        this.mask = slots.length - 1;
+
+        for (int id = 0; id < names.length; id++) {
+            final String name = names[id];
+            if (findId(name, 0, name.length()) != NOT_FOUND) {
+                throw new IllegalArgumentException(String.format("Duplicate product name %s.", name));
+            }
+            int slot = hash(name, 0, name.length()) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = id + 1;
+        }
+    }
+
+    /**
+     * Returns the number of names indexed.
+     *
+     * @return the number of names
+     */
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * Returns the id of the product with the name supplied, ignoring case.
+     *
+     * @param name  the name to find
+     * @return the id of the product, or {@link #NOT_FOUND}
+     */
+    public int findId(final CharSequence name) {
+        return findId(name, 0, name.length());
+    }
+
+    /**
+     * Returns the id of the product whose name matches, ignoring case, the characters between start (inclusive)
+     * and end (exclusive) of the text supplied.
+     *
+     * @param text  the text containing the name
+     * @param start  the position of the first character of the name
+     * @param end  the position after the last character of the name
+     * @return the id of the product, or {@link #NOT_FOUND}
+     */
+    public int findId(final CharSequence text, final int start, final int end) {
+        int slot = hash(text, start, end) & mask;
+        int entry;
+
+        while ((entry = slots[slot]) != 0) {
+            if (matches(names[entry - 1], text, start, end)) {
+                return entry - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Calculates a case insensitive hash of the characters between start and end of the text supplied.
+     * Names that are equal ignoring case have the same hash.
+     *
+     * @param text  the text to hash
+     * @param start  the position of the first character
+     * @param end  the position after the last character
+     * @return the hash
+     */
+    public static int hash(final CharSequence text, final int start, final int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + fold(text.charAt(i));
+        }
+        // Spread the higher bits downwards, as the table is indexed by the lower bits.
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Folds a character to a single case, so that characters equal ignoring case fold to the same character.
+     *
+     * @param character  the character to fold
+     * @return the case folded character
+     */
+    public static char fold(final char character) {
+        if (character < 0x80) {
+            return character >= 'A' && character <= 'Z' ? (char) (character + ('a' - 'A')) : character;
+        }
+        return Character.toLowerCase(Character.toUpperCase(character));
+    }
+
+    /* Compares a name with a region of text, ignoring case. */
+    private static boolean matches(final String name, final CharSequence text, final int start, final int end) {
+        if (name.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            final char expected = name.charAt(i);
+            final char actual = text.charAt(start + i);
+            if (expected != actual && fold(expected) != fold(actual)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /* Keeps the table at most half full, so that probe sequences stay short. */
+    private static int tableSizeFor(final int numberOfNames) {
+        int size = 2;
+        while (size < numberOfNames * 2) {
+            size <<= 1;
+        }
+        return size;
+    }
+}
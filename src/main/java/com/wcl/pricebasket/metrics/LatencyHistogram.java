@@ -0,0 +1,148 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of latencies in nanoseconds, recorded from any number of threads without locking.
+ *
+ * As with HdrHistogram, buckets are laid out log-linearly: every power of two range is split into 16 equal
+ * sub-buckets, so any value is held to within about 6% while the whole range of a long needs fewer than a thousand
+ * buckets.  Each bucket is a {@link LongAdder}, so threads recording the same latency do not contend on one counter.
+ * Percentiles report the highest value of the bucket they fall in, capped at the maximum recorded.
+ */
+public final class LatencyHistogram implements LatencyHistogramMXBean {
+    /** Values below this each have a bucket of their own. */
+    private static final int LINEAR_BUCKETS = 32;
+    private static final int SUB_BUCKETS = LINEAR_BUCKETS / 2;
+    private static final int SUB_BUCKET_BITS = Integer.numberOfTrailingZeros(SUB_BUCKETS);
+    private static final int NUMBER_OF_BUCKETS = bucketOf(Long.MAX_VALUE) + 1;
+
+    private final LongAdder[] buckets = new LongAdder[NUMBER_OF_BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records a latency.  Negative latencies, which a clock stepping backwards can produce, are recorded as zero.
+     *
+     * @param nanos  the latency in nanoseconds
+     */
+    public void record(final long nanos) {
+        final long value = Math.max(0, nanos);
+        buckets[bucketOf(value)].increment();
+        count.increment();
+        total.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * Returns the latency at or below which the percentage of latencies supplied fall.
+     *
+     * @param percentile  the percentage, from 0 to 100
+     * @return the latency in nanoseconds, or zero if nothing has been recorded
+     * @throws IllegalArgumentException if the percentage is outside of 0 to 100
+     */
+    public long getValueAtPercentile(final double percentile) {
+        if (!(percentile >= 0 && percentile <= 100)) {
+            throw new IllegalArgumentException(String.format("Invalid percentile %s.", percentile));
+        }
+
+        final long[] counts = new long[buckets.length];
+        long recorded = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            counts[i] = buckets[i].sum();
+            recorded += counts[i];
+        }
+        if (recorded == 0) {
+            return 0;
+        }
+
+        final long rank = Math.max(1, (long) Math.ceil(percentile / 100 * recorded));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(highestValueIn(i), getMaxNanos());
+            }
+        }
+        return getMaxNanos();
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    public double getMeanNanos() {
+        final long recorded = count.sum();
+        return recorded == 0 ? 0 : (double) total.sum() / recorded;
+    }
+
+    @Override
+    public long getMedianNanos() {
+        return getValueAtPercentile(50);
+    }
+
+    @Override
+    public long getPercentile99Nanos() {
+        return getValueAtPercentile(99);
+    }
+
+    @Override
+    public long getPercentile999Nanos() {
+        return getValueAtPercentile(99.9);
+    }
+
+    @Override
+    public long getMaxNanos() {
+        return max.get();
+    }
+
+    /**
+     * Discards every latency recorded so far.  Latencies recorded while the reset is under way may or may not be
+     * kept.
+     */
+    @Override
+    public void reset() {
+        for (final LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        count.reset();
+        total.reset();
+        max.reset();
+    }
+
+    /*
+     * Returns the bucket holding the value.  Small values map straight to a bucket; larger values are shifted down
+     * until only their top five bits remain, and those pick one of the 16 sub-buckets for their power of two.
+     */
+    private static int bucketOf(final long value) {
+        if (value < LINEAR_BUCKETS) {
+            return (int) value;
+        }
+        final int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return LINEAR_BUCKETS + (shift - 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    /* Returns the highest value that falls in the bucket. */
+    private static long highestValueIn(final int bucket) {
+        if (bucket < LINEAR_BUCKETS) {
+            return bucket;
+        }
+        final int shift = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS + 1;
+        final long topBits = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((topBits + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,57 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.metrics;
+
+/**
+ * The view of a {@link LatencyHistogram} published over JMX.
+ */
+public interface LatencyHistogramMXBean {
+    /**
+     * Returns the number of latencies recorded.
+     *
+     * @return the count
+     */
+    long getCount();
+
+    /**
+     * Returns the mean of the latencies recorded, in nanoseconds.
+     *
+     * @return the mean, or zero if nothing has been recorded
+     */
+    double getMeanNanos();
+
+    /**
+     * Returns the median latency, in nanoseconds.
+     *
+     * @return the 50th percentile
+     */
+    long getMedianNanos();
+
+    /**
+     * Returns the 99th percentile latency, in nanoseconds.
+     *
+     * @return the 99th percentile
+     */
+    long getPercentile99Nanos();
+
+    /**
+     * Returns the 99.9th percentile latency, in nanoseconds.
+     *
+     * @return the 99.9th percentile
+     */
+    long getPercentile999Nanos();
+
+    /**
+     * Returns the largest latency recorded, in nanoseconds.
+     *
+     * @return the maximum
+     */
+    long getMaxNanos();
+
+    /**
+     * Discards every latency recorded so far.
+     */
+    void reset();
+}
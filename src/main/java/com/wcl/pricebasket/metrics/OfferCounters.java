@@ -0,0 +1,49 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts how often a discount offer is evaluated and how often it applies.  The counters are {@link LongAdder}s, so
+ * threads pricing baskets at the same time do not contend on them.
+ */
+public final class OfferCounters implements OfferCountersMXBean {
+    private final LongAdder evaluations = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder totalDiscount = new LongAdder();
+
+    /**
+     * Records the offer being evaluated against a basket.
+     */
+    public void recordEvaluation() {
+        evaluations.increment();
+    }
+
+    /**
+     * Records the offer applying to a basket.
+     *
+     * @param discountInPence  the discount given
+     */
+    public void recordHit(final long discountInPence) {
+        hits.increment();
+        totalDiscount.add(discountInPence);
+    }
+
+    @Override
+    public long getEvaluationCount() {
+        return evaluations.sum();
+    }
+
+    @Override
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getTotalDiscountInPence() {
+        return totalDiscount.sum();
+    }
+}
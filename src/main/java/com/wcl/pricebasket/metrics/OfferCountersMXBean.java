@@ -0,0 +1,31 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.metrics;
+
+/**
+ * The view of an {@link OfferCounters} published over JMX.
+ */
+public interface OfferCountersMXBean {
+    /**
+     * Returns the number of baskets the offer has been evaluated against.
+     *
+     * @return the evaluation count
+     */
+    long getEvaluationCount();
+
+    /**
+     * Returns the number of baskets the offer applied to.
+     *
+     * @return the hit count
+     */
+    long getHitCount();
+
+    /**
+     * Returns the total discount the offer has given, in pence.
+     *
+     * @return the total discount
+     */
+    long getTotalDiscountInPence();
+}
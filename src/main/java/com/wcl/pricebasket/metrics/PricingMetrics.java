@@ -0,0 +1,207 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.metrics;
+
+import com.wcl.pricebasket.offers.DiscountOffer;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Latencies for each stage of pricing a basket, and counters for each discount offer, published as MBeans under the
+ * "com.wcl.pricebasket" domain.
+ *
+ * Metrics are only gathered when the JVM is started with -Dpricebasket.metrics=true.  Every instrumented call site
+ * tests {@link #ENABLED} first; being a static final constant, the JIT removes the disabled branch altogether, so the
+ * instrumentation costs nothing when switched off.
+ *
+ * Offer counters are kept for each offer instance, so two offers sharing a description are counted apart, and are
+ * published under the offer's description along with an id telling them apart.  Counters are acquired by each set of
+ * offers put into service and released when the set is retired; once no running set holds an offer its counters are
+ * dropped and their MBean unregistered, so replacing the offers does not grow the metrics without bound.
+ */
+public final class PricingMetrics {
+    /** Whether metrics are gathered, fixed for the life of the JVM. */
+    public static final boolean ENABLED = Boolean.getBoolean("pricebasket.metrics");
+    /** The metrics gathered by the instrumented classes. */
+    public static final PricingMetrics INSTANCE = new PricingMetrics();
+
+    private static final String DOMAIN = "com.wcl.pricebasket";
+
+    /**
+     * The stages of pricing a basket.
+     */
+    public enum Stage {
+        /** Parsing the entered text into a basket. */
+        PARSE,
+        /** Adding up the cost of the products within a basket. */
+        SUBTOTAL,
+        /** Evaluating the discount offers against a basket. */
+        OFFERS,
+        /** Rendering a receipt as text. */
+        RENDER,
+        /** Producing a receipt from the entered text, end to end. */
+        RECEIPT
+    }
+
+    private final Map<Stage, LatencyHistogram> latencies = new EnumMap<>(Stage.class);
+    /** The counters of each offer held by a running set of offers; guarded by this. */
+    private final Map<DiscountOffer, OfferEntry> offerCounters = new IdentityHashMap<>();
+    private long nextOfferId = 1;
+
+    /** The server the MBeans are registered with, or null until they are. */
+    private volatile MBeanServer mbeanServer;
+
+    PricingMetrics() {
+        for (final Stage stage : Stage.values()) {
+            latencies.put(stage, new LatencyHistogram());
+        }
+    }
+
+    /**
+     * Returns the latencies recorded for the stage supplied.
+     *
+     * @param stage  the stage of pricing
+     * @return the histogram of latencies
+     */
+    public LatencyHistogram getLatencies(final Stage stage) {
+        return latencies.get(stage);
+    }
+
+    /**
+     * Records the time taken by a stage which began at the time supplied, returning the time now so that the next
+     * stage can carry on from it.
+     *
+     * @param stage  the stage of pricing
+     * @param startNanos  the {@link System#nanoTime()} the stage began
+     * @return the {@link System#nanoTime()} the stage ended
+     */
+    public long recordLatency(final Stage stage, final long startNanos) {
+        final long endNanos = System.nanoTime();
+        latencies.get(stage).record(endNanos - startNanos);
+        return endNanos;
+    }
+
+    /**
+     * Returns the counters for the offer supplied, creating them on first use, and holds them until released.  Each
+     * call must be matched by a call to {@link #releaseOfferCounters(DiscountOffer)} once the offer is no longer
+     * running.  Callers are expected to look up their counters once and hold on to them, rather than on every
+     * evaluation.
+     *
+     * @param offer  the offer
+     * @return the counters for the offer
+     */
+    public synchronized OfferCounters acquireOfferCounters(final DiscountOffer offer) {
+        OfferEntry entry = offerCounters.get(offer);
+        if (entry == null) {
+            entry = new OfferEntry(offerName(offer.getDescription(), nextOfferId++));
+            offerCounters.put(offer, entry);
+            if (mbeanServer != null) {
+                register(mbeanServer, entry.name, entry.counters);
+            }
+        }
+        entry.holders++;
+        return entry.counters;
+    }
+
+    /**
+     * Releases the counters acquired for the offer supplied, dropping them and unregistering their MBean once every
+     * acquisition has been released.
+     *
+     * @param offer  the offer
+     */
+    public synchronized void releaseOfferCounters(final DiscountOffer offer) {
+        final OfferEntry entry = offerCounters.get(offer);
+        if (entry != null && --entry.holders == 0) {
+            offerCounters.remove(offer);
+            if (mbeanServer != null) {
+                unregister(mbeanServer, entry.name);
+            }
+        }
+    }
+
+    /* Returns the number of offers whose counters are currently held, for tests. */
+    synchronized int getNumberOfOffersCounted() {
+        return offerCounters.size();
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server.  Offers first seen afterwards are registered as they
+     * appear.
+     */
+    public void registerMBeans() {
+        registerMBeans(ManagementFactory.getPlatformMBeanServer());
+    }
+
+    /**
+     * Registers the metrics with the MBean server supplied.  Offers first seen afterwards are registered as they
+     * appear.
+     *
+     * @param server  the server to register with
+     */
+    public synchronized void registerMBeans(final MBeanServer server) {
+        for (final Map.Entry<Stage, LatencyHistogram> stage : latencies.entrySet()) {
+            register(server, objectName("Stage", stage.getKey().name().toLowerCase(Locale.ROOT)), stage.getValue());
+        }
+        mbeanServer = server;
+        for (final OfferEntry offer : offerCounters.values()) {
+            register(server, offer.name, offer.counters);
+        }
+    }
+
+    private static ObjectName offerName(final String description, final long id) {
+        return objectName("Offer", ObjectName.quote(description) + ",id=" + id);
+    }
+
+    private static ObjectName objectName(final String type, final String name) {
+        try {
+            return new ObjectName(DOMAIN + ":type=" + type + ",name=" + name);
+        } catch (MalformedObjectNameException e) {
+            throw new IllegalArgumentException(String.format("Invalid MBean name %s.", name), e);
+        }
+    }
+
+    /* Registers the MBean, ignoring one already registered under the same name. */
+    private static void register(final MBeanServer server, final ObjectName name, final Object mbean) {
+        try {
+            server.registerMBean(mbean, name);
+        } catch (InstanceAlreadyExistsException e) {
+            // Registered already, by an earlier call.
+        } catch (JMException e) {
+            throw new IllegalStateException(String.format("Unable to register MBean %s.", name), e);
+        }
+    }
+
+    /* Unregisters the MBean, ignoring one no longer registered. */
+    private static void unregister(final MBeanServer server, final ObjectName name) {
+        try {
+            server.unregisterMBean(name);
+        } catch (InstanceNotFoundException e) {
+            // Unregistered already, from outside.
+        } catch (JMException e) {
+            throw new IllegalStateException(String.format("Unable to unregister MBean %s.", name), e);
+        }
+    }
+
+    /* The counters of an offer, with the name they are published under and the number of sets holding them. */
+    private static final class OfferEntry {
+        private final ObjectName name;
+        private final OfferCounters counters = new OfferCounters();
+        private int holders;
+
+        OfferEntry(final ObjectName name) {
+            this.name = name;
+        }
+    }
+}
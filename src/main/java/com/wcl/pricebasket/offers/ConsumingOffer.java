@@ -0,0 +1,200 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.offers;
+
+import com.wcl.pricebasket.catalog.Catalog;
+import com.wcl.pricebasket.utils.MonetaryUtils;
+
+import java.util.Arrays;
+
+/**
+ * Defines a discount offer that uses up the items it is applied to, for offers that compete for the same items.
+ *
+ * Each application of the offer consumes a fixed quantity of one or more products and gives either a fixed discount
+ * in pence or a percentage off the price of one of the items consumed; for example "Soup and bread meal deal" might
+ * consume one tin of soup and one loaf of bread for 50p off, and "Buy 2 Soup get Bread 50% off" two tins of soup and
+ * a loaf for half the price of the loaf.  A percentage is taken from the price in the catalog the discount is asked
+ * for against, so it follows the price list the basket is priced from.  An offer may be applied as many times as the
+ * items left in the basket allow, and an item consumed by one application cannot count towards another, of the same
+ * offer or of any other.
+ *
+ * @see com.wcl.pricebasket.offers.rules.OfferRuleCompiler#compileConsuming(String)
+ * @see OfferCombinationSolver
+ */
+public final class ConsumingOffer {
+    private final String description;
+    private final int[] productIds;
+    private final long[] quantities;
+    private final long discountInPence;
+    private final int discountedProductId;
+    private final long percentage;
+
+    /**
+     * Creates an offer consuming the quantities of products supplied each time it is applied.
+     *
+     * @param description  the description of the offer, as shown on the receipt
+     * @param productIds  the ids of the products consumed
+     * @param quantities  the quantity of each product consumed, in the same order as the ids
+     * @param discountInPence  the discount given each time the offer is applied
+     * @throws IllegalArgumentException if there are no products, a product id is repeated or negative, the
+     * quantities do not match the products, or a quantity or the discount is not positive
+     */
+    public ConsumingOffer(final String description,
+                          final int[] productIds,
+                          final long[] quantities,
+                          final long discountInPence) {
+        this(description, productIds, quantities, discountInPence, Catalog.NOT_FOUND, 0L);
+        if (discountInPence < 1) {
+            throw new IllegalArgumentException(String.format("Invalid discount %d.", discountInPence));
+        }
+    }
+
+    /**
+     * Creates an offer consuming the quantities of products supplied each time it is applied, and taking a
+     * percentage off the price of one unit of one of them.
+     *
+     * @param description  the description of the offer, as shown on the receipt
+     * @param productIds  the ids of the products consumed
+     * @param quantities  the quantity of each product consumed, in the same order as the ids
+     * @param discountedProductId  the id of the product, one of those consumed, a unit of which is discounted
+     * @param percentage  the percentage taken off the price of the unit discounted
+     * @throws IllegalArgumentException if there are no products, a product id is repeated or negative, the
+     * quantities do not match the products, a quantity is not positive, the discounted product is not consumed, or
+     * the percentage is not between 1 and 100
+     */
+    public ConsumingOffer(final String description,
+                          final int[] productIds,
+                          final long[] quantities,
+                          final int discountedProductId,
+                          final long percentage) {
+        this(description, productIds, quantities, 0L, discountedProductId, percentage);
+        if (Arrays.stream(productIds).noneMatch(productId -> productId == discountedProductId)) {
+            throw new IllegalArgumentException(String.format("Discounted product id %d is not consumed.",
+                                                             discountedProductId));
+        }
+        if (percentage < 1 || percentage > 100) {
+            throw new IllegalArgumentException(String.format("Invalid percentage %d.", percentage));
+        }
+    }
+
+    private ConsumingOffer(final String description,
+                           final int[] productIds,
+                           final long[] quantities,
+                           final long discountInPence,
+                           final int discountedProductId,
+                           final long percentage) {
+        if (productIds.length == 0) {
+            throw new IllegalArgumentException("An offer must consume at least one product.");
+        }
+        if (quantities.length != productIds.length) {
+            throw new IllegalArgumentException(String.format("Expected %d quantities but found %d.",
+                                                             productIds.length, quantities.length));
+        }
+        for (int i = 0; i < productIds.length; i++) {
+            if (productIds[i] < 0) {
+                throw new IllegalArgumentException(String.format("Invalid product id %d.", productIds[i]));
+            }
+            if (quantities[i] < 1) {
+                throw new IllegalArgumentException(String.format("Invalid quantity %d.", quantities[i]));
+            }
+        }
+        if (Arrays.stream(productIds).distinct().count() != productIds.length) {
+            throw new IllegalArgumentException(String.format("Duplicate product ids %s.",
+                                                             Arrays.toString(productIds)));
+        }
+        this.description = description;
+        this.productIds = productIds.clone();
+        this.quantities = quantities.clone();
+        this.discountInPence = discountInPence;
+        this.discountedProductId = discountedProductId;
+        this.percentage = percentage;
+    }
+
+    /**
+     * Returns a copy of this offer consuming the same quantities of the products supplied in place of its own, in the
+     * same order; for example the ids of the same products within another catalog.  A percentage is taken off the
+     * product in the same place as the one this offer discounts.
+     *
+     * @param productIds  the ids of the products consumed by the copy
+     * @return the offer identifying its products by the ids supplied
+     * @throws IllegalArgumentException if the number of ids differs from this offer's, or an id is repeated or
+     * negative
+     */
+    public ConsumingOffer withProductIds(final int[] productIds) {
+        if (productIds.length != this.productIds.length) {
+            throw new IllegalArgumentException(String.format("Expected %d product ids but found %d.",
+                                                             this.productIds.length, productIds.length));
+        }
+        int reboundDiscountedProductId = Catalog.NOT_FOUND;
+        for (int i = 0; i < productIds.length; i++) {
+            if (this.productIds[i] == discountedProductId) {
+                reboundDiscountedProductId = productIds[i];
+            }
+        }
+        return new ConsumingOffer(description, productIds, quantities, discountInPence, reboundDiscountedProductId,
+                                  percentage);
+    }
+
+    /**
+     * Returns the description of the offer.
+     *
+     * @return the offer description
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Returns the number of different products each application consumes.
+     *
+     * @return the number of products
+     */
+    public int getNumberOfProducts() {
+        return productIds.length;
+    }
+
+    /**
+     * Returns the id of a product consumed.
+     *
+     * @param index  the index of the product, from zero to {@link #getNumberOfProducts()} exclusive
+     * @return the product id
+     */
+    public int getProductId(final int index) {
+        return productIds[index];
+    }
+
+    /**
+     * Returns the quantity of a product consumed by each application.
+     *
+     * @param index  the index of the product, from zero to {@link #getNumberOfProducts()} exclusive
+     * @return the quantity consumed
+     */
+    public long getQuantity(final int index) {
+        return quantities[index];
+    }
+
+    /**
+     * Returns the discount given each time the offer is applied, at the prices within the catalog supplied.
+     *
+     * @param prices  the catalog to take the price of the unit discounted from, for a percentage offer
+     * @return the discount in pence
+     */
+    public long getDiscountInPence(final Catalog prices) {
+        return discountedProductId == Catalog.NOT_FOUND
+                ? discountInPence
+                : MonetaryUtils.percentageOf(prices.getCostPerUnitInPence(discountedProductId), percentage);
+    }
+
+    /**
+     * Returns the discount per item consumed, at the prices within the catalog supplied, which ranks how good a use
+     * of the items the offer is.
+     *
+     * @param prices  the catalog to take the price of the unit discounted from, for a percentage offer
+     * @return the discount in pence divided by the total quantity consumed
+     */
+    public double getDiscountPerItem(final Catalog prices) {
+        return (double) getDiscountInPence(prices) / Arrays.stream(quantities).sum();
+    }
+}
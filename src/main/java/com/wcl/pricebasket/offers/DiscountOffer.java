@@ -4,35 +4,116 @@
  **/
 package com.wcl.pricebasket.offers;
 
+import com.wcl.pricebasket.currency.CurrencyRate;
+import com.wcl.pricebasket.entities.Basket;
 import com.wcl.pricebasket.entities.Product;
+import com.wcl.pricebasket.utils.MonetaryUtils;
 import org.javamoney.moneta.Money;
 
-
-import java.util.Map;
-import java.util.function.Function;
+import java.time.Instant;
+import java.util.Arrays;
 import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+import java.util.stream.IntStream;
 
 /**
  * Defines a discount offer to be applied to a shopping basket.
  *
  * It comprised a description of the discount offer along with a condition predicate and a discount calculator
- * function - each of the above are injected into the constructor.
+ * function - each of the above are injected into the constructor.  The discount calculator works in pence.
  *
  * This generalisation is intended to reduce a proliferation of interface / concrete class implementations, for example
  * separate classes for Appls offer, Soup/Bread offer etc.   Each offer varies in the three identified elements, so
  * a common class can be used that delegates to the variants.
+ *
+ * An offer may also declare the ids of the products that trigger it; the offer can only apply to a basket holding at
+ * least one of those products, so it need not be evaluated against any other basket.  An offer declaring no trigger
+ * products is evaluated against every basket.
+ *
+ * Separately, an offer may declare the ids of every product whose quantity its condition and calculator read, which
+ * always include its trigger products.  When a single product in a basket changes, only the offers reading that
+ * product need to be evaluated again; an offer declaring no such products is evaluated again after every change.
+ *
+ * An offer may run for a limited window, from an instant inclusive to an instant exclusive, set through
+ * {@link #validBetween(Instant, Instant)}.  The window is not checked when pricing; an
+ * {@link com.wcl.pricebasket.receipt.OfferScheduler} keeps the offers running in a receipt generator to those whose
+ * window is open.
+ *
+ * @see OfferIndex
  */
 public final class DiscountOffer {
+    private static final int[] NO_PRODUCT_IDS = new int[0];
+
     private final String description;
-    private final Predicate<Map<Product, Long>> offerCondition;
-    private final Function<Map<Product, Long>, Money> discountCalculator;
+    private final int[] triggerProductIds;
+    private final int[] inputProductIds;
+    private final Predicate<Basket> offerCondition;
+    private final ToLongFunction<Basket> discountCalculator;
+    private final Instant validFrom;
+    private final Instant validUntil;
+
+    public DiscountOffer(final String description,
+                         final Predicate<Basket> offerCondition,
+                         final ToLongFunction<Basket> discountCalculator) {
+        this(description, NO_PRODUCT_IDS, offerCondition, discountCalculator);
+    }
 
     public DiscountOffer(final String description,
-                         final Predicate<Map<Product, Long>> offerCondition,
-                         final Function<Map<Product, Long>, Money> discountCalculator) {
+                         final int[] triggerProductIds,
+                         final Predicate<Basket> offerCondition,
+                         final ToLongFunction<Basket> discountCalculator) {
+        this(description, triggerProductIds, NO_PRODUCT_IDS, offerCondition, discountCalculator);
+    }
+
+    public DiscountOffer(final String description,
+                         final int[] triggerProductIds,
+                         final int[] inputProductIds,
+                         final Predicate<Basket> offerCondition,
+                         final ToLongFunction<Basket> discountCalculator) {
+        validateProductIds(triggerProductIds, "Invalid trigger product id %d.");
+        validateProductIds(inputProductIds, "Invalid input product id %d.");
         this.description = description;
+        this.triggerProductIds = triggerProductIds.clone();
+        this.inputProductIds = inputProductIds.length == 0
+                ? NO_PRODUCT_IDS : IntStream.concat(Arrays.stream(inputProductIds), Arrays.stream(triggerProductIds))
+                                                 .distinct()
+                                                 .toArray();
         this.offerCondition = offerCondition;
         this.discountCalculator = discountCalculator;
+        this.validFrom = Instant.MIN;
+        this.validUntil = Instant.MAX;
+    }
+
+    private DiscountOffer(final DiscountOffer offer, final Instant validFrom, final Instant validUntil) {
+        this(offer, offer.triggerProductIds, offer.inputProductIds, validFrom, validUntil);
+    }
+
+    private DiscountOffer(final DiscountOffer offer,
+                          final int[] triggerProductIds,
+                          final int[] inputProductIds,
+                          final Instant validFrom,
+                          final Instant validUntil) {
+        this.description = offer.description;
+        this.triggerProductIds = triggerProductIds;
+        this.inputProductIds = inputProductIds;
+        this.offerCondition = offer.offerCondition;
+        this.discountCalculator = offer.discountCalculator;
+        this.validFrom = validFrom;
+        this.validUntil = validUntil;
+    }
+
+    /**
+     * Helper method returning the product ids of the built in products supplied, for use as trigger products.
+     *
+     * @param products  the products that trigger an offer
+     * @return the ids of the products
+     */
+    public static int[] triggeredBy(final Product... products) {
+        final int[] productIds = new int[products.length];
+        for (int i = 0; i < products.length; i++) {
+            productIds[i] = products[i].ordinal();
+        }
+        return productIds;
     }
 
     /**
@@ -44,6 +125,86 @@ public final class DiscountOffer {
         return description;
     }
 
+    /**
+     * Returns the ids of the products that trigger this offer; empty if the offer should be evaluated against
+     * every basket.
+     *
+     * @return the trigger product ids
+     */
+    public int[] getTriggerProductIds() {
+        return triggerProductIds.clone();
+    }
+
+    /**
+     * Returns the ids of every product whose quantity this offer reads, including the trigger products; empty if the
+     * offer has not declared them, in which case it may read any product.
+     *
+     * @return the input product ids
+     */
+    public int[] getInputProductIds() {
+        return inputProductIds.clone();
+    }
+
+    /**
+     * Returns a copy of this offer that only runs within the window supplied.
+     *
+     * @param start  the instant the offer starts, inclusive
+     * @param end  the instant the offer ends, exclusive
+     * @return the offer limited to the window
+     * @throws IllegalArgumentException if the window does not end after it starts
+     */
+    public DiscountOffer validBetween(final Instant start, final Instant end) {
+        if (!end.isAfter(start)) {
+            throw new IllegalArgumentException(String.format("Invalid offer window %s to %s.", start, end));
+        }
+        return new DiscountOffer(this, start, end);
+    }
+
+    /**
+     * Returns a copy of this offer, over the same window, triggered by and reading the products supplied in place of
+     * its own; for example the ids of the same products within another catalog.  The condition and calculator are
+     * shared with this offer.
+     *
+     * @param triggerProductIds  the ids of the products that trigger the copy
+     * @param inputProductIds  the ids of the products the copy reads, or empty if it may read any product
+     * @return the offer identifying its products by the ids supplied
+     */
+    public DiscountOffer withProductIds(final int[] triggerProductIds, final int[] inputProductIds) {
+        validateProductIds(triggerProductIds, "Invalid trigger product id %d.");
+        validateProductIds(inputProductIds, "Invalid input product id %d.");
+        return new DiscountOffer(this, triggerProductIds.clone(),
+                                 inputProductIds.length == 0 ? NO_PRODUCT_IDS : inputProductIds.clone(),
+                                 validFrom, validUntil);
+    }
+
+    /**
+     * Returns the instant the offer starts, inclusive; {@link Instant#MIN} if the offer has always run.
+     *
+     * @return the start of the offer's window
+     */
+    public Instant getValidFrom() {
+        return validFrom;
+    }
+
+    /**
+     * Returns the instant the offer ends, exclusive; {@link Instant#MAX} if the offer runs indefinitely.
+     *
+     * @return the end of the offer's window
+     */
+    public Instant getValidUntil() {
+        return validUntil;
+    }
+
+    /**
+     * Returns whether the offer is running at the instant supplied.
+     *
+     * @param instant  the instant to check
+     * @return true if the instant falls within the offer's window
+     */
+    public boolean isActiveAt(final Instant instant) {
+        return !instant.isBefore(validFrom) && instant.isBefore(validUntil);
+    }
+
     /**
      * Returns a boolean indicating if the offer can be applied to the contents of the basket supplied.
      * Delegates to the predicate supplied to the constructor.
@@ -51,18 +212,48 @@ public final class DiscountOffer {
      * @param basket  the basket of products to buy
      * @return true if this discount offer can be applied to the basket, false otherwise.
      */
-    public boolean isOfferApplicable(final Map<Product, Long> basket) {
+    public boolean isOfferApplicable(final Basket basket) {
         return offerCondition.test(basket);
     }
 
     /**
      * Returns the amount of discount to be applied to the basket.
-     * Delegates to the calculator function supplied to the constructor.
      *
      * @param basket  the basket of products to buy
      * @return the amount of discount to apply based upon the contents of the basket.
+     * @see #calculateDiscountInPence(Basket)
+     */
+    public Money calculateDiscountToApply(final Basket basket) {
+        return MonetaryUtils.gbpAmountFromPence(calculateDiscountInPence(basket));
+    }
+
+    /**
+     * Returns the amount of discount to be applied to the basket, converted into another currency.
+     *
+     * @param basket  the basket of products to buy
+     * @param rate  the rate to convert at
+     * @return the amount of discount to apply, in the rate's currency
      */
-    public Money calculateDiscountToApply(final Map<Product, Long> basket) {
-        return discountCalculator.apply(basket);
+    public Money calculateDiscountToApply(final Basket basket, final CurrencyRate rate) {
+        return rate.amountFromPence(calculateDiscountInPence(basket));
+    }
+
+    /**
+     * Returns the amount of discount to be applied to the basket, in pence.
+     * Delegates to the calculator function supplied to the constructor.
+     *
+     * @param basket  the basket of products to buy
+     * @return the amount of discount in pence to apply based upon the contents of the basket.
+     */
+    public long calculateDiscountInPence(final Basket basket) {
+        return discountCalculator.applyAsLong(basket);
+    }
+
+    private static void validateProductIds(final int[] productIds, final String message) {
+        for (final int productId : productIds) {
+            if (productId < 0) {
+                throw new IllegalArgumentException(String.format(message, productId));
+            }
+        }
     }
 }
@@ -0,0 +1,50 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.offers;
+
+/**
+ * The number of times each {@link ConsumingOffer} is applied to a basket, as chosen by an
+ * {@link OfferCombinationSolver}.
+ */
+public final class OfferCombination {
+    private final long[] applications;
+    private final long totalDiscountInPence;
+    private final boolean optimal;
+
+    OfferCombination(final long[] applications, final long totalDiscountInPence, final boolean optimal) {
+        this.applications = applications;
+        this.totalDiscountInPence = totalDiscountInPence;
+        this.optimal = optimal;
+    }
+
+    /**
+     * Returns the number of times the offer at the position supplied is applied.
+     *
+     * @param position  the position of the offer within the list given to the solver
+     * @return the number of applications, zero if the offer is not applied
+     */
+    public long getApplications(final int position) {
+        return applications[position];
+    }
+
+    /**
+     * Returns the total discount given by the offers applied.
+     *
+     * @return the discount in pence
+     */
+    public long getTotalDiscountInPence() {
+        return totalDiscountInPence;
+    }
+
+    /**
+     * Returns whether the combination is known to give the largest discount possible.  A combination found when
+     * the solver ran out of time is the best found so far, which may not be optimal.
+     *
+     * @return true if the combination is optimal
+     */
+    public boolean isOptimal() {
+        return optimal;
+    }
+}
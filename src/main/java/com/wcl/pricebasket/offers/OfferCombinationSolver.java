@@ -0,0 +1,266 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.offers;
+
+import com.wcl.pricebasket.catalog.Catalog;
+import com.wcl.pricebasket.catalog.ProductCatalog;
+import com.wcl.pricebasket.entities.Basket;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Chooses how many times to apply each of a set of competing {@link ConsumingOffer}s to a basket, so as to give the
+ * largest total discount without any item counting towards more than one application.
+ *
+ * This is an integer knapsack with one dimension per product, solved by branch and bound.  A greedy answer, applying
+ * the offers with the most discount per item first as often as they fit, is found before searching and serves as the
+ * first lower bound.  The search then decides the offers in the same order, trying the most applications of each
+ * first, and abandons any branch whose upper bound cannot beat the best combination found so far.  The upper bound
+ * values every item left in the basket at the best discount per item of any offer still to be decided that could
+ * consume it.
+ *
+ * The search is bounded by a time budget.  Once the budget is spent the best combination found so far is returned,
+ * which is never worse than the greedy answer, and is marked as not proven optimal.  A budget of zero returns the
+ * greedy answer without searching.
+ *
+ * Offers are valued at the prices within the catalog the solver is created with, so a solver should be created for
+ * each price list the baskets are priced from.
+ *
+ * Solvers are immutable and may be shared between threads.
+ */
+public final class OfferCombinationSolver {
+    /** The clock is only read this often, as reading it costs more than visiting a node. */
+    private static final int NODES_BETWEEN_CLOCK_CHECKS = 256;
+    /** Allows for rounding when comparing the floating point bound with whole pence. */
+    private static final double BOUND_TOLERANCE = 1e-6;
+
+    /** The offers, ranked by discount per item, best first. */
+    private final ConsumingOffer[] rankedOffers;
+    /** The discount each ranked offer gives per application, at the solver's prices. */
+    private final long[] discountsInPence;
+    /** The discount per item consumed of each ranked offer, at the solver's prices. */
+    private final double[] discountsPerItem;
+    /** The position each ranked offer was supplied at. */
+    private final int[] positions;
+    /** The ids of the products consumed by any offer; products are referred to by their index here. */
+    private final int[] productIds;
+    /** The index of each product consumed by each ranked offer. */
+    private final int[][] productIndexes;
+    private final long timeBudgetNanos;
+
+    /**
+     * Creates a solver for the offers supplied, valued at the prices of the built in products.
+     *
+     * @param offers  the competing offers
+     * @param timeBudget  the longest to spend searching for a better combination than the greedy one
+     * @param unit  the unit of the time budget
+     * @throws IllegalArgumentException if the time budget is negative
+     */
+    public OfferCombinationSolver(final List<ConsumingOffer> offers, final long timeBudget, final TimeUnit unit) {
+        this(offers, ProductCatalog.INSTANCE, timeBudget, unit);
+    }
+
+    /**
+     * Creates a solver for the offers supplied, valued at the prices within the catalog supplied.
+     *
+     * @param offers  the competing offers
+     * @param prices  the catalog to value percentage discounts at
+     * @param timeBudget  the longest to spend searching for a better combination than the greedy one
+     * @param unit  the unit of the time budget
+     * @throws IllegalArgumentException if the time budget is negative
+     */
+    public OfferCombinationSolver(final List<ConsumingOffer> offers, final Catalog prices,
+                                  final long timeBudget, final TimeUnit unit) {
+        if (timeBudget < 0) {
+            throw new IllegalArgumentException(String.format("Invalid time budget %d.", timeBudget));
+        }
+        this.timeBudgetNanos = unit.toNanos(timeBudget);
+
+        final double[] discountPerItemByPosition = offers.stream()
+                                                         .mapToDouble(offer -> offer.getDiscountPerItem(prices))
+                                                         .toArray();
+        positions = IntStream.range(0, offers.size())
+                             .boxed()
+                             .sorted(Comparator.comparingDouble((Integer i) -> -discountPerItemByPosition[i])
+                                               .thenComparingInt(i -> i))
+                             .mapToInt(Integer::intValue)
+                             .toArray();
+        rankedOffers = new ConsumingOffer[positions.length];
+        discountsInPence = new long[positions.length];
+        discountsPerItem = new double[positions.length];
+        for (int rank = 0; rank < positions.length; rank++) {
+            rankedOffers[rank] = offers.get(positions[rank]);
+            discountsInPence[rank] = rankedOffers[rank].getDiscountInPence(prices);
+            discountsPerItem[rank] = discountPerItemByPosition[positions[rank]];
+        }
+
+        final Map<Integer, Integer> indexOfProduct = new HashMap<>();
+        productIndexes = new int[rankedOffers.length][];
+        for (int rank = 0; rank < rankedOffers.length; rank++) {
+            final ConsumingOffer offer = rankedOffers[rank];
+            productIndexes[rank] = new int[offer.getNumberOfProducts()];
+            for (int i = 0; i < offer.getNumberOfProducts(); i++) {
+                productIndexes[rank][i] = indexOfProduct.computeIfAbsent(offer.getProductId(i),
+                                                                         id -> indexOfProduct.size());
+            }
+        }
+        productIds = new int[indexOfProduct.size()];
+        indexOfProduct.forEach((productId, index) -> productIds[index] = productId);
+    }
+
+    /**
+     * Returns the number of offers the solver chooses between.
+     *
+     * @return the number of offers
+     */
+    public int size() {
+        return rankedOffers.length;
+    }
+
+    /**
+     * Returns the combination of offers giving the largest discount on the basket supplied that could be found
+     * within the time budget.
+     *
+     * @param basket  the basket of products to apply the offers to
+     * @return the number of times to apply each offer
+     */
+    public OfferCombination solve(final Basket basket) {
+        return new Search(basket).run();
+    }
+
+    /* The state of a single search, so that the solver itself can be shared. */
+    private final class Search {
+        /** The quantity of each product not yet consumed. */
+        private final long[] stock = new long[productIds.length];
+        /** The ranks of the offers that give a discount and fit the basket at least once, best first. */
+        private final int[] candidates;
+        /** The applications of each candidate on the current branch. */
+        private final long[] applications;
+        /**
+         * For each candidate, the best discount per item of it or any later candidate consuming each product, so the
+         * upper bound on what the remaining candidates can add.
+         */
+        private final double[][] bestDiscountPerItem;
+
+        private long[] bestApplications;
+        private long bestDiscount;
+        private long deadline;
+        private long nodesVisited;
+        private boolean timedOut;
+
+        Search(final Basket basket) {
+            for (int i = 0; i < productIds.length; i++) {
+                stock[i] = basket.getQuantity(productIds[i]);
+            }
+            candidates = IntStream.range(0, rankedOffers.length)
+                                  .filter(rank -> discountsInPence[rank] > 0 && fits(rank) > 0)
+                                  .toArray();
+            applications = new long[candidates.length];
+
+            bestDiscountPerItem = new double[candidates.length + 1][productIds.length];
+            for (int k = candidates.length - 1; k >= 0; k--) {
+                final double[] bound = bestDiscountPerItem[k];
+                System.arraycopy(bestDiscountPerItem[k + 1], 0, bound, 0, bound.length);
+                final double discountPerItem = discountsPerItem[candidates[k]];
+                for (final int product : productIndexes[candidates[k]]) {
+                    bound[product] = Math.max(bound[product], discountPerItem);
+                }
+            }
+        }
+
+        OfferCombination run() {
+            applyGreedily();
+            if (timeBudgetNanos > 0 || candidates.length == 0) {
+                deadline = System.nanoTime() + timeBudgetNanos;
+                search(0, 0);
+            } else {
+                timedOut = true;
+            }
+
+            final long[] applicationsByPosition = new long[rankedOffers.length];
+            for (int k = 0; k < candidates.length; k++) {
+                applicationsByPosition[positions[candidates[k]]] = bestApplications[k];
+            }
+            return new OfferCombination(applicationsByPosition, bestDiscount, !timedOut);
+        }
+
+        /* Finds the greedy answer, leaving the stock as it was. */
+        private void applyGreedily() {
+            for (int k = 0; k < candidates.length; k++) {
+                applications[k] = fits(candidates[k]);
+                consume(candidates[k], applications[k]);
+                bestDiscount += applications[k] * discountsInPence[candidates[k]];
+            }
+            bestApplications = applications.clone();
+            for (int k = 0; k < candidates.length; k++) {
+                consume(candidates[k], -applications[k]);
+                applications[k] = 0;
+            }
+        }
+
+        /* Decides the applications of the candidate at position k and every later candidate. */
+        private void search(final int k, final long discount) {
+            if (++nodesVisited % NODES_BETWEEN_CLOCK_CHECKS == 0 && System.nanoTime() - deadline > 0) {
+                timedOut = true;
+            }
+            if (timedOut) {
+                return;
+            }
+            if (k == candidates.length) {
+                if (discount > bestDiscount) {
+                    bestDiscount = discount;
+                    bestApplications = applications.clone();
+                }
+                return;
+            }
+            if (discount + upperBound(k) <= bestDiscount) {
+                return;
+            }
+
+            final int rank = candidates[k];
+            final long discountPerApplication = discountsInPence[rank];
+            for (long times = fits(rank); times >= 0 && !timedOut; times--) {
+                applications[k] = times;
+                consume(rank, times);
+                search(k + 1, discount + times * discountPerApplication);
+                consume(rank, -times);
+            }
+            applications[k] = 0;
+        }
+
+        /* Returns the most the candidates from position k onwards could add to the discount, in whole pence. */
+        private long upperBound(final int k) {
+            final double[] discountPerItem = bestDiscountPerItem[k];
+            double bound = 0;
+            for (int i = 0; i < stock.length; i++) {
+                bound += stock[i] * discountPerItem[i];
+            }
+            return (long) Math.floor(bound + BOUND_TOLERANCE);
+        }
+
+        /* Returns the number of times the ranked offer fits within the stock left. */
+        private long fits(final int rank) {
+            final ConsumingOffer offer = rankedOffers[rank];
+            long times = Long.MAX_VALUE;
+            for (int i = 0; i < offer.getNumberOfProducts(); i++) {
+                times = Math.min(times, stock[productIndexes[rank][i]] / offer.getQuantity(i));
+            }
+            return times;
+        }
+
+        /* Takes the items used by applying the ranked offer the number of times supplied from the stock. */
+        private void consume(final int rank, final long times) {
+            final ConsumingOffer offer = rankedOffers[rank];
+            for (int i = 0; i < offer.getNumberOfProducts(); i++) {
+                stock[productIndexes[rank][i]] -= times * offer.getQuantity(i);
+            }
+        }
+    }
+}
@@ -0,0 +1,232 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.offers;
+
+import com.wcl.pricebasket.entities.Basket;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * An inverted index from product ids to the discount offers they trigger.
+ *
+ * Looking up the candidate offers for a basket only visits the offers triggered by the products within it, along
+ * with any offers that declare no trigger products, so the cost of pricing a basket depends upon what it contains
+ * rather than the total number of offers running.
+ *
+ * A second index, from product ids to the offers reading them, finds the offers whose outcome may change when the
+ * quantity of a single product changes.
+ *
+ * Offers are identified by their position within the list supplied to the constructor.  Instances are immutable and
+ * thread safe.
+ */
+public final class OfferIndex {
+    private static final int[] NO_OFFERS = new int[0];
+
+    private final DiscountOffer[] offers;
+    /** The distinct trigger product ids of each offer, by position. */
+    private final int[][] triggerProductIds;
+    /** The positions of the offers triggered by each product id, in ascending order. */
+    private final int[][] offersByProductId;
+    /** The positions of the offers without trigger products, in ascending order. */
+    private final int[] untriggeredOffers;
+    /** The positions of the offers reading each product id, in ascending order. */
+    private final int[][] offersByInputProductId;
+    /** The positions of the offers that have not declared the products they read, in ascending order. */
+    private final int[] offersReadingAnyProduct;
+
+    public OfferIndex(final List<DiscountOffer> discountOffers) {
+        offers = discountOffers.toArray(new DiscountOffer[0]);
+
+        triggerProductIds = new int[offers.length][];
+        final int[][] inputProductIds = new int[offers.length][];
+        for (int position = 0; position < offers.length; position++) {
+            triggerProductIds[position] = distinct(offers[position].getTriggerProductIds());
+            inputProductIds[position] = offers[position].getInputProductIds();
+        }
+
+        offersByProductId = buildPostings(triggerProductIds);
+        untriggeredOffers = findOffersWithoutProducts(triggerProductIds);
+        offersByInputProductId = buildPostings(inputProductIds);
+        offersReadingAnyProduct = findOffersWithoutProducts(inputProductIds);
+    }
+
+    /**
+     * Returns the number of offers indexed.
+     *
+     * @return the number of offers
+     */
+    public int size() {
+        return offers.length;
+    }
+
+    /**
+     * Returns the offer at the given position.
+     *
+     * @param position  the position of the offer
+     * @return the discount offer
+     */
+    public DiscountOffer getOffer(final int position) {
+        return offers[position];
+    }
+
+    /**
+     * Returns the positions of the offers that could apply to the basket supplied, in ascending order.  These are the
+     * offers triggered by any of the products in the basket along with the offers that declare no trigger products.
+     *
+     * The array returned may be shared, so must not be modified.
+     *
+     * @param basket  the basket of products to buy
+     * @return the positions of the candidate offers
+     */
+    public int[] findCandidateOffers(final Basket basket) {
+        int numberOfTriggeredCandidates = 0;
+        for (int i = 0; i < basket.getNumberOfDistinctProducts(); i++) {
+            numberOfTriggeredCandidates += offersTriggeredBy(basket.getDistinctProductId(i)).length;
+        }
+        if (numberOfTriggeredCandidates == 0) {
+            return untriggeredOffers;
+        }
+
+        final int numberOfCandidates = untriggeredOffers.length + numberOfTriggeredCandidates;
+        final int[] candidates = new int[numberOfCandidates];
+        System.arraycopy(untriggeredOffers, 0, candidates, 0, untriggeredOffers.length);
+        int position = untriggeredOffers.length;
+        for (int i = 0; i < basket.getNumberOfDistinctProducts(); i++) {
+            final int[] triggeredOffers = offersTriggeredBy(basket.getDistinctProductId(i));
+            System.arraycopy(triggeredOffers, 0, candidates, position, triggeredOffers.length);
+            position += triggeredOffers.length;
+        }
+
+        // Keep the offers in the order they were supplied, and only evaluate each one once.
+        Arrays.sort(candidates);
+        int numberOfDistinctCandidates = 1;
+        for (int i = 1; i < candidates.length; i++) {
+            if (candidates[i] != candidates[numberOfDistinctCandidates - 1]) {
+                candidates[numberOfDistinctCandidates++] = candidates[i];
+            }
+        }
+        return numberOfDistinctCandidates == candidates.length
+                ? candidates : Arrays.copyOf(candidates, numberOfDistinctCandidates);
+    }
+
+    /**
+     * Returns the positions of the offers triggered by the product supplied, in ascending order.
+     *
+     * Together with {@link #findUntriggeredOffers()} and {@link #isFirstTriggerInBasket(int, int, Basket)}, this
+     * allows the candidate offers for a basket to be visited without building the array
+     * {@link #findCandidateOffers(Basket)} returns, though not in ascending order.
+     *
+     * The array returned is shared, so must not be modified.
+     *
+     * @param productId  the id of the product
+     * @return the positions of the offers triggered by the product
+     */
+    public int[] findOffersTriggeredBy(final int productId) {
+        return offersTriggeredBy(productId);
+    }
+
+    /**
+     * Returns the positions of the offers that declare no trigger products, so are candidates for every basket, in
+     * ascending order.
+     *
+     * The array returned is shared, so must not be modified.
+     *
+     * @return the positions of the untriggered offers
+     */
+    public int[] findUntriggeredOffers() {
+        return untriggeredOffers;
+    }
+
+    /**
+     * Returns whether the product supplied is the lowest numbered of the offer's trigger products within the basket.
+     * An offer triggered by several of the products in a basket is found under each of them, and this picks out one.
+     *
+     * @param position  the position of an offer triggered by the product
+     * @param productId  the id of a product within the basket
+     * @param basket  the basket of products to buy
+     * @return true if no trigger product of the offer with a lower id is within the basket
+     */
+    public boolean isFirstTriggerInBasket(final int position, final int productId, final Basket basket) {
+        for (final int triggerProductId : triggerProductIds[position]) {
+            if (triggerProductId < productId && basket.contains(triggerProductId)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the positions of the offers that read the quantity of the product supplied, in ascending order.  Along
+     * with {@link #findOffersReadingAnyProduct()}, these are the offers whose outcome may change when the quantity of
+     * that product changes.
+     *
+     * The array returned is shared, so must not be modified.
+     *
+     * @param productId  the id of the product that changed
+     * @return the positions of the offers reading the product
+     */
+    public int[] findOffersReading(final int productId) {
+        return productId < offersByInputProductId.length ? offersByInputProductId[productId] : NO_OFFERS;
+    }
+
+    /**
+     * Returns the positions of the offers that have not declared the products they read, in ascending order, so may
+     * change when any product does.
+     *
+     * The array returned is shared, so must not be modified.
+     *
+     * @return the positions of the offers
+     */
+    public int[] findOffersReadingAnyProduct() {
+        return offersReadingAnyProduct;
+    }
+
+    private int[] offersTriggeredBy(final int productId) {
+        return productId < offersByProductId.length ? offersByProductId[productId] : NO_OFFERS;
+    }
+
+    /* Inverts the product ids of each offer into the positions of the offers for each product id. */
+    private static int[][] buildPostings(final int[][] productIdsByPosition) {
+        int highestProductId = -1;
+        for (final int[] productIds : productIdsByPosition) {
+            for (final int productId : productIds) {
+                highestProductId = Math.max(highestProductId, productId);
+            }
+        }
+
+        final int[] numberOfOffersByProductId = new int[highestProductId + 1];
+        for (final int[] productIds : productIdsByPosition) {
+            for (final int productId : productIds) {
+                numberOfOffersByProductId[productId]++;
+            }
+        }
+
+        final int[][] postings = new int[highestProductId + 1][];
+        for (int productId = 0; productId <= highestProductId; productId++) {
+            postings[productId] = numberOfOffersByProductId[productId] == 0
+                    ? NO_OFFERS : new int[numberOfOffersByProductId[productId]];
+        }
+
+        Arrays.fill(numberOfOffersByProductId, 0);
+        for (int position = 0; position < productIdsByPosition.length; position++) {
+            for (final int productId : productIdsByPosition[position]) {
+                postings[productId][numberOfOffersByProductId[productId]++] = position;
+            }
+        }
+        return postings;
+    }
+
+    private static int[] findOffersWithoutProducts(final int[][] productIdsByPosition) {
+        return IntStream.range(0, productIdsByPosition.length)
+                        .filter(position -> productIdsByPosition[position].length == 0)
+                        .toArray();
+    }
+
+    private static int[] distinct(final int[] productIds) {
+        return Arrays.stream(productIds).distinct().toArray();
+    }
+}
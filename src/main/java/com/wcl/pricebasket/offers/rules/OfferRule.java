@@ -0,0 +1,40 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.offers.rules;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Data class holding a single parsed offer rule, before it is compiled into a discount offer.
+ *
+ * A percentage rule such as {@code APPLES pct 10} is held as buying none of a product to get the same product at the
+ * percentage off, so every unit bought is discounted.
+ *
+ * @see OfferRuleCompiler#parse(java.io.Reader)
+ */
+@Data
+@Builder
+public class OfferRule {
+    /** The description shown on the receipt. */
+    String description;
+    /** The product that must be bought. */
+    int boughtProductId;
+    /** The number of the bought product making up a group, or zero for a percentage rule. */
+    long quantityToBuy;
+    /** The product discounted. */
+    int discountedProductId;
+    /** The percentage taken off the discounted product. */
+    long percentage;
+
+    /**
+     * Returns whether this is a plain percentage rule, discounting every unit of its product.
+     *
+     * @return true for a percentage rule, false for a buy / get rule
+     */
+    public boolean isPercentageOff() {
+        return quantityToBuy == 0;
+    }
+}
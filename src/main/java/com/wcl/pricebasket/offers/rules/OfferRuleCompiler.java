@@ -0,0 +1,481 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.offers.rules;
+
+import com.wcl.pricebasket.catalog.Catalog;
+import com.wcl.pricebasket.entities.Basket;
+import com.wcl.pricebasket.offers.ConsumingOffer;
+import com.wcl.pricebasket.offers.DiscountOffer;
+import com.wcl.pricebasket.utils.MonetaryUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compiles offer rules, written one per line, into discount offers.
+ *
+ * Two kinds of rule are supported, each optionally preceded by a quoted description and an equals sign :-
+ * <pre>
+ *     # Comments run to the end of the line
+ *     "Apples 10% off" = APPLES pct 10
+ *     "Bread half price if 2 tins of soup bought" = buy 2 SOUP get BREAD 50%
+ * </pre>
+ * A percentage may be written either as {@code pct N} or {@code N%}.  For a buy / get rule one unit of the second
+ * product is discounted for each complete group of the first bought; where both products are the same, the discounted
+ * unit is taken from the group, so {@code buy 2 SOUP get SOUP 100%} gives every third tin free.  Keywords and product
+ * names are not case sensitive, and rules without a description are given one.
+ *
+ * Product names are resolved to ids once, when the rules are compiled, and each offer is built from a small
+ * evaluator specialised to its rule, so a compiled offer costs no more to evaluate than one written by hand.  Each
+ * offer declares the products that trigger it and the products it reads.
+ *
+ * Prices are read, when the offer is evaluated, from the catalog snapshot the basket was resolved against, so the
+ * discounts on a receipt always come from the same price list as its subtotal.  Should that snapshot not be the one
+ * the rules were compiled against, as when a new catalog has been loaded, each product is looked up again by name
+ * in the basket's snapshot, once per snapshot, so a catalog that numbers its products differently is still priced
+ * correctly; a product it no longer holds stops the offer applying.  The trigger products declared stay as compiled,
+ * so the offers should be published along with the snapshot they were compiled against, through
+ * {@link com.wcl.pricebasket.receipt.ReceiptGenerator#replaceOffers(List, Catalog)}, which finds them again by name
+ * for baskets resolved against another snapshot.  The rules should still be compiled again whenever the catalog is
+ * replaced, so that most baskets are matched against offers numbered for their own catalog.
+ */
+public final class OfferRuleCompiler {
+    private final Catalog catalog;
+
+    public OfferRuleCompiler(final Catalog catalog) {
+        this.catalog = catalog;
+    }
+
+    /**
+     * Compiles the rules read from the reader supplied, returning the offers in the order the rules were written.
+     *
+     * @param rules  the source of the rules
+     * @return the compiled discount offers
+     * @throws IOException if the rules cannot be read
+     * @throws IllegalArgumentException if a rule is invalid, naming the line at fault
+     */
+    public List<DiscountOffer> compile(final Reader rules) throws IOException {
+        final Catalog products = catalog.snapshot();
+        final List<OfferRule> parsedRules = parse(rules, products);
+        final List<DiscountOffer> offers = new ArrayList<>(parsedRules.size());
+        for (final OfferRule rule : parsedRules) {
+            offers.add(rule.isPercentageOff()
+                       ? percentOff(rule.getDescription(),
+                                    new ProductReference(products, rule.getDiscountedProductId()), rule.getPercentage())
+                       : buyGet(rule.getDescription(), rule.getQuantityToBuy(),
+                                new ProductReference(products, rule.getBoughtProductId()),
+                                new ProductReference(products, rule.getDiscountedProductId()), rule.getPercentage()));
+        }
+        return offers;
+    }
+
+    /**
+     * Compiles the rules held within the text supplied.
+     *
+     * @param rules  the text of the rules
+     * @return the compiled discount offers
+     * @throws IllegalArgumentException if a rule is invalid, naming the line at fault
+     */
+    public List<DiscountOffer> compile(final String rules) {
+        try {
+            return compile(new StringReader(rules));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Compiles the rules read from the reader supplied into offers that compete for the items they discount, for
+     * {@link com.wcl.pricebasket.receipt.CompetingOfferReceiptGenerator}.  A percentage off rule consumes one unit of
+     * its product, and a buy / get rule the units bought along with one unit discounted, each application taking the
+     * percentage off the price of the unit discounted.  As the discount is rounded per application, it may differ by a
+     * penny from the discount the same rule gives when compiled by {@link #compile(Reader)}.
+     *
+     * @param rules  the source of the rules
+     * @return the compiled consuming offers, in the order the rules were written
+     * @throws IOException if the rules cannot be read
+     * @throws IllegalArgumentException if a rule is invalid, naming the line at fault
+     */
+    public List<ConsumingOffer> compileConsuming(final Reader rules) throws IOException {
+        final List<OfferRule> parsedRules = parse(rules);
+        final List<ConsumingOffer> offers = new ArrayList<>(parsedRules.size());
+        for (final OfferRule rule : parsedRules) {
+            final int discountedId = rule.getDiscountedProductId();
+            if (rule.isPercentageOff()) {
+                offers.add(new ConsumingOffer(rule.getDescription(), new int[] {discountedId}, new long[] {1},
+                                              discountedId, rule.getPercentage()));
+            } else if (rule.getBoughtProductId() == discountedId) {
+                offers.add(new ConsumingOffer(rule.getDescription(), new int[] {discountedId},
+                                              new long[] {rule.getQuantityToBuy() + 1},
+                                              discountedId, rule.getPercentage()));
+            } else {
+                offers.add(new ConsumingOffer(rule.getDescription(),
+                                              new int[] {rule.getBoughtProductId(), discountedId},
+                                              new long[] {rule.getQuantityToBuy(), 1},
+                                              discountedId, rule.getPercentage()));
+            }
+        }
+        return offers;
+    }
+
+    /**
+     * Compiles the rules held within the text supplied into offers that compete for the items they discount.
+     *
+     * @param rules  the text of the rules
+     * @return the compiled consuming offers
+     * @throws IllegalArgumentException if a rule is invalid, naming the line at fault
+     */
+    public List<ConsumingOffer> compileConsuming(final String rules) {
+        try {
+            return compileConsuming(new StringReader(rules));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Parses the rules read from the reader supplied without compiling them, for consumers that price the rules
+     * themselves, such as the columnar batch pricing kernel.  Product names are resolved to ids and every rule is
+     * given a description.
+     *
+     * @param rules  the source of the rules
+     * @return the parsed rules, in the order they were written
+     * @throws IOException if the rules cannot be read
+     * @throws IllegalArgumentException if a rule is invalid, naming the line at fault
+     */
+    public List<OfferRule> parse(final Reader rules) throws IOException {
+        return parse(rules, catalog.snapshot());
+    }
+
+    private List<OfferRule> parse(final Reader rules, final Catalog products) throws IOException {
+        final List<OfferRule> parsedRules = new ArrayList<>();
+        final BufferedReader reader = rules instanceof BufferedReader
+                                      ? (BufferedReader) rules : new BufferedReader(rules);
+
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            try {
+                final OfferRule rule = new RuleParser(products, line).parse();
+                if (rule != null) {
+                    parsedRules.add(rule);
+                }
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(String.format("Line %d: %s", lineNumber, e.getMessage()), e);
+            }
+        }
+        return parsedRules;
+    }
+
+    /**
+     * Parses the rules held within the text supplied without compiling them.
+     *
+     * @param rules  the text of the rules
+     * @return the parsed rules
+     * @throws IllegalArgumentException if a rule is invalid, naming the line at fault
+     */
+    public List<OfferRule> parse(final String rules) {
+        try {
+            return parse(new StringReader(rules));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /*
+     * The evaluators capture only product references and percentages, so that the JIT sees a short straight line of
+     * reads and arithmetic for each offer.
+     */
+    private DiscountOffer percentOff(final String description, final ProductReference product, final long percentage) {
+        final Catalog fallback = catalog;
+        return new DiscountOffer(description,
+                new int[] {product.compiledId},
+                new int[] {product.compiledId},
+                basket -> quantity(basket, product.idIn(pricesFor(basket, fallback))) > 0,
+                basket -> {
+                    final Catalog prices = pricesFor(basket, fallback);
+                    final int productId = product.idIn(prices);
+                    return productId == Catalog.NOT_FOUND
+                            ? 0L : MonetaryUtils.percentageOf(prices.getCostPerUnitInPence(productId)
+                                                                      * basket.getQuantity(productId), percentage);
+                });
+    }
+
+    private DiscountOffer buyGet(final String description, final long quantityToBuy, final ProductReference bought,
+                                 final ProductReference discounted, final long percentage) {
+        final Catalog fallback = catalog;
+        if (bought.compiledId == discounted.compiledId) {
+            final long groupSize = quantityToBuy + 1;
+            return new DiscountOffer(description,
+                    new int[] {bought.compiledId},
+                    new int[] {bought.compiledId},
+                    basket -> quantity(basket, bought.idIn(pricesFor(basket, fallback))) >= groupSize,
+                    basket -> {
+                        final Catalog prices = pricesFor(basket, fallback);
+                        final int productId = bought.idIn(prices);
+                        return productId == Catalog.NOT_FOUND
+                                ? 0L : MonetaryUtils.percentageOf(prices.getCostPerUnitInPence(productId)
+                                                                          * (basket.getQuantity(productId) / groupSize),
+                                                                  percentage);
+                    });
+        }
+        return new DiscountOffer(description,
+                new int[] {discounted.compiledId},
+                new int[] {bought.compiledId, discounted.compiledId},
+                basket -> {
+                    final Catalog prices = pricesFor(basket, fallback);
+                    return quantity(basket, bought.idIn(prices)) >= quantityToBuy
+                            && quantity(basket, discounted.idIn(prices)) > 0;
+                },
+                basket -> {
+                    final Catalog prices = pricesFor(basket, fallback);
+                    final int boughtId = bought.idIn(prices);
+                    final int discountedId = discounted.idIn(prices);
+                    if (boughtId == Catalog.NOT_FOUND || discountedId == Catalog.NOT_FOUND) {
+                        return 0L;
+                    }
+                    return MonetaryUtils.percentageOf(prices.getCostPerUnitInPence(discountedId)
+                                                              * Math.min(basket.getQuantity(discountedId),
+                                                                         basket.getQuantity(boughtId) / quantityToBuy),
+                                                      percentage);
+                });
+    }
+
+    /* Returns the catalog snapshot the basket was resolved against, or the current snapshot if it has none. */
+    private static Catalog pricesFor(final Basket basket, final Catalog fallback) {
+        final Catalog prices = basket.getCatalog();
+        return prices != null ? prices : fallback.snapshot();
+    }
+
+    private static long quantity(final Basket basket, final int productId) {
+        return productId == Catalog.NOT_FOUND ? 0L : basket.getQuantity(productId);
+    }
+
+    /*
+     * A product named by a rule, bound to its id within the catalog snapshot the rules were compiled against, and
+     * looked up again by name, once per snapshot, for baskets resolved against any other.
+     */
+    private static final class ProductReference {
+        private final String name;
+        private final int compiledId;
+        /** The most recent snapshot the product was looked up in, along with its id there. */
+        private volatile Binding binding;
+
+        ProductReference(final Catalog products, final int productId) {
+            this.name = products.getProductName(productId);
+            this.compiledId = productId;
+            this.binding = new Binding(products, productId);
+        }
+
+        /* Returns the id of the product within the snapshot supplied, or NOT_FOUND if it holds no such product. */
+        int idIn(final Catalog products) {
+            Binding current = binding;
+            if (current.products != products) {
+                current = new Binding(products, products.findProductId(name, 0, name.length()));
+                binding = current;
+            }
+            return current.productId;
+        }
+    }
+
+    private static final class Binding {
+        private final Catalog products;
+        private final int productId;
+
+        Binding(final Catalog products, final int productId) {
+            this.products = products;
+            this.productId = productId;
+        }
+    }
+
+    /*
+     * Parses a single line, working through it by index so that loading a large rule set creates little more than
+     * the descriptions.
+     */
+    private final class RuleParser {
+        private final Catalog products;
+        private final String line;
+        private final int end;
+        private int position;
+        private int tokenStart;
+
+        RuleParser(final Catalog products, final String line) {
+            this.products = products;
+            this.line = line;
+            this.end = findEndOfRule(line);
+        }
+
+        /* Returns the rule defined by the line, or null for a line with no rule. */
+        OfferRule parse() {
+            if (!nextToken()) {
+                return null;
+            }
+
+            String description = null;
+            if (line.charAt(tokenStart) == '"') {
+                description = parseDescription();
+                expectToken("=");
+                expectNextToken("a rule");
+            }
+
+            final OfferRule rule;
+            if (tokenIs("buy")) {
+                expectNextToken("a quantity");
+                final long quantityToBuy = parseQuantity();
+                expectNextToken("a product");
+                final int boughtProductId = parseProduct();
+                expectNextToken("get");
+                expectToken("get");
+                expectNextToken("a product");
+                final int discountedProductId = parseProduct();
+                final long percentage = parsePercentage();
+
+                rule = OfferRule.builder()
+                                .description(description != null ? description
+                                             : "Buy " + quantityToBuy + ' ' + products.getProductName(boughtProductId)
+                                                     + " get " + products.getProductName(discountedProductId) + ' '
+                                                     + percentage + "% off")
+                                .quantityToBuy(quantityToBuy)
+                                .boughtProductId(boughtProductId)
+                                .discountedProductId(discountedProductId)
+                                .percentage(percentage)
+                                .build();
+            } else {
+                final int productId = parseProduct();
+                final long percentage = parsePercentage();
+
+                rule = OfferRule.builder()
+                                .description(description != null ? description
+                                             : products.getProductName(productId) + ' ' + percentage + "% off")
+                                .boughtProductId(productId)
+                                .discountedProductId(productId)
+                                .percentage(percentage)
+                                .build();
+            }
+
+            if (nextToken()) {
+                throw new IllegalArgumentException(String.format("Unexpected %s.", token()));
+            }
+            return rule;
+        }
+
+        /* Finds the start of any comment, allowing a description to contain a hash. */
+        private int findEndOfRule(final String line) {
+            int start = 0;
+            while (start < line.length() && Character.isWhitespace(line.charAt(start))) {
+                start++;
+            }
+            if (start < line.length() && line.charAt(start) == '"') {
+                final int closingQuote = line.indexOf('"', start + 1);
+                start = closingQuote < 0 ? start : closingQuote;
+            }
+            final int comment = line.indexOf('#', start);
+            return comment < 0 ? line.length() : comment;
+        }
+
+        private String parseDescription() {
+            final int closingQuote = line.indexOf('"', tokenStart + 1);
+            if (closingQuote < 0 || closingQuote >= end) {
+                throw new IllegalArgumentException("Unterminated description.");
+            }
+            final String description = line.substring(tokenStart + 1, closingQuote).trim();
+            if (description.isEmpty()) {
+                throw new IllegalArgumentException("Description must not be blank.");
+            }
+            position = closingQuote + 1;
+            expectNextToken("=");
+            return description;
+        }
+
+        private int parseProduct() {
+            final int productId = products.findProductId(line, tokenStart, position);
+            if (productId == Catalog.NOT_FOUND) {
+                throw new IllegalArgumentException(String.format("No such product %s.", token()));
+            }
+            return productId;
+        }
+
+        /* Parses either "pct N" or "N%", following a product. */
+        private long parsePercentage() {
+            expectNextToken("a percentage");
+            final long percentage;
+            if (tokenIs("pct")) {
+                expectNextToken("a percentage");
+                percentage = parseNumber(tokenStart, position);
+            } else if (line.charAt(position - 1) == '%') {
+                percentage = parseNumber(tokenStart, position - 1);
+            } else {
+                throw new IllegalArgumentException(String.format("Expected a percentage but found %s.", token()));
+            }
+
+            if (percentage < 1 || percentage > 100) {
+                throw new IllegalArgumentException(String.format("Invalid percentage %d.", percentage));
+            }
+            return percentage;
+        }
+
+        private long parseQuantity() {
+            final long quantity = parseNumber(tokenStart, position);
+            if (quantity < 1) {
+                throw new IllegalArgumentException(String.format("Invalid quantity %d.", quantity));
+            }
+            return quantity;
+        }
+
+        private long parseNumber(final int start, final int finish) {
+            if (start == finish || finish - start > 9) {
+                throw new IllegalArgumentException(String.format("Invalid number %s.", token()));
+            }
+            long number = 0;
+            for (int i = start; i < finish; i++) {
+                final char digit = line.charAt(i);
+                if (digit < '0' || digit > '9') {
+                    throw new IllegalArgumentException(String.format("Invalid number %s.", token()));
+                }
+                number = number * 10 + (digit - '0');
+            }
+            return number;
+        }
+
+        /* Moves on to the next whitespace delimited token, returning false at the end of the rule. */
+        private boolean nextToken() {
+            while (position < end && Character.isWhitespace(line.charAt(position))) {
+                position++;
+            }
+            tokenStart = position;
+            while (position < end && !Character.isWhitespace(line.charAt(position))) {
+                position++;
+            }
+            return tokenStart < position;
+        }
+
+        private void expectNextToken(final String expected) {
+            if (!nextToken()) {
+                throw new IllegalArgumentException(String.format("Expected %s.", expected));
+            }
+        }
+
+        private void expectToken(final String expected) {
+            if (!tokenIs(expected)) {
+                throw new IllegalArgumentException(String.format("Expected %s but found %s.", expected, token()));
+            }
+        }
+
+        private boolean tokenIs(final String keyword) {
+            return line.regionMatches(true, tokenStart, keyword, 0, keyword.length())
+                    && position - tokenStart == keyword.length();
+        }
+
+        private String token() {
+            return line.substring(tokenStart, position);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.parser;
+
+import com.wcl.pricebasket.entities.Basket;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+
+/**
+ * Reads baskets of user entered text from a stream, one per line, such as the lines a till sends down a socket.
+ *
+ * The stream is read a block at a time into a buffer, and each line is handed to
+ * {@link PricebasketParser#retrieveBasket(CharSequence)} as a view of the buffer, so the products are matched in place
+ * without the line being copied into a String.  A line may end with a line feed or a carriage return and line feed;
+ * the last line need not end with either.  The buffer grows should a single line not fit.
+ *
+ * Readers hold the part of the stream read but not yet parsed, so are not thread safe.
+ */
+public final class BasketLineReader {
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private final PricebasketParser parser;
+    private final Reader reader;
+    /** The characters read but not yet parsed, between its position and limit. */
+    private CharBuffer buffer;
+    /** The number of characters from the buffer's position already known to hold no line feed. */
+    private int scanned;
+    private boolean endOfStream;
+
+    public BasketLineReader(final PricebasketParser parser, final Reader reader) {
+        this(parser, reader, DEFAULT_BUFFER_SIZE);
+    }
+
+    BasketLineReader(final PricebasketParser parser, final Reader reader, final int bufferSize) {
+        this.parser = parser;
+        this.reader = reader;
+        this.buffer = CharBuffer.allocate(bufferSize);
+        this.buffer.flip();
+    }
+
+    /**
+     * Reads the next line from the stream and parses it into a new basket of products.  A line that is badly formed
+     * is read past before the exception is thrown, so that reading may carry on with the following line.
+     *
+     * @return the basket of products entered, or null if the end of the stream has been reached
+     * @throws IOException if the text cannot be read
+     * @throws IllegalArgumentException if the line is malformed
+     * @see PricebasketParser#retrieveBasket(CharSequence)
+     */
+    public Basket readBasket() throws IOException {
+        int lineEnd = findLineFeed();
+        while (lineEnd < 0 && !endOfStream) {
+            fill();
+            lineEnd = findLineFeed();
+        }
+        if (lineEnd < 0) {
+            if (!buffer.hasRemaining()) {
+                return null;
+            }
+            lineEnd = buffer.limit();
+        }
+
+        final int limit = buffer.limit();
+        final int nextLine = Math.min(lineEnd + 1, limit);
+        buffer.limit(lineEnd > buffer.position() && buffer.get(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd);
+        try {
+            return parser.retrieveBasket(buffer);
+        } finally {
+            buffer.limit(limit);
+            buffer.position(nextLine);
+            scanned = 0;
+        }
+    }
+
+    /* Returns the index of the next line feed within the buffer, or -1 if the buffer holds none. */
+    private int findLineFeed() {
+        final int limit = buffer.limit();
+        for (int i = buffer.position() + scanned; i < limit; i++) {
+            if (buffer.get(i) == '\n') {
+                return i;
+            }
+        }
+        scanned = buffer.remaining();
+        return -1;
+    }
+
+    /* Reads the next block of the stream after the characters not yet parsed, growing the buffer if it is full. */
+    private void fill() throws IOException {
+        buffer.compact();
+        if (!buffer.hasRemaining()) {
+            buffer.flip();
+            buffer = CharBuffer.allocate(buffer.capacity() * 2).put(buffer);
+        }
+        if (reader.read(buffer) < 0) {
+            endOfStream = true;
+        }
+        buffer.flip();
+    }
+}
@@ -4,7 +4,11 @@
  **/
 package com.wcl.pricebasket.parser;
 
+import com.wcl.pricebasket.catalog.Catalog;
+import com.wcl.pricebasket.catalog.ProductCatalog;
+import com.wcl.pricebasket.entities.Basket;
 import com.wcl.pricebasket.entities.Product;
+import com.wcl.pricebasket.metrics.PricingMetrics;
 import org.apache.commons.lang3.StringUtils;
 
 import java.util.Arrays;
@@ -15,8 +19,26 @@ import java.util.stream.Collectors;
  * Retrieves the contents of the shopping basket from user provided text.
  *
  * Validation of the user input also occurs.
+ *
+ * Two modes are provided: {@link #retrieveShoppingList(String)} returns each product entered as a list, whereas the
+ * retrieveBasket methods scan the text character by character, matching product names in place and counting them
+ * straight into a {@link Basket}.  Any CharSequence may be scanned, so text read from a stream is parsed straight
+ * from the buffer it was read into by a {@link BasketLineReader}.  Product names are resolved through the
+ * {@link Catalog} supplied, the built in {@link ProductCatalog} by default.
  */
 public final class PricebasketParser {
+    private static final String PRICEBASKET = "Pricebasket";
+
+    /** The catalog of products that may be bought. */
+    private final Catalog catalog;
+
+    public PricebasketParser() {
+        this(ProductCatalog.INSTANCE);
+    }
+
+    public PricebasketParser(final Catalog catalog) {
+        this.catalog = catalog;
+    }
 
     /**
      * Validates and parses the user entered text to retrieve the contents of the shopping basket.
@@ -34,17 +56,111 @@ public final class PricebasketParser {
                                                                       .collect(Collectors.toList());
     }
 
+    /**
+     * Validates and parses the user entered text into a new basket of products.
+     *
+     * Products may be separated by any run of whitespace.  If the text is badly formed, then an
+     * {@link IllegalArgumentException} is thrown with relevant error message.
+     *
+     * @param enteredText  the user entered text
+     * @return the basket of products entered
+     * @throws IllegalArgumentException if text malformed
+     */
+    public Basket retrieveBasket(final CharSequence enteredText) {
+        return retrieveBasket(enteredText, new Basket());
+    }
+
+    /**
+     * Validates and parses the user entered text, adding each product entered to the basket supplied.
+     *
+     * No Strings or intermediate lists are created unless the text is badly formed, in which case an
+     * {@link IllegalArgumentException} is thrown with relevant error message.
+     *
+     * Product names are resolved against the catalog snapshot the basket is already tied to, if any, and otherwise
+     * against a snapshot of the parser's catalog, to which the basket is then tied.
+     *
+     * @param enteredText  the user entered text
+     * @param basket  the basket to add the products entered to
+     * @return the basket supplied
+     * @throws IllegalArgumentException if text malformed
+     */
+    public Basket retrieveBasket(final CharSequence enteredText, final Basket basket) {
+        final long startNanos = PricingMetrics.ENABLED ? System.nanoTime() : 0L;
+        validateStartOfText(enteredText);
+
+        final Catalog products = basket.getCatalog() != null ? basket.getCatalog() : catalog.snapshot();
+        final int length = enteredText.length();
+        // First word is "Pricebasket".
+        int position = skipToken(enteredText, 0, length);
+        int numberOfProducts = 0;
+
+        while (true) {
+            final int startOfToken = skipWhitespace(enteredText, position, length);
+            if (startOfToken == length) {
+                break;
+            }
+            position = skipToken(enteredText, startOfToken, length);
+            basket.add(findProductId(products, enteredText, startOfToken, position));
+            numberOfProducts++;
+        }
+
+        if (numberOfProducts == 0) {
+            throw new IllegalArgumentException("No products to purchase were entered.");
+        }
+        basket.setCatalog(products);
+        if (PricingMetrics.ENABLED) {
+            PricingMetrics.INSTANCE.recordLatency(PricingMetrics.Stage.PARSE, startNanos);
+        }
+        return basket;
+    }
+
     /*
-     * Validates the text provided, throwing exception on any errors.
+     * Checks the text provided is not blank and begins with Pricebasket, throwing exception on any errors.
      */
-    private String[] validateEnteredText(final String enteredText) {
+    private void validateStartOfText(final CharSequence enteredText) {
         if (StringUtils.isBlank(enteredText)) {
             throw new IllegalArgumentException("Nothing was entered.");
         }
 
-        if (!enteredText.startsWith("Pricebasket")) {
+        if (!StringUtils.startsWith(enteredText, PRICEBASKET)) {
             throw new IllegalArgumentException("Pricebasket was not found at the start.");
         }
+    }
+
+    /*
+     * Finds the id of the product whose name matches the characters between start and end of the text.
+     */
+    private static int findProductId(final Catalog products, final CharSequence text, final int start, final int end) {
+        final int productId = products.findProductId(text, start, end);
+        if (productId == Catalog.NOT_FOUND) {
+            throw new IllegalArgumentException(String.format("No such product %s.", text.subSequence(start, end)));
+        }
+        return productId;
+    }
+
+    /* Returns the position of the first non whitespace character at or after the position supplied. */
+    private static int skipWhitespace(final CharSequence text, final int from, final int to) {
+        int position = from;
+        while (position < to && Character.isWhitespace(text.charAt(position))) {
+            position++;
+        }
+        return position;
+    }
+
+    /* Returns the position of the first whitespace character at or after the position supplied. */
+    private static int skipToken(final CharSequence text, final int from, final int to) {
+        int position = from;
+        while (position < to && !Character.isWhitespace(text.charAt(position))) {
+            position++;
+        }
+        return position;
+    }
+
+    /*
+     * Validates the text provided, throwing exception on any errors.
+     */
+    private String[] validateEnteredText(final String enteredText) {
+        validateStartOfText(enteredText);
 
         final String[] items = enteredText.split(" ");
 
@@ -0,0 +1,24 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.receipt;
+
+import com.wcl.pricebasket.entities.Basket;
+
+/**
+ * Prices baskets, so that the till server and the batch processors can price with whichever way of applying offers
+ * has been chosen: every applicable offer independently, through {@link ReceiptGenerator}, or the best combination of
+ * offers competing for the same items, through {@link CompetingOfferReceiptGenerator}.
+ *
+ * Implementations must be safe to call from several threads at once.
+ */
+public interface BasketPricer {
+    /**
+     * Generates a receipt for the basket of products supplied.
+     *
+     * @param basket  the basket of products to generate a receipt for
+     * @return a generated receipt for the basket of products
+     */
+    Receipt generateReceipt(Basket basket);
+}
@@ -0,0 +1,183 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.receipt;
+
+import com.wcl.pricebasket.catalog.Catalog;
+import com.wcl.pricebasket.entities.Basket;
+import com.wcl.pricebasket.entities.Product;
+import com.wcl.pricebasket.offers.DiscountOffer;
+import com.wcl.pricebasket.offers.OfferIndex;
+import com.wcl.pricebasket.utils.MonetaryUtils;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * A basket being built up one item at a time, as at a till, that keeps its receipt up to date as items are added
+ * and removed.
+ *
+ * The subtotal is adjusted by the price of each item scanned, and only the offers reading the product that changed
+ * are evaluated again, as found through the {@link OfferIndex} of the {@link ReceiptGenerator} supplied.  The
+ * discount of every offer is remembered between changes, so each change costs time in proportion to the offers it
+ * affects rather than the size of the basket.  Offers that have not declared the products they read are evaluated
+ * after every change.
+ *
+ * Prices are taken from the catalog as it was when the session started, and offers from the offers running at that
+ * time, so every item in the session is priced from the same price list and offers.  Sessions are not thread safe.
+ */
+public final class BasketSession {
+    private final OfferIndex offers;
+    private final Catalog catalog;
+    private final Basket basket = new Basket();
+
+    /** The discount in pence given by each offer, by offer position. */
+    private final long[] discounts;
+    /** The applied offer for each offer position currently applying, created when its discount changes. */
+    private final AppliedOffer[] appliedOffers;
+    private final BitSet applyingOffers;
+
+    private long subtotal;
+    private long totalDiscount;
+
+    public BasketSession(final ReceiptGenerator receiptGenerator) {
+        this.catalog = receiptGenerator.getCatalog().snapshot();
+        this.offers = receiptGenerator.getOfferSet().boundTo(catalog).getIndex();
+        basket.setCatalog(catalog);
+        this.discounts = new long[offers.size()];
+        this.appliedOffers = new AppliedOffer[offers.size()];
+        this.applyingOffers = new BitSet(offers.size());
+
+        // Offers without trigger products may apply before anything is scanned.
+        for (final int position : offers.findCandidateOffers(basket)) {
+            evaluateOffer(position);
+        }
+    }
+
+    /**
+     * Adds a single unit of the product to the session.
+     *
+     * @param product  the product scanned
+     */
+    public void add(final Product product) {
+        add(product.ordinal());
+    }
+
+    /**
+     * Adds a single unit of the product with the given id to the session.
+     *
+     * @param productId  the id of the product scanned
+     */
+    public void add(final int productId) {
+        final long costPerUnit = catalog.getCostPerUnitInPence(productId);
+        basket.add(productId);
+        subtotal += costPerUnit;
+        evaluateOffersReading(productId);
+    }
+
+    /**
+     * Removes a single unit of the product from the session.
+     *
+     * @param product  the product to remove
+     * @throws IllegalArgumentException if the product is not within the session
+     */
+    public void remove(final Product product) {
+        remove(product.ordinal());
+    }
+
+    /**
+     * Removes a single unit of the product with the given id from the session.
+     *
+     * @param productId  the id of the product to remove
+     * @throws IllegalArgumentException if the product is not within the session
+     */
+    public void remove(final int productId) {
+        if (!basket.contains(productId)) {
+            throw new IllegalArgumentException(String.format("No %s in the basket.", catalog.getProductName(productId)));
+        }
+        basket.add(productId, -1L);
+        subtotal -= catalog.getCostPerUnitInPence(productId);
+        evaluateOffersReading(productId);
+    }
+
+    /**
+     * Returns the cost of the items within the session before discounts, in pence.
+     *
+     * @return the subtotal in pence
+     */
+    public long getSubtotalInPence() {
+        return subtotal;
+    }
+
+    /**
+     * Returns the cost of the items within the session after discounts, in pence.
+     *
+     * @return the total in pence
+     */
+    public long getTotalInPence() {
+        return subtotal - totalDiscount;
+    }
+
+    /**
+     * Returns a copy of the items within the session.
+     *
+     * @return the basket of items
+     */
+    public Basket getBasket() {
+        return basket.copy();
+    }
+
+    /**
+     * Returns the receipt for the items currently within the session, the same as
+     * {@link ReceiptGenerator#generateReceipt(Basket)} would for the same basket.
+     *
+     * @return the current receipt
+     */
+    public Receipt getReceipt() {
+        final List<AppliedOffer> applied = new ArrayList<>(applyingOffers.cardinality());
+        for (int position = applyingOffers.nextSetBit(0); position >= 0;
+             position = applyingOffers.nextSetBit(position + 1)) {
+            applied.add(appliedOffers[position]);
+        }
+
+        return Receipt.builder().subtotal(MonetaryUtils.gbpAmountFromPence(subtotal))
+                                .appliedOffers(applied)
+                                .finalTotal(MonetaryUtils.gbpAmountFromPence(getTotalInPence()))
+                                .build();
+    }
+
+    private void evaluateOffersReading(final int productId) {
+        for (final int position : offers.findOffersReading(productId)) {
+            evaluateOffer(position);
+        }
+        for (final int position : offers.findOffersReadingAnyProduct()) {
+            evaluateOffer(position);
+        }
+    }
+
+    /* Evaluates the offer against the current basket, adjusting the total discount by any change. */
+    private void evaluateOffer(final int position) {
+        final DiscountOffer offer = offers.getOffer(position);
+
+        if (!offer.isOfferApplicable(basket)) {
+            totalDiscount -= discounts[position];
+            discounts[position] = 0L;
+            appliedOffers[position] = null;
+            applyingOffers.clear(position);
+            return;
+        }
+
+        final long discount = offer.calculateDiscountInPence(basket);
+        if (appliedOffers[position] == null || discount != discounts[position]) {
+            totalDiscount += discount - discounts[position];
+            discounts[position] = discount;
+            appliedOffers[position] = AppliedOffer.builder()
+                                                  .description(offer.getDescription())
+                                                  .discountAmount(MonetaryUtils.gbpAmountFromPence(discount))
+                                                  .build();
+            applyingOffers.set(position);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.receipt;
+
+import com.wcl.pricebasket.entities.Basket;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Generates receipts for many baskets at once, spreading the work across a fork / join pool of its own.
+ *
+ * The baskets are split into ranges that are priced in parallel, each receipt being written to the position of its
+ * basket, so the receipts are returned in the same order as the baskets.  Work stealing keeps every thread busy
+ * even when some baskets take much longer to price than others.  The pool is not shared with parallel streams or
+ * other users of the common pool, so the parallelism requested is the parallelism used.
+ *
+ * The baskets must not be modified while they are being priced.  Instances are thread safe, and should be closed
+ * once no longer needed to stop the pool's threads.
+ */
+public final class BatchReceiptGenerator implements AutoCloseable {
+    /** The number of ranges each thread's share of the baskets is split into, to balance the load. */
+    private static final int RANGES_PER_THREAD = 8;
+
+    private final ReceiptGenerator receiptGenerator;
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates a batch generator using one thread per available processor.
+     *
+     * @param receiptGenerator  the generator used to price each basket
+     */
+    public BatchReceiptGenerator(final ReceiptGenerator receiptGenerator) {
+        this(receiptGenerator, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a batch generator using the number of threads supplied.
+     *
+     * @param receiptGenerator  the generator used to price each basket
+     * @param parallelism  the number of threads to price baskets with
+     * @throws IllegalArgumentException if the parallelism is less than one
+     */
+    public BatchReceiptGenerator(final ReceiptGenerator receiptGenerator, final int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException(String.format("Invalid parallelism %d.", parallelism));
+        }
+        this.receiptGenerator = receiptGenerator;
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Returns the number of threads used to price baskets.
+     *
+     * @return the parallelism
+     */
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Generates a receipt for each of the baskets supplied.
+     *
+     * @param baskets  the baskets to price
+     * @return the receipts, in the same order as the baskets
+     * @throws IllegalArgumentException if a basket cannot be priced
+     */
+    public List<Receipt> generateReceipts(final Collection<Basket> baskets) {
+        final Basket[] basketsToPrice = baskets.toArray(new Basket[0]);
+        final Receipt[] receipts = new Receipt[basketsToPrice.length];
+
+        if (basketsToPrice.length > 0) {
+            final int threshold = Math.max(1, basketsToPrice.length / (pool.getParallelism() * RANGES_PER_THREAD));
+            pool.invoke(new PricingTask(basketsToPrice, receipts, 0, basketsToPrice.length, threshold));
+        }
+        return Arrays.asList(receipts);
+    }
+
+    /**
+     * Generates a receipt for each of the baskets supplied.  The stream is consumed before any basket is priced.
+     *
+     * @param baskets  the baskets to price
+     * @return the receipts, in the same order as the baskets
+     * @throws IllegalArgumentException if a basket cannot be priced
+     */
+    public List<Receipt> generateReceipts(final Stream<Basket> baskets) {
+        return generateReceipts(baskets.collect(Collectors.toList()));
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    /* Prices a range of the baskets, splitting it in two until it is no larger than the threshold. */
+    private final class PricingTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Basket[] baskets;
+        private final Receipt[] receipts;
+        private final int start;
+        private final int end;
+        private final int threshold;
+
+        PricingTask(final Basket[] baskets, final Receipt[] receipts, final int start, final int end,
+                    final int threshold) {
+            this.baskets = baskets;
+            this.receipts = receipts;
+            this.start = start;
+            this.end = end;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= threshold) {
+                for (int i = start; i < end; i++) {
+                    receipts[i] = receiptGenerator.generateReceipt(baskets[i]);
+                }
+                return;
+            }
+
+            final int middle = (start + end) >>> 1;
+            invokeAll(new PricingTask(baskets, receipts, start, middle, threshold),
+                      new PricingTask(baskets, receipts, middle, end, threshold));
+        }
+    }
+}
@@ -0,0 +1,187 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.receipt;
+
+import com.wcl.pricebasket.catalog.Catalog;
+import com.wcl.pricebasket.catalog.ProductCatalog;
+import com.wcl.pricebasket.entities.Basket;
+import com.wcl.pricebasket.offers.ConsumingOffer;
+import com.wcl.pricebasket.offers.OfferCombination;
+import com.wcl.pricebasket.offers.OfferCombinationSolver;
+import com.wcl.pricebasket.utils.MonetaryUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Generates receipts for baskets where the offers compete for the same items, so that each item may count towards
+ * at most one offer.
+ *
+ * Unlike {@link ReceiptGenerator}, which applies every applicable offer independently, the offers here are
+ * {@link ConsumingOffer}s and an {@link OfferCombinationSolver} chooses how often to apply each to give the customer
+ * the largest discount it can find within the time budget.  Each offer applied is listed once on the receipt, with
+ * the discount from all of its applications.
+ *
+ * A basket is priced, and its percentage discounts valued, from the snapshot of the catalog it was resolved against.
+ * Offers compiled against one snapshot of a catalog that can be reloaded are published along with that snapshot,
+ * through {@link #replaceOffers(List, Catalog)}, and keep a solver for it.  A basket resolved against a different
+ * snapshot, older or newer, is priced with a copy of the offers whose products are found again by name within its
+ * own snapshot, dropping any offer for products it does not hold; the copy for the last such snapshot is kept, so
+ * baskets arriving from either of two snapshots in turn do not rebuild a solver each time.  Receipts may be
+ * generated from several threads at once.
+ */
+public final class CompetingOfferReceiptGenerator implements BasketPricer {
+    private final long timeBudget;
+    private final TimeUnit unit;
+    private final Catalog catalog;
+    private final AtomicReference<Pricing> pricing = new AtomicReference<>();
+
+    public CompetingOfferReceiptGenerator(final List<ConsumingOffer> offers,
+                                          final long timeBudget,
+                                          final TimeUnit unit) {
+        this(offers, timeBudget, unit, ProductCatalog.INSTANCE);
+    }
+
+    public CompetingOfferReceiptGenerator(final List<ConsumingOffer> offers,
+                                          final long timeBudget,
+                                          final TimeUnit unit,
+                                          final Catalog catalog) {
+        this(offers, timeBudget, unit, catalog, null);
+    }
+
+    /**
+     * Creates a generator whose offers identify their products by the ids of the catalog snapshot supplied.
+     *
+     * @param offers  the offers running
+     * @param timeBudget  the time the solver may spend on each basket
+     * @param unit  the unit of the time budget
+     * @param catalog  the catalog of product prices
+     * @param offerProducts  the snapshot of the catalog the offers were compiled against
+     */
+    public CompetingOfferReceiptGenerator(final List<ConsumingOffer> offers,
+                                          final long timeBudget,
+                                          final TimeUnit unit,
+                                          final Catalog catalog,
+                                          final Catalog offerProducts) {
+        this.timeBudget = timeBudget;
+        this.unit = unit;
+        this.catalog = catalog;
+        this.pricing.set(new Pricing(new ArrayList<>(offers), offerProducts,
+                                     offerProducts != null ? offerProducts : catalog.snapshot()));
+    }
+
+    /**
+     * Replaces the offers running.  Baskets already being priced finish with the offers they started with.  The
+     * product ids of the new offers are taken to refer to the same catalog snapshot as those of the offers replaced.
+     *
+     * @param offers  the new offers
+     */
+    public void replaceOffers(final List<ConsumingOffer> offers) {
+        final Catalog offerProducts = pricing.get().products;
+        replaceOffers(offers, offerProducts);
+    }
+
+    /**
+     * Replaces the offers running with offers compiled against the catalog snapshot supplied, publishing the offers
+     * and the snapshot together.  Baskets already being priced finish with the offers they started with.
+     *
+     * @param offers  the new offers
+     * @param offerProducts  the snapshot of the catalog the offers were compiled against
+     */
+    public void replaceOffers(final List<ConsumingOffer> offers, final Catalog offerProducts) {
+        pricing.set(new Pricing(new ArrayList<>(offers), offerProducts,
+                                offerProducts != null ? offerProducts : catalog.snapshot()));
+    }
+
+    /**
+     * Generates a receipt for the basket of products supplied, applying the best combination of offers found.
+     *
+     * @param basket  the basket of products to generate a receipt for
+     * @return a generated receipt for the basket of products
+     * @see ReceiptGenerator#generateReceipt(Basket)
+     */
+    @Override
+    public Receipt generateReceipt(final Basket basket) {
+        final Catalog prices = ReceiptGenerator.pricesFor(basket, catalog);
+        final Pricing current = pricing.get().boundTo(prices);
+
+        final long subtotal = ReceiptGenerator.generateSubtotal(basket, prices);
+        final OfferCombination combination = current.solver.solve(basket);
+
+        final List<AppliedOffer> appliedOffers = new ArrayList<>();
+        for (int position = 0; position < current.offers.size(); position++) {
+            final long applications = combination.getApplications(position);
+            if (applications > 0) {
+                final ConsumingOffer offer = current.offers.get(position);
+                appliedOffers.add(AppliedOffer.builder()
+                                              .description(offer.getDescription())
+                                              .discountAmount(MonetaryUtils.gbpAmountFromPence(
+                                                      applications * offer.getDiscountInPence(prices)))
+                                              .build());
+            }
+        }
+
+        return Receipt.builder().subtotal(MonetaryUtils.gbpAmountFromPence(subtotal))
+                                .appliedOffers(appliedOffers)
+                                .finalTotal(MonetaryUtils.gbpAmountFromPence(
+                                        subtotal - combination.getTotalDiscountInPence()))
+                                .build();
+    }
+
+    /*
+     * The offers running, with the snapshot their product ids refer to, or null if they refer to any catalog's, and a
+     * solver valuing them at the prices of one catalog snapshot.
+     */
+    private final class Pricing {
+        private final List<ConsumingOffer> offers;
+        private final Catalog products;
+        private final Catalog prices;
+        private final OfferCombinationSolver solver;
+        /** The last copy of the offers bound to another snapshot. */
+        private volatile Pricing rebound;
+
+        Pricing(final List<ConsumingOffer> offers, final Catalog products, final Catalog prices) {
+            this.offers = offers;
+            this.products = products;
+            this.prices = prices;
+            this.solver = new OfferCombinationSolver(offers, prices, timeBudget, unit);
+        }
+
+        /* Returns the offers identified by the product ids of, and valued at the prices of, the snapshot supplied. */
+        Pricing boundTo(final Catalog basketPrices) {
+            if (basketPrices == prices) {
+                return this;
+            }
+            final Pricing last = rebound;
+            if (last != null && last.prices == basketPrices) {
+                return last;
+            }
+            final Pricing bound = products == null
+                    ? new Pricing(offers, null, basketPrices)
+                    : new Pricing(rebind(basketPrices), basketPrices, basketPrices);
+            rebound = bound;
+            return bound;
+        }
+
+        /* Finds the products of each offer again by name within the snapshot supplied, dropping those it lacks. */
+        private List<ConsumingOffer> rebind(final Catalog basketPrices) {
+            final List<ConsumingOffer> reboundOffers = new ArrayList<>(offers.size());
+            for (final ConsumingOffer offer : offers) {
+                final int[] productIds = new int[offer.getNumberOfProducts()];
+                for (int i = 0; i < productIds.length; i++) {
+                    final String name = products.getProductName(offer.getProductId(i));
+                    productIds[i] = basketPrices.findProductId(name, 0, name.length());
+                }
+                if (Arrays.stream(productIds).noneMatch(productId -> productId == Catalog.NOT_FOUND)) {
+                    reboundOffers.add(offer.withProductIds(productIds));
+                }
+            }
+            return reboundOffers;
+        }
+    }
+}
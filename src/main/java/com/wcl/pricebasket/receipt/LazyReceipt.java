@@ -0,0 +1,206 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.receipt;
+
+import com.wcl.pricebasket.currency.CurrencyRate;
+import com.wcl.pricebasket.offers.OfferIndex;
+import com.wcl.pricebasket.utils.MonetaryUtils;
+import org.javamoney.moneta.Money;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A receipt whose totals are known but whose applied offers and text are only built when first asked for.
+ *
+ * Pricing records just the position and discount of each offer applied; the {@link AppliedOffer}s, the full
+ * {@link Receipt} and its text are built from those on demand and then kept.  Callers that only show the total pay
+ * nothing for the rest.
+ *
+ * Instances are not thread safe.
+ *
+ * @see ReceiptGenerator#generateLazyReceipt(com.wcl.pricebasket.entities.Basket)
+ */
+public final class LazyReceipt {
+    private final long subtotalInPence;
+    private final long finalTotalInPence;
+    private final OfferIndex offers;
+    private final long offerVersion;
+    private final int[] appliedPositions;
+    private final long[] discounts;
+
+    private List<AppliedOffer> appliedOffers;
+    private Receipt receipt;
+    private String text;
+
+    LazyReceipt(final long subtotalInPence,
+                final long finalTotalInPence,
+                final OfferIndex offers,
+                final long offerVersion,
+                final int[] appliedPositions,
+                final long[] discounts) {
+        this.subtotalInPence = subtotalInPence;
+        this.finalTotalInPence = finalTotalInPence;
+        this.offers = offers;
+        this.offerVersion = offerVersion;
+        this.appliedPositions = appliedPositions;
+        this.discounts = discounts;
+    }
+
+    /**
+     * Returns the initial cost of all the products within the basket, in pence.
+     *
+     * @return the subtotal in pence
+     */
+    public long getSubtotalInPence() {
+        return subtotalInPence;
+    }
+
+    /**
+     * Returns the cost to the customer after discounts, in pence.
+     *
+     * @return the final total in pence
+     */
+    public long getFinalTotalInPence() {
+        return finalTotalInPence;
+    }
+
+    /**
+     * Returns the initial cost of all the products within the basket.
+     *
+     * @return the subtotal
+     */
+    public Money getSubtotal() {
+        return MonetaryUtils.gbpAmountFromPence(subtotalInPence);
+    }
+
+    /**
+     * Returns the cost to the customer after discounts.
+     *
+     * @return the final total
+     */
+    public Money getFinalTotal() {
+        return MonetaryUtils.gbpAmountFromPence(finalTotalInPence);
+    }
+
+    /**
+     * Returns the number of offers applied to the basket.
+     *
+     * @return the number of applied offers
+     */
+    public int getNumberOfAppliedOffers() {
+        return appliedPositions.length;
+    }
+
+    /**
+     * Returns the version of the generator's offers the basket was priced with.
+     *
+     * @return the offer version
+     * @see ReceiptGenerator#getOfferVersion()
+     */
+    public long getOfferVersion() {
+        return offerVersion;
+    }
+
+    /**
+     * Returns the position, within the offers the basket was priced with, of an applied offer.
+     *
+     * @param index  the index of the applied offer, from zero up to the number of applied offers
+     * @return the position of the offer
+     */
+    public int getAppliedOfferPosition(final int index) {
+        return appliedPositions[index];
+    }
+
+    /**
+     * Returns the discount given by an applied offer, in pence.
+     *
+     * @param index  the index of the applied offer, from zero up to the number of applied offers
+     * @return the discount in pence
+     */
+    public long getAppliedOfferDiscountInPence(final int index) {
+        return discounts[index];
+    }
+
+    /**
+     * Returns the offers applied to the basket, in the same order as {@link Receipt#getAppliedOffers()}, building
+     * them on first use.
+     *
+     * @return the applied offers, which cannot be modified
+     */
+    public List<AppliedOffer> getAppliedOffers() {
+        if (appliedOffers == null) {
+            appliedOffers = Collections.unmodifiableList(buildAppliedOffers());
+        }
+        return appliedOffers;
+    }
+
+    /**
+     * Returns the full receipt, building it on first use.
+     *
+     * @return the receipt
+     */
+    public Receipt toReceipt() {
+        if (receipt == null) {
+            // The receipt's list is its own to change, so is built afresh rather than copied from getAppliedOffers.
+            receipt = Receipt.builder().subtotal(getSubtotal())
+                                       .appliedOffers(buildAppliedOffers())
+                                       .finalTotal(getFinalTotal())
+                                       .build();
+        }
+        return receipt;
+    }
+
+    private List<AppliedOffer> buildAppliedOffers() {
+        final List<AppliedOffer> built = new ArrayList<>(appliedPositions.length);
+        for (int i = 0; i < appliedPositions.length; i++) {
+            built.add(AppliedOffer.builder().description(offers.getOffer(appliedPositions[i]).getDescription())
+                                            .discountAmount(MonetaryUtils.gbpAmountFromPence(discounts[i]))
+                                            .build());
+        }
+        return built;
+    }
+
+    /**
+     * Returns the receipt converted into another currency.  The subtotal and each discount are converted, and the
+     * final total is the converted subtotal less the converted discounts, so that the receipt still adds up.
+     *
+     * The receipt is built afresh on each call, straight from the amounts in pence.
+     *
+     * @param rate  the rate to convert at
+     * @return the receipt in the rate's currency
+     */
+    public Receipt toReceipt(final CurrencyRate rate) {
+        final long subtotal = rate.convertPence(subtotalInPence);
+        final List<AppliedOffer> converted = new ArrayList<>(appliedPositions.length);
+        long totalDiscount = 0;
+        for (int i = 0; i < appliedPositions.length; i++) {
+            final long discount = rate.convertPence(discounts[i]);
+            converted.add(AppliedOffer.builder().description(offers.getOffer(appliedPositions[i]).getDescription())
+                                                .discountAmount(rate.amountFromMinorUnits(discount))
+                                                .build());
+            totalDiscount += discount;
+        }
+        return Receipt.builder().subtotal(rate.amountFromMinorUnits(subtotal))
+                                .appliedOffers(converted)
+                                .finalTotal(rate.amountFromMinorUnits(subtotal - totalDiscount))
+                                .build();
+    }
+
+    /**
+     * Renders the receipt in String format, on first use.
+     *
+     * @return the receipt as a String
+     * @see Receipt#toString()
+     */
+    @Override
+    public String toString() {
+        if (text == null) {
+            text = toReceipt().toString();
+        }
+        return text;
+    }
+}
@@ -0,0 +1,167 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.receipt;
+
+import com.wcl.pricebasket.offers.DiscountOffer;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the offers running in a {@link ReceiptGenerator} to those whose window, set through
+ * {@link DiscountOffer#validBetween(Instant, Instant)}, is open, so that pricing never checks dates.
+ *
+ * The instants at which any offer starts or ends are sorted once, up front.  The active offers are only worked out
+ * again when one of those boundaries is reached, and only handed to the generator if they have changed, so thousands
+ * of overlapping windows cost one pass over the offers per boundary and nothing per basket.  Offers keep the order
+ * they were supplied in.
+ *
+ * The time is read from the {@link Clock} supplied, so tests can move time on and call {@link #refresh()}
+ * themselves.  Otherwise {@link #start(ScheduledExecutorService)} refreshes the offers at each boundary as it comes.
+ * As the clock may be adjusted while waiting, the scheduler also checks at least once an hour.
+ *
+ * Instances are thread safe.
+ */
+public final class OfferScheduler implements AutoCloseable {
+    private static final Duration MAXIMUM_DELAY = Duration.ofHours(1);
+
+    private final ReceiptGenerator receiptGenerator;
+    private final DiscountOffer[] offers;
+    private final Clock clock;
+    /** The distinct instants at which an offer starts or ends, in ascending order. */
+    private final Instant[] boundaries;
+
+    /** The positions of the offers handed to the generator. */
+    private BitSet activeOffers;
+    private Instant nextBoundary;
+    private ScheduledExecutorService executor;
+    private ScheduledFuture<?> scheduledRefresh;
+
+    /**
+     * Creates a scheduler for the offers supplied, handing those active now to the generator straight away.
+     *
+     * @param receiptGenerator  the generator whose offers are kept up to date
+     * @param offers  every offer, whether or not it is running yet
+     * @param clock  the source of the time
+     */
+    public OfferScheduler(final ReceiptGenerator receiptGenerator,
+                          final List<DiscountOffer> offers,
+                          final Clock clock) {
+        this.receiptGenerator = receiptGenerator;
+        this.offers = offers.toArray(new DiscountOffer[0]);
+        this.clock = clock;
+
+        final TreeSet<Instant> instants = new TreeSet<>();
+        for (final DiscountOffer offer : this.offers) {
+            if (!Instant.MIN.equals(offer.getValidFrom())) {
+                instants.add(offer.getValidFrom());
+            }
+            if (!Instant.MAX.equals(offer.getValidUntil())) {
+                instants.add(offer.getValidUntil());
+            }
+        }
+        this.boundaries = instants.toArray(new Instant[0]);
+        refresh();
+    }
+
+    /**
+     * Hands the offers active now to the generator, if they differ from those it was last given.
+     *
+     * @return the next instant at which an offer starts or ends, or null if none do
+     */
+    public synchronized Instant refresh() {
+        final Instant now = clock.instant();
+        final BitSet active = new BitSet(offers.length);
+        for (int position = 0; position < offers.length; position++) {
+            if (offers[position].isActiveAt(now)) {
+                active.set(position);
+            }
+        }
+
+        if (!active.equals(activeOffers)) {
+            final List<DiscountOffer> activeList = new ArrayList<>(active.cardinality());
+            for (int position = active.nextSetBit(0); position >= 0; position = active.nextSetBit(position + 1)) {
+                activeList.add(offers[position]);
+            }
+            receiptGenerator.replaceOffers(activeList);
+            activeOffers = active;
+        }
+
+        nextBoundary = findBoundaryAfter(now);
+        return nextBoundary;
+    }
+
+    /**
+     * Starts refreshing the offers as each boundary is reached, using the executor supplied.
+     *
+     * @param scheduledExecutor  the executor to run the refreshes on
+     * @throws IllegalStateException if the scheduler has already been started
+     */
+    public synchronized void start(final ScheduledExecutorService scheduledExecutor) {
+        if (executor != null) {
+            throw new IllegalStateException("Offer scheduler already started.");
+        }
+        executor = scheduledExecutor;
+        scheduleRefresh(refresh());
+    }
+
+    /**
+     * Stops refreshing the offers.  The generator keeps the offers it was last given.
+     */
+    @Override
+    public synchronized void close() {
+        if (scheduledRefresh != null) {
+            scheduledRefresh.cancel(false);
+            scheduledRefresh = null;
+        }
+        executor = null;
+    }
+
+    /**
+     * Returns the next instant at which an offer starts or ends, as of the last refresh.
+     *
+     * @return the next boundary, or null if no offer starts or ends later
+     */
+    public synchronized Instant getNextBoundary() {
+        return nextBoundary;
+    }
+
+    /**
+     * Returns the number of offers handed to the generator at the last refresh.
+     *
+     * @return the number of active offers
+     */
+    public synchronized int getNumberOfActiveOffers() {
+        return activeOffers.cardinality();
+    }
+
+    private synchronized void runScheduledRefresh() {
+        if (executor != null) {
+            scheduleRefresh(refresh());
+        }
+    }
+
+    private void scheduleRefresh(final Instant boundary) {
+        final Duration untilBoundary = boundary == null ? MAXIMUM_DELAY : Duration.between(clock.instant(), boundary);
+        final long delayInNanos = untilBoundary.compareTo(MAXIMUM_DELAY) > 0
+                ? MAXIMUM_DELAY.toNanos() : Math.max(0L, untilBoundary.toNanos());
+        scheduledRefresh = executor.schedule(this::runScheduledRefresh, delayInNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Instant findBoundaryAfter(final Instant instant) {
+        final int index = Arrays.binarySearch(boundaries, instant);
+        final int next = index >= 0 ? index + 1 : -index - 1;
+        return next < boundaries.length ? boundaries[next] : null;
+    }
+}
@@ -0,0 +1,141 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.receipt;
+
+import com.wcl.pricebasket.catalog.Catalog;
+import com.wcl.pricebasket.metrics.OfferCounters;
+import com.wcl.pricebasket.metrics.PricingMetrics;
+import com.wcl.pricebasket.offers.DiscountOffer;
+import com.wcl.pricebasket.offers.OfferIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An immutable version of the discount offers running within a {@link ReceiptGenerator}.
+ *
+ * A basket is priced entirely from the one set it started with, so replacing the offers never leaves a basket half
+ * priced from the old offers and half from the new.  When metrics are enabled, the set holds the counters of its
+ * offers until it is retired.
+ *
+ * A set may record the catalog snapshot whose product ids its offers were compiled against.  A basket resolved
+ * against another snapshot, such as one loaded while the basket was in flight, is looked up in a copy of the index
+ * whose product ids are found again by name within that snapshot, so the offers it triggers are still found.
+ */
+final class OfferSet {
+    private final OfferIndex index;
+    /** The counters for each offer, by position within the index, or null when metrics are disabled. */
+    private final OfferCounters[] counters;
+    private final long version;
+    /** The catalog snapshot the product ids of the offers refer to, or null if they refer to any catalog's. */
+    private final Catalog products;
+    /** The last copy of the set bound to another snapshot, kept as baskets tend to arrive from the same one. */
+    private volatile OfferSet rebound;
+
+    OfferSet(final List<DiscountOffer> discountOffers, final long version) {
+        this(discountOffers, null, version);
+    }
+
+    OfferSet(final List<DiscountOffer> discountOffers, final Catalog products, final long version) {
+        this(new OfferIndex(discountOffers), products, version);
+    }
+
+    private OfferSet(final OfferIndex index, final Catalog products, final long version) {
+        this(index, PricingMetrics.ENABLED ? findOfferCounters(index) : null, products, version);
+    }
+
+    private OfferSet(final OfferIndex index, final OfferCounters[] counters, final Catalog products,
+                     final long version) {
+        this.index = index;
+        this.counters = counters;
+        this.products = products;
+        this.version = version;
+    }
+
+    /* Returns the same offers as a later version, without indexing them again. */
+    OfferSet withVersion(final long newVersion) {
+        return new OfferSet(index, counters, products, newVersion);
+    }
+
+    /* Returns the same offers as a later version, their product ids referring to the snapshot supplied. */
+    OfferSet withVersion(final long newVersion, final Catalog offerProducts) {
+        return new OfferSet(index, counters, offerProducts, newVersion);
+    }
+
+    /* Returns the catalog snapshot the product ids of the offers refer to, or null if they refer to any catalog's. */
+    Catalog getProducts() {
+        return products;
+    }
+
+    /*
+     * Returns the offers indexed by the product ids of the catalog snapshot supplied, sharing this set's counters and
+     * version, so a basket resolved against that snapshot finds the offers its products trigger.
+     */
+    OfferSet boundTo(final Catalog prices) {
+        if (products == null || prices == products) {
+            return this;
+        }
+        final OfferSet last = rebound;
+        if (last != null && last.products == prices) {
+            return last;
+        }
+        final List<DiscountOffer> offers = new ArrayList<>(index.size());
+        for (int position = 0; position < index.size(); position++) {
+            final DiscountOffer offer = index.getOffer(position);
+            offers.add(offer.withProductIds(rebind(offer.getTriggerProductIds(), prices),
+                                            rebind(offer.getInputProductIds(), prices)));
+        }
+        final OfferSet bound = new OfferSet(new OfferIndex(offers), counters, prices, version);
+        rebound = bound;
+        return bound;
+    }
+
+    OfferIndex getIndex() {
+        return index;
+    }
+
+    OfferCounters getCounters(final int position) {
+        return counters[position];
+    }
+
+    long getVersion() {
+        return version;
+    }
+
+    /*
+     * Releases the counters of the offers once the set has been replaced.  Baskets still being priced from the set
+     * may carry on counting into them, but the counts are no longer published.
+     */
+    void retire() {
+        if (counters != null) {
+            for (int position = 0; position < counters.length; position++) {
+                PricingMetrics.INSTANCE.releaseOfferCounters(index.getOffer(position));
+            }
+        }
+    }
+
+    /*
+     * Finds the products supplied again by name within the snapshot supplied.  A product the snapshot does not hold
+     * takes an id just past its products, which no basket resolved against it can contain.
+     */
+    private int[] rebind(final int[] productIds, final Catalog prices) {
+        final int[] reboundIds = new int[productIds.length];
+        for (int i = 0; i < productIds.length; i++) {
+            final String name = products.getProductName(productIds[i]);
+            final int productId = prices.findProductId(name, 0, name.length());
+            reboundIds[i] = productId == Catalog.NOT_FOUND ? prices.size() : productId;
+        }
+        return reboundIds;
+    }
+
+    /* Looks up the counters for every offer once, so that pricing only has to index into an array. */
+    private static OfferCounters[] findOfferCounters(final OfferIndex index) {
+        final OfferCounters[] counters = new OfferCounters[index.size()];
+        for (int position = 0; position < counters.length; position++) {
+            counters[position] = PricingMetrics.INSTANCE.acquireOfferCounters(index.getOffer(position));
+        }
+        return counters;
+    }
+}
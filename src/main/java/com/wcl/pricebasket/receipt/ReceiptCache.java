@@ -0,0 +1,160 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.receipt;
+
+import com.wcl.pricebasket.catalog.Catalog;
+import com.wcl.pricebasket.entities.Basket;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A size bounded cache of receipts sitting in front of a {@link ReceiptGenerator}, for traffic where the same
+ * baskets are priced again and again.
+ *
+ * Receipts are keyed by the contents of the basket, which {@link Basket#equals(Object)} compares regardless of the
+ * order products were added, so "Apples Milk" and "Milk Apples" share an entry.  Once full, the least recently used
+ * receipt is evicted.  The cache is emptied whenever the catalog behind the generator changes, as prices may have
+ * moved, or the generator's offers are replaced; it can also be emptied explicitly through {@link #invalidateAll()}.
+ * A basket resolved against any snapshot of the catalog but the current one is priced without the cache, neither
+ * served a cached receipt nor adding its own.
+ *
+ * Receipts returned are shared between callers, so must not be modified.  Instances are thread safe; a basket is
+ * priced outside of the lock, so a slow pricing never blocks other callers.
+ */
+public final class ReceiptCache {
+    private final ReceiptGenerator receiptGenerator;
+    private final Map<Basket, Receipt> receipts;
+
+    /** The catalog snapshot the cached receipts were priced from. */
+    private Catalog pricedFrom;
+    /** The offers the cached receipts were priced with. */
+    private OfferSet pricedWith;
+    /** Counts the times the cache has been emptied, so that receipts priced beforehand are not added afterwards. */
+    private long generation;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    /**
+     * Creates a cache holding at most the number of receipts supplied.
+     *
+     * @param receiptGenerator  the generator used to price baskets not in the cache
+     * @param maximumSize  the maximum number of receipts to hold
+     * @throws IllegalArgumentException if the maximum size is less than one
+     */
+    public ReceiptCache(final ReceiptGenerator receiptGenerator, final int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException(String.format("Invalid cache size %d.", maximumSize));
+        }
+        this.receiptGenerator = receiptGenerator;
+        this.pricedFrom = receiptGenerator.getCatalog().snapshot();
+        this.pricedWith = receiptGenerator.getOfferSet();
+        this.receipts = new LinkedHashMap<Basket, Receipt>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Basket, Receipt> eldest) {
+                if (size() > maximumSize) {
+                    evictionCount++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the receipt for the basket supplied, from the cache if it has been priced before.
+     *
+     * @param basket  the basket of products to generate a receipt for
+     * @return the receipt for the basket
+     * @see ReceiptGenerator#generateReceipt(Basket)
+     */
+    public Receipt generateReceipt(final Basket basket) {
+        final Catalog catalog = receiptGenerator.getCatalog().snapshot();
+        final OfferSet offers = receiptGenerator.getOfferSet();
+        if (basket.getCatalog() != null && basket.getCatalog() != catalog) {
+            // Resolved against another snapshot, so priced from prices the cached receipts were not.
+            return generateUncachedReceipt(basket);
+        }
+        final long missGeneration;
+        synchronized (this) {
+            if (catalog != pricedFrom || offers != pricedWith) {
+                invalidateAll();
+                pricedFrom = catalog;
+                pricedWith = offers;
+            }
+            final Receipt receipt = receipts.get(basket);
+            if (receipt != null) {
+                hitCount++;
+                return receipt;
+            }
+            missCount++;
+            missGeneration = generation;
+        }
+
+        final Receipt receipt = receiptGenerator.generateReceipt(basket);
+        synchronized (this) {
+            // The basket records the snapshot it was priced from, which may have moved on since it was checked.
+            if (missGeneration == generation && basket.getCatalog() == catalog) {
+                receipts.put(basket.copy(), receipt);
+            }
+        }
+        return receipt;
+    }
+
+    /* Prices a basket that cannot share the cached receipts, counting it as a miss. */
+    private Receipt generateUncachedReceipt(final Basket basket) {
+        synchronized (this) {
+            missCount++;
+        }
+        return receiptGenerator.generateReceipt(basket);
+    }
+
+    /**
+     * Empties the cache, for example after the discount offers running have changed.
+     */
+    public synchronized void invalidateAll() {
+        receipts.clear();
+        generation++;
+    }
+
+    /**
+     * Returns the number of receipts currently cached.
+     *
+     * @return the number of receipts
+     */
+    public synchronized int size() {
+        return receipts.size();
+    }
+
+    /**
+     * Returns the number of receipts returned from the cache.
+     *
+     * @return the hit count
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Returns the number of receipts that had to be generated.
+     *
+     * @return the miss count
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Returns the number of receipts evicted to keep within the maximum size.
+     *
+     * @return the eviction count
+     */
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+}
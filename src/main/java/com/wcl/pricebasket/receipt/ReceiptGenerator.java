@@ -4,27 +4,122 @@
  **/
 package com.wcl.pricebasket.receipt;
 
+import com.wcl.pricebasket.catalog.Catalog;
+import com.wcl.pricebasket.catalog.ProductCatalog;
+import com.wcl.pricebasket.currency.CurrencyRate;
+import com.wcl.pricebasket.entities.Basket;
 import com.wcl.pricebasket.entities.Product;
+import com.wcl.pricebasket.metrics.PricingMetrics;
 import com.wcl.pricebasket.offers.DiscountOffer;
+import com.wcl.pricebasket.offers.OfferIndex;
 import com.wcl.pricebasket.utils.MonetaryUtils;
 import org.javamoney.moneta.Money;
 
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
 
 /**
  * Class designed to generated a receipt for a basket of products supplied.
+ *
+ * All amounts are calculated in pence and only converted to {@link org.javamoney.moneta.Money} when the receipt is
+ * built.  Product prices are taken from the {@link Catalog} supplied, the built in {@link ProductCatalog} by default;
+ * a basket is priced from the snapshot of the catalog its products were resolved against, as recorded on the basket.
+ *
+ * The discount offers are held in an {@link OfferIndex}, so only the offers triggered by the products within a basket
+ * are evaluated against it.
+ *
+ * The offers can be replaced at any time through {@link #replaceOffers(List)}, even while baskets are being priced.
+ * Each version of the offers is immutable and published through an atomic reference, so pricing never takes a lock,
+ * and a basket is always priced from the single version current when its pricing began.
+ *
+ * Offers compiled against one snapshot of a catalog that can be reloaded are published along with that snapshot,
+ * through {@link #replaceOffers(List, Catalog)}.  A basket resolved against a different snapshot, older or newer,
+ * then finds the offers its products trigger by product name rather than by id, so the catalog and the offers may be
+ * swapped in either order without a basket being matched against offers numbered for another catalog.
+ *
+ * When {@link PricingMetrics} are enabled, the time spent on the subtotal and on the offers is recorded, along with
+ * how often each offer is evaluated and applied.
  */
-public final class ReceiptGenerator {
-    /** The list of discount offers available. */
-    private final List<DiscountOffer> discountOffers;
+public final class ReceiptGenerator implements BasketPricer {
+    /** The current version of the discount offers available. */
+    private final AtomicReference<OfferSet> discountOffers;
+    /** The catalog of product prices. */
+    private final Catalog catalog;
 
     public ReceiptGenerator(final List<DiscountOffer> discountOffers) {
-        this.discountOffers = new ArrayList<>();
-        this.discountOffers.addAll(discountOffers);
+        this(discountOffers, ProductCatalog.INSTANCE);
+    }
+
+    public ReceiptGenerator(final List<DiscountOffer> discountOffers, final Catalog catalog) {
+        this(discountOffers, catalog, null);
+    }
+
+    /**
+     * Creates a generator whose offers identify their products by the ids of the catalog snapshot supplied.
+     *
+     * @param discountOffers  the discount offers available
+     * @param catalog  the catalog of product prices
+     * @param offerProducts  the snapshot of the catalog the offers were compiled against
+     */
+    public ReceiptGenerator(final List<DiscountOffer> discountOffers, final Catalog catalog,
+                            final Catalog offerProducts) {
+        this.discountOffers = new AtomicReference<>(new OfferSet(discountOffers, offerProducts, 1));
+        this.catalog = catalog;
+    }
+
+    /**
+     * Replaces the discount offers available.  Baskets already being priced finish with the offers they started
+     * with; baskets priced afterwards use the new offers.  The product ids of the new offers are taken to refer to
+     * the same catalog snapshot as those of the offers replaced.
+     *
+     * @param discountOffers  the new discount offers
+     * @return the version of the offers now current
+     */
+    public long replaceOffers(final List<DiscountOffer> discountOffers) {
+        // Index outside of the update, which may be retried if another replacement races with this one.
+        final OfferSet replacement = new OfferSet(discountOffers, 0);
+        return replace(current -> replacement.withVersion(current.getVersion() + 1, current.getProducts()));
+    }
+
+    /**
+     * Replaces the discount offers available with offers compiled against the catalog snapshot supplied, publishing
+     * the offers and the snapshot together.  Baskets already being priced finish with the offers they started with;
+     * baskets priced afterwards use the new offers, whichever snapshot they were resolved against.
+     *
+     * @param discountOffers  the new discount offers
+     * @param offerProducts  the snapshot of the catalog the offers were compiled against
+     * @return the version of the offers now current
+     */
+    public long replaceOffers(final List<DiscountOffer> discountOffers, final Catalog offerProducts) {
+        final OfferSet replacement = new OfferSet(discountOffers, offerProducts, 0);
+        return replace(current -> replacement.withVersion(current.getVersion() + 1));
+    }
+
+    /**
+     * Returns the version of the discount offers currently available, which starts at one and increases each time
+     * the offers are replaced.
+     *
+     * @return the offer version
+     */
+    public long getOfferVersion() {
+        return discountOffers.get().getVersion();
+    }
+
+    /* Allows a ReceiptCache to notice when prices change. */
+    Catalog getCatalog() {
+        return catalog;
+    }
+
+    /*
+     * Allows a BasketSession to evaluate only the offers affected by each change, and a ReceiptCache to notice when
+     * the offers are replaced.
+     */
+    OfferSet getOfferSet() {
+        return discountOffers.get();
     }
 
     /**
@@ -41,53 +136,178 @@ public final class ReceiptGenerator {
      * @return a generated receipt for the basket of products
      * @see Receipt
      */
-    public Receipt generateReceipt(final Map<Product, Long> basket) {
-        final Money subtotal = generateSubtotal(basket);
-        final List<AppliedOffer> appliedOffers = generateListOfOffersToApply(basket);
-        final Money finalTotal = generateDiscountedTotal(subtotal, appliedOffers);
+    @Override
+    public Receipt generateReceipt(final Basket basket) {
+        return generateLazyReceipt(basket).toReceipt();
+    }
 
-        return Receipt.builder().subtotal(subtotal)
-                                .appliedOffers(appliedOffers)
-                                .finalTotal(finalTotal)
-                                .build();
+    /**
+     * Generates a receipt for the basket of products supplied, converted into another currency.  The basket is
+     * priced in pence and each amount then converted, as described by {@link LazyReceipt#toReceipt(CurrencyRate)}.
+     *
+     * @param basket - the basket of products to generate a receipt for.
+     * @param rate - the rate to convert at.
+     * @return a generated receipt for the basket of products, in the rate's currency
+     */
+    public Receipt generateReceipt(final Basket basket, final CurrencyRate rate) {
+        return generateLazyReceipt(basket).toReceipt(rate);
     }
 
-    /*
-     * Generates the initial subtotal by iterating over the basket of products, multiplying each product by its unit
-     * cost, returning the sum of those as the initial subtotal.
+    /**
+     * Returns the total the customer would pay for the basket supplied, after discounts, in pence.
+     *
+     * The total is the same as the final total of {@link #generateReceipt(Basket)}, but no receipt, applied offers
+     * or Money amounts are created along the way, for callers such as price checks that only need the total.
+     *
+     * @param basket - the basket of products to price.
+     * @return the final total in pence
      */
-    private Money generateSubtotal(final Map<Product, Long> basket) {
-        return MonetaryUtils.gbpAmount(basket.entrySet().stream().mapToDouble(e -> e.getKey().getCostPerUnit() * e.getValue() )
-                .sum());
+    public long quoteTotalInPence(final Basket basket) {
+        long stageStartNanos = PricingMetrics.ENABLED ? System.nanoTime() : 0L;
+        final Catalog prices = pricesFor(basket, catalog);
+        final long subtotal = generateSubtotal(basket, prices);
+        if (PricingMetrics.ENABLED) {
+            stageStartNanos = PricingMetrics.INSTANCE.recordLatency(PricingMetrics.Stage.SUBTOTAL, stageStartNanos);
+        }
+
+        final OfferSet offers = discountOffers.get().boundTo(prices);
+        final OfferIndex index = offers.getIndex();
+        long totalDiscount = 0;
+        for (final int position : index.findUntriggeredOffers()) {
+            if (isOfferApplicable(basket, offers, position)) {
+                totalDiscount += calculateDiscount(basket, offers, position);
+            }
+        }
+        for (int i = 0; i < basket.getNumberOfDistinctProducts(); i++) {
+            final int productId = basket.getDistinctProductId(i);
+            for (final int position : index.findOffersTriggeredBy(productId)) {
+                if (index.isFirstTriggerInBasket(position, productId, basket)
+                        && isOfferApplicable(basket, offers, position)) {
+                    totalDiscount += calculateDiscount(basket, offers, position);
+                }
+            }
+        }
+        if (PricingMetrics.ENABLED) {
+            PricingMetrics.INSTANCE.recordLatency(PricingMetrics.Stage.OFFERS, stageStartNanos);
+        }
+        return subtotal - totalDiscount;
     }
 
-    /*
-     * Method takes in a Map of Product in basket along with the quantities.  These are then filtered to find the
-     * only applicable offers over the basket as a whole.
-     * The applicable offers are then applied to the basket of products, generating a list of the offers applied to the
-     * basket containing the offer description along with the disount applied per offer.
+    /**
+     * Returns the total the customer would pay for the basket supplied, after discounts.
+     *
+     * @param basket - the basket of products to price.
+     * @return the final total
+     * @see #quoteTotalInPence(Basket)
      */
-    private List<AppliedOffer> generateListOfOffersToApply(final Map<Product, Long> boughtItems) {
-        return discountOffers.stream().filter(e -> e.isOfferApplicable((boughtItems)))
-                       .map( e -> AppliedOffer.builder().description(e.getDescription())
-                                                         .discountAmount(e.calculateDiscountToApply(boughtItems))
-                                                         .build())
-                       .collect(Collectors.toList());
+    public Money quoteTotal(final Basket basket) {
+        return MonetaryUtils.gbpAmountFromPence(quoteTotalInPence(basket));
     }
 
-    /*
-     * Generates the final discounter total by calculating the sum of all the discounts applied by the offers and
-     * then subtracting it from the initial subtotal.
+    /**
+     * Generates a receipt for the basket of products supplied whose applied offers and text are only built when
+     * first asked for.  The totals are worked out straight away, from the offers current at the time.
+     *
+     * @param basket - the basket of products to generate a receipt for.
+     * @return a receipt for the basket of products
+     * @see #generateReceipt(Basket)
      */
-    private Money generateDiscountedTotal(final Money subtotal, final List<AppliedOffer> offers) {
-        final Money offerTotal = MonetaryUtils.gbpAmount(offers.stream().mapToDouble(e -> e.getDiscountAmount().getNumber().doubleValueExact())
-                .sum());
+    public LazyReceipt generateLazyReceipt(final Basket basket) {
+        long stageStartNanos = PricingMetrics.ENABLED ? System.nanoTime() : 0L;
+        final Catalog prices = pricesFor(basket, catalog);
+        final long subtotal = generateSubtotal(basket, prices);
+        if (PricingMetrics.ENABLED) {
+            stageStartNanos = PricingMetrics.INSTANCE.recordLatency(PricingMetrics.Stage.SUBTOTAL, stageStartNanos);
+        }
 
-        return subtotal.subtract(offerTotal);
+        final OfferSet offers = discountOffers.get().boundTo(prices);
+        final int[] candidates = offers.getIndex().findCandidateOffers(basket);
+        final int[] appliedPositions = new int[candidates.length];
+        final long[] discounts = new long[candidates.length];
+        int numberOfAppliedOffers = 0;
+        long totalDiscount = 0;
+        for (final int position : candidates) {
+            if (isOfferApplicable(basket, offers, position)) {
+                final long discount = calculateDiscount(basket, offers, position);
+                appliedPositions[numberOfAppliedOffers] = position;
+                discounts[numberOfAppliedOffers++] = discount;
+                totalDiscount += discount;
+            }
+        }
+        if (PricingMetrics.ENABLED) {
+            PricingMetrics.INSTANCE.recordLatency(PricingMetrics.Stage.OFFERS, stageStartNanos);
+        }
+        return new LazyReceipt(subtotal, subtotal - totalDiscount, offers.getIndex(), offers.getVersion(),
+                               numberOfAppliedOffers == candidates.length
+                               ? appliedPositions : Arrays.copyOf(appliedPositions, numberOfAppliedOffers),
+                               numberOfAppliedOffers == candidates.length
+                               ? discounts : Arrays.copyOf(discounts, numberOfAppliedOffers));
+    }
 
+    /**
+     * Generates a receipt for the products supplied, with the quantity bought of each.
+     *
+     * @param basket - the products and quantities to generate a receipt for.
+     * @return a generated receipt for the basket of products
+     * @see #generateReceipt(Basket)
+     */
+    public Receipt generateReceipt(final Map<Product, Long> basket) {
+        return generateReceipt(Basket.of(basket));
+    }
+
+    /*
+     * Returns the catalog snapshot the basket was resolved against, tying a basket built by hand to the current
+     * snapshot of the catalog supplied, so that its subtotal and offers are priced from the same version.
+     */
+    static Catalog pricesFor(final Basket basket, final Catalog catalog) {
+        Catalog prices = basket.getCatalog();
+        if (prices == null) {
+            prices = catalog.snapshot();
+            basket.setCatalog(prices);
+        }
+        return prices;
     }
 
- }
+    /*
+     * Generates the initial subtotal in pence by iterating over the basket of products, multiplying each product by
+     * its unit cost from the catalog, returning the sum of those as the initial subtotal.
+     */
+    static long generateSubtotal(final Basket basket, final Catalog catalog) {
+        long subtotal = 0;
+        for (int i = 0; i < basket.getNumberOfDistinctProducts(); i++) {
+            final int productId = basket.getDistinctProductId(i);
+            subtotal += catalog.getCostPerUnitInPence(productId) * basket.getQuantity(productId);
+        }
+        return subtotal;
+    }
 
+    /*
+     * Returns whether the offer at the position supplied applies to the basket, counting the evaluation against the
+     * offer when metrics are enabled.  Kept apart from the discount, as any long, negative or not, is a discount.
+     */
+    private static boolean isOfferApplicable(final Basket basket, final OfferSet offers, final int position) {
+        if (PricingMetrics.ENABLED) {
+            offers.getCounters(position).recordEvaluation();
+        }
+        return offers.getIndex().getOffer(position).isOfferApplicable(basket);
+    }
 
+    /*
+     * Returns the discount the applicable offer at the position supplied gives the basket, counting the hit against
+     * the offer when metrics are enabled.
+     */
+    private static long calculateDiscount(final Basket basket, final OfferSet offers, final int position) {
+        final long discount = offers.getIndex().getOffer(position).calculateDiscountInPence(basket);
+        if (PricingMetrics.ENABLED) {
+            offers.getCounters(position).recordHit(discount);
+        }
+        return discount;
+    }
 
+    /* Publishes the offers the update returns, retiring the offers replaced. */
+    private long replace(final UnaryOperator<OfferSet> update) {
+        final OfferSet retired = this.discountOffers.getAndUpdate(update);
+        retired.retire();
+        return retired.getVersion() + 1;
+    }
+}
@@ -0,0 +1,244 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.receipt;
+
+import com.wcl.pricebasket.metrics.PricingMetrics;
+import com.wcl.pricebasket.utils.MonetaryUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.List;
+
+/**
+ * Renders receipts as text, in the format described by {@link Receipt}, straight into a destination supplied by the
+ * caller.
+ *
+ * Amounts are converted to pence, or the minor units of the receipt's currency, and written out digit by digit, so no
+ * format Strings are parsed and no Strings are created along the way.  Receipts in pounds show discounts under a
+ * pound in pence; those in other currencies, such as euros or dollars, show every amount with its currency symbol.
+ * A {@link ByteBuffer} is written UTF-8 encoded, without going through a CharsetEncoder.
+ *
+ * Instances hold scratch space that is reused between receipts, so are not thread safe.
+ */
+public final class ReceiptRenderer {
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    private static final String POUND_SIGN = "£";
+    private static final long PENCE_PER_POUND = 100L;
+
+    /** Enough for the digits of any long. */
+    private final char[] digits = new char[20];
+    private final Utf8ByteBufferAppender byteBufferAppender = new Utf8ByteBufferAppender();
+
+    /**
+     * Renders the receipt onto the end of the Appendable supplied.
+     *
+     * @param receipt  the receipt to render
+     * @param destination  where to write the receipt text
+     * @throws IOException if the destination cannot be written to
+     */
+    public void render(final Receipt receipt, final Appendable destination) throws IOException {
+        final long startNanos = PricingMetrics.ENABLED ? System.nanoTime() : 0L;
+        final String currencySymbol = findCurrencySymbol(receipt.getSubtotal().getCurrency().getCurrencyCode());
+        renderAmountLine(destination, "Subtotal: ", currencySymbol, MonetaryUtils.toPence(receipt.getSubtotal()));
+        destination.append(LINE_SEPARATOR);
+        renderAppliedOffers(destination, currencySymbol, receipt.getAppliedOffers());
+        renderAmountLine(destination, "Total: ", currencySymbol, MonetaryUtils.toPence(receipt.getFinalTotal()));
+        if (PricingMetrics.ENABLED) {
+            PricingMetrics.INSTANCE.recordLatency(PricingMetrics.Stage.RENDER, startNanos);
+        }
+    }
+
+    /**
+     * Renders the receipt onto the end of the StringBuilder supplied.
+     *
+     * @param receipt  the receipt to render
+     * @param destination  where to write the receipt text
+     * @return the StringBuilder supplied
+     */
+    public StringBuilder render(final Receipt receipt, final StringBuilder destination) {
+        renderToMemory(receipt, destination);
+        return destination;
+    }
+
+    /**
+     * Renders the receipt into the CharBuffer supplied, from its current position.
+     *
+     * @param receipt  the receipt to render
+     * @param destination  where to write the receipt text
+     * @return the CharBuffer supplied
+     * @throws BufferOverflowException if the receipt does not fit within the space remaining; the buffer's position
+     * is then undefined
+     */
+    public CharBuffer render(final Receipt receipt, final CharBuffer destination) {
+        renderToMemory(receipt, destination);
+        return destination;
+    }
+
+    /**
+     * Renders the receipt, UTF-8 encoded, into the ByteBuffer supplied, from its current position.
+     *
+     * @param receipt  the receipt to render
+     * @param destination  where to write the receipt text
+     * @return the ByteBuffer supplied
+     * @throws BufferOverflowException if the receipt does not fit within the space remaining; the buffer's position
+     * is then undefined
+     */
+    public ByteBuffer render(final Receipt receipt, final ByteBuffer destination) {
+        renderToMemory(receipt, byteBufferAppender.wrap(destination));
+        byteBufferAppender.wrap(null);
+        return destination;
+    }
+
+    /* Renders to a destination held in memory, which cannot fail with an IOException. */
+    private void renderToMemory(final Receipt receipt, final Appendable destination) {
+        try {
+            render(receipt, destination);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /* Returns the symbol shown before amounts, falling back on the currency code for currencies without one. */
+    private static String findCurrencySymbol(final String currencyCode) {
+        switch (currencyCode) {
+            case "GBP":
+                return POUND_SIGN;
+            case "EUR":
+                return "€";
+            case "USD":
+                return "$";
+            default:
+                return currencyCode + ' ';
+        }
+    }
+
+    /* Renders the applied offers, with a generic message if no offers were applicable. */
+    private void renderAppliedOffers(final Appendable destination,
+                                     final String currencySymbol,
+                                     final List<AppliedOffer> appliedOffers) throws IOException {
+        if (appliedOffers == null || appliedOffers.isEmpty()) {
+            destination.append("(no offers available)").append(LINE_SEPARATOR);
+            return;
+        }
+
+        for (int i = 0; i < appliedOffers.size(); i++) {
+            final AppliedOffer appliedOffer = appliedOffers.get(i);
+            final long discount = MonetaryUtils.toPence(appliedOffer.getDiscountAmount());
+
+            destination.append(appliedOffer.getDescription()).append(": -");
+            if (discount < PENCE_PER_POUND && POUND_SIGN.equals(currencySymbol)) {
+                renderNumber(destination, discount);
+                destination.append('p');
+            } else {
+                renderAmount(destination, currencySymbol, discount);
+            }
+            destination.append(LINE_SEPARATOR);
+        }
+    }
+
+    private void renderAmountLine(final Appendable destination, final String label, final String currencySymbol,
+                                  final long pence) throws IOException {
+        destination.append(label);
+        renderAmount(destination, currencySymbol, pence);
+    }
+
+    /* Renders pence, or another currency's minor units, as £0.00, with any minus sign following the symbol. */
+    private void renderAmount(final Appendable destination, final String currencySymbol,
+                              final long pence) throws IOException {
+        destination.append(currencySymbol);
+        if (pence < 0) {
+            destination.append('-');
+        }
+        renderNumber(destination, Math.abs(pence / PENCE_PER_POUND));
+
+        final int pennies = (int) Math.abs(pence % PENCE_PER_POUND);
+        destination.append('.')
+                   .append((char) ('0' + pennies / 10))
+                   .append((char) ('0' + pennies % 10));
+    }
+
+    /* Renders the decimal digits of a number, working from the lowest digit into the scratch space. */
+    private void renderNumber(final Appendable destination, final long number) throws IOException {
+        if (number < 0) {
+            destination.append('-');
+        }
+
+        long remaining = number;
+        int position = digits.length;
+        do {
+            digits[--position] = (char) ('0' + Math.abs(remaining % 10));
+            remaining /= 10;
+        } while (remaining != 0);
+
+        for (; position < digits.length; position++) {
+            destination.append(digits[position]);
+        }
+    }
+
+    /*
+     * Encodes characters appended as UTF-8 into a ByteBuffer.  A high surrogate is held back until the low surrogate
+     * following it arrives, so that the pair is written as a single four byte sequence.
+     */
+    private static final class Utf8ByteBufferAppender implements Appendable {
+        private ByteBuffer buffer;
+        private char highSurrogate;
+
+        Utf8ByteBufferAppender wrap(final ByteBuffer buffer) {
+            this.buffer = buffer;
+            this.highSurrogate = 0;
+            return this;
+        }
+
+        @Override
+        public Appendable append(final CharSequence characters) {
+            return append(characters, 0, characters.length());
+        }
+
+        @Override
+        public Appendable append(final CharSequence characters, final int start, final int end) {
+            for (int i = start; i < end; i++) {
+                append(characters.charAt(i));
+            }
+            return this;
+        }
+
+        @Override
+        public Appendable append(final char character) {
+            if (highSurrogate != 0) {
+                final char pendingSurrogate = highSurrogate;
+                highSurrogate = 0;
+                if (Character.isLowSurrogate(character)) {
+                    final int codePoint = Character.toCodePoint(pendingSurrogate, character);
+                    buffer.put((byte) (0xF0 | codePoint >> 18))
+                          .put((byte) (0x80 | codePoint >> 12 & 0x3F))
+                          .put((byte) (0x80 | codePoint >> 6 & 0x3F))
+                          .put((byte) (0x80 | codePoint & 0x3F));
+                    return this;
+                }
+                // An unpaired surrogate cannot be encoded.
+                buffer.put((byte) '?');
+            }
+
+            if (character < 0x80) {
+                buffer.put((byte) character);
+            } else if (character < 0x800) {
+                buffer.put((byte) (0xC0 | character >> 6))
+                      .put((byte) (0x80 | character & 0x3F));
+            } else if (Character.isHighSurrogate(character)) {
+                highSurrogate = character;
+            } else if (Character.isLowSurrogate(character)) {
+                buffer.put((byte) '?');
+            } else {
+                buffer.put((byte) (0xE0 | character >> 12))
+                      .put((byte) (0x80 | character >> 6 & 0x3F))
+                      .put((byte) (0x80 | character & 0x3F));
+            }
+            return this;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Queue;
+
+/**
+ * The state of one client connection to the {@link PricingServer}.
+ *
+ * The selector thread splits the bytes read into requests and writes out the responses; a worker takes the requests
+ * and adds the responses.  Everything shared between the two is guarded by the connection's lock.
+ */
+final class Connection {
+    /** Queued in place of a request that exceeded the maximum length, so that it is answered in turn. */
+    static final String REQUEST_TOO_LONG = new String("Request too long.");
+
+    /** Requests longer than this are answered with an error, and the rest of the line skipped. */
+    private static final int MAXIMUM_REQUEST_LENGTH = 64 * 1024;
+    /** Reading stops while more than this many bytes of responses are waiting to be written. */
+    private static final int MAXIMUM_PENDING_OUTPUT = 1024 * 1024;
+    private static final int INITIAL_OUTPUT_SIZE = 4096;
+    private static final int INITIAL_REQUEST_SIZE = 256;
+
+    private final PricingServer server;
+    private final SocketChannel channel;
+    private final int maximumQueuedRequests;
+    private SelectionKey key;
+
+    /** The UTF-8 bytes of the request being read, used only by the selector thread. */
+    private byte[] partialRequest = new byte[INITIAL_REQUEST_SIZE];
+    private int partialRequestLength;
+    private boolean skippingRequest;
+
+    private final Queue<String> requests = new ArrayDeque<>();
+    /** Responses waiting to be written, in write mode. */
+    private ByteBuffer output = ByteBuffer.allocate(INITIAL_OUTPUT_SIZE);
+    /** True while the connection is waiting for, or held by, a worker. */
+    private boolean scheduled;
+    private boolean inputClosed;
+
+    Connection(final PricingServer server, final SocketChannel channel, final int maximumQueuedRequests) {
+        this.server = server;
+        this.channel = channel;
+        this.maximumQueuedRequests = maximumQueuedRequests;
+    }
+
+    void register(final Selector selector) throws ClosedChannelException {
+        key = channel.register(selector, SelectionKey.OP_READ, this);
+    }
+
+    /*
+     * Reads what is available from the channel into the buffer supplied, queueing each complete request.  Returns
+     * true if the connection now needs handing to a worker.
+     */
+    boolean read(final ByteBuffer buffer) throws IOException {
+        final int bytesRead = channel.read(buffer);
+        buffer.flip();
+
+        final boolean needsWorker;
+        synchronized (this) {
+            while (buffer.hasRemaining()) {
+                addRequestByte(buffer.get());
+            }
+            if (bytesRead < 0) {
+                // A final request need not end with a line break.
+                if (partialRequestLength > 0) {
+                    addRequestByte((byte) '\n');
+                }
+                inputClosed = true;
+            }
+            needsWorker = !scheduled && !requests.isEmpty();
+            if (needsWorker) {
+                scheduled = true;
+            }
+        }
+        updateInterest();
+        return needsWorker;
+    }
+
+    /* Takes the next request to price, or returns null, releasing the connection, if there are none. */
+    synchronized String nextRequest() {
+        final String request = requests.poll();
+        if (request == null) {
+            scheduled = false;
+            if (inputClosed) {
+                server.requestUpdate(this);
+            }
+        } else if (requests.size() == maximumQueuedRequests - 1) {
+            // There is room to read more requests again.
+            server.requestUpdate(this);
+        }
+        return request;
+    }
+
+    /* Adds a response to those waiting to be written. */
+    void respond(final ByteBuffer response) {
+        final boolean wasEmpty;
+        synchronized (this) {
+            wasEmpty = output.position() == 0;
+            if (output.remaining() < response.remaining()) {
+                final ByteBuffer larger = ByteBuffer.allocate(Math.max(output.capacity() * 2,
+                                                                       output.position() + response.remaining()));
+                output.flip();
+                output = larger.put(output);
+            }
+            output.put(response);
+        }
+        if (wasEmpty) {
+            server.requestUpdate(this);
+        }
+    }
+
+    /* Writes as much of the waiting responses as the channel will take. */
+    void write() throws IOException {
+        synchronized (this) {
+            output.flip();
+            channel.write(output);
+            output.compact();
+        }
+        updateInterest();
+    }
+
+    /*
+     * Brings the interest in reading and writing up to date, reading only while there is room for more requests and
+     * writing only while there are responses waiting.  Called only by the selector thread.
+     */
+    synchronized void updateInterest() {
+        if (!key.isValid()) {
+            return;
+        }
+        if (inputClosed && !scheduled && requests.isEmpty() && output.position() == 0) {
+            close();
+            return;
+        }
+
+        int interest = 0;
+        if (!inputClosed && requests.size() < maximumQueuedRequests && output.position() < MAXIMUM_PENDING_OUTPUT) {
+            interest |= SelectionKey.OP_READ;
+        }
+        if (output.position() > 0) {
+            interest |= SelectionKey.OP_WRITE;
+        }
+        key.interestOps(interest);
+    }
+
+    void close() {
+        key.cancel();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Closing anyway.
+        }
+    }
+
+    /* Adds a byte to the request being read, decoding the request as UTF-8, as responses are encoded, once complete. */
+    private void addRequestByte(final byte character) {
+        if (character == '\n') {
+            if (!skippingRequest) {
+                int length = partialRequestLength;
+                if (length > 0 && partialRequest[length - 1] == '\r') {
+                    length--;
+                }
+                requests.add(new String(partialRequest, 0, length, StandardCharsets.UTF_8));
+            }
+            partialRequestLength = 0;
+            skippingRequest = false;
+        } else if (!skippingRequest) {
+            if (partialRequestLength == MAXIMUM_REQUEST_LENGTH) {
+                requests.add(REQUEST_TOO_LONG);
+                partialRequestLength = 0;
+                skippingRequest = true;
+            } else {
+                if (partialRequestLength == partialRequest.length) {
+                    partialRequest = Arrays.copyOf(partialRequest,
+                                                   Math.min(MAXIMUM_REQUEST_LENGTH, partialRequest.length * 2));
+                }
+                partialRequest[partialRequestLength++] = character;
+            }
+        }
+    }
+}
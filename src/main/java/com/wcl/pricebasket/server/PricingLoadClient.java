@@ -0,0 +1,152 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.server;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * A load generator for the {@link PricingServer}, measuring the latency of requests as seen by a number of till
+ * clients, each sending its next request as soon as the previous response arrives.
+ *
+ * Run from the command line as {@code PricingLoadClient <host> <port> <requests per connection> <connections>...},
+ * for example {@code PricingLoadClient localhost 7070 10000 1 10 100}, to report the throughput along with the median
+ * and 99th percentile latency at each number of connections.
+ */
+public final class PricingLoadClient {
+    private static final String REQUEST = "Pricebasket Apples Milk Bread Soup Soup";
+
+    private final InetSocketAddress address;
+
+    public PricingLoadClient(final InetSocketAddress address) {
+        this.address = address;
+    }
+
+    /**
+     * Sends requests over the number of connections supplied, returning the latency of every request in nanoseconds,
+     * in ascending order.
+     *
+     * @param connections  the number of connections to open
+     * @param requestsPerConnection  the number of requests to send on each connection
+     * @return the sorted request latencies
+     * @throws IOException if a connection fails
+     * @throws InterruptedException if interrupted while waiting for the connections to finish
+     */
+    public long[] measureLatencies(final int connections, final int requestsPerConnection)
+            throws IOException, InterruptedException {
+        final long[][] latencies = new long[connections][];
+        final List<Thread> clients = new ArrayList<>();
+        final List<IOException> failures = new ArrayList<>();
+        final CountDownLatch start = new CountDownLatch(1);
+
+        for (int i = 0; i < connections; i++) {
+            final int client = i;
+            clients.add(new Thread(() -> {
+                try {
+                    start.await();
+                    latencies[client] = runClient(requestsPerConnection);
+                } catch (IOException e) {
+                    synchronized (failures) {
+                        failures.add(e);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "pricing-load-client-" + i));
+        }
+        clients.forEach(Thread::start);
+        start.countDown();
+        for (final Thread client : clients) {
+            client.join();
+        }
+        if (!failures.isEmpty()) {
+            throw failures.get(0);
+        }
+
+        final long[] allLatencies = Arrays.stream(latencies).flatMapToLong(Arrays::stream).toArray();
+        Arrays.sort(allLatencies);
+        return allLatencies;
+    }
+
+    /**
+     * Returns the latency at the given percentile of a sorted array of latencies.
+     *
+     * @param sortedLatencies  the latencies, in ascending order
+     * @param percentile  the percentile, from 0 to 100
+     * @return the latency at the percentile
+     */
+    public static long percentile(final long[] sortedLatencies, final double percentile) {
+        if (sortedLatencies.length == 0) {
+            return 0L;
+        }
+        final int index = (int) Math.ceil(percentile / 100 * sortedLatencies.length) - 1;
+        return sortedLatencies[Math.max(0, Math.min(index, sortedLatencies.length - 1))];
+    }
+
+    /* Sends each request and waits for its response, timing the round trip. */
+    private long[] runClient(final int requests) throws IOException {
+        final long[] latencies = new long[requests];
+        final byte[] request = (REQUEST + "\n").getBytes(StandardCharsets.UTF_8);
+
+        try (Socket socket = new Socket(address.getAddress(), address.getPort())) {
+            socket.setTcpNoDelay(true);
+            final OutputStream output = socket.getOutputStream();
+            final BufferedReader input = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                                                                                  StandardCharsets.UTF_8));
+            for (int i = 0; i < requests; i++) {
+                final long startTime = System.nanoTime();
+                output.write(request);
+                output.flush();
+                readResponse(input);
+                latencies[i] = System.nanoTime() - startTime;
+            }
+        }
+        return latencies;
+    }
+
+    /* Reads up to and including the blank line ending a response. */
+    private static void readResponse(final BufferedReader input) throws IOException {
+        String line;
+        while ((line = input.readLine()) != null) {
+            if (line.isEmpty()) {
+                return;
+            }
+        }
+        throw new IOException("Connection closed before the response was complete.");
+    }
+
+    public static void main(final String... args) throws IOException, InterruptedException {
+        if (args.length < 4) {
+            System.out.println("Usage: PricingLoadClient <host> <port> <requests per connection> <connections>...");
+            return;
+        }
+        final PricingLoadClient loadClient = new PricingLoadClient(new InetSocketAddress(args[0],
+                                                                                         Integer.parseInt(args[1])));
+        final int requestsPerConnection = Integer.parseInt(args[2]);
+
+        // Warm up the server before measuring.
+        loadClient.measureLatencies(1, requestsPerConnection);
+
+        for (int i = 3; i < args.length; i++) {
+            final int connections = Integer.parseInt(args[i]);
+            final long startTime = System.nanoTime();
+            final long[] latencies = loadClient.measureLatencies(connections, requestsPerConnection);
+            final double elapsedSeconds = (System.nanoTime() - startTime) / 1e9;
+
+            System.out.println(String.format("connections=%d requests=%d throughput=%.0f/s p50=%dus p99=%dus",
+                                             connections, latencies.length, latencies.length / elapsedSeconds,
+                                             percentile(latencies, 50) / 1000, percentile(latencies, 99) / 1000));
+        }
+    }
+}
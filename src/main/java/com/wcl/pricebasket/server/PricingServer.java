@@ -0,0 +1,263 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.server;
+
+import com.wcl.pricebasket.parser.PricebasketParser;
+import com.wcl.pricebasket.receipt.BasketPricer;
+import com.wcl.pricebasket.receipt.ReceiptRenderer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * A TCP server pricing baskets for many till clients at once.
+ *
+ * Clients send "Pricebasket ..." requests, one per line, and may send many before reading any responses.  Each
+ * response is the receipt text, or the error message for a request that could not be priced, followed by a blank
+ * line; responses on a connection are returned in the order its requests were sent.  Requests and responses are both
+ * UTF-8.
+ *
+ * A single thread runs a selector accepting connections, reading requests and writing responses, so any number of
+ * idle connections costs no threads.  Requests are priced by a fixed number of worker threads.  A connection is
+ * handed to one worker at a time, which keeps its responses in order, while different connections are priced in
+ * parallel.  Each connection may hold a bounded number of requests waiting to be priced; once that queue is full the
+ * server stops reading from the connection until the workers catch up, so a client sending faster than it can be
+ * served is held back by TCP flow control rather than filling the heap.
+ */
+public final class PricingServer implements AutoCloseable {
+    private static final int READ_BUFFER_SIZE = 16 * 1024;
+    private static final String UNABLE_TO_PRICE = "Unable to price the basket.";
+
+    private final PricebasketParser parser;
+    private final BasketPricer receiptGenerator;
+    private final int maximumQueuedRequests;
+
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final BlockingQueue<Connection> connectionsToPrice = new LinkedBlockingQueue<>();
+    /** Connections whose interest in reading or writing has changed since the selector last looked. */
+    private final Queue<Connection> connectionsToUpdate = new ConcurrentLinkedQueue<>();
+    private final List<Thread> threads = new ArrayList<>();
+
+    private volatile boolean running = true;
+
+    /**
+     * Starts a server listening on the address supplied.
+     *
+     * @param address  the address to listen on; a port of zero chooses any free port
+     * @param parser  the parser for requests
+     * @param receiptGenerator  the generator pricing the baskets
+     * @param numberOfWorkers  the number of threads pricing baskets
+     * @param maximumQueuedRequests  the number of requests each connection may have waiting to be priced
+     * @throws IOException if the server cannot listen on the address
+     * @throws IllegalArgumentException if the number of workers or queued requests is less than one
+     */
+    public PricingServer(final InetSocketAddress address,
+                         final PricebasketParser parser,
+                         final BasketPricer receiptGenerator,
+                         final int numberOfWorkers,
+                         final int maximumQueuedRequests) throws IOException {
+        if (numberOfWorkers < 1) {
+            throw new IllegalArgumentException(String.format("Invalid number of workers %d.", numberOfWorkers));
+        }
+        if (maximumQueuedRequests < 1) {
+            throw new IllegalArgumentException(String.format("Invalid queue size %d.", maximumQueuedRequests));
+        }
+        this.parser = parser;
+        this.receiptGenerator = receiptGenerator;
+        this.maximumQueuedRequests = maximumQueuedRequests;
+
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(address);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+
+        threads.add(new Thread(this::runSelector, "pricing-selector"));
+        for (int i = 0; i < numberOfWorkers; i++) {
+            threads.add(new Thread(new Worker(), "pricing-worker-" + i));
+        }
+        for (final Thread thread : threads) {
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Returns the address the server is listening on.
+     *
+     * @return the local address
+     * @throws IOException if the address cannot be found
+     */
+    public InetSocketAddress getLocalAddress() throws IOException {
+        return (InetSocketAddress) serverChannel.getLocalAddress();
+    }
+
+    /**
+     * Stops the server, closing every connection.  Requests not yet priced are abandoned.
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        selector.wakeup();
+        for (final Thread thread : threads) {
+            thread.interrupt();
+        }
+        for (final Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+    }
+
+    /* Asks the selector thread to bring the connection's interest in reading and writing up to date. */
+    void requestUpdate(final Connection connection) {
+        connectionsToUpdate.add(connection);
+        selector.wakeup();
+    }
+
+    private void runSelector() {
+        final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+        try {
+            while (running) {
+                selector.select();
+
+                Connection connection;
+                while ((connection = connectionsToUpdate.poll()) != null) {
+                    connection.updateInterest();
+                }
+
+                final Iterator<SelectionKey> selectedKeys = selector.selectedKeys().iterator();
+                while (selectedKeys.hasNext()) {
+                    final SelectionKey key = selectedKeys.next();
+                    selectedKeys.remove();
+                    handle(key, readBuffer);
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            // The server can no longer accept or serve connections, so stops.
+        } finally {
+            closeQuietly();
+        }
+    }
+
+    private void handle(final SelectionKey key, final ByteBuffer readBuffer) throws IOException {
+        if (!key.isValid()) {
+            return;
+        }
+        if (key.isAcceptable()) {
+            accept();
+            return;
+        }
+
+        final Connection connection = (Connection) key.attachment();
+        try {
+            if (key.isReadable()) {
+                readBuffer.clear();
+                if (connection.read(readBuffer)) {
+                    connectionsToPrice.add(connection);
+                }
+            }
+            if (key.isValid() && key.isWritable()) {
+                connection.write();
+            }
+        } catch (IOException e) {
+            connection.close();
+        }
+    }
+
+    private void accept() throws IOException {
+        final SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+
+        final Connection connection = new Connection(this, channel, maximumQueuedRequests);
+        connection.register(selector);
+    }
+
+    private void closeQuietly() {
+        for (final SelectionKey key : selector.keys()) {
+            try {
+                key.channel().close();
+            } catch (IOException e) {
+                // Closing anyway.
+            }
+        }
+        try {
+            selector.close();
+        } catch (IOException e) {
+            // Closing anyway.
+        }
+    }
+
+    /* Prices the requests queued on each connection handed to it, writing the responses back to the connection. */
+    private final class Worker implements Runnable {
+        private final ReceiptRenderer renderer = new ReceiptRenderer();
+        private final StringBuilder response = new StringBuilder();
+
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    final Connection connection = connectionsToPrice.take();
+
+                    String request;
+                    while ((request = connection.nextRequest()) != null) {
+                        connection.respond(StandardCharsets.UTF_8.encode(CharBuffer.wrap(price(request))));
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private StringBuilder price(final String request) {
+            response.setLength(0);
+            if (request == Connection.REQUEST_TOO_LONG) {
+                response.append("Request too long.");
+            } else {
+                renderReceipt(request);
+            }
+            return response.append(System.lineSeparator()).append(System.lineSeparator());
+        }
+
+        /*
+         * Any failure is answered in place of the receipt, so the worker carries on with the connection's remaining
+         * requests and the pool keeps its size.
+         */
+        private void renderReceipt(final String request) {
+            try {
+                renderer.render(receiptGenerator.generateReceipt(parser.retrieveBasket(request)), response);
+            } catch (IllegalArgumentException e) {
+                response.setLength(0);
+                response.append(e.getMessage());
+            } catch (RuntimeException e) {
+                response.setLength(0);
+                response.append(UNABLE_TO_PRICE);
+            }
+        }
+    }
+}
@@ -4,12 +4,61 @@ import org.javamoney.moneta.Money;
 
 import javax.money.CurrencyUnit;
 import javax.money.Monetary;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 
+/**
+ * Helpers for creating and converting monetary amounts.
+ *
+ * Pricing is performed on long amounts of pence; {@link Money} is only created at the edges of the application, for
+ * example when a receipt is handed back to the caller.
+ */
 public final class MonetaryUtils {
+    /** Resolved once, rather than looking up the currency for every amount created. */
+    private static final CurrencyUnit GBP = Monetary.getCurrency("GBP");
+
+    private static final int PENCE_SCALE = 2;
+
     private MonetaryUtils() {}
 
     public static Money gbpAmount(final double amount) {
-        return createMoney(amount, Monetary.getCurrency("GBP"));
+        return createMoney(amount, GBP);
+    }
+
+    /**
+     * Creates a GBP amount from a number of pence.
+     *
+     * @param pence  the amount in pence
+     * @return the GBP amount
+     */
+    public static Money gbpAmountFromPence(final long pence) {
+        return Money.of(BigDecimal.valueOf(pence, PENCE_SCALE), GBP);
+    }
+
+    /**
+     * Converts a monetary amount into pence, rounding half up to the nearest penny.
+     *
+     * @param amount  the amount to convert
+     * @return the amount in pence
+     */
+    public static long toPence(final Money amount) {
+        return amount.getNumber().numberValue(BigDecimal.class)
+                                 .setScale(PENCE_SCALE, RoundingMode.HALF_UP)
+                                 .unscaledValue()
+                                 .longValueExact();
+    }
+
+    /**
+     * Calculates a percentage of an amount of pence, rounding half away from zero to the nearest penny, so that a
+     * negative amount, such as a refund, rounds to the negation of the same positive amount.
+     *
+     * @param pence  the amount in pence
+     * @param percentage  the percentage to take, ie 10 for 10%
+     * @return the percentage of the amount, in pence
+     */
+    public static long percentageOf(final long pence, final long percentage) {
+        final long hundredthsOfPence = pence * percentage;
+        return hundredthsOfPence >= 0 ? (hundredthsOfPence + 50) / 100 : -((50 - hundredthsOfPence) / 100);
     }
 
     private static Money createMoney(final double amount, final CurrencyUnit currencyUnit) {
@@ -0,0 +1,76 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.wire;
+
+import com.wcl.pricebasket.entities.Basket;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Reads a stream of encoded baskets from a channel, such as a socket or file, one basket at a time.
+ *
+ * Bytes are read from the channel in blocks into a single buffer, which is reused for the life of the reader, and
+ * each basket is decoded straight from the buffer into the basket the caller supplies; a basket split across two
+ * blocks is decoded once the rest has arrived.  The channel should be in blocking mode.
+ *
+ * Instances are not thread safe.
+ *
+ * @see BasketCodec
+ */
+public final class BasketChannelReader {
+    private final ReadableByteChannel channel;
+    private final BasketCodec codec;
+    /** Holds the bytes read but not yet decoded, ready to be read from. */
+    private final ByteBuffer buffer;
+
+    /**
+     * Creates a reader for the channel supplied.
+     *
+     * @param channel  the channel to read from
+     * @param codec  the codec decoding the baskets
+     * @param bufferSize  the number of bytes to read at a time, which must exceed the length of any single basket
+     * @throws IllegalArgumentException if the buffer size is less than one
+     */
+    public BasketChannelReader(final ReadableByteChannel channel, final BasketCodec codec, final int bufferSize) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException(String.format("Invalid buffer size %d.", bufferSize));
+        }
+        this.channel = channel;
+        this.codec = codec;
+        this.buffer = ByteBuffer.allocate(bufferSize);
+        this.buffer.flip();
+    }
+
+    /**
+     * Reads the next basket from the channel, adding its products to the basket supplied.
+     *
+     * @param basket  the basket to add the products to
+     * @return true if a basket was read, false if the channel ended cleanly after the previous basket
+     * @throws IOException if the channel cannot be read
+     * @throws IllegalArgumentException if the basket is invalid, in which case the next call reads the basket
+     * following it; if the channel ends part way through a basket; or if a basket does not fit within the buffer
+     * @see BasketCodec#decode(ByteBuffer, Basket)
+     */
+    public boolean read(final Basket basket) throws IOException {
+        while (!codec.decode(buffer, basket)) {
+            buffer.compact();
+            if (!buffer.hasRemaining()) {
+                buffer.flip();
+                throw new IllegalArgumentException("Basket too long.");
+            }
+            final int bytesRead = channel.read(buffer);
+            buffer.flip();
+            if (bytesRead < 0) {
+                if (buffer.hasRemaining()) {
+                    throw new IllegalArgumentException("Truncated basket.");
+                }
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,161 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.wire;
+
+import com.wcl.pricebasket.catalog.Catalog;
+import com.wcl.pricebasket.catalog.ProductCatalog;
+import com.wcl.pricebasket.entities.Basket;
+import com.wcl.pricebasket.metrics.PricingMetrics;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes baskets in a compact binary form, for upstream systems to send baskets without going through the text
+ * format read by {@link com.wcl.pricebasket.parser.PricebasketParser}.
+ *
+ * A basket is written as the number of distinct products, then the product id and quantity of each, all as variable
+ * length integers, so a basket of a few everyday products takes a handful of bytes.  Baskets are written one after
+ * another with no other framing; a decoder reading from a stream can tell when it holds only part of a basket and
+ * wait for the rest.
+ *
+ * Product ids are checked against the {@link Catalog} supplied, the built in {@link ProductCatalog} by default.
+ * Decoding is recorded as the parse stage when metrics are enabled.  Instances hold no state, so may be shared
+ * between threads.
+ */
+public final class BasketCodec {
+    private final Catalog catalog;
+
+    public BasketCodec() {
+        this(ProductCatalog.INSTANCE);
+    }
+
+    public BasketCodec(final Catalog catalog) {
+        this.catalog = catalog;
+    }
+
+    /**
+     * Writes the basket into the buffer supplied, from its current position.
+     *
+     * @param basket  the basket to encode
+     * @param buffer  where to write the basket
+     * @throws BufferOverflowException if the basket does not fit within the space remaining; the buffer's position
+     * is then left where it was
+     * @throws IllegalArgumentException if the basket is empty or holds a quantity less than one
+     */
+    public void encode(final Basket basket, final ByteBuffer buffer) {
+        final int numberOfProducts = basket.getNumberOfDistinctProducts();
+        if (numberOfProducts == 0) {
+            throw new IllegalArgumentException("No products to purchase were entered.");
+        }
+
+        final int start = buffer.position();
+        try {
+            VarInts.writeUnsigned(buffer, numberOfProducts);
+            for (int i = 0; i < numberOfProducts; i++) {
+                final int productId = basket.getDistinctProductId(i);
+                final long quantity = basket.getQuantity(productId);
+                if (quantity < 1) {
+                    throw new IllegalArgumentException(String.format("Invalid quantity %d.", quantity));
+                }
+                VarInts.writeUnsigned(buffer, productId);
+                VarInts.writeUnsigned(buffer, quantity);
+            }
+        } catch (BufferOverflowException | IllegalArgumentException e) {
+            buffer.position(start);
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the next basket from the buffer supplied, adding its products to the basket supplied.
+     *
+     * If the buffer holds only part of the next basket, nothing is read and false is returned, so that the caller
+     * can read more into the buffer and try again.  A basket that is well formed but invalid is read past, leaving
+     * the buffer at the start of the following basket, before the exception is thrown.
+     *
+     * @param buffer  the encoded baskets, from the current position
+     * @param basket  the basket to add the products to
+     * @return true if a basket was read, false if the buffer holds only part of one
+     * @throws IllegalArgumentException if the basket is empty, names a product not within the catalog or names one
+     * twice, holds a quantity less than one or too large to add, or is malformed; nothing is added to the basket
+     */
+    public boolean decode(final ByteBuffer buffer, final Basket basket) {
+        final long startNanos = PricingMetrics.ENABLED ? System.nanoTime() : 0L;
+        final int start = buffer.position();
+        final Catalog products = basket.getCatalog() != null ? basket.getCatalog() : catalog.snapshot();
+        final String error;
+        try {
+            error = validate(buffer, products.size(), basket);
+        } catch (BufferUnderflowException e) {
+            buffer.position(start);
+            return false;
+        }
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
+
+        final int end = buffer.position();
+        buffer.position(start);
+        final long numberOfProducts = VarInts.readUnsigned(buffer);
+        for (long i = 0; i < numberOfProducts; i++) {
+            final int productId = (int) VarInts.readUnsigned(buffer);
+            basket.add(productId, VarInts.readUnsigned(buffer));
+        }
+        buffer.position(end);
+        basket.setCatalog(products);
+        if (PricingMetrics.ENABLED) {
+            PricingMetrics.INSTANCE.recordLatency(PricingMetrics.Stage.PARSE, startNanos);
+        }
+        return true;
+    }
+
+    /*
+     * Reads past the next basket, returning why it is invalid, or null if it is valid.  A product may only appear
+     * once, and its quantity must not overflow when added to the basket, so that nothing is added unless all of it
+     * can be.
+     */
+    private static String validate(final ByteBuffer buffer, final int numberOfProductsInCatalog, final Basket basket) {
+        final long numberOfProducts = VarInts.readUnsigned(buffer);
+        final int firstProduct = buffer.position();
+        String error = numberOfProducts == 0 ? "No products to purchase were entered." : null;
+
+        for (long i = 0; i < numberOfProducts; i++) {
+            final long productId = VarInts.readUnsigned(buffer);
+            final long quantity = VarInts.readUnsigned(buffer);
+            if (error != null) {
+                continue;
+            }
+            if (productId < 0 || productId >= numberOfProductsInCatalog) {
+                error = String.format("No such product id %d.", productId);
+            } else if (quantity < 1) {
+                error = String.format("Invalid quantity %d.", quantity);
+            } else if (Long.MAX_VALUE - quantity < basket.getQuantity((int) productId)) {
+                error = String.format("Quantity %d of product id %d is too large.", quantity, productId);
+            } else if (isRepeated(buffer, firstProduct, i, productId)) {
+                error = String.format("Product id %d is repeated.", productId);
+            }
+        }
+        return error;
+    }
+
+    /*
+     * Returns whether the product appears among the products read before it, leaving the buffer where it was.  Only
+     * valid products are checked, so there are never more of them than products within the catalog.
+     */
+    private static boolean isRepeated(final ByteBuffer buffer, final int firstProduct,
+                                      final long numberOfProductsBefore, final long productId) {
+        final int position = buffer.position();
+        buffer.position(firstProduct);
+        boolean repeated = false;
+        for (long i = 0; i < numberOfProductsBefore && !repeated; i++) {
+            repeated = VarInts.readUnsigned(buffer) == productId;
+            VarInts.readUnsigned(buffer);
+        }
+        buffer.position(position);
+        return repeated;
+    }
+}
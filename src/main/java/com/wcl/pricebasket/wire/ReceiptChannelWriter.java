@@ -0,0 +1,85 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.wire;
+
+import com.wcl.pricebasket.receipt.LazyReceipt;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Writes a stream of encoded receipts to a channel, such as a socket or file.
+ *
+ * Receipts are encoded into a single buffer, reused for the life of the writer, which is written to the channel
+ * whenever the next receipt does not fit and on {@link #flush()}.  The channel should be in blocking mode.
+ *
+ * Instances are not thread safe.
+ *
+ * @see ReceiptCodec
+ */
+public final class ReceiptChannelWriter implements Flushable {
+    private final WritableByteChannel channel;
+    private final ReceiptCodec codec;
+    /** Holds the receipts encoded but not yet written, ready to be written to. */
+    private final ByteBuffer buffer;
+
+    /**
+     * Creates a writer for the channel supplied.
+     *
+     * @param channel  the channel to write to
+     * @param codec  the codec encoding the receipts
+     * @param bufferSize  the number of bytes to hold before writing, which must exceed the length of any single
+     *                    receipt
+     * @throws IllegalArgumentException if the buffer size is less than one
+     */
+    public ReceiptChannelWriter(final WritableByteChannel channel, final ReceiptCodec codec, final int bufferSize) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException(String.format("Invalid buffer size %d.", bufferSize));
+        }
+        this.channel = channel;
+        this.codec = codec;
+        this.buffer = ByteBuffer.allocate(bufferSize);
+    }
+
+    /**
+     * Encodes the receipt supplied, writing out the receipts held before it if it does not fit alongside them.
+     *
+     * @param receipt  the receipt to write
+     * @throws IOException if the channel cannot be written
+     * @throws IllegalArgumentException if the receipt does not fit within the buffer
+     */
+    public void write(final LazyReceipt receipt) throws IOException {
+        try {
+            codec.encode(receipt, buffer);
+        } catch (BufferOverflowException e) {
+            flush();
+            try {
+                codec.encode(receipt, buffer);
+            } catch (BufferOverflowException tooLong) {
+                throw new IllegalArgumentException("Receipt too long.", tooLong);
+            }
+        }
+    }
+
+    /**
+     * Writes every receipt held out to the channel.
+     *
+     * @throws IOException if the channel cannot be written
+     */
+    @Override
+    public void flush() throws IOException {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } finally {
+            buffer.compact();
+        }
+    }
+}
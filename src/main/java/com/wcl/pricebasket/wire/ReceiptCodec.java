@@ -0,0 +1,110 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.wire;
+
+import com.wcl.pricebasket.offers.DiscountOffer;
+import com.wcl.pricebasket.receipt.AppliedOffer;
+import com.wcl.pricebasket.receipt.LazyReceipt;
+import com.wcl.pricebasket.receipt.Receipt;
+import com.wcl.pricebasket.utils.MonetaryUtils;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Encodes receipts in a compact binary form, as amounts in pence and offer ids rather than text.
+ *
+ * A receipt is written as the version of the offers it was priced with, the subtotal, the number of offers applied
+ * followed by the id and discount of each, and finally the final total.  An offer's id is its position within the
+ * offers the receipt was priced with, so a receipt can only be decoded by a reader holding that same version of the
+ * offers; the version is checked rather than risking a discount being shown against the wrong description.  All
+ * numbers are variable length integers, the amounts zig-zag encoded.
+ *
+ * Instances hold no state, so may be shared between threads.
+ */
+public final class ReceiptCodec {
+    /**
+     * Writes the receipt into the buffer supplied, from its current position.  Only the totals and the applied
+     * offers' ids and discounts are read, so the receipt's text is never built.
+     *
+     * @param receipt  the receipt to encode
+     * @param buffer  where to write the receipt
+     * @throws BufferOverflowException if the receipt does not fit within the space remaining; the buffer's position
+     * is then left where it was
+     */
+    public void encode(final LazyReceipt receipt, final ByteBuffer buffer) {
+        final int start = buffer.position();
+        try {
+            VarInts.writeUnsigned(buffer, receipt.getOfferVersion());
+            VarInts.writeSigned(buffer, receipt.getSubtotalInPence());
+            VarInts.writeUnsigned(buffer, receipt.getNumberOfAppliedOffers());
+            for (int i = 0; i < receipt.getNumberOfAppliedOffers(); i++) {
+                VarInts.writeUnsigned(buffer, receipt.getAppliedOfferPosition(i));
+                VarInts.writeSigned(buffer, receipt.getAppliedOfferDiscountInPence(i));
+            }
+            VarInts.writeSigned(buffer, receipt.getFinalTotalInPence());
+        } catch (BufferOverflowException e) {
+            buffer.position(start);
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the next receipt from the buffer supplied.
+     *
+     * If the buffer holds only part of the next receipt, nothing is read and null is returned, so that the caller
+     * can read more into the buffer and try again.  A receipt that is well formed but cannot be decoded against the
+     * offers supplied is read past, leaving the buffer at the start of the following receipt, before the exception
+     * is thrown.
+     *
+     * @param buffer  the encoded receipts, from the current position
+     * @param offers  the offers the receipt was priced with, in the order given to the receipt generator
+     * @param offerVersion  the version of those offers
+     * @return the receipt, or null if the buffer holds only part of one
+     * @throws IllegalArgumentException if the receipt was priced with another version of the offers, names an offer
+     * that does not exist, or is malformed
+     */
+    public Receipt decode(final ByteBuffer buffer, final List<DiscountOffer> offers, final long offerVersion) {
+        final int start = buffer.position();
+        try {
+            final long receiptOfferVersion = VarInts.readUnsigned(buffer);
+            String error = receiptOfferVersion == offerVersion ? null
+                    : String.format("Receipt priced with offer version %d but expected %d.",
+                                    receiptOfferVersion, offerVersion);
+
+            final long subtotal = VarInts.readSigned(buffer);
+            final int numberOfAppliedOffers = VarInts.readUnsignedInt(buffer, "Invalid number of offers %d.");
+            final List<AppliedOffer> appliedOffers = new ArrayList<>(Math.min(numberOfAppliedOffers, offers.size()));
+            for (int i = 0; i < numberOfAppliedOffers; i++) {
+                final long position = VarInts.readUnsigned(buffer);
+                final long discount = VarInts.readSigned(buffer);
+                if (error == null && (position < 0 || position >= offers.size())) {
+                    error = String.format("No such offer id %d.", position);
+                }
+                if (error == null) {
+                    appliedOffers.add(AppliedOffer.builder()
+                                                  .description(offers.get((int) position).getDescription())
+                                                  .discountAmount(MonetaryUtils.gbpAmountFromPence(discount))
+                                                  .build());
+                }
+            }
+            final long finalTotal = VarInts.readSigned(buffer);
+
+            if (error != null) {
+                throw new IllegalArgumentException(error);
+            }
+            return Receipt.builder().subtotal(MonetaryUtils.gbpAmountFromPence(subtotal))
+                                    .appliedOffers(appliedOffers)
+                                    .finalTotal(MonetaryUtils.gbpAmountFromPence(finalTotal))
+                                    .build();
+        } catch (BufferUnderflowException e) {
+            buffer.position(start);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.wire;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads and writes variable length integers, seven bits to a byte with the top bit set on every byte but the last,
+ * so small numbers such as product ids and quantities take a single byte.  Signed amounts are zig-zag encoded first,
+ * so that small negative numbers are small too.
+ */
+final class VarInts {
+    /** A long needs at most ten bytes of seven bits. */
+    static final int MAXIMUM_LENGTH = 10;
+
+    private VarInts() {
+    }
+
+    /* Writes the value as an unsigned variable length integer, throwing BufferOverflowException if it won't fit. */
+    static void writeUnsigned(final ByteBuffer buffer, final long value) {
+        long remaining = value;
+        while ((remaining & ~0x7FL) != 0) {
+            buffer.put((byte) (remaining & 0x7F | 0x80));
+            remaining >>>= 7;
+        }
+        buffer.put((byte) remaining);
+    }
+
+    /* Writes the value zig-zag encoded. */
+    static void writeSigned(final ByteBuffer buffer, final long value) {
+        writeUnsigned(buffer, value << 1 ^ value >> 63);
+    }
+
+    /*
+     * Reads an unsigned variable length integer, throwing BufferUnderflowException if the buffer ends part way
+     * through it.
+     */
+    static long readUnsigned(final ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 7 * MAXIMUM_LENGTH; shift += 7) {
+            if (!buffer.hasRemaining()) {
+                throw new BufferUnderflowException();
+            }
+            final byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed variable length integer.");
+    }
+
+    /* Reads a zig-zag encoded integer. */
+    static long readSigned(final ByteBuffer buffer) {
+        final long value = readUnsigned(buffer);
+        return value >>> 1 ^ -(value & 1);
+    }
+
+    /* Reads an unsigned variable length integer that must fit within an int. */
+    static int readUnsignedInt(final ByteBuffer buffer, final String message) {
+        final long value = readUnsigned(buffer);
+        if (value < 0 || value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(String.format(message, value));
+        }
+        return (int) value;
+    }
+}
@@ -0,0 +1,143 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.workload;
+
+import java.util.Random;
+import java.util.function.ToIntFunction;
+
+/**
+ * The distribution of the number of items in generated baskets.
+ *
+ * Three shapes are offered: a fixed size; sizes spread evenly over a range; and a geometric distribution, where most
+ * baskets are small but a long tail of large shops remains, as seen at real tills.  Each can be written as a
+ * specification for the command line, {@code fixed:5}, {@code uniform:1-20} or {@code geometric:8}, the last giving
+ * the mean size.
+ *
+ * Instances are immutable; the caller supplies the source of randomness.
+ */
+public final class BasketSizeDistribution {
+    /** Caps the geometric distribution, so a single freak basket cannot exhaust the heap. */
+    private static final int MAXIMUM_GEOMETRIC_SIZE = 10_000;
+
+    private final String specification;
+    private final ToIntFunction<Random> sampler;
+
+    private BasketSizeDistribution(final String specification, final ToIntFunction<Random> sampler) {
+        this.specification = specification;
+        this.sampler = sampler;
+    }
+
+    /**
+     * Returns a distribution giving every basket the same number of items.
+     *
+     * @param size  the number of items
+     * @return the distribution
+     * @throws IllegalArgumentException if the size is less than one
+     */
+    public static BasketSizeDistribution fixed(final int size) {
+        validateSize(size);
+        return new BasketSizeDistribution("fixed:" + size, random -> size);
+    }
+
+    /**
+     * Returns a distribution spreading basket sizes evenly over a range.
+     *
+     * @param minimumSize  the smallest number of items, inclusive
+     * @param maximumSize  the largest number of items, inclusive
+     * @return the distribution
+     * @throws IllegalArgumentException if the minimum is less than one or the maximum less than the minimum
+     */
+    public static BasketSizeDistribution uniform(final int minimumSize, final int maximumSize) {
+        validateSize(minimumSize);
+        if (maximumSize < minimumSize) {
+            throw new IllegalArgumentException(String.format("Invalid basket size range %d-%d.",
+                                                             minimumSize, maximumSize));
+        }
+        final int range = maximumSize - minimumSize + 1;
+        return new BasketSizeDistribution("uniform:" + minimumSize + '-' + maximumSize,
+                                          random -> minimumSize + random.nextInt(range));
+    }
+
+    /**
+     * Returns a geometric distribution of basket sizes, of one item or more, with the mean supplied.
+     *
+     * @param meanSize  the mean number of items
+     * @return the distribution
+     * @throws IllegalArgumentException if the mean is less than one
+     */
+    public static BasketSizeDistribution geometric(final double meanSize) {
+        if (!(meanSize >= 1)) {
+            throw new IllegalArgumentException(String.format("Invalid mean basket size %s.", meanSize));
+        }
+        final double logOfFailure = Math.log(1 - 1 / meanSize);
+        return new BasketSizeDistribution("geometric:" + meanSize, random -> {
+            if (meanSize == 1) {
+                return 1;
+            }
+            // Inverse transform of the number of trials up to the first success.
+            final double trials = Math.floor(Math.log(1 - random.nextDouble()) / logOfFailure);
+            return (int) Math.min(MAXIMUM_GEOMETRIC_SIZE, 1 + trials);
+        });
+    }
+
+    /**
+     * Parses a specification such as {@code fixed:5}, {@code uniform:1-20} or {@code geometric:8}.
+     *
+     * @param specification  the specification
+     * @return the distribution
+     * @throws IllegalArgumentException if the specification is not understood
+     */
+    public static BasketSizeDistribution parse(final String specification) {
+        final int colon = specification.indexOf(':');
+        final String shape = colon < 0 ? "" : specification.substring(0, colon);
+        final String parameters = specification.substring(colon + 1);
+        try {
+            switch (shape) {
+                case "fixed":
+                    return fixed(Integer.parseInt(parameters));
+                case "uniform":
+                    final int dash = parameters.indexOf('-');
+                    if (dash < 0) {
+                        break;
+                    }
+                    return uniform(Integer.parseInt(parameters.substring(0, dash)),
+                                   Integer.parseInt(parameters.substring(dash + 1)));
+                case "geometric":
+                    return geometric(Double.parseDouble(parameters));
+                default:
+                    break;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below.
+        }
+        throw new IllegalArgumentException(String.format("Invalid basket size distribution %s.", specification));
+    }
+
+    /**
+     * Picks the number of items for a basket.
+     *
+     * @param random  the source of randomness
+     * @return the number of items, one or more
+     */
+    public int sample(final Random random) {
+        return sampler.applyAsInt(random);
+    }
+
+    /**
+     * Returns the specification of the distribution, as accepted by {@link #parse(String)}.
+     *
+     * @return the specification
+     */
+    @Override
+    public String toString() {
+        return specification;
+    }
+
+    private static void validateSize(final int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException(String.format("Invalid basket size %d.", size));
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.workload;
+
+import com.wcl.pricebasket.metrics.LatencyHistogram;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Replays a stream of baskets against a pricing function on the calling thread, reporting the throughput achieved
+ * and the latency percentiles.
+ *
+ * Baskets are either sent flat out, each as soon as the previous one is priced, or at a target rate.  At a target
+ * rate the driver runs open loop: each basket has an intended start time on a fixed schedule, and its latency is
+ * measured from that time rather than from when it was actually sent.  A slow basket therefore also counts against
+ * the baskets queued behind it, as it would for tills arriving at that rate, rather than the stall being hidden by
+ * the driver itself pausing - the coordinated omission that makes closed loop load tests look better than they are.
+ *
+ * Baskets the pricing function rejects with an {@link IllegalArgumentException} are counted, and their latencies
+ * recorded, apart from those it prices, so that quick rejections do not flatter the percentiles of real pricing.
+ * The throughput counts both.  The pricing function is typically a method reference such as
+ * {@code manager::generateShoppingReceipt}; its results are discarded.
+ */
+public final class ReplayDriver {
+    /** Below this the driver spins rather than parks, as parking overshoots by tens of microseconds. */
+    private static final long SPIN_THRESHOLD_NANOS = 50_000L;
+
+    private final Function<String, ?> pricer;
+
+    public ReplayDriver(final Function<String, ?> pricer) {
+        this.pricer = pricer;
+    }
+
+    /**
+     * Reads recorded baskets, one per line, from a file such as the input to the batch processor, skipping blank
+     * lines.
+     *
+     * @param path  the file of baskets
+     * @return the baskets, in the order written
+     * @throws IOException if the file cannot be read
+     */
+    public static List<String> readBaskets(final Path path) throws IOException {
+        try (Stream<String> lines = Files.lines(path, StandardCharsets.UTF_8)) {
+            return lines.filter(line -> !line.trim().isEmpty()).collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Replays the baskets supplied, in order.
+     *
+     * @param baskets  the basket texts to price
+     * @param targetRatePerSecond  the number of baskets to send per second, or zero to send them flat out
+     * @return the throughput and latencies achieved
+     * @throws IllegalArgumentException if the target rate is negative
+     */
+    public ReplayReport replay(final List<String> baskets, final double targetRatePerSecond) {
+        if (!(targetRatePerSecond >= 0)) {
+            throw new IllegalArgumentException(String.format("Invalid target rate %s.", targetRatePerSecond));
+        }
+        final long intervalNanos = targetRatePerSecond == 0 ? 0 : Math.max(1L, Math.round(1e9 / targetRatePerSecond));
+        final LatencyHistogram latencies = new LatencyHistogram();
+        final LatencyHistogram rejectedLatencies = new LatencyHistogram();
+        long basketsPriced = 0;
+        long basketsRejected = 0;
+
+        final long startTime = System.nanoTime();
+        long endTime = startTime;
+        for (int i = 0; i < baskets.size(); i++) {
+            final long intendedStartTime = intervalNanos == 0 ? System.nanoTime() : startTime + i * intervalNanos;
+            if (intervalNanos != 0) {
+                awaitTime(intendedStartTime);
+            }
+            LatencyHistogram recordTo = latencies;
+            try {
+                pricer.apply(baskets.get(i));
+                basketsPriced++;
+            } catch (IllegalArgumentException e) {
+                basketsRejected++;
+                recordTo = rejectedLatencies;
+            }
+            endTime = System.nanoTime();
+            recordTo.record(endTime - intendedStartTime);
+        }
+
+        return ReplayReport.builder()
+                           .basketsPriced(basketsPriced)
+                           .basketsRejected(basketsRejected)
+                           .elapsedNanos(endTime - startTime)
+                           .medianNanos(latencies.getMedianNanos())
+                           .percentile90Nanos(latencies.getValueAtPercentile(90))
+                           .percentile99Nanos(latencies.getPercentile99Nanos())
+                           .percentile999Nanos(latencies.getPercentile999Nanos())
+                           .maxNanos(latencies.getMaxNanos())
+                           .rejectedMedianNanos(rejectedLatencies.getMedianNanos())
+                           .rejectedPercentile99Nanos(rejectedLatencies.getPercentile99Nanos())
+                           .rejectedMaxNanos(rejectedLatencies.getMaxNanos())
+                           .build();
+    }
+
+    /* Waits until the time supplied, returning at once if it has already passed. */
+    private static void awaitTime(final long time) {
+        long remaining;
+        while ((remaining = time - System.nanoTime()) > 0) {
+            if (remaining > SPIN_THRESHOLD_NANOS) {
+                LockSupport.parkNanos(remaining - SPIN_THRESHOLD_NANOS);
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.workload;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Data class summarising a run of the {@link ReplayDriver}.  Latencies are in nanoseconds; the percentiles are of the
+ * baskets priced, and those prefixed rejected of the baskets rejected.
+ */
+@Data
+@Builder
+public class ReplayReport {
+    /** The number of baskets priced. */
+    long basketsPriced;
+    /** The number of baskets rejected as invalid. */
+    long basketsRejected;
+    /** The time from the first basket being sent to the last being priced. */
+    long elapsedNanos;
+    long medianNanos;
+    long percentile90Nanos;
+    long percentile99Nanos;
+    long percentile999Nanos;
+    long maxNanos;
+    long rejectedMedianNanos;
+    long rejectedPercentile99Nanos;
+    long rejectedMaxNanos;
+
+    /**
+     * Returns the number of baskets priced or rejected per second.
+     *
+     * @return the throughput achieved
+     */
+    public double getThroughputPerSecond() {
+        return elapsedNanos == 0 ? 0 : (basketsPriced + basketsRejected) * 1e9 / elapsedNanos;
+    }
+}
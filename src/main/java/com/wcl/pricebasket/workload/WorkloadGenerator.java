@@ -0,0 +1,99 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.workload;
+
+import com.wcl.pricebasket.catalog.Catalog;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates a stream of synthetic baskets, as "Pricebasket ..." lines, for load and capacity testing.
+ *
+ * The number of items in each basket is drawn from a {@link BasketSizeDistribution}, and each item from a
+ * {@link ZipfianSampler} over the catalog, the lowest product ids being the most popular.  Product names are read
+ * from the catalog once, when the generator is created.  Given the same seed, a generator produces the same baskets,
+ * so a workload can be regenerated rather than stored.
+ *
+ * Instances are not thread safe.
+ */
+public final class WorkloadGenerator {
+    private static final String PRICEBASKET = "Pricebasket";
+
+    private final String[] productNames;
+    private final BasketSizeDistribution basketSizes;
+    private final ZipfianSampler productPopularity;
+    private final Random random;
+    private final StringBuilder line = new StringBuilder();
+
+    /**
+     * Creates a generator over the products of the catalog supplied.
+     *
+     * @param catalog  the products to fill baskets from
+     * @param basketSizes  the distribution of the number of items per basket
+     * @param popularityExponent  the Zipfian exponent of product popularity; zero makes every product equally popular
+     * @param seed  the seed for the random number generator
+     * @throws IllegalArgumentException if the catalog is empty or the exponent negative
+     */
+    public WorkloadGenerator(final Catalog catalog,
+                             final BasketSizeDistribution basketSizes,
+                             final double popularityExponent,
+                             final long seed) {
+        final Catalog products = catalog.snapshot();
+        this.productNames = new String[products.size()];
+        for (int productId = 0; productId < productNames.length; productId++) {
+            productNames[productId] = products.getProductName(productId);
+        }
+        this.basketSizes = basketSizes;
+        this.productPopularity = new ZipfianSampler(productNames.length, popularityExponent);
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Returns the next basket, as a line of text for the parser.
+     *
+     * @return the basket text
+     */
+    public String nextBasket() {
+        line.setLength(0);
+        line.append(PRICEBASKET);
+        final int numberOfItems = basketSizes.sample(random);
+        for (int i = 0; i < numberOfItems; i++) {
+            line.append(' ').append(productNames[productPopularity.sample(random)]);
+        }
+        return line.toString();
+    }
+
+    /**
+     * Returns the next baskets.
+     *
+     * @param numberOfBaskets  the number of baskets to generate
+     * @return the basket texts
+     */
+    public List<String> generate(final int numberOfBaskets) {
+        final List<String> baskets = new ArrayList<>(numberOfBaskets);
+        for (int i = 0; i < numberOfBaskets; i++) {
+            baskets.add(nextBasket());
+        }
+        return baskets;
+    }
+
+    /**
+     * Writes the next baskets, one per line, in the form read by the batch processor and the replay driver.
+     *
+     * @param destination  where to write the baskets
+     * @param numberOfBaskets  the number of baskets to generate
+     * @throws IOException if the destination cannot be written to
+     */
+    public void write(final Writer destination, final int numberOfBaskets) throws IOException {
+        for (int i = 0; i < numberOfBaskets; i++) {
+            destination.write(nextBasket());
+            destination.write(System.lineSeparator());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.workload;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Samples ranks from a Zipfian distribution, where the item of rank k, counting from zero, is chosen with probability
+ * proportional to 1 / (k + 1)^s.  An exponent of zero picks every item equally often; at one the most popular item is
+ * picked twice as often as the second and three times as often as the third, much as a few staples dominate real
+ * shopping.
+ *
+ * The cumulative probabilities are worked out once, so each sample is a single binary search.  Instances are
+ * immutable; the caller supplies the source of randomness, so a seeded {@link Random} replays the same sequence.
+ */
+public final class ZipfianSampler {
+    private final double[] cumulativeProbabilities;
+
+    /**
+     * Creates a sampler over the number of items supplied.
+     *
+     * @param numberOfItems  the number of items to pick from
+     * @param exponent  the skew of the distribution, zero or more
+     * @throws IllegalArgumentException if there are no items or the exponent is negative
+     */
+    public ZipfianSampler(final int numberOfItems, final double exponent) {
+        if (numberOfItems < 1) {
+            throw new IllegalArgumentException(String.format("Invalid number of items %d.", numberOfItems));
+        }
+        if (!(exponent >= 0)) {
+            throw new IllegalArgumentException(String.format("Invalid exponent %s.", exponent));
+        }
+
+        cumulativeProbabilities = new double[numberOfItems];
+        double total = 0;
+        for (int rank = 0; rank < numberOfItems; rank++) {
+            total += 1 / Math.pow(rank + 1, exponent);
+            cumulativeProbabilities[rank] = total;
+        }
+        for (int rank = 0; rank < numberOfItems; rank++) {
+            cumulativeProbabilities[rank] /= total;
+        }
+        // Guard against rounding leaving the last item just out of reach.
+        cumulativeProbabilities[numberOfItems - 1] = 1.0;
+    }
+
+    /**
+     * Returns the number of items sampled from.
+     *
+     * @return the number of items
+     */
+    public int size() {
+        return cumulativeProbabilities.length;
+    }
+
+    /**
+     * Returns the probability of the item of the given rank being picked.
+     *
+     * @param rank  the rank of the item, from zero for the most popular
+     * @return the probability of the item
+     */
+    public double getProbability(final int rank) {
+        return rank == 0 ? cumulativeProbabilities[0]
+                         : cumulativeProbabilities[rank] - cumulativeProbabilities[rank - 1];
+    }
+
+    /**
+     * Picks the rank of an item.
+     *
+     * @param random  the source of randomness
+     * @return the rank picked, from zero for the most popular item
+     */
+    public int sample(final Random random) {
+        final int index = Arrays.binarySearch(cumulativeProbabilities, random.nextDouble());
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+}
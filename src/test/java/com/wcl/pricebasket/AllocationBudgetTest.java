@@ -0,0 +1,112 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket;
+
+import com.wcl.pricebasket.entities.Basket;
+import com.wcl.pricebasket.entities.Product;
+import com.wcl.pricebasket.offers.DiscountOffer;
+import com.wcl.pricebasket.parser.PricebasketParser;
+import com.wcl.pricebasket.receipt.Receipt;
+import com.wcl.pricebasket.receipt.ReceiptGenerator;
+import com.wcl.pricebasket.receipt.ReceiptRenderer;
+import com.wcl.pricebasket.testutils.AllocationMeter;
+import com.wcl.pricebasket.utils.MonetaryUtils;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Holds the pricing path to the bytes it allocates per call, so that a change quietly adding garbage fails the build.
+ *
+ * Budgets sit roughly a quarter above what each path allocated when they were set, on a 64 bit HotSpot JVM with
+ * compressed pointers.  A change that needs more should raise the budget deliberately, along with the reason.
+ * The tests are skipped on JVMs that cannot count the bytes a thread allocates.
+ */
+public class AllocationBudgetTest {
+    private static final String TEXT = "Pricebasket Apples Milk Bread Soup Soup";
+
+    private final PricebasketParser parser = new PricebasketParser();
+    private final ReceiptGenerator receiptGenerator = new ReceiptGenerator(constructCurrentOffers());
+    private final ReceiptRenderer renderer = new ReceiptRenderer();
+    private final Basket basket = parser.retrieveBasket(TEXT);
+    private final Receipt receipt = receiptGenerator.generateReceipt(basket);
+
+    @Before
+    public void checkAllocationsCanBeMeasured() {
+        Assume.assumeTrue(AllocationMeter.isSupported());
+    }
+
+    @Test
+    @DisplayName("Check that parsing a shopping list stays within its allocation budget")
+    public void checkThatParsingAShoppingListStaysWithinBudget() {
+        AllocationMeter.assertWithinBudget("PricebasketParser.retrieveShoppingList", 1_200L,
+                () -> parser.retrieveShoppingList(TEXT));
+    }
+
+    @Test
+    @DisplayName("Check that parsing into a new basket stays within its allocation budget")
+    public void checkThatParsingIntoANewBasketStaysWithinBudget() {
+        AllocationMeter.assertWithinBudget("PricebasketParser.retrieveBasket", 128L,
+                () -> parser.retrieveBasket(TEXT));
+    }
+
+    @Test
+    @DisplayName("Check that parsing into a reused basket allocates nothing")
+    public void checkThatParsingIntoAReusedBasketAllocatesNothing() {
+        final Basket reused = new Basket();
+        AllocationMeter.assertWithinBudget("PricebasketParser.retrieveBasket into a reused basket", 0L, () -> {
+            reused.clear();
+            return parser.retrieveBasket(TEXT, reused);
+        });
+    }
+
+    @Test
+    @DisplayName("Check that generating a receipt stays within its allocation budget")
+    public void checkThatGeneratingAReceiptStaysWithinBudget() {
+        AllocationMeter.assertWithinBudget("ReceiptGenerator.generateReceipt", 768L,
+                () -> receiptGenerator.generateReceipt(basket));
+    }
+
+    @Test
+    @DisplayName("Check that a lazy receipt and a quote stay within their allocation budgets")
+    public void checkThatALazyReceiptAndAQuoteStayWithinBudget() {
+        AllocationMeter.assertWithinBudget("ReceiptGenerator.generateLazyReceipt", 256L,
+                () -> receiptGenerator.generateLazyReceipt(basket));
+        AllocationMeter.assertWithinBudget("ReceiptGenerator.quoteTotalInPence", 0L,
+                () -> receiptGenerator.quoteTotalInPence(basket));
+    }
+
+    @Test
+    @DisplayName("Check that rendering a receipt stays within its allocation budget")
+    public void checkThatRenderingAReceiptStaysWithinBudget() {
+        final StringBuilder text = new StringBuilder(256);
+        AllocationMeter.assertWithinBudget("ReceiptRenderer.render", 896L, () -> {
+            text.setLength(0);
+            return renderer.render(receipt, text);
+        });
+        AllocationMeter.assertWithinBudget("Receipt.toString", 1_920L, receipt::toString);
+    }
+
+    private static List<DiscountOffer> constructCurrentOffers() {
+        final List<DiscountOffer> currentOffers = new ArrayList<>();
+
+        currentOffers.add(new DiscountOffer("Apples 10% off",
+                DiscountOffer.triggeredBy(Product.APPLES),
+                p -> p.contains(Product.APPLES),
+                p -> MonetaryUtils.percentageOf(Product.APPLES.getCostPerUnitInPence() * p.getQuantity(Product.APPLES), 10)));
+
+        currentOffers.add(new DiscountOffer("Bread half price if 2 tins of soup bought",
+                DiscountOffer.triggeredBy(Product.BREAD),
+                p -> p.getQuantity(Product.SOUP) >= 2 && p.contains(Product.BREAD),
+                p -> MonetaryUtils.percentageOf(Product.BREAD.getCostPerUnitInPence()
+                                                        * Math.min(p.getQuantity(Product.BREAD),
+                                                                   p.getQuantity(Product.SOUP) / 2), 50)));
+        return currentOffers;
+    }
+}
@@ -4,17 +4,21 @@
  **/
 package com.wcl.pricebasket;
 
+import com.wcl.pricebasket.entities.Basket;
 import com.wcl.pricebasket.entities.Product;
 import com.wcl.pricebasket.offers.DiscountOffer;
 import com.wcl.pricebasket.parser.PricebasketParser;
 import com.wcl.pricebasket.receipt.AppliedOffer;
+import com.wcl.pricebasket.receipt.LazyReceipt;
 import com.wcl.pricebasket.receipt.Receipt;
 import com.wcl.pricebasket.receipt.ReceiptGenerator;
 import com.wcl.pricebasket.testutils.MoneyTestUtils;
 import com.wcl.pricebasket.utils.MonetaryUtils;
+import com.wcl.pricebasket.wire.BasketCodec;
 import org.junit.Test;
 import org.junit.jupiter.api.DisplayName;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -124,6 +128,44 @@ public class PricebasketManagerTest {
         MoneyTestUtils.assertMoneyValuesEquals(MonetaryUtils.gbpAmount(1.3), receipt.getFinalTotal());
     }
 
+    @Test
+    @DisplayName("Checks products separated by irregular whitespace are priced correctly")
+    public void checkIrregularWhitespaceBetweenProducts() {
+        final Receipt receipt = testSubject.generateShoppingReceipt("Pricebasket  Milk\tBread  ");
+        MoneyTestUtils.assertMoneyValuesEquals(MonetaryUtils.gbpAmount(2.1), receipt.getSubtotal());
+        assertEquals(0, receipt.getAppliedOffers().size());
+        MoneyTestUtils.assertMoneyValuesEquals(MonetaryUtils.gbpAmount(2.1), receipt.getFinalTotal());
+    }
+
+    @Test
+    @DisplayName("Checks encoded baskets are priced the same as entered text")
+    public void checkEncodedBasketsArePricedTheSameAsEnteredText() {
+        final Basket basket = new Basket();
+        basket.add(Product.BREAD);
+        basket.add(Product.SOUP, 2L);
+        basket.add(Product.MILK);
+        basket.add(Product.APPLES);
+        final ByteBuffer encodedBaskets = ByteBuffer.allocate(64);
+        new BasketCodec().encode(basket, encodedBaskets);
+        encodedBaskets.flip();
+
+        final LazyReceipt receipt = testSubject.priceEncodedBasket(encodedBaskets);
+
+        assertEquals(testSubject.generateShoppingReceipt("Pricebasket Bread Soup Soup Milk Apples"), receipt.toReceipt());
+        assertFalse(encodedBaskets.hasRemaining());
+    }
+
+    @Test
+    @DisplayName("Checks an appropriate error message displayed for an incomplete encoded basket")
+    public void checkErrorMessageDisplayedForAnIncompleteEncodedBasket() {
+        final ByteBuffer encodedBaskets = ByteBuffer.wrap(new byte[] {2, 0, 1});
+
+        Throwable exception = assertThrows(IllegalArgumentException.class,
+                () -> testSubject.priceEncodedBasket(encodedBaskets));
+        assertEquals("Incomplete basket.", exception.getMessage());
+        assertEquals(0, encodedBaskets.position());
+    }
+
     /*
      * Generate current offers; in real world app, would use a different structure, ie possibly reading in and
      * transforming JSON from an external API call.
@@ -134,19 +176,21 @@ public class PricebasketManagerTest {
         final List<DiscountOffer> currentOffers = new ArrayList<>();
 
         currentOffers.add(new DiscountOffer("Apples 10% off",
-                p -> p.containsKey(Product.APPLES),
-                p -> MonetaryUtils.gbpAmount(0.1 * p.get(Product.APPLES))));
+                DiscountOffer.triggeredBy(Product.APPLES),
+                p -> p.contains(Product.APPLES),
+                p -> MonetaryUtils.percentageOf(Product.APPLES.getCostPerUnitInPence() * p.getQuantity(Product.APPLES), 10)));
 
         currentOffers.add(new DiscountOffer("Bread half price if 2 tins of soup bought",
-                p -> p.getOrDefault(Product.SOUP, 0L) >= 2
-                        && p.containsKey(Product.BREAD),
+                DiscountOffer.triggeredBy(Product.BREAD),
+                p -> p.getQuantity(Product.SOUP) >= 2
+                        && p.contains(Product.BREAD),
                 p -> {
-                    long countOfSoups = p.getOrDefault(Product.SOUP, 0L);
+                    long countOfSoups = p.getQuantity(Product.SOUP);
 
                     int maximumNumberOfBreadsEligibleForOffer = (int)(countOfSoups / 2);
-                    long numberOfBreadsEligibleForOffer = Math.min(p.get(Product.BREAD),
+                    long numberOfBreadsEligibleForOffer = Math.min(p.getQuantity(Product.BREAD),
                             maximumNumberOfBreadsEligibleForOffer);
-                    return MonetaryUtils.gbpAmount(0.5 * Product.BREAD.getCostPerUnit() * numberOfBreadsEligibleForOffer);
+                    return MonetaryUtils.percentageOf(Product.BREAD.getCostPerUnitInPence() * numberOfBreadsEligibleForOffer, 50);
                 }));
 
         return currentOffers;
@@ -0,0 +1,56 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.batch;
+
+import com.wcl.pricebasket.entities.Basket;
+import com.wcl.pricebasket.entities.Product;
+import org.junit.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BasketBatchTest {
+    private final BasketBatch testSubject = new BasketBatch(Product.values().length, 2);
+
+    @Test
+    @DisplayName("Check that baskets are held by index, growing as needed")
+    public void checkThatBasketsAreHeldByIndex() {
+        for (int i = 0; i < 5; i++) {
+            final Basket basket = new Basket();
+            basket.add(Product.SOUP, i + 1);
+            assertEquals(i, testSubject.add(basket));
+        }
+
+        assertEquals(5, testSubject.size());
+        assertEquals(4, testSubject.getNumberOfProducts());
+        assertEquals(3, testSubject.getQuantity(2, Product.SOUP.ordinal()));
+        assertEquals(0, testSubject.getQuantity(2, Product.MILK.ordinal()));
+    }
+
+    @Test
+    @DisplayName("Check that clearing the batch forgets the baskets")
+    public void checkThatClearingTheBatchForgetsTheBaskets() {
+        final Basket basket = new Basket();
+        basket.add(Product.MILK, 2);
+        testSubject.add(basket);
+        testSubject.clear();
+
+        assertEquals(0, testSubject.size());
+        assertEquals(0, testSubject.add(new Basket()));
+        assertEquals(0, testSubject.getQuantity(0, Product.MILK.ordinal()));
+        assertThrows(IndexOutOfBoundsException.class, () -> testSubject.getQuantity(1, Product.MILK.ordinal()));
+    }
+
+    @Test
+    @DisplayName("Check that a product beyond the batch is rejected")
+    public void checkThatAProductBeyondTheBatchIsRejected() {
+        final Basket basket = new Basket();
+        basket.add(7);
+
+        Throwable exception = assertThrows(IllegalArgumentException.class, () -> testSubject.add(basket));
+        assertEquals("Invalid product id 7.", exception.getMessage());
+        assertEquals(0, testSubject.size());
+    }
+}
@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.batch;
+
+import com.wcl.pricebasket.catalog.ProductCatalog;
+import com.wcl.pricebasket.entities.Basket;
+import com.wcl.pricebasket.entities.Product;
+import com.wcl.pricebasket.offers.rules.OfferRuleCompiler;
+import com.wcl.pricebasket.receipt.ReceiptGenerator;
+import com.wcl.pricebasket.utils.MonetaryUtils;
+import org.junit.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchPricingKernelTest {
+    private static final String RULES = "\"Apples 10% off\" = APPLES pct 10\n"
+            + "buy 2 SOUP get BREAD 50%\n"
+            + "buy 2 MILK get MILK 100%\n"
+            + "SOUP 33%\n";
+
+    private final OfferRuleCompiler compiler = new OfferRuleCompiler(ProductCatalog.INSTANCE);
+
+    @Test
+    @DisplayName("Check that every total matches the receipt for the same basket")
+    public void checkThatEveryTotalMatchesTheReceiptForTheSameBasket() {
+        final ReceiptGenerator receiptGenerator = new ReceiptGenerator(compiler.compile(RULES));
+        final BatchPricingKernel testSubject = new BatchPricingKernel(compiler.parse(RULES), ProductCatalog.INSTANCE);
+        final BasketBatch batch = new BasketBatch(Product.values().length);
+        final List<Basket> baskets = new ArrayList<>();
+        final Random random = new Random(11);
+        for (int i = 0; i < 2000; i++) {
+            final Basket basket = new Basket();
+            for (final Product product : Product.values()) {
+                basket.add(product, random.nextInt(7));
+            }
+            baskets.add(basket);
+            batch.add(basket);
+        }
+
+        final long[] subtotals = new long[batch.size()];
+        final long[] totals = new long[batch.size()];
+        testSubject.price(batch, subtotals, totals);
+
+        for (int i = 0; i < baskets.size(); i++) {
+            assertEquals(MonetaryUtils.toPence(receiptGenerator.generateReceipt(baskets.get(i)).getSubtotal()),
+                         subtotals[i], "Basket " + i);
+            assertEquals(receiptGenerator.quoteTotalInPence(baskets.get(i)), totals[i], "Basket " + i);
+        }
+    }
+
+    @Test
+    @DisplayName("Check that the batch is priced again from scratch")
+    public void checkThatTheBatchIsPricedAgainFromScratch() {
+        final BatchPricingKernel testSubject = new BatchPricingKernel(compiler.parse(RULES), ProductCatalog.INSTANCE);
+        final BasketBatch batch = new BasketBatch(Product.values().length);
+        final Basket basket = new Basket();
+        basket.add(Product.APPLES, 2);
+        batch.add(basket);
+
+        final long[] subtotals = new long[1];
+        final long[] totals = new long[1];
+        testSubject.price(batch, subtotals, totals);
+        testSubject.price(batch, subtotals, totals);
+
+        assertEquals(200L, subtotals[0]);
+        assertEquals(180L, totals[0]);
+    }
+
+    @Test
+    @DisplayName("Check that arrays too short for the batch are rejected")
+    public void checkThatArraysTooShortForTheBatchAreRejected() {
+        final BatchPricingKernel testSubject = new BatchPricingKernel(compiler.parse(RULES), ProductCatalog.INSTANCE);
+        final BasketBatch batch = new BasketBatch(Product.values().length);
+        batch.add(new Basket());
+        batch.add(new Basket());
+
+        Throwable exception = assertThrows(IllegalArgumentException.class,
+                                           () -> testSubject.price(batch, new long[2], new long[1]));
+        assertEquals("Expected room for 2 baskets but found 1.", exception.getMessage());
+    }
+}
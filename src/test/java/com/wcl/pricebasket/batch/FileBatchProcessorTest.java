@@ -0,0 +1,126 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.batch;
+
+import com.wcl.pricebasket.catalog.Catalog;
+import com.wcl.pricebasket.catalog.MappedCatalog;
+import com.wcl.pricebasket.catalog.MappedCatalogWriter;
+import com.wcl.pricebasket.entities.Product;
+import com.wcl.pricebasket.offers.DiscountOffer;
+import com.wcl.pricebasket.parser.PricebasketParser;
+import com.wcl.pricebasket.receipt.BasketPricer;
+import com.wcl.pricebasket.receipt.ReceiptGenerator;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class FileBatchProcessorTest {
+    private static final String SEPARATOR = System.lineSeparator();
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final PricebasketParser parser = new PricebasketParser();
+    private final ReceiptGenerator receiptGenerator = new ReceiptGenerator(Collections.singletonList(
+            new DiscountOffer("Apples 10% off",
+                              DiscountOffer.triggeredBy(Product.APPLES),
+                              p -> p.contains(Product.APPLES),
+                              p -> p.getQuantity(Product.APPLES) * 10L)));
+
+    @Test
+    @DisplayName("Check that a receipt is written for each basket, with errors reported in place")
+    public void checkThatAReceiptIsWrittenForEachBasketWithErrorsReportedInPlace() throws IOException {
+        final String input = "Pricebasket Apples Milk\r\nPricebasket Pears\nPricebasket Soup";
+
+        assertEquals(expectedOutput(), processFile(input, new FileBatchProcessor(parser, receiptGenerator)));
+    }
+
+    @Test
+    @DisplayName("Check that lines crossing the mapped windows are priced")
+    public void checkThatLinesCrossingTheMappedWindowsArePriced() throws IOException {
+        final String input = "Pricebasket Apples Milk\r\nPricebasket Pears\nPricebasket Soup\n";
+
+        assertEquals(expectedOutput(), processFile(input, new FileBatchProcessor(parser, receiptGenerator, 8)));
+    }
+
+    @Test
+    @DisplayName("Check that any failure pricing a basket is reported in place without stopping the run")
+    public void checkThatAnyFailurePricingABasketIsReportedInPlace() throws IOException {
+        final String input = "Pricebasket Apples Milk\nPricebasket Bread\nPricebasket Soup\n";
+        final BasketPricer failingOnBread = basket -> {
+            if (basket.contains(Product.BREAD)) {
+                throw new IllegalStateException("Pricing failed.");
+            }
+            return receiptGenerator.generateReceipt(basket);
+        };
+
+        assertEquals(expectedOutput().replace("No such product Pears.", FileBatchProcessor.UNABLE_TO_PRICE),
+                     processFile(input, new FileBatchProcessor(parser, failingOnBread)));
+    }
+
+    @Test
+    @DisplayName("Check that product names outside ASCII are read from the file as UTF-8")
+    public void checkThatProductNamesOutsideAsciiAreReadAsUtf8() throws IOException {
+        final Path catalogFile = temporaryFolder.getRoot().toPath().resolve("catalog.bin");
+        new MappedCatalogWriter().addProduct("Crème", 150)
+                                 .addProduct("Soup", 65)
+                                 .writeTo(catalogFile, 1L);
+        final Catalog catalog = MappedCatalog.open(catalogFile);
+        final Path input = temporaryFolder.newFile("baskets.txt").toPath();
+        final Path output = temporaryFolder.getRoot().toPath().resolve("receipts.txt");
+        Files.write(input, "Pricebasket Crème Soup crème\nPricebasket Crme\n".getBytes(StandardCharsets.UTF_8));
+
+        final BatchSummary summary = new FileBatchProcessor(new PricebasketParser(catalog),
+                                                            new ReceiptGenerator(Collections.emptyList(), catalog))
+                .process(input, output);
+
+        assertEquals(1L, summary.getBasketsPriced());
+        assertEquals(1L, summary.getLinesRejected());
+        assertEquals("Subtotal: £3.65" + SEPARATOR + "(no offers available)" + SEPARATOR + "Total: £3.65" + SEPARATOR
+                     + SEPARATOR + "Line 2: No such product Crme." + SEPARATOR + SEPARATOR,
+                     new String(Files.readAllBytes(output), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Check that an empty file produces no receipts")
+    public void checkThatAnEmptyFileProducesNoReceipts() throws IOException {
+        final Path input = temporaryFolder.newFile("empty.txt").toPath();
+        final Path output = temporaryFolder.getRoot().toPath().resolve("receipts.txt");
+
+        final BatchSummary summary = new FileBatchProcessor(parser, receiptGenerator).process(input, output);
+
+        assertEquals(0L, summary.getBasketsPriced());
+        assertEquals(0L, summary.getLinesRejected());
+        assertEquals(0L, Files.size(output));
+    }
+
+    private String processFile(final String input, final FileBatchProcessor testSubject) throws IOException {
+        final Path inputFile = temporaryFolder.newFile("baskets.txt").toPath();
+        final Path outputFile = temporaryFolder.getRoot().toPath().resolve("receipts.txt");
+        Files.write(inputFile, input.getBytes(StandardCharsets.ISO_8859_1));
+
+        final BatchSummary summary = testSubject.process(inputFile, outputFile);
+
+        assertEquals(2L, summary.getBasketsPriced());
+        assertEquals(1L, summary.getLinesRejected());
+        return new String(Files.readAllBytes(outputFile), StandardCharsets.UTF_8);
+    }
+
+    private static String expectedOutput() {
+        return "Subtotal: £2.30" + SEPARATOR + "Apples 10% off: -10p" + SEPARATOR + "Total: £2.20" + SEPARATOR + SEPARATOR
+                + "Line 2: No such product Pears." + SEPARATOR + SEPARATOR
+                + "Subtotal: £0.65" + SEPARATOR + "(no offers available)" + SEPARATOR + "Total: £0.65" + SEPARATOR
+                + SEPARATOR;
+    }
+}
@@ -0,0 +1,184 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.batch;
+
+import com.wcl.pricebasket.catalog.Catalog;
+import com.wcl.pricebasket.catalog.ProductCatalog;
+import com.wcl.pricebasket.entities.Product;
+import com.wcl.pricebasket.offers.DiscountOffer;
+import com.wcl.pricebasket.parser.PricebasketParser;
+import com.wcl.pricebasket.receipt.BasketPricer;
+import com.wcl.pricebasket.receipt.ReceiptGenerator;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PipelinedBatchProcessorTest {
+    private static final String SEPARATOR = System.lineSeparator();
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final PricebasketParser parser = new PricebasketParser();
+    private final ReceiptGenerator receiptGenerator = new ReceiptGenerator(Collections.singletonList(
+            new DiscountOffer("Apples 10% off",
+                              DiscountOffer.triggeredBy(Product.APPLES),
+                              p -> p.contains(Product.APPLES),
+                              p -> p.getQuantity(Product.APPLES) * 10L)));
+
+    @Test
+    @DisplayName("Check that a receipt is written for each basket, with errors reported in place")
+    public void checkThatAReceiptIsWrittenForEachBasketWithErrorsReportedInPlace() throws IOException {
+        final Path input = writeInput("Pricebasket Apples Milk\r\nPricebasket Pears\nPricebasket Soup");
+        final Path output = temporaryFolder.getRoot().toPath().resolve("receipts.txt");
+
+        final BatchSummary summary = new PipelinedBatchProcessor(parser, receiptGenerator).process(input, output);
+
+        assertEquals(2L, summary.getBasketsPriced());
+        assertEquals(1L, summary.getLinesRejected());
+        assertEquals("Subtotal: £2.30" + SEPARATOR + "Apples 10% off: -10p" + SEPARATOR + "Total: £2.20" + SEPARATOR
+                             + SEPARATOR
+                             + "Line 2: No such product Pears." + SEPARATOR + SEPARATOR
+                             + "Subtotal: £0.65" + SEPARATOR + "(no offers available)" + SEPARATOR
+                             + "Total: £0.65" + SEPARATOR + SEPARATOR,
+                     new String(Files.readAllBytes(output), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Check that the output matches the single threaded processor through small windows and rings")
+    public void checkThatTheOutputMatchesTheSingleThreadedProcessor() throws IOException {
+        final String[] products = {"Apples", "Milk", "Bread", "Soup", "Pears"};
+        final StringBuilder baskets = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            baskets.append("Pricebasket");
+            for (int j = 0; j <= i % 7; j++) {
+                baskets.append(' ').append(products[(i + j * j) % (i % 11 == 0 ? 5 : 4)]);
+            }
+            baskets.append('\n');
+        }
+        final Path input = writeInput(baskets.toString());
+        final Path expected = temporaryFolder.getRoot().toPath().resolve("expected.txt");
+        final Path actual = temporaryFolder.getRoot().toPath().resolve("actual.txt");
+
+        final BatchSummary expectedSummary = new FileBatchProcessor(parser, receiptGenerator).process(input, expected);
+        final BatchSummary actualSummary = new PipelinedBatchProcessor(parser, receiptGenerator, 64, 4)
+                .process(input, actual);
+
+        assertEquals(expectedSummary, actualSummary);
+        assertTrue(actualSummary.getLinesRejected() > 0);
+        assertArrayEquals(Files.readAllBytes(expected), Files.readAllBytes(actual));
+    }
+
+    @Test
+    @DisplayName("Check that an empty file produces no receipts")
+    public void checkThatAnEmptyFileProducesNoReceipts() throws IOException {
+        final Path input = writeInput("");
+        final Path output = temporaryFolder.getRoot().toPath().resolve("receipts.txt");
+
+        final BatchSummary summary = new PipelinedBatchProcessor(parser, receiptGenerator).process(input, output);
+
+        assertEquals(0L, summary.getBasketsPriced());
+        assertEquals(0L, summary.getLinesRejected());
+        assertEquals(0L, Files.size(output));
+    }
+
+    @Test
+    @DisplayName("Check that a failing stage stops the run and its failure is thrown")
+    public void checkThatAFailingStageStopsTheRun() throws IOException {
+        final ReceiptGenerator failingGenerator = new ReceiptGenerator(Collections.singletonList(
+                new DiscountOffer("Broken offer",
+                                  DiscountOffer.triggeredBy(Product.SOUP),
+                                  p -> true,
+                                  p -> {
+                                      throw new AssertionError("Offer failed.");
+                                  })));
+        final StringBuilder baskets = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            baskets.append(i == 500 ? "Pricebasket Soup\n" : "Pricebasket Apples\n");
+        }
+        final Path input = writeInput(baskets.toString());
+        final Path output = temporaryFolder.getRoot().toPath().resolve("receipts.txt");
+
+        final Throwable exception = assertThrows(AssertionError.class,
+                () -> new PipelinedBatchProcessor(parser, failingGenerator, 1024, 2).process(input, output));
+        assertEquals("Offer failed.", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Check that any failure parsing or pricing a line is reported in place without stopping the run")
+    public void checkThatAnyFailureParsingOrPricingALineIsReportedInPlace() throws IOException {
+        final PricebasketParser failingParser = new PricebasketParser(new FailingCatalog("Pears"));
+        final BasketPricer failingOnBread = basket -> {
+            if (basket.contains(Product.BREAD)) {
+                throw new IllegalStateException("Pricing failed.");
+            }
+            return receiptGenerator.generateReceipt(basket);
+        };
+        final Path input = writeInput("Pricebasket Pears\nPricebasket Bread\nPricebasket Soup\n");
+        final Path output = temporaryFolder.getRoot().toPath().resolve("receipts.txt");
+
+        final BatchSummary summary = new PipelinedBatchProcessor(failingParser, failingOnBread).process(input, output);
+
+        assertEquals(1L, summary.getBasketsPriced());
+        assertEquals(2L, summary.getLinesRejected());
+        assertEquals("Line 1: " + FileBatchProcessor.UNABLE_TO_PRICE + SEPARATOR + SEPARATOR
+                             + "Line 2: " + FileBatchProcessor.UNABLE_TO_PRICE + SEPARATOR + SEPARATOR
+                             + "Subtotal: £0.65" + SEPARATOR + "(no offers available)" + SEPARATOR
+                             + "Total: £0.65" + SEPARATOR + SEPARATOR,
+                     new String(Files.readAllBytes(output), StandardCharsets.UTF_8));
+    }
+
+    /* The built in products, failing when asked to find the product named. */
+    private static final class FailingCatalog implements Catalog {
+        private final String failingName;
+
+        FailingCatalog(final String failingName) {
+            this.failingName = failingName;
+        }
+
+        @Override
+        public int size() {
+            return ProductCatalog.INSTANCE.size();
+        }
+
+        @Override
+        public String getProductName(final int productId) {
+            return ProductCatalog.INSTANCE.getProductName(productId);
+        }
+
+        @Override
+        public long getCostPerUnitInPence(final int productId) {
+            return ProductCatalog.INSTANCE.getCostPerUnitInPence(productId);
+        }
+
+        @Override
+        public int findProductId(final CharSequence text, final int start, final int end) {
+            if (failingName.contentEquals(text.subSequence(start, end))) {
+                throw new IllegalStateException("Lookup failed.");
+            }
+            return ProductCatalog.INSTANCE.findProductId(text, start, end);
+        }
+
+        @Override
+        public long getVersion() {
+            return 1L;
+        }
+    }
+
+    private Path writeInput(final String input) throws IOException {
+        final Path inputFile = temporaryFolder.newFile("baskets.txt").toPath();
+        Files.write(inputFile, input.getBytes(StandardCharsets.ISO_8859_1));
+        return inputFile;
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.batch;
+
+import org.junit.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SpscRingBufferTest {
+    @Test
+    @DisplayName("Check that slots are reused in turn")
+    public void checkThatSlotsAreReusedInTurn() throws InterruptedException {
+        final SpscRingBuffer<long[]> testSubject = new SpscRingBuffer<>(2, () -> new long[1]);
+
+        final long[] first = testSubject.claim();
+        testSubject.publish();
+        final long[] second = testSubject.claim();
+        testSubject.publish();
+
+        assertNotSame(first, second);
+        assertSame(first, testSubject.take());
+        testSubject.release();
+        assertSame(first, testSubject.claim());
+        assertEquals(2, testSubject.capacity());
+    }
+
+    @Test
+    @DisplayName("Check that every value is passed across threads in order through a small ring")
+    public void checkThatEveryValueIsPassedAcrossThreadsInOrder() throws InterruptedException {
+        final SpscRingBuffer<long[]> testSubject = new SpscRingBuffer<>(4, () -> new long[1]);
+        final int numberOfValues = 100_000;
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        final Thread producer = new Thread(() -> {
+            try {
+                for (long value = 0; value < numberOfValues; value++) {
+                    testSubject.claim()[0] = value;
+                    testSubject.publish();
+                }
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+        producer.start();
+
+        for (long expected = 0; expected < numberOfValues; expected++) {
+            assertEquals(expected, testSubject.take()[0]);
+            testSubject.release();
+        }
+        producer.join();
+        assertNull(failure.get());
+    }
+
+    @Test
+    @DisplayName("Check that a producer waiting on a full ring can be interrupted")
+    public void checkThatAProducerWaitingOnAFullRingCanBeInterrupted() throws InterruptedException {
+        final SpscRingBuffer<long[]> testSubject = new SpscRingBuffer<>(1, () -> new long[1]);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        testSubject.claim();
+        testSubject.publish();
+
+        final Thread producer = new Thread(() -> {
+            try {
+                testSubject.claim();
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+        producer.start();
+        producer.interrupt();
+        producer.join(10_000);
+
+        assertFalse(producer.isAlive());
+        assertTrue(failure.get() instanceof InterruptedException);
+    }
+
+    @Test
+    @DisplayName("Check that a capacity other than a power of two is rejected")
+    public void checkThatACapacityOtherThanAPowerOfTwoIsRejected() {
+        Throwable exception = assertThrows(IllegalArgumentException.class,
+                                           () -> new SpscRingBuffer<>(3, Object::new));
+        assertEquals("Invalid ring buffer capacity 3.", exception.getMessage());
+
+        exception = assertThrows(IllegalArgumentException.class, () -> new SpscRingBuffer<>(0, Object::new));
+        assertEquals("Invalid ring buffer capacity 0.", exception.getMessage());
+    }
+}
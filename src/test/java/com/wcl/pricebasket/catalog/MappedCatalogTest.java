@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.catalog;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappedCatalogTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    @DisplayName("Checks that products written to a catalog file are read back correctly")
+    public void checkThatProductsWrittenAreReadBackCorrectly() throws IOException {
+        final Path catalogFile = temporaryFolder.getRoot().toPath().resolve("catalog.bin");
+        new MappedCatalogWriter().addProduct("Apples", 100)
+                                 .addProduct("Bread", 80)
+                                 .addProduct("Crème", 245)
+                                 .writeTo(catalogFile, 7L);
+
+        final MappedCatalog catalog = MappedCatalog.open(catalogFile);
+
+        assertEquals(3, catalog.size());
+        assertEquals(7L, catalog.getVersion());
+        assertEquals("Apples", catalog.getProductName(0));
+        assertEquals("Bread", catalog.getProductName(1));
+        assertEquals("Crème", catalog.getProductName(2));
+        assertEquals(100L, catalog.getCostPerUnitInPence(0));
+        assertEquals(80L, catalog.getCostPerUnitInPence(1));
+        assertEquals(245L, catalog.getCostPerUnitInPence(2));
+    }
+
+    @Test
+    @DisplayName("Checks that products are found by name, ignoring case")
+    public void checkThatProductsAreFoundByNameIgnoringCase() throws IOException {
+        final Path catalogFile = temporaryFolder.getRoot().toPath().resolve("catalog.bin");
+        new MappedCatalogWriter().addProduct("Apples", 100)
+                                 .addProduct("Bread", 80)
+                                 .writeTo(catalogFile, 1L);
+
+        final MappedCatalog catalog = MappedCatalog.open(catalogFile);
+        final String text = "Pricebasket BREAD apples Pears";
+
+        assertEquals(1, catalog.findProductId(text, 12, 17));
+        assertEquals(0, catalog.findProductId(text, 18, 24));
+        assertEquals(Catalog.NOT_FOUND, catalog.findProductId(text, 25, 30));
+    }
+
+    @Test
+    @DisplayName("Checks that a large catalog is written and searched correctly")
+    public void checkThatALargeCatalogIsSearchedCorrectly() throws IOException {
+        final Path catalogFile = temporaryFolder.getRoot().toPath().resolve("catalog.bin");
+        final MappedCatalogWriter writer = new MappedCatalogWriter();
+        for (int i = 0; i < 100000; i++) {
+            writer.addProduct("Sku" + i, i);
+        }
+        writer.writeTo(catalogFile, 1L);
+
+        final MappedCatalog catalog = MappedCatalog.open(catalogFile);
+        assertEquals(100000, catalog.size());
+        for (int i = 0; i < 100000; i += 997) {
+            final String name = "SKU" + i;
+            assertEquals(i, catalog.findProductId(name, 0, name.length()));
+            assertEquals(i, catalog.getCostPerUnitInPence(i));
+        }
+    }
+
+    @Test
+    @DisplayName("Checks that invalid product names are rejected")
+    public void checkThatInvalidProductNamesAreRejected() {
+        final MappedCatalogWriter writer = new MappedCatalogWriter();
+        assertThrows(IllegalArgumentException.class, () -> writer.addProduct("Baked Beans", 50));
+        assertThrows(IllegalArgumentException.class, () -> writer.addProduct("", 50));
+        assertThrows(IllegalArgumentException.class, () -> writer.addProduct("Ωmega", 50));
+
+        writer.addProduct("Milk", 130).addProduct("MILK", 130);
+        final Path catalogFile = temporaryFolder.getRoot().toPath().resolve("catalog.bin");
+        assertThrows(IllegalArgumentException.class, () -> writer.writeTo(catalogFile, 1L));
+    }
+
+    @Test
+    @DisplayName("Checks that a file that is not a catalog is rejected")
+    public void checkThatAFileThatIsNotACatalogIsRejected() throws IOException {
+        final Path notACatalog = temporaryFolder.newFile("notACatalog.bin").toPath();
+        Files.write(notACatalog, "Pricebasket Apples Milk Bread".getBytes());
+
+        Throwable exception = assertThrows(IllegalArgumentException.class, () -> MappedCatalog.open(notACatalog));
+        assertEquals("Not a product catalog file.", exception.getMessage());
+    }
+}
@@ -0,0 +1,58 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.catalog;
+
+import com.wcl.pricebasket.entities.Product;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReloadableCatalogTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    @DisplayName("Checks that the initial catalog is used until a reload")
+    public void checkThatTheInitialCatalogIsUsedUntilAReload() {
+        final ReloadableCatalog catalog = new ReloadableCatalog(ProductCatalog.INSTANCE);
+
+        assertSame(ProductCatalog.INSTANCE, catalog.snapshot());
+        assertEquals(Product.values().length, catalog.size());
+        assertEquals(65L, catalog.getCostPerUnitInPence(Product.SOUP.ordinal()));
+        assertEquals("Soup", catalog.getProductName(Product.SOUP.ordinal()));
+    }
+
+    @Test
+    @DisplayName("Checks that a reload swaps in the new catalog, leaving earlier snapshots unchanged")
+    public void checkThatAReloadSwapsInTheNewCatalog() throws IOException {
+        final Path catalogFile = temporaryFolder.getRoot().toPath().resolve("catalog.bin");
+        new MappedCatalogWriter().addProduct("Apples", 90)
+                                 .addProduct("Bread", 85)
+                                 .addProduct("Milk", 120)
+                                 .addProduct("Soup", 70)
+                                 .addProduct("Cheese", 300)
+                                 .writeTo(catalogFile, 2L);
+
+        final ReloadableCatalog catalog = new ReloadableCatalog(ProductCatalog.INSTANCE);
+        final Catalog snapshotBeforeReload = catalog.snapshot();
+
+        catalog.reload(catalogFile);
+
+        assertEquals(2L, catalog.getVersion());
+        assertEquals(5, catalog.size());
+        assertEquals(70L, catalog.getCostPerUnitInPence(3));
+        assertEquals(4, catalog.findProductId("cheese", 0, 6));
+
+        assertEquals(0L, snapshotBeforeReload.getVersion());
+        assertEquals(65L, snapshotBeforeReload.getCostPerUnitInPence(3));
+        assertEquals(Catalog.NOT_FOUND, snapshotBeforeReload.findProductId("cheese", 0, 6));
+    }
+}
@@ -0,0 +1,90 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.currency;
+
+import com.wcl.pricebasket.entities.Basket;
+import com.wcl.pricebasket.entities.Product;
+import com.wcl.pricebasket.offers.DiscountOffer;
+import com.wcl.pricebasket.utils.MonetaryUtils;
+import org.javamoney.moneta.Money;
+import org.junit.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import javax.money.Monetary;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CurrencyRateTest {
+    private final ExchangeRateSnapshot snapshot = new ExchangeRateSnapshot(rates());
+
+    @Test
+    @DisplayName("Check that pence are converted and rounded half away from zero")
+    public void checkThatPenceAreConvertedAndRoundedHalfAwayFromZero() {
+        final CurrencyRate testSubject = snapshot.getRate("EUR");
+
+        assertEquals(0L, testSubject.convertPence(0L));
+        assertEquals(116L, testSubject.convertPence(100L));
+        assertEquals(1L, testSubject.convertPence(1L));
+        assertEquals(2L, testSubject.convertPence(2L));
+        assertEquals(12L, testSubject.convertPence(10L));
+        assertEquals(-12L, testSubject.convertPence(-10L));
+    }
+
+    @Test
+    @DisplayName("Check that pounds are not converted")
+    public void checkThatPoundsAreNotConverted() {
+        final CurrencyRate testSubject = snapshot.getRate("GBP");
+
+        assertEquals(Long.MAX_VALUE, testSubject.convertPence(Long.MAX_VALUE));
+        assertEquals(MonetaryUtils.gbpAmountFromPence(123L), testSubject.amountFromPence(123L));
+    }
+
+    @Test
+    @DisplayName("Check that large amounts are converted exactly")
+    public void checkThatLargeAmountsAreConvertedExactly() {
+        final CurrencyRate testSubject = snapshot.getRate("USD");
+        final long pence = Long.MAX_VALUE / 1_000_000L;
+
+        assertEquals(new BigDecimal(pence).multiply(new BigDecimal("1.27"))
+                                                  .setScale(0, RoundingMode.HALF_UP).longValueExact(),
+                     testSubject.convertPence(pence));
+    }
+
+    @Test
+    @DisplayName("Check that amounts are created in the rate's currency")
+    public void checkThatAmountsAreCreatedInTheRatesCurrency() {
+        final CurrencyRate testSubject = snapshot.getRate("USD");
+
+        final Money amount = testSubject.amountFromPence(100L);
+        assertEquals(Monetary.getCurrency("USD"), amount.getCurrency());
+        assertEquals(0, new BigDecimal("1.27").compareTo(amount.getNumber().numberValue(BigDecimal.class)));
+        assertEquals("USD 1.270000", testSubject.toString());
+    }
+
+    @Test
+    @DisplayName("Check that offer discounts are converted")
+    public void checkThatOfferDiscountsAreConverted() {
+        final CurrencyRate testSubject = snapshot.getRate("EUR");
+        final DiscountOffer offer = new DiscountOffer("Apples 10% off",
+                                                      DiscountOffer.triggeredBy(Product.APPLES),
+                                                      p -> true,
+                                                      p -> p.getQuantity(Product.APPLES) * 10L);
+        final Basket basket = new Basket();
+        basket.add(Product.APPLES, 5L);
+
+        assertEquals(testSubject.amountFromMinorUnits(58L), offer.calculateDiscountToApply(basket, testSubject));
+    }
+
+    private static Map<String, BigDecimal> rates() {
+        final Map<String, BigDecimal> rates = new HashMap<>();
+        rates.put("EUR", new BigDecimal("1.155"));
+        rates.put("USD", new BigDecimal("1.27"));
+        return rates;
+    }
+}
@@ -0,0 +1,63 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.currency;
+
+import org.junit.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import javax.money.Monetary;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExchangeRateSnapshotTest {
+    @Test
+    @DisplayName("Check that rates are resolved once and pounds are always present")
+    public void checkThatRatesAreResolvedOnceAndPoundsAreAlwaysPresent() {
+        final ExchangeRateSnapshot testSubject = new ExchangeRateSnapshot(
+                Collections.singletonMap("EUR", new BigDecimal("1.16")));
+
+        assertEquals(new HashSet<>(Arrays.asList("GBP", "EUR")), testSubject.getCurrencyCodes());
+        assertSame(testSubject.getRate("EUR"), testSubject.getRate(Monetary.getCurrency("EUR")));
+        assertEquals(0, BigDecimal.ONE.compareTo(testSubject.getRate("GBP").getRate()));
+        assertThrows(UnsupportedOperationException.class, () -> testSubject.getCurrencyCodes().clear());
+    }
+
+    @Test
+    @DisplayName("Check that a currency without a rate is rejected")
+    public void checkThatACurrencyWithoutARateIsRejected() {
+        final ExchangeRateSnapshot testSubject = new ExchangeRateSnapshot(Collections.emptyMap());
+
+        Throwable exception = assertThrows(IllegalArgumentException.class, () -> testSubject.getRate("USD"));
+        assertEquals("No exchange rate for USD.", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Check that invalid rates are rejected")
+    public void checkThatInvalidRatesAreRejected() {
+        Throwable exception = assertThrows(IllegalArgumentException.class,
+                () -> new ExchangeRateSnapshot(Collections.singletonMap("EUR", BigDecimal.ZERO)));
+        assertEquals("Invalid exchange rate 0 for EUR.", exception.getMessage());
+
+        exception = assertThrows(IllegalArgumentException.class,
+                () -> new ExchangeRateSnapshot(Collections.singletonMap("GBP", new BigDecimal("1.1"))));
+        assertEquals("Invalid exchange rate 1.1 for GBP.", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Check that unknown and unsupported currencies are rejected")
+    public void checkThatUnknownAndUnsupportedCurrenciesAreRejected() {
+        Throwable exception = assertThrows(IllegalArgumentException.class,
+                () -> new ExchangeRateSnapshot(Collections.singletonMap("XYZ", BigDecimal.ONE)));
+        assertEquals("No such currency XYZ.", exception.getMessage());
+
+        exception = assertThrows(IllegalArgumentException.class,
+                () -> new ExchangeRateSnapshot(Collections.singletonMap("JPY", new BigDecimal("190"))));
+        assertEquals("Unsupported currency JPY with 0 decimal places.", exception.getMessage());
+    }
+}
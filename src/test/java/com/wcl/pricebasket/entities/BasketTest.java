@@ -0,0 +1,164 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.entities;
+
+import com.wcl.pricebasket.catalog.ProductCatalog;
+import org.junit.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BasketTest {
+    @Test
+    @DisplayName("Checks that a new basket is empty")
+    public void checkThatANewBasketIsEmpty() {
+        final Basket basket = new Basket();
+        assertTrue(basket.isEmpty());
+        assertEquals(0, basket.getNumberOfDistinctProducts());
+        assertEquals(0L, basket.getQuantity(Product.APPLES));
+        assertFalse(basket.contains(Product.APPLES));
+    }
+
+    @Test
+    @DisplayName("Checks that products added are counted correctly")
+    public void checkThatProductsAddedAreCountedCorrectly() {
+        final Basket basket = new Basket();
+        basket.add(Product.MILK);
+        basket.add(Product.MILK);
+        basket.add(Product.SOUP, 5L);
+
+        assertFalse(basket.isEmpty());
+        assertEquals(2, basket.getNumberOfDistinctProducts());
+        assertEquals(2L, basket.getQuantity(Product.MILK));
+        assertEquals(5L, basket.getQuantity(Product.SOUP));
+        assertTrue(basket.contains(Product.SOUP));
+        assertFalse(basket.contains(Product.BREAD));
+    }
+
+    @Test
+    @DisplayName("Checks that a basket converts to and from a Map correctly")
+    public void checkThatABasketConvertsToAndFromAMapCorrectly() {
+        final Map<Product, Long> items = new HashMap<>();
+        items.put(Product.APPLES, 3L);
+        items.put(Product.BREAD, 1L);
+
+        final Basket basket = Basket.of(items);
+        final EnumMap<Product, Long> contents = basket.asMap();
+
+        assertEquals(items, contents);
+        assertEquals(Product.APPLES, contents.keySet().iterator().next());
+    }
+
+    @Test
+    @DisplayName("Checks that baskets with the same contents are equal, regardless of the order items were added")
+    public void checkThatBasketsWithTheSameContentsAreEqual() {
+        final Basket first = new Basket();
+        first.add(Product.APPLES);
+        first.add(Product.SOUP);
+        first.add(Product.APPLES);
+
+        final Basket second = new Basket();
+        second.add(Product.SOUP);
+        second.add(Product.APPLES, 2L);
+
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+        assertEquals(first, first.copy());
+    }
+
+    @Test
+    @DisplayName("Checks that a cleared basket is empty")
+    public void checkThatAClearedBasketIsEmpty() {
+        final Basket basket = new Basket();
+        basket.add(Product.BREAD, 4L);
+        basket.clear();
+        assertTrue(basket.isEmpty());
+        assertEquals(new Basket(), basket);
+    }
+
+    @Test
+    @DisplayName("Checks that products are counted by id, beyond the built in products")
+    public void checkThatProductsAreCountedById() {
+        final Basket basket = new Basket();
+        basket.add(1000);
+        basket.add(7, 3L);
+        basket.add(1000);
+
+        assertEquals(2L, basket.getQuantity(1000));
+        assertEquals(3L, basket.getQuantity(7));
+        assertEquals(0L, basket.getQuantity(5000));
+        assertEquals(2, basket.getNumberOfDistinctProducts());
+        assertEquals(1000, basket.getDistinctProductId(0));
+        assertEquals(7, basket.getDistinctProductId(1));
+        assertTrue(basket.asMap().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Checks that a product whose quantity returns to zero is no longer in the basket")
+    public void checkThatAProductWithNoQuantityIsRemoved() {
+        final Basket basket = new Basket();
+        basket.add(Product.MILK, 2L);
+        basket.add(Product.SOUP);
+        basket.add(Product.MILK, -2L);
+
+        assertFalse(basket.contains(Product.MILK));
+        assertEquals(1, basket.getNumberOfDistinctProducts());
+        assertEquals(Product.SOUP.ordinal(), basket.getDistinctProductId(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> basket.getDistinctProductId(1));
+    }
+
+    @Test
+    @DisplayName("Check that taking more of a product than the basket holds is rejected")
+    public void checkThatTakingMoreOfAProductThanTheBasketHoldsIsRejected() {
+        final Basket basket = new Basket();
+        basket.add(Product.MILK, 2L);
+
+        Throwable exception = assertThrows(IllegalArgumentException.class, () -> basket.add(Product.MILK, -3L));
+        assertEquals("Cannot take 3 of product id 2 from a quantity of 2.", exception.getMessage());
+        assertEquals(2L, basket.getQuantity(Product.MILK));
+
+        exception = assertThrows(IllegalArgumentException.class, () -> basket.add(5000, -1L));
+        assertEquals("Cannot take 1 of product id 5000 from a quantity of 0.", exception.getMessage());
+        assertEquals(1, basket.getNumberOfDistinctProducts());
+
+        final Map<Product, Long> items = new EnumMap<>(Product.class);
+        items.put(Product.SOUP, -1L);
+        assertThrows(IllegalArgumentException.class, () -> Basket.of(items));
+    }
+
+    @Test
+    @DisplayName("Check that negative product ids and quantities overflowing a long are rejected")
+    public void checkThatNegativeProductIdsAndOverflowingQuantitiesAreRejected() {
+        final Basket basket = new Basket();
+        basket.add(Product.MILK, 2L);
+
+        Throwable exception = assertThrows(IllegalArgumentException.class, () -> basket.add(-1, 1L));
+        assertEquals("Invalid product id -1.", exception.getMessage());
+
+        exception = assertThrows(IllegalArgumentException.class, () -> basket.add(Product.MILK, Long.MAX_VALUE));
+        assertEquals("Cannot add 9223372036854775807 of product id 2 to a quantity of 2.", exception.getMessage());
+
+        exception = assertThrows(IllegalArgumentException.class, () -> basket.add(Product.MILK, Long.MIN_VALUE));
+        assertEquals("Cannot take 9223372036854775808 of product id 2 from a quantity of 2.", exception.getMessage());
+        assertEquals(2L, basket.getQuantity(Product.MILK));
+        assertEquals(1, basket.getNumberOfDistinctProducts());
+    }
+
+    @Test
+    @DisplayName("Check that the catalog a basket is tied to is copied and released when cleared")
+    public void checkThatTheCatalogIsCopiedAndReleasedWhenCleared() {
+        final Basket basket = new Basket();
+        basket.add(Product.APPLES);
+        basket.setCatalog(ProductCatalog.INSTANCE);
+
+        assertSame(ProductCatalog.INSTANCE, basket.copy().getCatalog());
+        basket.clear();
+        assertNull(basket.getCatalog());
+    }
+}
@@ -0,0 +1,64 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.entities;
+
+import org.junit.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductNameIndexTest {
+    private final ProductNameIndex testSubject = new ProductNameIndex("Apples", "Bread", "Milk", "Soup");
+
+    @Test
+    @DisplayName("Checks that each name is found, ignoring case")
+    public void checkThatEachNameIsFoundIgnoringCase() {
+        assertEquals(4, testSubject.size());
+        assertEquals(0, testSubject.findId("Apples"));
+        assertEquals(1, testSubject.findId("BREAD"));
+        assertEquals(2, testSubject.findId("milk"));
+        assertEquals(3, testSubject.findId("sOuP"));
+    }
+
+    @Test
+    @DisplayName("Checks that unknown names are not found")
+    public void checkThatUnknownNamesAreNotFound() {
+        assertEquals(ProductNameIndex.NOT_FOUND, testSubject.findId("Pears"));
+        assertEquals(ProductNameIndex.NOT_FOUND, testSubject.findId("Apple"));
+        assertEquals(ProductNameIndex.NOT_FOUND, testSubject.findId(""));
+    }
+
+    @Test
+    @DisplayName("Checks that a name is found from a region of text")
+    public void checkThatANameIsFoundFromARegionOfText() {
+        final StringBuilder text = new StringBuilder("Pricebasket milk soup");
+        assertEquals(2, testSubject.findId(text, 12, 16));
+        assertEquals(3, testSubject.findId(text, 17, 21));
+        assertEquals(ProductNameIndex.NOT_FOUND, testSubject.findId(text, 12, 15));
+    }
+
+    @Test
+    @DisplayName("Checks that a large number of names are all found")
+    public void checkThatALargeNumberOfNamesAreAllFound() {
+        final String[] names = new String[10000];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = "Product" + i;
+        }
+        final ProductNameIndex largeIndex = new ProductNameIndex(names);
+
+        for (int i = 0; i < names.length; i++) {
+            assertEquals(i, largeIndex.findId("PRODUCT" + i));
+        }
+        assertEquals(ProductNameIndex.NOT_FOUND, largeIndex.findId("Product10000"));
+    }
+
+    @Test
+    @DisplayName("Checks that names differing only by case are rejected")
+    public void checkThatDuplicateNamesAreRejected() {
+        Throwable exception = assertThrows(IllegalArgumentException.class,
+                                           () -> new ProductNameIndex("Milk", "MILK"));
+        assertEquals("Duplicate product name MILK.", exception.getMessage());
+    }
+}
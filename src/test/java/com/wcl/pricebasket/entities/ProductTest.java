@@ -4,14 +4,20 @@
  **/
 package com.wcl.pricebasket.entities;
 
+import com.wcl.pricebasket.currency.CurrencyRate;
+import com.wcl.pricebasket.currency.ExchangeRateSnapshot;
 import com.wcl.pricebasket.testutils.MoneyTestUtils;
 import com.wcl.pricebasket.utils.MonetaryUtils;
 import org.junit.Test;
 import org.junit.jupiter.api.DisplayName;
 
+import java.math.BigDecimal;
+import java.util.Collections;
+
 
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class ProductTest {
     @Test
@@ -31,4 +37,42 @@ public class ProductTest {
         MoneyTestUtils.assertMoneyValuesEquals(MonetaryUtils.gbpAmount(1.3), MonetaryUtils.gbpAmount(Product.MILK.getCostPerUnit()));
         MoneyTestUtils.assertMoneyValuesEquals(MonetaryUtils.gbpAmount(0.65), MonetaryUtils.gbpAmount(Product.SOUP.getCostPerUnit()));
     }
+
+    @Test
+    @DisplayName("Checks that the Product cost per units are converted into other currencies")
+    public void checkThatTheProductCostPerUnitsAreConvertedIntoOtherCurrencies() {
+        final CurrencyRate dollars = new ExchangeRateSnapshot(Collections.singletonMap("USD", new BigDecimal("1.27")))
+                .getRate("USD");
+
+        assertEquals(dollars.amountFromMinorUnits(127L), Product.APPLES.getCostPerUnitIn(dollars));
+        assertEquals(dollars.amountFromMinorUnits(83L), Product.SOUP.getCostPerUnitIn(dollars));
+    }
+
+    @Test
+    @DisplayName("Checks that the Product cost per units in pence are correctly defined")
+    public void checkThatTheProductCostPerUnitsInPenceAreCorrectlyDefined() {
+        assertEquals(100L, Product.APPLES.getCostPerUnitInPence());
+        assertEquals(80L, Product.BREAD.getCostPerUnitInPence());
+        assertEquals(130L, Product.MILK.getCostPerUnitInPence());
+        assertEquals(65L, Product.SOUP.getCostPerUnitInPence());
+    }
+
+    @Test
+    @DisplayName("Checks that Products are found by name, ignoring case")
+    public void checkThatProductsAreFoundByNameIgnoringCase() {
+        assertEquals(Product.APPLES, Product.getProductByName("apples"));
+        assertEquals(Product.BREAD, Product.getProductByName("Bread"));
+        assertEquals(Product.MILK, Product.getProductByName("MILK"));
+        assertEquals(Product.SOUP, Product.getProductByName("Pricebasket Soup", 12, 16));
+    }
+
+    @Test
+    @DisplayName("Checks that an appropriate error is raised for an unknown Product name")
+    public void checkThatAnErrorIsRaisedForAnUnknownProductName() {
+        Throwable exception = assertThrows(IllegalArgumentException.class, () -> Product.getProductByName("Pears"));
+        assertEquals("No such product Pears.", exception.getMessage());
+
+        exception = assertThrows(IllegalArgumentException.class, () -> Product.getProductByName(null));
+        assertEquals("No such product null.", exception.getMessage());
+    }
 }
@@ -0,0 +1,81 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.metrics;
+
+import org.junit.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyHistogramTest {
+    private final LatencyHistogram testSubject = new LatencyHistogram();
+
+    @Test
+    @DisplayName("Check that small latencies are held exactly")
+    public void checkThatSmallLatenciesAreHeldExactly() {
+        for (int i = 1; i <= 20; i++) {
+            testSubject.record(i);
+        }
+
+        assertEquals(20, testSubject.getCount());
+        assertEquals(10.5, testSubject.getMeanNanos());
+        assertEquals(10, testSubject.getMedianNanos());
+        assertEquals(20, testSubject.getPercentile99Nanos());
+        assertEquals(1, testSubject.getValueAtPercentile(0));
+        assertEquals(20, testSubject.getMaxNanos());
+    }
+
+    @Test
+    @DisplayName("Check that large latencies are held to within the bucket precision")
+    public void checkThatLargeLatenciesAreHeldToWithinTheBucketPrecision() {
+        for (long value = 100; value < Long.MAX_VALUE / 3; value *= 3) {
+            testSubject.reset();
+            testSubject.record(value);
+            testSubject.record(Long.MAX_VALUE);
+
+            final long median = testSubject.getMedianNanos();
+            assertTrue(median >= value && median <= value + value / 16, value + " reported as " + median);
+        }
+        assertEquals(Long.MAX_VALUE, testSubject.getPercentile99Nanos());
+    }
+
+    @Test
+    @DisplayName("Check that percentiles split the latencies recorded")
+    public void checkThatPercentilesSplitTheLatenciesRecorded() {
+        for (int i = 0; i < 990; i++) {
+            testSubject.record(1000);
+        }
+        for (int i = 0; i < 10; i++) {
+            testSubject.record(1000000);
+        }
+
+        assertTrue(testSubject.getMedianNanos() < 1100);
+        assertTrue(testSubject.getValueAtPercentile(99) < 1100);
+        assertTrue(testSubject.getPercentile999Nanos() >= 1000000);
+        assertEquals(1000000, testSubject.getMaxNanos());
+    }
+
+    @Test
+    @DisplayName("Check that an empty or reset histogram reports zero")
+    public void checkThatAnEmptyOrResetHistogramReportsZero() {
+        assertEquals(0, testSubject.getMedianNanos());
+        assertEquals(0.0, testSubject.getMeanNanos());
+
+        testSubject.record(-5);
+        assertEquals(0, testSubject.getMaxNanos());
+        testSubject.record(500);
+        testSubject.reset();
+        assertEquals(0, testSubject.getCount());
+        assertEquals(0, testSubject.getMaxNanos());
+    }
+
+    @Test
+    @DisplayName("Check that an invalid percentile is rejected")
+    public void checkThatAnInvalidPercentileIsRejected() {
+        Throwable exception = assertThrows(IllegalArgumentException.class,
+                                           () -> testSubject.getValueAtPercentile(101));
+        assertEquals("Invalid percentile 101.0.", exception.getMessage());
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.metrics;
+
+import com.wcl.pricebasket.entities.Product;
+import com.wcl.pricebasket.offers.DiscountOffer;
+import org.junit.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PricingMetricsTest {
+    private final PricingMetrics testSubject = new PricingMetrics();
+
+    @Test
+    @DisplayName("Check that stage latencies are recorded")
+    public void checkThatStageLatenciesAreRecorded() {
+        final long start = System.nanoTime();
+        final long end = testSubject.recordLatency(PricingMetrics.Stage.PARSE, start);
+
+        assertTrue(end >= start);
+        assertEquals(1, testSubject.getLatencies(PricingMetrics.Stage.PARSE).getCount());
+        assertEquals(0, testSubject.getLatencies(PricingMetrics.Stage.RENDER).getCount());
+    }
+
+    @Test
+    @DisplayName("Check that each offer is counted apart, even from another with the same description")
+    public void checkThatEachOfferIsCountedApart() {
+        final DiscountOffer apples = offer("Apples 10% off");
+        final OfferCounters counters = testSubject.acquireOfferCounters(apples);
+        counters.recordEvaluation();
+        counters.recordEvaluation();
+        counters.recordHit(30);
+
+        assertSame(counters, testSubject.acquireOfferCounters(apples));
+        assertNotSame(counters, testSubject.acquireOfferCounters(offer("Apples 10% off")));
+        assertEquals(2, counters.getEvaluationCount());
+        assertEquals(1, counters.getHitCount());
+        assertEquals(30, counters.getTotalDiscountInPence());
+    }
+
+    @Test
+    @DisplayName("Check that an offer's counters are dropped and unregistered once every holder has released them")
+    public void checkThatCountersAreDroppedOnceReleased() throws Exception {
+        final MBeanServer server = MBeanServerFactory.newMBeanServer();
+        testSubject.registerMBeans(server);
+        final DiscountOffer apples = offer("Apples 10% off");
+        testSubject.acquireOfferCounters(apples);
+        testSubject.acquireOfferCounters(apples);
+
+        testSubject.releaseOfferCounters(apples);
+        assertEquals(1, testSubject.getNumberOfOffersCounted());
+        assertEquals(1, server.queryNames(offerNames("Apples 10% off"), null).size());
+
+        testSubject.releaseOfferCounters(apples);
+        assertEquals(0, testSubject.getNumberOfOffersCounted());
+        assertTrue(server.queryNames(offerNames("Apples 10% off"), null).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Check that stages and offers are published as MBeans, including offers seen afterwards")
+    public void checkThatStagesAndOffersArePublishedAsMBeans() throws Exception {
+        final MBeanServer server = MBeanServerFactory.newMBeanServer();
+        testSubject.acquireOfferCounters(offer("Apples 10% off")).recordEvaluation();
+        testSubject.recordLatency(PricingMetrics.Stage.RECEIPT, System.nanoTime());
+
+        testSubject.registerMBeans(server);
+        testSubject.registerMBeans(server);
+        testSubject.acquireOfferCounters(offer("Buy 2 Soup get Bread 50% off")).recordHit(40);
+
+        assertEquals(1L, server.getAttribute(new ObjectName("com.wcl.pricebasket:type=Stage,name=receipt"), "Count"));
+        assertEquals(1L, server.getAttribute(server.queryNames(offerNames("Apples 10% off"), null)
+                                                   .iterator().next(), "EvaluationCount"));
+        assertEquals(40L, server.getAttribute(server.queryNames(offerNames("Buy 2 Soup get Bread 50% off"), null)
+                                                    .iterator().next(), "TotalDiscountInPence"));
+    }
+
+    private static DiscountOffer offer(final String description) {
+        return new DiscountOffer(description, DiscountOffer.triggeredBy(Product.APPLES), basket -> true, basket -> 0L);
+    }
+
+    private static ObjectName offerNames(final String description) throws MalformedObjectNameException {
+        return new ObjectName("com.wcl.pricebasket:type=Offer,name=" + ObjectName.quote(description) + ",*");
+    }
+}
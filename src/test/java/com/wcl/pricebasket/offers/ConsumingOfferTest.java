@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.offers;
+
+import com.wcl.pricebasket.catalog.ProductCatalog;
+import com.wcl.pricebasket.entities.Product;
+import org.junit.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConsumingOfferTest {
+    @Test
+    @DisplayName("Check that an offer reports what it consumes and its discount")
+    public void checkThatAnOfferReportsWhatItConsumesAndItsDiscount() {
+        final ConsumingOffer testSubject = new ConsumingOffer("Soup and bread meal deal",
+                                                              DiscountOffer.triggeredBy(Product.SOUP, Product.BREAD),
+                                                              new long[] {2, 1},
+                                                              60);
+
+        assertEquals("Soup and bread meal deal", testSubject.getDescription());
+        assertEquals(2, testSubject.getNumberOfProducts());
+        assertEquals(Product.BREAD.ordinal(), testSubject.getProductId(1));
+        assertEquals(2, testSubject.getQuantity(0));
+        assertEquals(60, testSubject.getDiscountInPence(ProductCatalog.INSTANCE));
+        assertEquals(20.0, testSubject.getDiscountPerItem(ProductCatalog.INSTANCE));
+    }
+
+    @Test
+    @DisplayName("Check that a percentage offer takes its discount from the price of the unit discounted")
+    public void checkThatAPercentageOfferTakesItsDiscountFromThePriceOfTheUnitDiscounted() {
+        final ConsumingOffer testSubject = new ConsumingOffer("Buy 2 Soup get Bread 50% off",
+                                                              DiscountOffer.triggeredBy(Product.SOUP, Product.BREAD),
+                                                              new long[] {2, 1},
+                                                              Product.BREAD.ordinal(),
+                                                              50);
+
+        assertEquals(40, testSubject.getDiscountInPence(ProductCatalog.INSTANCE));
+        assertEquals(40.0 / 3, testSubject.getDiscountPerItem(ProductCatalog.INSTANCE));
+    }
+
+    @Test
+    @DisplayName("Check that an offer renumbered for another catalog discounts the product in the same place")
+    public void checkThatARenumberedOfferDiscountsTheProductInTheSamePlace() {
+        final ConsumingOffer testSubject = new ConsumingOffer("Buy 2 Soup get Bread 50% off",
+                                                              DiscountOffer.triggeredBy(Product.SOUP, Product.BREAD),
+                                                              new long[] {2, 1},
+                                                              Product.BREAD.ordinal(),
+                                                              50)
+                .withProductIds(DiscountOffer.triggeredBy(Product.APPLES, Product.MILK));
+
+        assertEquals(Product.MILK.ordinal(), testSubject.getProductId(1));
+        assertEquals(2, testSubject.getQuantity(0));
+        assertEquals(65, testSubject.getDiscountInPence(ProductCatalog.INSTANCE));
+        final Throwable exception = assertThrows(IllegalArgumentException.class,
+                () -> testSubject.withProductIds(new int[] {0}));
+        assertEquals("Expected 2 product ids but found 1.", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Check that invalid offers are rejected")
+    public void checkThatInvalidOffersAreRejected() {
+        assertRejected("An offer must consume at least one product.", new int[0], new long[0], 10);
+        assertRejected("Expected 1 quantities but found 2.", new int[] {1}, new long[] {1, 1}, 10);
+        assertRejected("Invalid product id -1.", new int[] {-1}, new long[] {1}, 10);
+        assertRejected("Invalid quantity 0.", new int[] {1}, new long[] {0}, 10);
+        assertRejected("Duplicate product ids [1, 1].", new int[] {1, 1}, new long[] {1, 1}, 10);
+        assertRejected("Invalid discount 0.", new int[] {1}, new long[] {1}, 0);
+
+        Throwable exception = assertThrows(IllegalArgumentException.class,
+                () -> new ConsumingOffer("Offer", new int[] {1}, new long[] {1}, 2, 50));
+        assertEquals("Discounted product id 2 is not consumed.", exception.getMessage());
+        exception = assertThrows(IllegalArgumentException.class,
+                () -> new ConsumingOffer("Offer", new int[] {1}, new long[] {1}, 1, 101));
+        assertEquals("Invalid percentage 101.", exception.getMessage());
+    }
+
+    private static void assertRejected(final String message, final int[] productIds, final long[] quantities,
+                                       final long discountInPence) {
+        Throwable exception = assertThrows(IllegalArgumentException.class,
+                () -> new ConsumingOffer("Offer", productIds, quantities, discountInPence));
+        assertEquals(message, exception.getMessage());
+    }
+}
@@ -4,25 +4,25 @@
  **/
 package com.wcl.pricebasket.offers;
 
+import com.wcl.pricebasket.entities.Basket;
 import com.wcl.pricebasket.entities.Product;
 import com.wcl.pricebasket.utils.MonetaryUtils;
 
 import org.junit.Test;
 import org.junit.jupiter.api.DisplayName;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.time.Instant;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 public class DiscountOfferTest {
     /*
-     * Test DiscountOffer uses a predicate check that an entry must be in the Basket map; the discount function merely
-     * multiplies the number of key-value entries by 5.
+     * Test DiscountOffer uses a predicate check that a product must be in the Basket; the discount function merely
+     * multiplies the number of distinct products by 500 pence.
      */
     private final DiscountOffer testSubject = new DiscountOffer("Test Offer Description",
-                                                                 p -> p.size() > 0,
-                                                                 p -> MonetaryUtils.gbpAmount(p.size() * 5.00));
+                                                                 p -> !p.isEmpty(),
+                                                                 p -> p.getNumberOfDistinctProducts() * 500L);
 
 
     @Test
@@ -34,24 +34,93 @@ public class DiscountOfferTest {
     @Test
     @DisplayName("Check that the condition check passes correctly")
     public void checkThatTheConditionCheckPassesCorrectly() {
-        final Map<Product, Long> testBasket = new HashMap<>();
-        testBasket.put(Product.MILK, 8L);
+        final Basket testBasket = new Basket();
+        testBasket.add(Product.MILK, 8L);
         assertTrue(testSubject.isOfferApplicable(testBasket));
     }
 
     @Test
     @DisplayName("Check that the condition check fails correctly")
     public void checkThatTheConditionCheckFailsCorrectly() {
-        final Map<Product, Long> testBasket = new HashMap<>();
+        final Basket testBasket = new Basket();
         assertFalse(testSubject.isOfferApplicable(testBasket));
     }
 
     @Test
     @DisplayName("Check that the discount calculation works correctly")
     public void checkThatTheDiscountCalculationWorksCorrectly() {
-        final Map<Product, Long> testBasket = new HashMap<>();
-        testBasket.put(Product.MILK, 2L);
-        testBasket.put(Product.APPLES, 7L);
+        final Basket testBasket = new Basket();
+        testBasket.add(Product.MILK, 2L);
+        testBasket.add(Product.APPLES, 7L);
         assertEquals(MonetaryUtils.gbpAmount(10.00), testSubject.calculateDiscountToApply(testBasket));
     }
+
+    @Test
+    @DisplayName("Check that the discount calculation in pence works correctly")
+    public void checkThatTheDiscountCalculationInPenceWorksCorrectly() {
+        final Basket testBasket = new Basket();
+        testBasket.add(Product.MILK, 2L);
+        testBasket.add(Product.APPLES, 7L);
+        assertEquals(1000L, testSubject.calculateDiscountInPence(testBasket));
+    }
+
+    @Test
+    @DisplayName("Check that the trigger products are correctly returned")
+    public void checkThatTheTriggerProductsAreCorrectlyReturned() {
+        assertEquals(0, testSubject.getTriggerProductIds().length);
+
+        final DiscountOffer triggeredOffer = new DiscountOffer("Triggered Offer",
+                                                               DiscountOffer.triggeredBy(Product.MILK, Product.SOUP),
+                                                               p -> true,
+                                                               p -> 0L);
+        assertArrayEquals(new int[] {Product.MILK.ordinal(), Product.SOUP.ordinal()},
+                          triggeredOffer.getTriggerProductIds());
+    }
+
+    @Test
+    @DisplayName("Check that invalid trigger product ids are rejected")
+    public void checkThatInvalidTriggerProductIdsAreRejected() {
+        Throwable exception = assertThrows(IllegalArgumentException.class,
+                () -> new DiscountOffer("Invalid Offer", new int[] {-1}, p -> true, p -> 0L));
+        assertEquals("Invalid trigger product id -1.", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Check that the input products include the trigger products")
+    public void checkThatTheInputProductsIncludeTheTriggerProducts() {
+        assertEquals(0, testSubject.getInputProductIds().length);
+
+        final DiscountOffer offer = new DiscountOffer("Bread Offer",
+                                                      DiscountOffer.triggeredBy(Product.BREAD),
+                                                      DiscountOffer.triggeredBy(Product.SOUP),
+                                                      p -> true,
+                                                      p -> 0L);
+        assertArrayEquals(new int[] {Product.SOUP.ordinal(), Product.BREAD.ordinal()}, offer.getInputProductIds());
+    }
+
+    @Test
+    @DisplayName("Check that an offer only runs within its window")
+    public void checkThatAnOfferOnlyRunsWithinItsWindow() {
+        final Instant start = Instant.parse("2019-06-03T00:00:00Z");
+        final Instant end = Instant.parse("2019-06-10T00:00:00Z");
+        final DiscountOffer offer = testSubject.validBetween(start, end);
+
+        assertTrue(testSubject.isActiveAt(start.minusSeconds(1)));
+        assertFalse(offer.isActiveAt(start.minusNanos(1)));
+        assertTrue(offer.isActiveAt(start));
+        assertFalse(offer.isActiveAt(end));
+        assertEquals(start, offer.getValidFrom());
+        assertEquals(end, offer.getValidUntil());
+        assertEquals(testSubject.getDescription(), offer.getDescription());
+    }
+
+    @Test
+    @DisplayName("Check that a window ending before it starts is rejected")
+    public void checkThatAWindowEndingBeforeItStartsIsRejected() {
+        final Instant start = Instant.parse("2019-06-03T00:00:00Z");
+
+        Throwable exception = assertThrows(IllegalArgumentException.class,
+                () -> testSubject.validBetween(start, start));
+        assertEquals("Invalid offer window 2019-06-03T00:00:00Z to 2019-06-03T00:00:00Z.", exception.getMessage());
+    }
 }
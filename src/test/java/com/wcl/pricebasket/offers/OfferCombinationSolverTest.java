@@ -0,0 +1,191 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.offers;
+
+import com.wcl.pricebasket.catalog.ProductCatalog;
+import com.wcl.pricebasket.entities.Basket;
+import com.wcl.pricebasket.entities.Product;
+import org.junit.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OfferCombinationSolverTest {
+    private static final ConsumingOffer THREE_SOUPS = offer("Three soups for £1.05", 90, Product.SOUP, 3);
+    private static final ConsumingOffer MEAL_DEAL = offer("Soup and bread meal deal", 50,
+                                                          Product.SOUP, 1, Product.BREAD, 1);
+
+    @Test
+    @DisplayName("Check that the best combination is found where the greedy one falls short")
+    public void checkThatTheBestCombinationIsFoundWhereTheGreedyOneFallsShort() {
+        final OfferCombinationSolver testSubject = new OfferCombinationSolver(Arrays.asList(THREE_SOUPS, MEAL_DEAL),
+                                                                              1, TimeUnit.SECONDS);
+
+        final OfferCombination combination = testSubject.solve(basketOf(Product.SOUP, 3, Product.BREAD, 3));
+
+        assertEquals(150, combination.getTotalDiscountInPence());
+        assertEquals(0, combination.getApplications(0));
+        assertEquals(3, combination.getApplications(1));
+        assertTrue(combination.isOptimal());
+    }
+
+    @Test
+    @DisplayName("Check that the greedy combination is returned when there is no time to search")
+    public void checkThatTheGreedyCombinationIsReturnedWhenThereIsNoTimeToSearch() {
+        final OfferCombinationSolver testSubject = new OfferCombinationSolver(Arrays.asList(THREE_SOUPS, MEAL_DEAL),
+                                                                              0, TimeUnit.SECONDS);
+
+        final OfferCombination combination = testSubject.solve(basketOf(Product.SOUP, 3, Product.BREAD, 3));
+
+        assertEquals(90, combination.getTotalDiscountInPence());
+        assertEquals(1, combination.getApplications(0));
+        assertEquals(0, combination.getApplications(1));
+        assertFalse(combination.isOptimal());
+    }
+
+    @Test
+    @DisplayName("Check that an item never counts towards two applications")
+    public void checkThatAnItemNeverCountsTowardsTwoApplications() {
+        final OfferCombinationSolver testSubject = new OfferCombinationSolver(
+                Arrays.asList(offer("Apples 10p off", 10, Product.APPLES, 1),
+                              offer("Two apples 25p off", 25, Product.APPLES, 2)),
+                1, TimeUnit.SECONDS);
+
+        final OfferCombination combination = testSubject.solve(basketOf(Product.APPLES, 3));
+
+        assertEquals(35, combination.getTotalDiscountInPence());
+        assertEquals(1, combination.getApplications(0));
+        assertEquals(1, combination.getApplications(1));
+    }
+
+    @Test
+    @DisplayName("Check that nothing is applied when no offer fits the basket")
+    public void checkThatNothingIsAppliedWhenNoOfferFitsTheBasket() {
+        final OfferCombinationSolver testSubject = new OfferCombinationSolver(Arrays.asList(THREE_SOUPS, MEAL_DEAL),
+                                                                              0, TimeUnit.SECONDS);
+
+        final OfferCombination combination = testSubject.solve(basketOf(Product.SOUP, 2, Product.MILK, 4));
+
+        assertEquals(0, combination.getTotalDiscountInPence());
+        assertEquals(0, combination.getApplications(0));
+        assertTrue(combination.isOptimal());
+        assertEquals(2, testSubject.size());
+    }
+
+    @Test
+    @DisplayName("Check that the combinations found match an exhaustive search")
+    public void checkThatTheCombinationsFoundMatchAnExhaustiveSearch() {
+        final Random random = new Random(17);
+        final Product[] products = {Product.SOUP, Product.BREAD, Product.MILK};
+
+        for (int trial = 0; trial < 50; trial++) {
+            final List<ConsumingOffer> offers = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                final Product first = products[random.nextInt(products.length)];
+                final Product second = products[random.nextInt(products.length)];
+                offers.add(first == second
+                                   ? offer("Offer " + i, 1 + random.nextInt(100), first, 1 + random.nextInt(3))
+                                   : offer("Offer " + i, 1 + random.nextInt(100), first, 1 + random.nextInt(2),
+                                           second, 1 + random.nextInt(2)));
+            }
+            final Basket basket = basketOf(Product.SOUP, random.nextInt(6), Product.BREAD, random.nextInt(6));
+            basket.add(Product.MILK, random.nextInt(6));
+
+            final OfferCombination combination = new OfferCombinationSolver(offers, 1, TimeUnit.SECONDS).solve(basket);
+
+            assertEquals(searchExhaustively(offers, basket, 0), combination.getTotalDiscountInPence(),
+                         "Trial " + trial);
+            assertTrue(combination.isOptimal());
+        }
+    }
+
+    @Test
+    @DisplayName("Check that a large search stops at the time budget with an answer at least as good as greedy")
+    public void checkThatALargeSearchStopsAtTheTimeBudget() {
+        final Random random = new Random(3);
+        final List<ConsumingOffer> offers = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            offers.add(offer("Offer " + i, 50 + random.nextInt(50),
+                             Product.SOUP, 1 + random.nextInt(4), Product.BREAD, 1 + random.nextInt(4)));
+        }
+        final Basket basket = basketOf(Product.SOUP, 1000, Product.BREAD, 1000);
+        final long greedyDiscount = new OfferCombinationSolver(offers, 0, TimeUnit.MILLISECONDS).solve(basket)
+                                                                                              .getTotalDiscountInPence();
+
+        final long start = System.nanoTime();
+        final OfferCombination combination = new OfferCombinationSolver(offers, 20, TimeUnit.MILLISECONDS)
+                .solve(basket);
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 2000);
+        assertTrue(combination.getTotalDiscountInPence() >= greedyDiscount);
+    }
+
+    @Test
+    @DisplayName("Check that a negative time budget is rejected")
+    public void checkThatANegativeTimeBudgetIsRejected() {
+        Throwable exception = assertThrows(IllegalArgumentException.class,
+                () -> new OfferCombinationSolver(new ArrayList<>(), -1, TimeUnit.SECONDS));
+        assertEquals("Invalid time budget -1.", exception.getMessage());
+    }
+
+    /* Tries every number of applications of every offer from the one supplied onwards. */
+    private static long searchExhaustively(final List<ConsumingOffer> offers, final Basket basket, final int from) {
+        if (from == offers.size()) {
+            return 0;
+        }
+        final ConsumingOffer offer = offers.get(from);
+        long best = searchExhaustively(offers, basket, from + 1);
+        for (long times = 1; fits(offer, basket, times); times++) {
+            final Basket remaining = basket.copy();
+            for (int i = 0; i < offer.getNumberOfProducts(); i++) {
+                remaining.add(offer.getProductId(i), -times * offer.getQuantity(i));
+            }
+            best = Math.max(best, times * offer.getDiscountInPence(ProductCatalog.INSTANCE)
+                                  + searchExhaustively(offers, remaining, from + 1));
+        }
+        return best;
+    }
+
+    private static boolean fits(final ConsumingOffer offer, final Basket basket, final long times) {
+        for (int i = 0; i < offer.getNumberOfProducts(); i++) {
+            if (basket.getQuantity(offer.getProductId(i)) < times * offer.getQuantity(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static ConsumingOffer offer(final String description, final long discountInPence,
+                                        final Product product, final long quantity) {
+        return new ConsumingOffer(description, new int[] {product.ordinal()}, new long[] {quantity},
+                                  discountInPence);
+    }
+
+    private static ConsumingOffer offer(final String description, final long discountInPence,
+                                        final Product first, final long firstQuantity,
+                                        final Product second, final long secondQuantity) {
+        return new ConsumingOffer(description, new int[] {first.ordinal(), second.ordinal()},
+                                  new long[] {firstQuantity, secondQuantity}, discountInPence);
+    }
+
+    private static Basket basketOf(final Product product, final long quantity) {
+        final Basket basket = new Basket();
+        basket.add(product, quantity);
+        return basket;
+    }
+
+    private static Basket basketOf(final Product first, final long firstQuantity,
+                                   final Product second, final long secondQuantity) {
+        final Basket basket = basketOf(first, firstQuantity);
+        basket.add(second, secondQuantity);
+        return basket;
+    }
+}
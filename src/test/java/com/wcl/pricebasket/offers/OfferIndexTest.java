@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.offers;
+
+import com.wcl.pricebasket.entities.Basket;
+import com.wcl.pricebasket.entities.Product;
+import org.junit.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OfferIndexTest {
+    private final OfferIndex testSubject = new OfferIndex(constructOffers());
+
+    @Test
+    @DisplayName("Check that only the untriggered offers are candidates for an empty basket")
+    public void checkThatOnlyUntriggeredOffersAreCandidatesForAnEmptyBasket() {
+        assertEquals(5, testSubject.size());
+        assertArrayEquals(new int[] {2}, testSubject.findCandidateOffers(new Basket()));
+    }
+
+    @Test
+    @DisplayName("Check that the offers triggered by the products in the basket are candidates, in order")
+    public void checkThatTriggeredOffersAreCandidatesInOrder() {
+        final Basket basket = new Basket();
+        basket.add(Product.SOUP);
+        basket.add(Product.APPLES);
+
+        assertArrayEquals(new int[] {0, 2, 3, 4}, testSubject.findCandidateOffers(basket));
+        assertEquals("Apples offer", testSubject.getOffer(0).getDescription());
+    }
+
+    @Test
+    @DisplayName("Check that an offer triggered by several products in the basket is only a candidate once")
+    public void checkThatAnOfferIsOnlyACandidateOnce() {
+        final Basket basket = new Basket();
+        basket.add(Product.SOUP);
+        basket.add(Product.BREAD);
+
+        assertArrayEquals(new int[] {1, 2, 3}, testSubject.findCandidateOffers(basket));
+    }
+
+    @Test
+    @DisplayName("Check that products beyond those triggering offers have no candidates")
+    public void checkThatUnknownProductsHaveNoCandidates() {
+        final OfferIndex triggeredOnly = new OfferIndex(constructOffers().subList(0, 2));
+        final Basket basket = new Basket();
+        basket.add(5000);
+
+        assertEquals(0, triggeredOnly.findCandidateOffers(basket).length);
+    }
+
+    @Test
+    @DisplayName("Check that the offers reading a product are found, along with those reading any product")
+    public void checkThatTheOffersReadingAProductAreFound() {
+        final List<DiscountOffer> offers = new ArrayList<>();
+        offers.add(new DiscountOffer("Bread for soup offer", DiscountOffer.triggeredBy(Product.BREAD),
+                                     DiscountOffer.triggeredBy(Product.SOUP), p -> true, p -> 1L));
+        offers.add(new DiscountOffer("Soup offer", DiscountOffer.triggeredBy(Product.SOUP),
+                                     DiscountOffer.triggeredBy(Product.SOUP), p -> true, p -> 1L));
+        offers.add(new DiscountOffer("Undeclared offer", DiscountOffer.triggeredBy(Product.SOUP), p -> true, p -> 1L));
+        final OfferIndex index = new OfferIndex(offers);
+
+        assertArrayEquals(new int[] {0, 1}, index.findOffersReading(Product.SOUP.ordinal()));
+        assertArrayEquals(new int[] {0}, index.findOffersReading(Product.BREAD.ordinal()));
+        assertArrayEquals(new int[0], index.findOffersReading(Product.MILK.ordinal()));
+        assertArrayEquals(new int[] {2}, index.findOffersReadingAnyProduct());
+    }
+
+    @Test
+    @DisplayName("Check that visiting the offers triggered by each product finds each candidate once")
+    public void checkThatVisitingTheTriggeredOffersFindsEachCandidateOnce() {
+        final OfferIndex index = new OfferIndex(constructOffers());
+        final Basket basket = new Basket();
+        basket.add(Product.SOUP);
+        basket.add(Product.BREAD);
+
+        final List<Integer> visited = new ArrayList<>();
+        for (final int position : index.findUntriggeredOffers()) {
+            visited.add(position);
+        }
+        for (int i = 0; i < basket.getNumberOfDistinctProducts(); i++) {
+            final int productId = basket.getDistinctProductId(i);
+            for (final int position : index.findOffersTriggeredBy(productId)) {
+                if (index.isFirstTriggerInBasket(position, productId, basket)) {
+                    visited.add(position);
+                }
+            }
+        }
+        visited.sort(null);
+
+        assertEquals(Arrays.asList(1, 2, 3), visited);
+        assertArrayEquals(new int[] {1, 2, 3}, index.findCandidateOffers(basket));
+    }
+
+    private List<DiscountOffer> constructOffers() {
+        final List<DiscountOffer> offers = new ArrayList<>();
+        offers.add(new DiscountOffer("Apples offer", DiscountOffer.triggeredBy(Product.APPLES), p -> true, p -> 1L));
+        offers.add(new DiscountOffer("Bread offer", DiscountOffer.triggeredBy(Product.BREAD), p -> true, p -> 1L));
+        offers.add(new DiscountOffer("Everything offer", p -> true, p -> 1L));
+        offers.add(new DiscountOffer("Soup or bread offer",
+                                     DiscountOffer.triggeredBy(Product.SOUP, Product.BREAD, Product.SOUP),
+                                     p -> true, p -> 1L));
+        offers.add(new DiscountOffer("Apples offer", DiscountOffer.triggeredBy(Product.APPLES), p -> true, p -> 1L));
+        return offers;
+    }
+}
@@ -0,0 +1,203 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.offers.rules;
+
+import com.wcl.pricebasket.catalog.MappedCatalog;
+import com.wcl.pricebasket.catalog.MappedCatalogWriter;
+import com.wcl.pricebasket.catalog.ProductCatalog;
+import com.wcl.pricebasket.catalog.ReloadableCatalog;
+import com.wcl.pricebasket.entities.Basket;
+import com.wcl.pricebasket.entities.Product;
+import com.wcl.pricebasket.offers.ConsumingOffer;
+import com.wcl.pricebasket.offers.DiscountOffer;
+import com.wcl.pricebasket.parser.PricebasketParser;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OfferRuleCompilerTest {
+    private final OfferRuleCompiler testSubject = new OfferRuleCompiler(ProductCatalog.INSTANCE);
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    @DisplayName("Check that a percentage off rule is compiled")
+    public void checkThatAPercentageOffRuleIsCompiled() {
+        final DiscountOffer offer = compileSingleOffer("\"Apples 10% off\" = APPLES pct 10");
+
+        assertEquals("Apples 10% off", offer.getDescription());
+        assertArrayEquals(DiscountOffer.triggeredBy(Product.APPLES), offer.getTriggerProductIds());
+
+        final Basket basket = new Basket();
+        basket.add(Product.MILK);
+        assertFalse(offer.isOfferApplicable(basket));
+
+        basket.add(Product.APPLES, 3L);
+        assertTrue(offer.isOfferApplicable(basket));
+        assertEquals(30L, offer.calculateDiscountInPence(basket));
+    }
+
+    @Test
+    @DisplayName("Check that a buy / get rule is compiled")
+    public void checkThatABuyGetRuleIsCompiled() {
+        final DiscountOffer offer = compileSingleOffer("buy 2 SOUP get BREAD 50%");
+
+        assertEquals("Buy 2 Soup get Bread 50% off", offer.getDescription());
+        assertArrayEquals(DiscountOffer.triggeredBy(Product.BREAD), offer.getTriggerProductIds());
+
+        final Basket basket = new Basket();
+        basket.add(Product.BREAD, 3L);
+        basket.add(Product.SOUP);
+        assertFalse(offer.isOfferApplicable(basket));
+
+        basket.add(Product.SOUP, 4L);
+        assertTrue(offer.isOfferApplicable(basket));
+        assertEquals(80L, offer.calculateDiscountInPence(basket));
+    }
+
+    @Test
+    @DisplayName("Check that a buy / get rule for a single product discounts one unit from each group")
+    public void checkThatABuyGetRuleForASingleProductDiscountsOneUnitFromEachGroup() {
+        final DiscountOffer offer = compileSingleOffer("buy 2 soup get soup pct 100");
+
+        final Basket basket = new Basket();
+        basket.add(Product.SOUP, 2L);
+        assertFalse(offer.isOfferApplicable(basket));
+
+        basket.add(Product.SOUP, 4L);
+        assertTrue(offer.isOfferApplicable(basket));
+        assertEquals(130L, offer.calculateDiscountInPence(basket));
+    }
+
+    @Test
+    @DisplayName("Check that comments and blank lines are ignored")
+    public void checkThatCommentsAndBlankLinesAreIgnored() {
+        final List<DiscountOffer> offers = new OfferRuleCompiler(ProductCatalog.INSTANCE).compile(
+                "# Current offers\n\n  \"Milk #1\" = Milk 5%  # the best milk\nBread pct 20\n");
+
+        assertEquals(2, offers.size());
+        assertEquals("Milk #1", offers.get(0).getDescription());
+        assertEquals("Bread 20% off", offers.get(1).getDescription());
+    }
+
+    @Test
+    @DisplayName("Check that an unknown product is reported with its line number")
+    public void checkThatAnUnknownProductIsReportedWithItsLineNumber() {
+        Throwable exception = assertThrows(IllegalArgumentException.class,
+                                           () -> testSubject.compile("APPLES pct 10\nPEARS pct 10"));
+        assertEquals("Line 2: No such product PEARS.", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Check that invalid rules are rejected")
+    public void checkThatInvalidRulesAreRejected() {
+        checkRuleRejected("APPLES pct 0", "Line 1: Invalid percentage 0.");
+        checkRuleRejected("APPLES 101%", "Line 1: Invalid percentage 101.");
+        checkRuleRejected("APPLES 10", "Line 1: Expected a percentage but found 10.");
+        checkRuleRejected("APPLES", "Line 1: Expected a percentage.");
+        checkRuleRejected("APPLES pct 10 today", "Line 1: Unexpected today.");
+        checkRuleRejected("buy 0 SOUP get BREAD 50%", "Line 1: Invalid quantity 0.");
+        checkRuleRejected("buy two SOUP get BREAD 50%", "Line 1: Invalid number two.");
+        checkRuleRejected("buy 2 SOUP and BREAD 50%", "Line 1: Expected get but found and.");
+        checkRuleRejected("\"Apples = APPLES pct 10", "Line 1: Unterminated description.");
+        checkRuleRejected("\"Apples\" APPLES pct 10", "Line 1: Expected = but found APPLES.");
+    }
+
+    @Test
+    @DisplayName("Check that rules can be parsed without being compiled")
+    public void checkThatRulesCanBeParsedWithoutBeingCompiled() {
+        final List<OfferRule> rules = testSubject.parse("APPLES pct 10\n\"Soup deal\" = buy 2 SOUP get BREAD 50%\n");
+
+        assertEquals(2, rules.size());
+        assertEquals(OfferRule.builder().description("Apples 10% off")
+                                        .boughtProductId(Product.APPLES.ordinal())
+                                        .discountedProductId(Product.APPLES.ordinal())
+                                        .percentage(10)
+                                        .build(), rules.get(0));
+        assertTrue(rules.get(0).isPercentageOff());
+        assertEquals(OfferRule.builder().description("Soup deal")
+                                        .boughtProductId(Product.SOUP.ordinal())
+                                        .quantityToBuy(2)
+                                        .discountedProductId(Product.BREAD.ordinal())
+                                        .percentage(50)
+                                        .build(), rules.get(1));
+        assertFalse(rules.get(1).isPercentageOff());
+    }
+
+    @Test
+    @DisplayName("Check that rules can be compiled into offers competing for the items they discount")
+    public void checkThatRulesCanBeCompiledIntoConsumingOffers() {
+        final List<ConsumingOffer> offers = testSubject.compileConsuming(
+                "APPLES pct 10\nbuy 2 SOUP get BREAD 50%\nbuy 2 soup get soup pct 100\n");
+
+        assertEquals(3, offers.size());
+        assertEquals("Apples 10% off", offers.get(0).getDescription());
+        assertEquals(1, offers.get(0).getNumberOfProducts());
+        assertEquals(1, offers.get(0).getQuantity(0));
+        assertEquals(10, offers.get(0).getDiscountInPence(ProductCatalog.INSTANCE));
+
+        assertEquals(2, offers.get(1).getNumberOfProducts());
+        assertEquals(Product.SOUP.ordinal(), offers.get(1).getProductId(0));
+        assertEquals(2, offers.get(1).getQuantity(0));
+        assertEquals(Product.BREAD.ordinal(), offers.get(1).getProductId(1));
+        assertEquals(1, offers.get(1).getQuantity(1));
+        assertEquals(40, offers.get(1).getDiscountInPence(ProductCatalog.INSTANCE));
+
+        assertEquals(1, offers.get(2).getNumberOfProducts());
+        assertEquals(3, offers.get(2).getQuantity(0));
+        assertEquals(65, offers.get(2).getDiscountInPence(ProductCatalog.INSTANCE));
+    }
+
+    @Test
+    @DisplayName("Check that offers are priced from the catalog the basket was resolved against")
+    public void checkThatOffersArePricedFromTheCatalogTheBasketWasResolvedAgainst() throws IOException {
+        final Path catalogFile = temporaryFolder.getRoot().toPath().resolve("catalog.bin");
+        new MappedCatalogWriter().addProduct("Tea", 250)
+                                 .addProduct("Coffee", 425)
+                                 .writeTo(catalogFile, 1L);
+        final Path reorderedFile = temporaryFolder.getRoot().toPath().resolve("reordered.bin");
+        new MappedCatalogWriter().addProduct("Coffee", 500)
+                                 .addProduct("Tea", 300)
+                                 .writeTo(reorderedFile, 2L);
+        final Path withoutTeaFile = temporaryFolder.getRoot().toPath().resolve("without-tea.bin");
+        new MappedCatalogWriter().addProduct("Coffee", 500)
+                                 .writeTo(withoutTeaFile, 3L);
+        final ReloadableCatalog catalog = new ReloadableCatalog(MappedCatalog.open(catalogFile));
+        final DiscountOffer offer = new OfferRuleCompiler(catalog).compile("Tea pct 10").get(0);
+        final PricebasketParser parser = new PricebasketParser(catalog);
+
+        final Basket resolvedBeforeReload = parser.retrieveBasket("Pricebasket Tea Tea Coffee");
+        catalog.reload(reorderedFile);
+        final Basket resolvedAfterReload = parser.retrieveBasket("Pricebasket Tea Tea Coffee");
+        catalog.reload(withoutTeaFile);
+        final Basket withoutTea = parser.retrieveBasket("Pricebasket Coffee");
+
+        assertTrue(offer.isOfferApplicable(resolvedBeforeReload));
+        assertEquals(50L, offer.calculateDiscountInPence(resolvedBeforeReload));
+        assertTrue(offer.isOfferApplicable(resolvedAfterReload));
+        assertEquals(60L, offer.calculateDiscountInPence(resolvedAfterReload));
+        assertFalse(offer.isOfferApplicable(withoutTea));
+        assertEquals(0L, offer.calculateDiscountInPence(withoutTea));
+    }
+
+    private void checkRuleRejected(final String rule, final String expectedMessage) {
+        Throwable exception = assertThrows(IllegalArgumentException.class, () -> testSubject.compile(rule));
+        assertEquals(expectedMessage, exception.getMessage());
+    }
+
+    private DiscountOffer compileSingleOffer(final String rule) {
+        final List<DiscountOffer> offers = testSubject.compile(rule);
+        assertEquals(1, offers.size());
+        return offers.get(0);
+    }
+}
@@ -0,0 +1,61 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.parser;
+
+import com.wcl.pricebasket.entities.Basket;
+import com.wcl.pricebasket.entities.Product;
+import org.junit.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BasketLineReaderTest {
+    private final PricebasketParser parser = new PricebasketParser();
+
+    @Test
+    @DisplayName("Checks each line is read and parsed in turn until the end of the stream")
+    public void checkEachLineParsedUntilTheEndOfTheStream() throws IOException {
+        final BasketLineReader testSubject = new BasketLineReader(parser,
+                new StringReader("Pricebasket Milk Bread\r\nPricebasket Soup"));
+
+        final Basket firstBasket = testSubject.readBasket();
+        assertEquals(1L, firstBasket.getQuantity(Product.MILK));
+        assertEquals(1L, firstBasket.getQuantity(Product.BREAD));
+        assertEquals(2, firstBasket.getNumberOfDistinctProducts());
+
+        final Basket secondBasket = testSubject.readBasket();
+        assertEquals(1L, secondBasket.getQuantity(Product.SOUP));
+        assertEquals(1, secondBasket.getNumberOfDistinctProducts());
+
+        assertNull(testSubject.readBasket());
+    }
+
+    @Test
+    @DisplayName("Checks lines longer than the buffer and split across reads are parsed")
+    public void checkLinesLongerThanTheBufferAreParsed() throws IOException {
+        final BasketLineReader testSubject = new BasketLineReader(parser,
+                new StringReader("Pricebasket Apples Apples Apples Soup\nPricebasket Milk\n"), 8);
+
+        final Basket firstBasket = testSubject.readBasket();
+        assertEquals(3L, firstBasket.getQuantity(Product.APPLES));
+        assertEquals(1L, firstBasket.getQuantity(Product.SOUP));
+        assertEquals(1L, testSubject.readBasket().getQuantity(Product.MILK));
+        assertNull(testSubject.readBasket());
+    }
+
+    @Test
+    @DisplayName("Checks a malformed line is read past so that the next line can be read")
+    public void checkMalformedLineReadPast() throws IOException {
+        final BasketLineReader testSubject = new BasketLineReader(parser,
+                new StringReader("Pricebasket Pears\nPricebasket Bread\n"));
+
+        Throwable exception = assertThrows(IllegalArgumentException.class, testSubject::readBasket);
+        assertEquals("No such product Pears.", exception.getMessage());
+        assertEquals(1L, testSubject.readBasket().getQuantity(Product.BREAD));
+    }
+}
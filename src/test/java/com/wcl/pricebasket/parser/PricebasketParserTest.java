@@ -4,6 +4,7 @@
  **/
 package com.wcl.pricebasket.parser;
 
+import com.wcl.pricebasket.entities.Basket;
 import com.wcl.pricebasket.entities.Product;
 import org.junit.Test;
 import org.junit.jupiter.api.DisplayName;
@@ -11,6 +12,7 @@ import org.junit.jupiter.api.DisplayName;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class PricebasketParserTest {
@@ -77,4 +79,55 @@ public class PricebasketParserTest {
         assertEquals(Product.MILK, list.get(2));
     }
 
+    @Test
+    @DisplayName("Checks the basket parser reports the same errors as the list parser")
+    public void checkBasketParserErrorMessages() {
+        final PricebasketParser testParser = new PricebasketParser();
+        checkBasketParserErrorMessage(testParser, null, "Nothing was entered.");
+        checkBasketParserErrorMessage(testParser, " \t ", "Nothing was entered.");
+        checkBasketParserErrorMessage(testParser, "Apples Bread Milk", "Pricebasket was not found at the start.");
+        checkBasketParserErrorMessage(testParser, "Pricebasket", "No products to purchase were entered.");
+        checkBasketParserErrorMessage(testParser, "Pricebasket   ", "No products to purchase were entered.");
+        checkBasketParserErrorMessage(testParser, "Pricebasket Apples Pears", "No such product Pears.");
+    }
+
+    private void checkBasketParserErrorMessage(final PricebasketParser testParser, final String text,
+                                               final String expectedMessage) {
+        Throwable exception = assertThrows(IllegalArgumentException.class, () -> testParser.retrieveBasket(text));
+        assertEquals(expectedMessage, exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Checks the products entered are counted into the basket, ignoring case")
+    public void checkProductsCountedIntoBasket() {
+        final PricebasketParser testParser = new PricebasketParser();
+        final Basket basket = testParser.retrieveBasket("Pricebasket Apples milk MILK Soup");
+
+        assertEquals(3, basket.getNumberOfDistinctProducts());
+        assertEquals(1L, basket.getQuantity(Product.APPLES));
+        assertEquals(2L, basket.getQuantity(Product.MILK));
+        assertEquals(1L, basket.getQuantity(Product.SOUP));
+    }
+
+    @Test
+    @DisplayName("Checks repeated and irregular whitespace between products is ignored")
+    public void checkIrregularWhitespaceIgnored() {
+        final PricebasketParser testParser = new PricebasketParser();
+        final Basket basket = testParser.retrieveBasket("Pricebasket  Apples\t\tBread   Bread \r\n");
+
+        assertEquals(1L, basket.getQuantity(Product.APPLES));
+        assertEquals(2L, basket.getQuantity(Product.BREAD));
+        assertEquals(2, basket.getNumberOfDistinctProducts());
+    }
+
+    @Test
+    @DisplayName("Checks the products entered are added to the basket supplied")
+    public void checkProductsAddedToSuppliedBasket() {
+        final PricebasketParser testParser = new PricebasketParser();
+        final Basket basket = new Basket();
+        basket.add(Product.SOUP);
+
+        assertSame(basket, testParser.retrieveBasket(new StringBuilder("Pricebasket Soup"), basket));
+        assertEquals(2L, basket.getQuantity(Product.SOUP));
+    }
 }
@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.receipt;
+
+import com.wcl.pricebasket.catalog.ProductCatalog;
+import com.wcl.pricebasket.entities.Product;
+import com.wcl.pricebasket.offers.DiscountOffer;
+import com.wcl.pricebasket.offers.rules.OfferRuleCompiler;
+import com.wcl.pricebasket.testutils.MoneyTestUtils;
+import com.wcl.pricebasket.utils.MonetaryUtils;
+import org.junit.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BasketSessionTest {
+    private final ReceiptGenerator receiptGenerator = new ReceiptGenerator(constructOffers());
+    private final BasketSession testSubject = new BasketSession(receiptGenerator);
+
+    @Test
+    @DisplayName("Check that an empty session has an empty receipt")
+    public void checkThatAnEmptySessionHasAnEmptyReceipt() {
+        final Receipt receipt = testSubject.getReceipt();
+
+        MoneyTestUtils.assertMoneyValuesEquals(MonetaryUtils.gbpAmount(0), receipt.getFinalTotal());
+        assertTrue(receipt.getAppliedOffers().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Check that the offers are updated as items are scanned")
+    public void checkThatTheOffersAreUpdatedAsItemsAreScanned() {
+        testSubject.add(Product.BREAD);
+        testSubject.add(Product.SOUP);
+        assertEquals(145L, testSubject.getTotalInPence());
+
+        testSubject.add(Product.SOUP);
+        assertEquals(170L, testSubject.getTotalInPence());
+        assertEquals("Bread half price if 2 tins of soup bought",
+                     testSubject.getReceipt().getAppliedOffers().get(0).getDescription());
+
+        testSubject.remove(Product.SOUP);
+        assertEquals(145L, testSubject.getTotalInPence());
+        assertTrue(testSubject.getReceipt().getAppliedOffers().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Check that every change gives the same receipt as pricing the whole basket")
+    public void checkThatEveryChangeGivesTheSameReceiptAsPricingTheWholeBasket() {
+        final Product[] products = Product.values();
+        final Random random = new Random(13L);
+
+        for (int i = 0; i < 500; i++) {
+            final Product product = products[random.nextInt(products.length)];
+            if (random.nextInt(3) == 0 && testSubject.getBasket().contains(product)) {
+                testSubject.remove(product);
+            } else {
+                testSubject.add(product);
+            }
+            assertEquals(receiptGenerator.generateReceipt(testSubject.getBasket()), testSubject.getReceipt());
+        }
+    }
+
+    @Test
+    @DisplayName("Check that removing a product not in the session is rejected")
+    public void checkThatRemovingAProductNotInTheSessionIsRejected() {
+        Throwable exception = assertThrows(IllegalArgumentException.class, () -> testSubject.remove(Product.MILK));
+        assertEquals("No Milk in the basket.", exception.getMessage());
+    }
+
+    /* The current offers, along with a hand written offer that has not declared the products it reads. */
+    private static List<DiscountOffer> constructOffers() {
+        final List<DiscountOffer> offers = new OfferRuleCompiler(ProductCatalog.INSTANCE).compile(
+                "\"Apples 10% off\" = APPLES pct 10\n"
+                        + "\"Bread half price if 2 tins of soup bought\" = buy 2 SOUP get BREAD 50%\n"
+                        + "buy 2 MILK get MILK 100%\n");
+        offers.add(new DiscountOffer("5p off every 5 items", p -> p.getNumberOfDistinctProducts() > 2,
+                                     p -> 5L * ((p.getQuantity(Product.APPLES) + p.getQuantity(Product.BREAD)
+                                                 + p.getQuantity(Product.MILK) + p.getQuantity(Product.SOUP)) / 5)));
+        return offers;
+    }
+}
@@ -0,0 +1,81 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.receipt;
+
+import com.wcl.pricebasket.entities.Basket;
+import com.wcl.pricebasket.entities.Product;
+import com.wcl.pricebasket.offers.DiscountOffer;
+import org.junit.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchReceiptGeneratorTest {
+    private final ReceiptGenerator receiptGenerator = new ReceiptGenerator(Collections.singletonList(
+            new DiscountOffer("Apples 10% off",
+                              DiscountOffer.triggeredBy(Product.APPLES),
+                              p -> p.contains(Product.APPLES),
+                              p -> p.getQuantity(Product.APPLES) * 10L)));
+
+    @Test
+    @DisplayName("Check that receipts are returned in the order of the baskets")
+    public void checkThatReceiptsAreReturnedInTheOrderOfTheBaskets() {
+        final List<Basket> baskets = createBaskets(1000);
+
+        try (BatchReceiptGenerator testSubject = new BatchReceiptGenerator(receiptGenerator, 4)) {
+            final List<Receipt> receipts = testSubject.generateReceipts(baskets);
+
+            assertEquals(baskets.size(), receipts.size());
+            for (int i = 0; i < baskets.size(); i++) {
+                assertEquals(receiptGenerator.generateReceipt(baskets.get(i)), receipts.get(i));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Check that a stream of baskets is priced in order")
+    public void checkThatAStreamOfBasketsIsPricedInOrder() {
+        final List<Basket> baskets = createBaskets(10);
+
+        try (BatchReceiptGenerator testSubject = new BatchReceiptGenerator(receiptGenerator, 2)) {
+            final List<Receipt> receipts = testSubject.generateReceipts(baskets.stream());
+
+            assertEquals(10, receipts.size());
+            assertEquals(receiptGenerator.generateReceipt(baskets.get(9)), receipts.get(9));
+        }
+    }
+
+    @Test
+    @DisplayName("Check that no receipts are returned for no baskets")
+    public void checkThatNoReceiptsAreReturnedForNoBaskets() {
+        try (BatchReceiptGenerator testSubject = new BatchReceiptGenerator(receiptGenerator, 1)) {
+            assertTrue(testSubject.generateReceipts(new ArrayList<>()).isEmpty());
+            assertEquals(1, testSubject.getParallelism());
+        }
+    }
+
+    @Test
+    @DisplayName("Check that an invalid parallelism is rejected")
+    public void checkThatAnInvalidParallelismIsRejected() {
+        Throwable exception = assertThrows(IllegalArgumentException.class,
+                                           () -> new BatchReceiptGenerator(receiptGenerator, 0));
+        assertEquals("Invalid parallelism 0.", exception.getMessage());
+    }
+
+    private static List<Basket> createBaskets(final int numberOfBaskets) {
+        final List<Basket> baskets = new ArrayList<>();
+        for (int i = 0; i < numberOfBaskets; i++) {
+            final Basket basket = new Basket();
+            basket.add(Product.APPLES, i % 7);
+            basket.add(Product.MILK, 1 + i % 3);
+            baskets.add(basket);
+        }
+        return baskets;
+    }
+}
@@ -0,0 +1,138 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.receipt;
+
+import com.wcl.pricebasket.catalog.Catalog;
+import com.wcl.pricebasket.catalog.MappedCatalog;
+import com.wcl.pricebasket.catalog.MappedCatalogWriter;
+import com.wcl.pricebasket.catalog.ReloadableCatalog;
+import com.wcl.pricebasket.entities.Basket;
+import com.wcl.pricebasket.entities.Product;
+import com.wcl.pricebasket.offers.ConsumingOffer;
+import com.wcl.pricebasket.offers.DiscountOffer;
+import com.wcl.pricebasket.offers.rules.OfferRuleCompiler;
+import com.wcl.pricebasket.parser.PricebasketParser;
+import com.wcl.pricebasket.testutils.MoneyTestUtils;
+import com.wcl.pricebasket.utils.MonetaryUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompetingOfferReceiptGeneratorTest {
+    private final CompetingOfferReceiptGenerator testSubject = new CompetingOfferReceiptGenerator(Arrays.asList(
+            new ConsumingOffer("Bread 10% off", DiscountOffer.triggeredBy(Product.BREAD), new long[] {1}, 8),
+            new ConsumingOffer("Buy 2 tins of soup and get a loaf of bread half price",
+                               DiscountOffer.triggeredBy(Product.SOUP, Product.BREAD), new long[] {2, 1}, 40)),
+            1, TimeUnit.SECONDS);
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    @DisplayName("Check that a loaf discounted by one offer is not discounted again by another")
+    public void checkThatALoafDiscountedByOneOfferIsNotDiscountedAgain() {
+        final Basket basket = new Basket();
+        basket.add(Product.SOUP, 2);
+        basket.add(Product.BREAD, 2);
+
+        final Receipt receipt = testSubject.generateReceipt(basket);
+
+        MoneyTestUtils.assertMoneyValuesEquals(MonetaryUtils.gbpAmount(2.90), receipt.getSubtotal());
+        assertEquals(2, receipt.getAppliedOffers().size());
+        assertEquals("Bread 10% off", receipt.getAppliedOffers().get(0).getDescription());
+        MoneyTestUtils.assertMoneyValuesEquals(MonetaryUtils.gbpAmount(0.08),
+                                               receipt.getAppliedOffers().get(0).getDiscountAmount());
+        MoneyTestUtils.assertMoneyValuesEquals(MonetaryUtils.gbpAmount(0.40),
+                                               receipt.getAppliedOffers().get(1).getDiscountAmount());
+        MoneyTestUtils.assertMoneyValuesEquals(MonetaryUtils.gbpAmount(2.42), receipt.getFinalTotal());
+    }
+
+    @Test
+    @DisplayName("Check that repeated applications are listed once with their combined discount")
+    public void checkThatRepeatedApplicationsAreListedOnce() {
+        final Basket basket = new Basket();
+        basket.add(Product.BREAD, 3);
+
+        final Receipt receipt = testSubject.generateReceipt(basket);
+
+        assertEquals(1, receipt.getAppliedOffers().size());
+        MoneyTestUtils.assertMoneyValuesEquals(MonetaryUtils.gbpAmount(0.24),
+                                               receipt.getAppliedOffers().get(0).getDiscountAmount());
+        MoneyTestUtils.assertMoneyValuesEquals(MonetaryUtils.gbpAmount(2.16), receipt.getFinalTotal());
+    }
+
+    @Test
+    @DisplayName("Check that percentage offers compiled from rules are valued at the basket's prices")
+    public void checkThatPercentageOffersAreValuedAtTheBasketsPrices() throws IOException {
+        final Path catalogFile = temporaryFolder.getRoot().toPath().resolve("catalog.bin");
+        new MappedCatalogWriter().addProduct("Soup", 65)
+                                 .addProduct("Bread", 80)
+                                 .writeTo(catalogFile, 1L);
+        final Path repricedFile = temporaryFolder.getRoot().toPath().resolve("repriced.bin");
+        new MappedCatalogWriter().addProduct("Soup", 70)
+                                 .addProduct("Bread", 120)
+                                 .writeTo(repricedFile, 2L);
+        final ReloadableCatalog catalog = new ReloadableCatalog(MappedCatalog.open(catalogFile));
+        final CompetingOfferReceiptGenerator receiptGenerator = new CompetingOfferReceiptGenerator(
+                new OfferRuleCompiler(catalog).compileConsuming("Bread pct 10\nbuy 2 Soup get Bread 50%"),
+                1, TimeUnit.SECONDS, catalog);
+        final PricebasketParser parser = new PricebasketParser(catalog);
+
+        final Basket resolvedBeforeReload = parser.retrieveBasket("Pricebasket Soup Soup Bread Bread");
+        catalog.reload(repricedFile);
+        final Basket resolvedAfterReload = parser.retrieveBasket("Pricebasket Soup Soup Bread Bread");
+
+        MoneyTestUtils.assertMoneyValuesEquals(MonetaryUtils.gbpAmount(2.42),
+                                               receiptGenerator.generateReceipt(resolvedBeforeReload).getFinalTotal());
+        final Receipt receipt = receiptGenerator.generateReceipt(resolvedAfterReload);
+        MoneyTestUtils.assertMoneyValuesEquals(MonetaryUtils.gbpAmount(3.80), receipt.getSubtotal());
+        MoneyTestUtils.assertMoneyValuesEquals(MonetaryUtils.gbpAmount(0.12),
+                                               receipt.getAppliedOffers().get(0).getDiscountAmount());
+        MoneyTestUtils.assertMoneyValuesEquals(MonetaryUtils.gbpAmount(0.60),
+                                               receipt.getAppliedOffers().get(1).getDiscountAmount());
+        MoneyTestUtils.assertMoneyValuesEquals(MonetaryUtils.gbpAmount(3.08), receipt.getFinalTotal());
+    }
+
+    @Test
+    @DisplayName("Check that baskets are priced with offers bound to their own catalog when a reordered one is loaded")
+    public void checkThatBasketsArePricedWithOffersBoundToTheirOwnCatalog() throws IOException {
+        final Path catalogFile = temporaryFolder.getRoot().toPath().resolve("catalog.bin");
+        new MappedCatalogWriter().addProduct("Soup", 65)
+                                 .addProduct("Bread", 80)
+                                 .writeTo(catalogFile, 1L);
+        final Path reorderedFile = temporaryFolder.getRoot().toPath().resolve("reordered.bin");
+        new MappedCatalogWriter().addProduct("Bread", 120)
+                                 .addProduct("Soup", 70)
+                                 .writeTo(reorderedFile, 2L);
+        final String rules = "Bread pct 10\nbuy 2 Soup get Bread 50%";
+        final ReloadableCatalog catalog = new ReloadableCatalog(MappedCatalog.open(catalogFile));
+        final Catalog original = catalog.snapshot();
+        final CompetingOfferReceiptGenerator receiptGenerator = new CompetingOfferReceiptGenerator(
+                new OfferRuleCompiler(original).compileConsuming(rules), 1, TimeUnit.SECONDS, catalog, original);
+        final PricebasketParser parser = new PricebasketParser(catalog);
+        final Basket inFlight = parser.retrieveBasket("Pricebasket Soup Soup Bread Bread");
+
+        // The catalog is swapped in before the offers compiled against it, then the offers after.
+        final Catalog reordered = MappedCatalog.open(reorderedFile);
+        catalog.replace(reordered);
+        final Basket resolvedAfterReload = parser.retrieveBasket("Pricebasket Soup Soup Bread Bread");
+        MoneyTestUtils.assertMoneyValuesEquals(MonetaryUtils.gbpAmount(3.08),
+                                               receiptGenerator.generateReceipt(resolvedAfterReload).getFinalTotal());
+
+        receiptGenerator.replaceOffers(new OfferRuleCompiler(reordered).compileConsuming(rules), reordered);
+        MoneyTestUtils.assertMoneyValuesEquals(MonetaryUtils.gbpAmount(2.42),
+                                               receiptGenerator.generateReceipt(inFlight).getFinalTotal());
+        MoneyTestUtils.assertMoneyValuesEquals(MonetaryUtils.gbpAmount(3.08),
+                                               receiptGenerator.generateReceipt(resolvedAfterReload).getFinalTotal());
+    }
+}
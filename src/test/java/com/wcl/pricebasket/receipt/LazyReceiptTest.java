@@ -0,0 +1,121 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.receipt;
+
+import com.wcl.pricebasket.currency.CurrencyRate;
+import com.wcl.pricebasket.currency.ExchangeRateSnapshot;
+import com.wcl.pricebasket.entities.Basket;
+import com.wcl.pricebasket.entities.Product;
+import com.wcl.pricebasket.offers.DiscountOffer;
+import com.wcl.pricebasket.utils.MonetaryUtils;
+import org.junit.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LazyReceiptTest {
+    private final ReceiptGenerator receiptGenerator = new ReceiptGenerator(Arrays.asList(
+            new DiscountOffer("Apples 10% off",
+                              DiscountOffer.triggeredBy(Product.APPLES),
+                              p -> p.contains(Product.APPLES),
+                              p -> p.getQuantity(Product.APPLES) * 10L),
+            new DiscountOffer("Milk 5p off",
+                              DiscountOffer.triggeredBy(Product.MILK),
+                              p -> p.getQuantity(Product.MILK) > 3,
+                              p -> 5L),
+            new DiscountOffer("Soup 1p off",
+                              DiscountOffer.triggeredBy(Product.SOUP),
+                              p -> true,
+                              p -> 1L)));
+
+    @Test
+    @DisplayName("Check that a lazy receipt matches the receipt generated eagerly")
+    public void checkThatALazyReceiptMatchesTheReceiptGeneratedEagerly() {
+        final Basket basket = new Basket();
+        basket.add(Product.APPLES, 3L);
+        basket.add(Product.MILK, 1L);
+        basket.add(Product.SOUP, 1L);
+
+        final LazyReceipt testSubject = receiptGenerator.generateLazyReceipt(basket);
+        final Receipt receipt = receiptGenerator.generateReceipt(basket);
+
+        assertEquals(495L, testSubject.getSubtotalInPence());
+        assertEquals(464L, testSubject.getFinalTotalInPence());
+        assertEquals(receipt.getSubtotal(), testSubject.getSubtotal());
+        assertEquals(receipt.getFinalTotal(), testSubject.getFinalTotal());
+        assertEquals(2, testSubject.getNumberOfAppliedOffers());
+        assertEquals(receipt.getAppliedOffers(), testSubject.getAppliedOffers());
+        assertEquals(receipt, testSubject.toReceipt());
+        assertEquals(receipt.toString(), testSubject.toString());
+    }
+
+    @Test
+    @DisplayName("Check that the applied offers and text are built once and kept")
+    public void checkThatTheAppliedOffersAndTextAreBuiltOnce() {
+        final Basket basket = new Basket();
+        basket.add(Product.APPLES, 1L);
+
+        final LazyReceipt testSubject = receiptGenerator.generateLazyReceipt(basket);
+
+        assertSame(testSubject.getAppliedOffers(), testSubject.getAppliedOffers());
+        assertSame(testSubject.toReceipt(), testSubject.toReceipt());
+        assertSame(testSubject.toString(), testSubject.toString());
+        assertThrows(UnsupportedOperationException.class, () -> testSubject.getAppliedOffers().clear());
+    }
+
+    @Test
+    @DisplayName("Check that a basket with no offers applied has no applied offers")
+    public void checkThatABasketWithNoOffersAppliedHasNoAppliedOffers() {
+        final Basket basket = new Basket();
+        basket.add(Product.BREAD, 2L);
+
+        final LazyReceipt testSubject = new ReceiptGenerator(new ArrayList<>()).generateLazyReceipt(basket);
+
+        assertEquals(0, testSubject.getNumberOfAppliedOffers());
+        assertTrue(testSubject.getAppliedOffers().isEmpty());
+        assertEquals(MonetaryUtils.gbpAmountFromPence(160), testSubject.getFinalTotal());
+    }
+
+    @Test
+    @DisplayName("Check that a receipt converted into another currency still adds up")
+    public void checkThatAReceiptConvertedIntoAnotherCurrencyStillAddsUp() {
+        final CurrencyRate euros = new ExchangeRateSnapshot(Collections.singletonMap("EUR", new BigDecimal("1.155")))
+                .getRate("EUR");
+        final Basket basket = new Basket();
+        basket.add(Product.APPLES, 3L);
+        basket.add(Product.SOUP, 1L);
+
+        final Receipt receipt = receiptGenerator.generateReceipt(basket, euros);
+
+        // 365p is 421.575 cents, the 30p and 1p discounts 34.65 and 1.155 cents.
+        assertEquals(euros.amountFromMinorUnits(422L), receipt.getSubtotal());
+        assertEquals(euros.amountFromMinorUnits(35L), receipt.getAppliedOffers().get(0).getDiscountAmount());
+        assertEquals(euros.amountFromMinorUnits(1L), receipt.getAppliedOffers().get(1).getDiscountAmount());
+        assertEquals(euros.amountFromMinorUnits(386L), receipt.getFinalTotal());
+        assertEquals("Apples 10% off", receipt.getAppliedOffers().get(0).getDescription());
+    }
+
+    @Test
+    @DisplayName("Check that the applied offers can be read by position without building them")
+    public void checkThatTheAppliedOffersCanBeReadByPosition() {
+        final Basket basket = new Basket();
+        basket.add(Product.APPLES, 2L);
+        basket.add(Product.SOUP, 1L);
+
+        final LazyReceipt testSubject = receiptGenerator.generateLazyReceipt(basket);
+
+        assertEquals(1L, testSubject.getOfferVersion());
+        assertEquals(2, testSubject.getNumberOfAppliedOffers());
+        assertEquals(0, testSubject.getAppliedOfferPosition(0));
+        assertEquals(20L, testSubject.getAppliedOfferDiscountInPence(0));
+        assertEquals(2, testSubject.getAppliedOfferPosition(1));
+        assertEquals(1L, testSubject.getAppliedOfferDiscountInPence(1));
+    }
+}
@@ -0,0 +1,162 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.receipt;
+
+import com.wcl.pricebasket.entities.Basket;
+import com.wcl.pricebasket.entities.Product;
+import com.wcl.pricebasket.offers.DiscountOffer;
+import org.junit.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OfferSchedulerTest {
+    private static final Instant MONDAY = Instant.parse("2019-06-03T00:00:00Z");
+    private static final Duration DAY = Duration.ofDays(1);
+
+    private final MutableClock clock = new MutableClock(MONDAY);
+    private final ReceiptGenerator receiptGenerator = new ReceiptGenerator(new ArrayList<>());
+
+    @Test
+    @DisplayName("Check that only the offers whose window is open are running")
+    public void checkThatOnlyTheOffersWhoseWindowIsOpenAreRunning() {
+        final OfferScheduler testSubject = new OfferScheduler(receiptGenerator, Arrays.asList(
+                applesOff("Apples this week", 10L).validBetween(MONDAY, MONDAY.plus(DAY.multipliedBy(7))),
+                applesOff("Apples on Tuesday", 5L).validBetween(MONDAY.plus(DAY), MONDAY.plus(DAY.multipliedBy(2))),
+                applesOff("Apples always", 1L)),
+                clock);
+
+        assertEquals(2, testSubject.getNumberOfActiveOffers());
+        assertEquals(89L, receiptGenerator.quoteTotalInPence(apples()));
+        assertEquals(MONDAY.plus(DAY), testSubject.getNextBoundary());
+
+        clock.setInstant(MONDAY.plus(DAY));
+        assertEquals(MONDAY.plus(DAY.multipliedBy(2)), testSubject.refresh());
+        assertEquals(Arrays.asList("Apples this week", "Apples on Tuesday", "Apples always"),
+                     descriptions(receiptGenerator.generateReceipt(apples())));
+
+        clock.setInstant(MONDAY.plus(DAY.multipliedBy(7)));
+        assertNull(testSubject.refresh());
+        assertEquals(1, testSubject.getNumberOfActiveOffers());
+        assertEquals(99L, receiptGenerator.quoteTotalInPence(apples()));
+    }
+
+    @Test
+    @DisplayName("Check that the offers are only replaced when the active offers change")
+    public void checkThatTheOffersAreOnlyReplacedWhenTheActiveOffersChange() {
+        final OfferScheduler testSubject = new OfferScheduler(receiptGenerator, Arrays.asList(
+                applesOff("Apples from Tuesday", 10L).validBetween(MONDAY.plus(DAY), Instant.MAX),
+                applesOff("Apples until Tuesday", 10L).validBetween(MONDAY.minus(DAY), MONDAY.plus(DAY))),
+                clock);
+        final long version = receiptGenerator.getOfferVersion();
+
+        clock.setInstant(MONDAY.plusSeconds(60));
+        testSubject.refresh();
+        assertEquals(version, receiptGenerator.getOfferVersion());
+
+        clock.setInstant(MONDAY.plus(DAY));
+        testSubject.refresh();
+        assertEquals(version + 1, receiptGenerator.getOfferVersion());
+    }
+
+    @Test
+    @DisplayName("Check that thousands of overlapping windows are tracked")
+    public void checkThatThousandsOfOverlappingWindowsAreTracked() {
+        final List<DiscountOffer> offers = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            final Instant start = MONDAY.plus(Duration.ofMinutes(i));
+            offers.add(applesOff("Offer " + i, 0L).validBetween(start, start.plus(Duration.ofMinutes(100))));
+        }
+        final OfferScheduler testSubject = new OfferScheduler(receiptGenerator, offers, clock);
+        assertEquals(1, testSubject.getNumberOfActiveOffers());
+
+        clock.setInstant(MONDAY.plus(Duration.ofMinutes(250)).plusSeconds(30));
+        assertEquals(MONDAY.plus(Duration.ofMinutes(251)), testSubject.refresh());
+        assertEquals(100, testSubject.getNumberOfActiveOffers());
+        assertEquals("Offer 151", receiptGenerator.generateReceipt(apples()).getAppliedOffers().get(0).getDescription());
+    }
+
+    @Test
+    @DisplayName("Check that a started scheduler refreshes the offers when a window opens")
+    public void checkThatAStartedSchedulerRefreshesTheOffersWhenAWindowOpens() throws InterruptedException {
+        final Instant start = Instant.now().plusMillis(100);
+        final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        try (OfferScheduler testSubject = new OfferScheduler(receiptGenerator, Arrays.asList(
+                applesOff("Apples soon", 10L).validBetween(start, start.plus(DAY))), Clock.systemUTC())) {
+            testSubject.start(executor);
+            assertThrows(IllegalStateException.class, () -> testSubject.start(executor));
+
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (testSubject.getNumberOfActiveOffers() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, testSubject.getNumberOfActiveOffers());
+            assertEquals(90L, receiptGenerator.quoteTotalInPence(apples()));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static DiscountOffer applesOff(final String description, final long discountInPence) {
+        return new DiscountOffer(description,
+                                 DiscountOffer.triggeredBy(Product.APPLES),
+                                 p -> true,
+                                 p -> discountInPence);
+    }
+
+    private static Basket apples() {
+        final Basket basket = new Basket();
+        basket.add(Product.APPLES);
+        return basket;
+    }
+
+    private static List<String> descriptions(final Receipt receipt) {
+        final List<String> descriptions = new ArrayList<>();
+        for (final AppliedOffer appliedOffer : receipt.getAppliedOffers()) {
+            descriptions.add(appliedOffer.getDescription());
+        }
+        return descriptions;
+    }
+
+    /* A clock that stands still until moved on. */
+    private static final class MutableClock extends Clock {
+        private volatile Instant instant;
+
+        MutableClock(final Instant instant) {
+            this.instant = instant;
+        }
+
+        void setInstant(final Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(final ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
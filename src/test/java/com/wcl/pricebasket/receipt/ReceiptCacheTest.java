@@ -0,0 +1,160 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.receipt;
+
+import com.wcl.pricebasket.catalog.Catalog;
+import com.wcl.pricebasket.catalog.ProductCatalog;
+import com.wcl.pricebasket.catalog.ReloadableCatalog;
+import com.wcl.pricebasket.entities.Basket;
+import com.wcl.pricebasket.entities.Product;
+import com.wcl.pricebasket.offers.DiscountOffer;
+import com.wcl.pricebasket.testutils.MoneyTestUtils;
+import com.wcl.pricebasket.utils.MonetaryUtils;
+import org.junit.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReceiptCacheTest {
+    private final ReloadableCatalog catalog = new ReloadableCatalog(ProductCatalog.INSTANCE);
+    private final ReceiptGenerator receiptGenerator = new ReceiptGenerator(new ArrayList<>(), catalog);
+    private final ReceiptCache testSubject = new ReceiptCache(receiptGenerator, 2);
+
+    @Test
+    @DisplayName("Check that baskets with the same contents share a receipt")
+    public void checkThatBasketsWithTheSameContentsShareAReceipt() {
+        final Receipt receipt = testSubject.generateReceipt(basketOf(Product.APPLES, Product.MILK));
+
+        assertSame(receipt, testSubject.generateReceipt(basketOf(Product.MILK, Product.APPLES)));
+        assertEquals(1L, testSubject.getHitCount());
+        assertEquals(1L, testSubject.getMissCount());
+        assertEquals(1, testSubject.size());
+    }
+
+    @Test
+    @DisplayName("Check that changing a basket after it is priced does not change the cached receipt")
+    public void checkThatChangingABasketAfterItIsPricedDoesNotChangeTheCachedReceipt() {
+        final Basket basket = basketOf(Product.APPLES);
+        final Receipt receipt = testSubject.generateReceipt(basket);
+        basket.add(Product.SOUP);
+
+        assertNotSame(receipt, testSubject.generateReceipt(basket));
+        assertSame(receipt, testSubject.generateReceipt(basketOf(Product.APPLES)));
+    }
+
+    @Test
+    @DisplayName("Check that the least recently used receipt is evicted")
+    public void checkThatTheLeastRecentlyUsedReceiptIsEvicted() {
+        final Receipt apples = testSubject.generateReceipt(basketOf(Product.APPLES));
+        final Receipt bread = testSubject.generateReceipt(basketOf(Product.BREAD));
+        testSubject.generateReceipt(basketOf(Product.APPLES));
+        testSubject.generateReceipt(basketOf(Product.MILK));
+
+        assertEquals(1L, testSubject.getEvictionCount());
+        assertSame(apples, testSubject.generateReceipt(basketOf(Product.APPLES)));
+        assertNotSame(bread, testSubject.generateReceipt(basketOf(Product.BREAD)));
+    }
+
+    @Test
+    @DisplayName("Check that the cache is emptied when the catalog changes")
+    public void checkThatTheCacheIsEmptiedWhenTheCatalogChanges() {
+        testSubject.generateReceipt(basketOf(Product.APPLES));
+        catalog.replace(new DoublePriceCatalog());
+
+        final Receipt receipt = testSubject.generateReceipt(basketOf(Product.APPLES));
+        assertEquals(2L, testSubject.getMissCount());
+        MoneyTestUtils.assertMoneyValuesEquals(MonetaryUtils.gbpAmount(2.00), receipt.getFinalTotal());
+    }
+
+    @Test
+    @DisplayName("Check that the cache is emptied when the offers are replaced")
+    public void checkThatTheCacheIsEmptiedWhenTheOffersAreReplaced() {
+        testSubject.generateReceipt(basketOf(Product.APPLES));
+        receiptGenerator.replaceOffers(Collections.singletonList(
+                new DiscountOffer("Apples 10% off",
+                                  DiscountOffer.triggeredBy(Product.APPLES),
+                                  p -> true,
+                                  p -> p.getQuantity(Product.APPLES) * 10L)));
+
+        final Receipt receipt = testSubject.generateReceipt(basketOf(Product.APPLES));
+        assertEquals(2L, testSubject.getMissCount());
+        MoneyTestUtils.assertMoneyValuesEquals(MonetaryUtils.gbpAmount(0.90), receipt.getFinalTotal());
+    }
+
+    @Test
+    @DisplayName("Check that a basket resolved against an earlier catalog is priced from it, bypassing the cache")
+    public void checkThatABasketResolvedAgainstAnEarlierCatalogBypassesTheCache() {
+        final Basket inFlight = basketOf(Product.APPLES);
+        inFlight.setCatalog(catalog.snapshot());
+        catalog.replace(new DoublePriceCatalog());
+        final Receipt current = testSubject.generateReceipt(basketOf(Product.APPLES));
+
+        final Receipt receipt = testSubject.generateReceipt(inFlight);
+        MoneyTestUtils.assertMoneyValuesEquals(MonetaryUtils.gbpAmount(1.00), receipt.getFinalTotal());
+        assertSame(current, testSubject.generateReceipt(basketOf(Product.APPLES)));
+        MoneyTestUtils.assertMoneyValuesEquals(MonetaryUtils.gbpAmount(2.00), current.getFinalTotal());
+        assertEquals(1L, testSubject.getHitCount());
+        assertEquals(2L, testSubject.getMissCount());
+        assertEquals(1, testSubject.size());
+    }
+
+    @Test
+    @DisplayName("Check that the cache can be emptied explicitly")
+    public void checkThatTheCacheCanBeEmptiedExplicitly() {
+        testSubject.generateReceipt(basketOf(Product.APPLES));
+        testSubject.invalidateAll();
+
+        assertEquals(0, testSubject.size());
+        testSubject.generateReceipt(basketOf(Product.APPLES));
+        assertEquals(2L, testSubject.getMissCount());
+    }
+
+    @Test
+    @DisplayName("Check that an invalid size is rejected")
+    public void checkThatAnInvalidSizeIsRejected() {
+        Throwable exception = assertThrows(IllegalArgumentException.class,
+                () -> new ReceiptCache(new ReceiptGenerator(new ArrayList<>()), 0));
+        assertEquals("Invalid cache size 0.", exception.getMessage());
+    }
+
+    /* The built in products at twice the price. */
+    private static final class DoublePriceCatalog implements Catalog {
+        @Override
+        public int size() {
+            return ProductCatalog.INSTANCE.size();
+        }
+
+        @Override
+        public String getProductName(final int productId) {
+            return ProductCatalog.INSTANCE.getProductName(productId);
+        }
+
+        @Override
+        public long getCostPerUnitInPence(final int productId) {
+            return ProductCatalog.INSTANCE.getCostPerUnitInPence(productId) * 2;
+        }
+
+        @Override
+        public int findProductId(final CharSequence text, final int start, final int end) {
+            return ProductCatalog.INSTANCE.findProductId(text, start, end);
+        }
+
+        @Override
+        public long getVersion() {
+            return 1L;
+        }
+    }
+
+    private static Basket basketOf(final Product... products) {
+        final Basket basket = new Basket();
+        for (final Product product : products) {
+            basket.add(product);
+        }
+        return basket;
+    }
+}
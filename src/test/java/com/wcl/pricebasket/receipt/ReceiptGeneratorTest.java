@@ -4,16 +4,28 @@
  **/
 package com.wcl.pricebasket.receipt;
 
+import com.wcl.pricebasket.catalog.Catalog;
+import com.wcl.pricebasket.catalog.MappedCatalog;
+import com.wcl.pricebasket.catalog.MappedCatalogWriter;
+import com.wcl.pricebasket.catalog.ReloadableCatalog;
+import com.wcl.pricebasket.entities.Basket;
 import com.wcl.pricebasket.entities.Product;
 import com.wcl.pricebasket.offers.DiscountOffer;
+import com.wcl.pricebasket.offers.rules.OfferRuleCompiler;
+import com.wcl.pricebasket.parser.PricebasketParser;
 import com.wcl.pricebasket.testutils.MoneyTestUtils;
 import com.wcl.pricebasket.utils.MonetaryUtils;
 import org.apache.commons.collections4.CollectionUtils;
 
+import org.junit.Rule;
 import org.junit.Test;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.rules.TemporaryFolder;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -22,6 +34,8 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class ReceiptGeneratorTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
 
 
     @Test
@@ -45,7 +59,7 @@ public class ReceiptGeneratorTest {
 
         offers.add(new DiscountOffer("Apples half price Offer",
                 p -> false,
-                p -> MonetaryUtils.gbpAmount(p.get(Product.APPLES) * 0.5)));
+                p -> p.getQuantity(Product.APPLES) * 50));
 
 
         final ReceiptGenerator receiptGenerator = new ReceiptGenerator(offers);
@@ -67,7 +81,7 @@ public class ReceiptGeneratorTest {
 
         offers.add(new DiscountOffer("Apples half price Offer",
                                       p -> true,
-                                      p -> MonetaryUtils.gbpAmount(p.get(Product.APPLES) * 0.5)));
+                                      p -> p.getQuantity(Product.APPLES) * 50));
 
 
         final ReceiptGenerator receiptGenerator = new ReceiptGenerator(offers);
@@ -89,11 +103,11 @@ public class ReceiptGeneratorTest {
 
         offers.add(new DiscountOffer("Apples 25% off",
                 p -> true,
-                p -> MonetaryUtils.gbpAmount(p.get(Product.APPLES) * 0.25)));
+                p -> p.getQuantity(Product.APPLES) * 25));
 
         offers.add(new DiscountOffer("Milk 40% off",
                 p -> true,
-                p -> MonetaryUtils.gbpAmount(p.get(Product.MILK) * 0.40)));
+                p -> p.getQuantity(Product.MILK) * 40));
 
         final ReceiptGenerator receiptGenerator = new ReceiptGenerator(offers);
         final Map<Product, Long> basket = new HashMap<>();
@@ -108,4 +122,208 @@ public class ReceiptGeneratorTest {
         assertEquals(MonetaryUtils.gbpAmount(12.0), receipt.getFinalTotal());
     }
 
+    @Test
+    @DisplayName("Check receipt generated correctly from a Basket")
+    public void checkReceiptGeneratedCorrectlyFromABasket() {
+        final List<DiscountOffer> offers = new ArrayList<>();
+
+        offers.add(new DiscountOffer("Soup 10% off",
+                p -> p.contains(Product.SOUP),
+                p -> MonetaryUtils.percentageOf(p.getQuantity(Product.SOUP) * Product.SOUP.getCostPerUnitInPence(), 10)));
+
+        final ReceiptGenerator receiptGenerator = new ReceiptGenerator(offers);
+        final Basket basket = new Basket();
+        basket.add(Product.SOUP, 3L);
+        basket.add(Product.BREAD);
+
+        final Receipt receipt = receiptGenerator.generateReceipt(basket);
+        assertEquals(MonetaryUtils.gbpAmount(2.75), receipt.getSubtotal());
+        assertEquals(1, receipt.getAppliedOffers().size());
+        assertEquals(MonetaryUtils.gbpAmount(0.2), receipt.getAppliedOffers().get(0).getDiscountAmount());
+        assertEquals(MonetaryUtils.gbpAmount(2.55), receipt.getFinalTotal());
+    }
+
+    @Test
+    @DisplayName("Check receipt generated correctly using the prices from the catalog supplied")
+    public void checkReceiptGeneratedCorrectlyFromCatalogPrices() throws IOException {
+        final Path catalogFile = temporaryFolder.getRoot().toPath().resolve("catalog.bin");
+        new MappedCatalogWriter().addProduct("Tea", 250)
+                                 .addProduct("Coffee", 425)
+                                 .writeTo(catalogFile, 1L);
+
+        final ReceiptGenerator receiptGenerator = new ReceiptGenerator(new ArrayList<>(),
+                                                                       MappedCatalog.open(catalogFile));
+        final Basket basket = new Basket();
+        basket.add(0, 2L);
+        basket.add(1);
+
+        final Receipt receipt = receiptGenerator.generateReceipt(basket);
+        assertEquals(MonetaryUtils.gbpAmount(9.25), receipt.getSubtotal());
+        assertEquals(MonetaryUtils.gbpAmount(9.25), receipt.getFinalTotal());
+    }
+
+    @Test
+    @DisplayName("Check a basket is priced from the catalog its products were resolved against, despite a reload")
+    public void checkABasketIsPricedFromTheCatalogItWasResolvedAgainst() throws IOException {
+        final Path catalogFile = temporaryFolder.getRoot().toPath().resolve("catalog.bin");
+        new MappedCatalogWriter().addProduct("Tea", 250)
+                                 .addProduct("Coffee", 425)
+                                 .writeTo(catalogFile, 1L);
+        final Path reorderedFile = temporaryFolder.getRoot().toPath().resolve("reordered.bin");
+        new MappedCatalogWriter().addProduct("Coffee", 500)
+                                 .addProduct("Tea", 300)
+                                 .writeTo(reorderedFile, 2L);
+        final ReloadableCatalog catalog = new ReloadableCatalog(MappedCatalog.open(catalogFile));
+        final ReceiptGenerator receiptGenerator = new ReceiptGenerator(new ArrayList<>(), catalog);
+
+        final Basket basket = new PricebasketParser(catalog).retrieveBasket("Pricebasket Tea Tea Coffee");
+        catalog.reload(reorderedFile);
+
+        assertEquals(1L, basket.getCatalog().getVersion());
+        assertEquals(MonetaryUtils.gbpAmount(9.25), receiptGenerator.generateReceipt(basket).getSubtotal());
+        assertEquals(MonetaryUtils.gbpAmount(11.00), receiptGenerator.generateReceipt(
+                new PricebasketParser(catalog).retrieveBasket("Pricebasket Tea Tea Coffee")).getSubtotal());
+    }
+
+    @Test
+    @DisplayName("Check baskets find their offers by their own catalog when a reordered catalog is swapped in")
+    public void checkBasketsFindTheirOffersWhenAReorderedCatalogIsSwappedIn() throws IOException {
+        final Path catalogFile = temporaryFolder.getRoot().toPath().resolve("catalog.bin");
+        new MappedCatalogWriter().addProduct("Tea", 250)
+                                 .addProduct("Coffee", 425)
+                                 .writeTo(catalogFile, 1L);
+        final Path reorderedFile = temporaryFolder.getRoot().toPath().resolve("reordered.bin");
+        new MappedCatalogWriter().addProduct("Coffee", 500)
+                                 .addProduct("Tea", 300)
+                                 .writeTo(reorderedFile, 2L);
+        final String rules = "\"Tea 10% off\" = TEA pct 10";
+        final ReloadableCatalog catalog = new ReloadableCatalog(MappedCatalog.open(catalogFile));
+        final Catalog original = catalog.snapshot();
+        final ReceiptGenerator receiptGenerator = new ReceiptGenerator(new OfferRuleCompiler(original).compile(rules),
+                                                                       catalog, original);
+        final Basket inFlight = new PricebasketParser(catalog).retrieveBasket("Pricebasket Tea Tea");
+
+        // The catalog is swapped in before the offers compiled against it, then the offers after.
+        final Catalog reordered = MappedCatalog.open(reorderedFile);
+        final List<DiscountOffer> reorderedOffers = new OfferRuleCompiler(reordered).compile(rules);
+        catalog.replace(reordered);
+        final Basket resolvedAfterReload = new PricebasketParser(catalog).retrieveBasket("Pricebasket Tea Tea");
+        assertEquals(540L, receiptGenerator.quoteTotalInPence(resolvedAfterReload));
+
+        receiptGenerator.replaceOffers(reorderedOffers, reordered);
+        assertEquals(450L, receiptGenerator.quoteTotalInPence(inFlight));
+        assertEquals(MonetaryUtils.gbpAmount(5.40), receiptGenerator.generateReceipt(resolvedAfterReload)
+                                                                    .getFinalTotal());
+        assertEquals(MonetaryUtils.gbpAmount(4.50), receiptGenerator.generateReceipt(inFlight).getFinalTotal());
+    }
+
+    @Test
+    @DisplayName("Check offers are only evaluated against baskets holding one of their trigger products")
+    public void checkOffersOnlyEvaluatedForTheirTriggerProducts() {
+        final List<DiscountOffer> offers = new ArrayList<>();
+
+        offers.add(new DiscountOffer("Apples offer",
+                DiscountOffer.triggeredBy(Product.APPLES),
+                p -> { throw new AssertionError("Apples offer should not be evaluated"); },
+                p -> 0L));
+
+        offers.add(new DiscountOffer("Milk 10p off",
+                DiscountOffer.triggeredBy(Product.MILK),
+                p -> true,
+                p -> p.getQuantity(Product.MILK) * 10));
+
+        final ReceiptGenerator receiptGenerator = new ReceiptGenerator(offers);
+        final Basket basket = new Basket();
+        basket.add(Product.MILK, 2L);
+
+        final Receipt receipt = receiptGenerator.generateReceipt(basket);
+        assertEquals(1, receipt.getAppliedOffers().size());
+        assertEquals("Milk 10p off", receipt.getAppliedOffers().get(0).getDescription());
+        assertEquals(MonetaryUtils.gbpAmount(2.4), receipt.getFinalTotal());
+    }
+
+    @Test
+    @DisplayName("Check that replaced offers apply to baskets priced afterwards")
+    public void checkThatReplacedOffersApplyToBasketsPricedAfterwards() {
+        final ReceiptGenerator receiptGenerator = new ReceiptGenerator(new ArrayList<>());
+        final Basket basket = new Basket();
+        basket.add(Product.APPLES, 2L);
+        assertEquals(1L, receiptGenerator.getOfferVersion());
+
+        final long version = receiptGenerator.replaceOffers(Collections.singletonList(
+                new DiscountOffer("Apples 10% off",
+                                  DiscountOffer.triggeredBy(Product.APPLES),
+                                  p -> true,
+                                  p -> p.getQuantity(Product.APPLES) * 10)));
+
+        assertEquals(2L, version);
+        assertEquals(2L, receiptGenerator.getOfferVersion());
+        assertEquals(MonetaryUtils.gbpAmount(1.8), receiptGenerator.generateReceipt(basket).getFinalTotal());
+    }
+
+    @Test
+    @DisplayName("Check that a basket being priced when the offers are replaced is priced from the old offers")
+    public void checkThatABasketBeingPricedWhenTheOffersAreReplacedIsPricedFromTheOldOffers() {
+        final List<ReceiptGenerator> receiptGenerator = new ArrayList<>();
+        final List<DiscountOffer> offers = new ArrayList<>();
+
+        offers.add(new DiscountOffer("Apples 10p off",
+                DiscountOffer.triggeredBy(Product.APPLES),
+                p -> receiptGenerator.get(0).replaceOffers(new ArrayList<>()) > 0,
+                p -> 10L));
+        offers.add(new DiscountOffer("Apples 20p off",
+                DiscountOffer.triggeredBy(Product.APPLES),
+                p -> true,
+                p -> 20L));
+        receiptGenerator.add(new ReceiptGenerator(offers));
+        final Basket basket = new Basket();
+        basket.add(Product.APPLES, 1L);
+
+        assertEquals(2, receiptGenerator.get(0).generateReceipt(basket).getAppliedOffers().size());
+        assertTrue(CollectionUtils.isEmpty(receiptGenerator.get(0).generateReceipt(basket).getAppliedOffers()));
+    }
+
+    @Test
+    @DisplayName("Check that the quoted total matches the receipt, counting an offer triggered twice only once")
+    public void checkThatTheQuotedTotalMatchesTheReceipt() {
+        final List<DiscountOffer> offers = new ArrayList<>();
+        offers.add(new DiscountOffer("Everything 5p off", p -> true, p -> 5L));
+        offers.add(new DiscountOffer("Soup or bread 20p off",
+                DiscountOffer.triggeredBy(Product.SOUP, Product.BREAD),
+                p -> true,
+                p -> 20L));
+        offers.add(new DiscountOffer("Milk 10p off",
+                DiscountOffer.triggeredBy(Product.MILK),
+                p -> p.getQuantity(Product.MILK) > 1,
+                p -> 10L));
+        final ReceiptGenerator receiptGenerator = new ReceiptGenerator(offers);
+        final Basket basket = new Basket();
+        basket.add(Product.BREAD, 1L);
+        basket.add(Product.SOUP, 2L);
+        basket.add(Product.MILK, 1L);
+
+        final Receipt receipt = receiptGenerator.generateReceipt(basket);
+        assertEquals(MonetaryUtils.toPence(receipt.getFinalTotal()), receiptGenerator.quoteTotalInPence(basket));
+        assertEquals(315L, receiptGenerator.quoteTotalInPence(basket));
+        assertEquals(receipt.getFinalTotal(), receiptGenerator.quoteTotal(basket));
+    }
+
+    @Test
+    @DisplayName("Check that the quoted total matches the receipt when offers add to the price rather than discount it")
+    public void checkThatTheQuotedTotalMatchesTheReceiptForNegativeDiscounts() {
+        final List<DiscountOffer> offers = new ArrayList<>();
+        offers.add(new DiscountOffer("Bag charge", p -> true, p -> -5L));
+        offers.add(new DiscountOffer("Bread wrapping",
+                DiscountOffer.triggeredBy(Product.BREAD),
+                p -> true,
+                p -> -1L));
+        final ReceiptGenerator receiptGenerator = new ReceiptGenerator(offers);
+        final Basket basket = new Basket();
+        basket.add(Product.BREAD, 1L);
+
+        final Receipt receipt = receiptGenerator.generateReceipt(basket);
+        assertEquals(2, receipt.getAppliedOffers().size());
+        assertEquals(86L, MonetaryUtils.toPence(receipt.getFinalTotal()));
+        assertEquals(MonetaryUtils.toPence(receipt.getFinalTotal()), receiptGenerator.quoteTotalInPence(basket));
+    }
 }
@@ -0,0 +1,132 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.receipt;
+
+import com.wcl.pricebasket.currency.CurrencyRate;
+import com.wcl.pricebasket.currency.ExchangeRateSnapshot;
+import com.wcl.pricebasket.utils.MonetaryUtils;
+import org.junit.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReceiptRendererTest {
+    private static final String SEPARATOR = System.lineSeparator();
+
+    private final ReceiptRenderer testSubject = new ReceiptRenderer();
+
+    @Test
+    @DisplayName("Check that amounts are rendered in pence below a pound and in pounds otherwise")
+    public void checkThatAmountsAreRenderedInPenceBelowAPoundAndInPoundsOtherwise() {
+        final Receipt receipt = createReceipt(123405L, 123104L, offer("Small", 1L), offer("Medium", 99L),
+                                              offer("Large", 100L), offer("Huge", 120001L));
+
+        assertEquals("Subtotal: £1234.05" + SEPARATOR
+                             + "Small: -1p" + SEPARATOR
+                             + "Medium: -99p" + SEPARATOR
+                             + "Large: -£1.00" + SEPARATOR
+                             + "Huge: -£1200.01" + SEPARATOR
+                             + "Total: £1231.04",
+                     testSubject.render(receipt, new StringBuilder()).toString());
+    }
+
+    @Test
+    @DisplayName("Check that pence are rendered exactly")
+    public void checkThatPenceAreRenderedExactly() {
+        final Receipt receipt = createReceipt(58L, 0L, offer("A", 29L), offer("B", 29L));
+
+        assertEquals("Subtotal: £0.58" + SEPARATOR + "A: -29p" + SEPARATOR + "B: -29p" + SEPARATOR + "Total: £0.00",
+                     testSubject.render(receipt, new StringBuilder()).toString());
+    }
+
+    @Test
+    @DisplayName("Check that a negative total is rendered with the sign after the pound sign")
+    public void checkThatANegativeTotalIsRenderedWithTheSignAfterThePoundSign() {
+        final Receipt receipt = createReceipt(50L, -5L, offer("Generous", 55L));
+
+        assertTrue(testSubject.render(receipt, new StringBuilder()).toString().endsWith("Total: £-0.05"));
+    }
+
+    @Test
+    @DisplayName("Check that every destination receives the same text")
+    public void checkThatEveryDestinationReceivesTheSameText() throws IOException {
+        final Receipt receipt = createReceipt(310L, 300L, offer("Äpfel 10% off 🍎", 10L));
+        final String expected = receipt.toString();
+
+        final StringWriter writer = new StringWriter();
+        testSubject.render(receipt, writer);
+        assertEquals(expected, writer.toString());
+
+        final CharBuffer characters = testSubject.render(receipt, CharBuffer.allocate(100));
+        characters.flip();
+        assertEquals(expected, characters.toString());
+
+        final ByteBuffer bytes = testSubject.render(receipt, ByteBuffer.allocate(100));
+        bytes.flip();
+        assertEquals(expected, StandardCharsets.UTF_8.decode(bytes).toString());
+    }
+
+    @Test
+    @DisplayName("Check that a buffer without enough room overflows")
+    public void checkThatABufferWithoutEnoughRoomOverflows() {
+        final Receipt receipt = createReceipt(310L, 310L);
+
+        assertThrows(BufferOverflowException.class, () -> testSubject.render(receipt, ByteBuffer.allocate(10)));
+        assertThrows(BufferOverflowException.class, () -> testSubject.render(receipt, CharBuffer.allocate(10)));
+    }
+
+    @Test
+    @DisplayName("Check that receipts in other currencies are rendered with their symbol")
+    public void checkThatReceiptsInOtherCurrenciesAreRenderedWithTheirSymbol() {
+        final CurrencyRate euros = new ExchangeRateSnapshot(Collections.singletonMap("EUR", BigDecimal.ONE))
+                .getRate("EUR");
+        final List<AppliedOffer> offers = new ArrayList<>();
+        offers.add(AppliedOffer.builder().description("Apples 10% off")
+                                         .discountAmount(euros.amountFromMinorUnits(10L))
+                                         .build());
+        final Receipt receipt = Receipt.builder().subtotal(euros.amountFromMinorUnits(310L))
+                                                 .appliedOffers(offers)
+                                                 .finalTotal(euros.amountFromMinorUnits(300L))
+                                                 .build();
+
+        final String expected = "Subtotal: €3.10" + SEPARATOR
+                + "Apples 10% off: -€0.10" + SEPARATOR
+                + "Total: €3.00";
+        assertEquals(expected, testSubject.render(receipt, new StringBuilder()).toString());
+
+        final ByteBuffer buffer = testSubject.render(receipt, ByteBuffer.allocate(128));
+        buffer.flip();
+        assertEquals(expected, StandardCharsets.UTF_8.decode(buffer).toString());
+    }
+
+    private static AppliedOffer offer(final String description, final long discountInPence) {
+        return AppliedOffer.builder().description(description)
+                                     .discountAmount(MonetaryUtils.gbpAmountFromPence(discountInPence))
+                                     .build();
+    }
+
+    private static Receipt createReceipt(final long subtotalInPence, final long totalInPence,
+                                         final AppliedOffer... appliedOffers) {
+        final List<AppliedOffer> offers = new ArrayList<>();
+        for (final AppliedOffer appliedOffer : appliedOffers) {
+            offers.add(appliedOffer);
+        }
+        return Receipt.builder().subtotal(MonetaryUtils.gbpAmountFromPence(subtotalInPence))
+                                .appliedOffers(offers)
+                                .finalTotal(MonetaryUtils.gbpAmountFromPence(totalInPence))
+                                .build();
+    }
+}
@@ -0,0 +1,164 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.server;
+
+import com.wcl.pricebasket.entities.Product;
+import com.wcl.pricebasket.offers.DiscountOffer;
+import com.wcl.pricebasket.parser.PricebasketParser;
+import com.wcl.pricebasket.receipt.ReceiptGenerator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PricingServerTest {
+    private PricingServer testSubject;
+
+    @Before
+    public void startServer() throws IOException {
+        testSubject = new PricingServer(new InetSocketAddress("localhost", 0), new PricebasketParser(),
+                                        new ReceiptGenerator(new ArrayList<>()), 2, 2);
+    }
+
+    @After
+    public void stopServer() throws IOException {
+        testSubject.close();
+    }
+
+    @Test
+    @DisplayName("Check that pipelined requests are answered in order, with errors in place")
+    public void checkThatPipelinedRequestsAreAnsweredInOrder() throws IOException {
+        try (Socket socket = connect()) {
+            final StringBuilder requests = new StringBuilder();
+            for (int i = 0; i < 100; i++) {
+                requests.append(i % 10 == 5 ? "Pricebasket Pears\n" : "Pricebasket Apples\r\n");
+            }
+            final OutputStream output = socket.getOutputStream();
+            output.write(requests.toString().getBytes(StandardCharsets.UTF_8));
+            output.flush();
+
+            final BufferedReader input = reader(socket);
+            for (int i = 0; i < 100; i++) {
+                if (i % 10 == 5) {
+                    assertEquals("No such product Pears.", input.readLine());
+                } else {
+                    assertEquals("Subtotal: £1.00", input.readLine());
+                    assertEquals("(no offers available)", input.readLine());
+                    assertEquals("Total: £1.00", input.readLine());
+                }
+                assertEquals("", input.readLine());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Check that an over long request is answered with an error and the connection kept open")
+    public void checkThatAnOverLongRequestIsAnsweredWithAnError() throws IOException {
+        try (Socket socket = connect()) {
+            final StringBuilder request = new StringBuilder("Pricebasket");
+            while (request.length() < 100000) {
+                request.append(" Apples");
+            }
+            final OutputStream output = socket.getOutputStream();
+            output.write((request + "\nPricebasket Milk").getBytes(StandardCharsets.UTF_8));
+            output.flush();
+            socket.shutdownOutput();
+
+            final BufferedReader input = reader(socket);
+            assertEquals("Request too long.", input.readLine());
+            assertEquals("", input.readLine());
+            assertEquals("Subtotal: £1.30", input.readLine());
+            input.readLine();
+            input.readLine();
+            assertEquals("", input.readLine());
+            assertNull(input.readLine());
+        }
+    }
+
+    @Test
+    @DisplayName("Check that a request failing unexpectedly is answered and the worker keeps serving")
+    public void checkThatARequestFailingUnexpectedlyIsAnswered() throws IOException {
+        final ReceiptGenerator failingGenerator = new ReceiptGenerator(Collections.singletonList(
+                new DiscountOffer("Broken soup offer",
+                                  DiscountOffer.triggeredBy(Product.SOUP),
+                                  p -> true,
+                                  p -> {
+                                      throw new IllegalStateException("Offer failed.");
+                                  })));
+        try (PricingServer server = new PricingServer(new InetSocketAddress("localhost", 0), new PricebasketParser(),
+                                                      failingGenerator, 1, 4)) {
+            try (Socket socket = connect(server)) {
+                final OutputStream output = socket.getOutputStream();
+                output.write("Pricebasket Soup\nPricebasket Apples\n".getBytes(StandardCharsets.UTF_8));
+                output.flush();
+
+                final BufferedReader input = reader(socket);
+                assertEquals("Unable to price the basket.", input.readLine());
+                assertEquals("", input.readLine());
+                assertEquals("Subtotal: £1.00", input.readLine());
+            }
+
+            try (Socket socket = connect(server)) {
+                socket.getOutputStream().write("Pricebasket Milk\n".getBytes(StandardCharsets.UTF_8));
+                assertEquals("Subtotal: £1.30", reader(socket).readLine());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Check that requests are read as UTF-8, as responses are written")
+    public void checkThatRequestsAreReadAsUtf8() throws IOException {
+        try (Socket socket = connect()) {
+            socket.getOutputStream().write("Pricebasket Äpfel\n".getBytes(StandardCharsets.UTF_8));
+
+            assertEquals("No such product Äpfel.", reader(socket).readLine());
+        }
+    }
+
+    @Test
+    @DisplayName("Check that the load client measures a latency for every request")
+    public void checkThatTheLoadClientMeasuresALatencyForEveryRequest() throws IOException, InterruptedException {
+        final long[] latencies = new PricingLoadClient(testSubject.getLocalAddress()).measureLatencies(3, 20);
+
+        assertEquals(60, latencies.length);
+        assertTrue(latencies[0] > 0);
+        assertTrue(PricingLoadClient.percentile(latencies, 50) <= PricingLoadClient.percentile(latencies, 99));
+    }
+
+    @Test
+    @DisplayName("Check that invalid settings are rejected")
+    public void checkThatInvalidSettingsAreRejected() {
+        Throwable exception = assertThrows(IllegalArgumentException.class,
+                () -> new PricingServer(new InetSocketAddress(0), new PricebasketParser(),
+                                        new ReceiptGenerator(new ArrayList<>()), 0, 1));
+        assertEquals("Invalid number of workers 0.", exception.getMessage());
+    }
+
+    private Socket connect() throws IOException {
+        return connect(testSubject);
+    }
+
+    private static Socket connect(final PricingServer server) throws IOException {
+        final Socket socket = new Socket("localhost", server.getLocalAddress().getPort());
+        socket.setSoTimeout(10000);
+        return socket;
+    }
+
+    private static BufferedReader reader(final Socket socket) throws IOException {
+        return new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,126 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.testutils;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Measures the bytes the current thread allocates per call of a piece of code, through the HotSpot thread
+ * allocation counters, so that tests can hold a code path to an allocation budget.
+ *
+ * The code is called enough times first for the JIT to compile it, as escape analysis removes many allocations
+ * only once compiled, and is then measured over several rounds, keeping the lowest; a round that catches a
+ * compilation or a one off allocation elsewhere is discarded rather than failing the budget.  Results are written
+ * to a volatile field so that the JIT cannot remove the work being measured.
+ */
+public final class AllocationMeter {
+    private static final int WARMUP_CALLS = 50_000;
+    private static final int CALLS_PER_ROUND = 10_000;
+    private static final int ROUNDS = 5;
+
+    private static final com.sun.management.ThreadMXBean THREADS = findThreadMXBean();
+
+    private static volatile Object objectSink;
+    private static volatile long longSink;
+
+    private AllocationMeter() {}
+
+    /**
+     * Returns whether the JVM can count the bytes allocated by a thread.
+     *
+     * @return true if allocations can be measured
+     */
+    public static boolean isSupported() {
+        return THREADS != null;
+    }
+
+    /**
+     * Returns the bytes allocated per call of the code supplied, once compiled.
+     *
+     * @param call  the code to measure
+     * @return the bytes allocated per call
+     */
+    public static long measureBytesPerCall(final Supplier<?> call) {
+        return measure(() -> objectSink = call.get());
+    }
+
+    /**
+     * Returns the bytes allocated per call of code returning a long, without boxing the result.
+     *
+     * @param call  the code to measure
+     * @return the bytes allocated per call
+     */
+    public static long measureBytesPerCall(final LongSupplier call) {
+        return measure(() -> longSink = call.getAsLong());
+    }
+
+    /**
+     * Fails if the code supplied allocates more bytes per call than its budget.
+     *
+     * @param name  the name of the code path, for the failure message
+     * @param budgetInBytes  the most the code may allocate per call
+     * @param call  the code to measure
+     */
+    public static void assertWithinBudget(final String name, final long budgetInBytes, final Supplier<?> call) {
+        checkBudget(name, budgetInBytes, measureBytesPerCall(call));
+    }
+
+    /**
+     * Fails if the code supplied, returning a long, allocates more bytes per call than its budget.
+     *
+     * @param name  the name of the code path, for the failure message
+     * @param budgetInBytes  the most the code may allocate per call
+     * @param call  the code to measure
+     */
+    public static void assertWithinBudget(final String name, final long budgetInBytes, final LongSupplier call) {
+        checkBudget(name, budgetInBytes, measureBytesPerCall(call));
+    }
+
+    private static void checkBudget(final String name, final long budgetInBytes, final long bytesPerCall) {
+        if (bytesPerCall > budgetInBytes) {
+            fail(String.format("%s allocated %d bytes per call, over its budget of %d.",
+                               name, bytesPerCall, budgetInBytes));
+        }
+    }
+
+    private static long measure(final Runnable call) {
+        if (THREADS == null) {
+            throw new UnsupportedOperationException("Thread allocation counting is not supported.");
+        }
+        for (int i = 0; i < WARMUP_CALLS; i++) {
+            call.run();
+        }
+
+        final long threadId = Thread.currentThread().getId();
+        long lowestBytesPerCall = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            final long allocatedBefore = THREADS.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < CALLS_PER_ROUND; i++) {
+                call.run();
+            }
+            final long allocated = THREADS.getThreadAllocatedBytes(threadId) - allocatedBefore;
+            lowestBytesPerCall = Math.min(lowestBytesPerCall, allocated / CALLS_PER_ROUND);
+        }
+        return lowestBytesPerCall;
+    }
+
+    private static com.sun.management.ThreadMXBean findThreadMXBean() {
+        final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            return null;
+        }
+        final com.sun.management.ThreadMXBean hotSpotThreads = (com.sun.management.ThreadMXBean) threads;
+        if (!hotSpotThreads.isThreadAllocatedMemorySupported()) {
+            return null;
+        }
+        hotSpotThreads.setThreadAllocatedMemoryEnabled(true);
+        return hotSpotThreads;
+    }
+}
@@ -13,4 +13,37 @@ public final class MonetaryUtilsTest {
     public void checkCorrectGBPAmountOfMoneyCreated() {
         assertTrue("GBP 2.56".equals(MonetaryUtils.gbpAmount(2.56).toString()));
     }
+
+    @Test
+    @DisplayName("Return the correct GBP amount of money from pence")
+    public void checkCorrectGBPAmountOfMoneyCreatedFromPence() {
+        assertEquals("GBP 2.56", MonetaryUtils.gbpAmountFromPence(256).toString());
+        assertEquals(MonetaryUtils.gbpAmount(0.65), MonetaryUtils.gbpAmountFromPence(65));
+    }
+
+    @Test
+    @DisplayName("Return the correct number of pence, rounded half up")
+    public void checkCorrectPenceReturned() {
+        assertEquals(256L, MonetaryUtils.toPence(MonetaryUtils.gbpAmount(2.56)));
+        assertEquals(30L, MonetaryUtils.toPence(MonetaryUtils.gbpAmount(0.1 * 3)));
+        assertEquals(3L, MonetaryUtils.toPence(MonetaryUtils.gbpAmount(0.025)));
+    }
+
+    @Test
+    @DisplayName("Return the correct percentage of an amount of pence, rounded half up")
+    public void checkCorrectPercentageOfPenceReturned() {
+        assertEquals(10L, MonetaryUtils.percentageOf(100, 10));
+        assertEquals(40L, MonetaryUtils.percentageOf(80, 50));
+        assertEquals(20L, MonetaryUtils.percentageOf(195, 10));
+        assertEquals(0L, MonetaryUtils.percentageOf(4, 10));
+    }
+
+    @Test
+    @DisplayName("Return a percentage of a negative amount of pence rounded the same way as the positive amount")
+    public void checkPercentageOfNegativePenceIsSymmetric() {
+        assertEquals(-1L, MonetaryUtils.percentageOf(-50, 1));
+        assertEquals(-20L, MonetaryUtils.percentageOf(-195, 10));
+        assertEquals(0L, MonetaryUtils.percentageOf(-4, 10));
+        assertEquals(-10L, MonetaryUtils.percentageOf(100, -10));
+    }
 }
@@ -0,0 +1,77 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.wire;
+
+import com.wcl.pricebasket.entities.Basket;
+import com.wcl.pricebasket.entities.Product;
+import org.junit.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BasketChannelReaderTest {
+    private final BasketCodec codec = new BasketCodec();
+
+    @Test
+    @DisplayName("Check that baskets split across reads are read whole")
+    public void checkThatBasketsSplitAcrossReadsAreReadWhole() throws IOException {
+        final ByteBuffer encoded = ByteBuffer.allocate(1024);
+        for (int i = 1; i <= 100; i++) {
+            final Basket basket = new Basket();
+            basket.add(Product.APPLES, i);
+            basket.add(Product.SOUP, i * 1_000L);
+            codec.encode(basket, encoded);
+        }
+        final BasketChannelReader testSubject = new BasketChannelReader(channelOf(encoded), codec, 7);
+
+        final Basket basket = new Basket();
+        for (int i = 1; i <= 100; i++) {
+            basket.clear();
+            assertTrue(testSubject.read(basket));
+            assertEquals(i, basket.getQuantity(Product.APPLES));
+            assertEquals(i * 1_000L, basket.getQuantity(Product.SOUP));
+        }
+        assertFalse(testSubject.read(basket));
+    }
+
+    @Test
+    @DisplayName("Check that a channel ending part way through a basket is reported")
+    public void checkThatATruncatedBasketIsReported() {
+        final BasketChannelReader testSubject = new BasketChannelReader(
+                channelOf(ByteBuffer.allocate(3).put(new byte[] {2, 0, 1})), codec, 16);
+
+        Throwable exception = assertThrows(IllegalArgumentException.class, () -> testSubject.read(new Basket()));
+        assertEquals("Truncated basket.", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Check that a basket longer than the buffer is reported")
+    public void checkThatABasketLongerThanTheBufferIsReported() {
+        final BasketChannelReader testSubject = new BasketChannelReader(
+                channelOf(ByteBuffer.allocate(5).put(new byte[] {2, 0, 1, 1, 1})), codec, 4);
+
+        Throwable exception = assertThrows(IllegalArgumentException.class, () -> testSubject.read(new Basket()));
+        assertEquals("Basket too long.", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Check that an invalid buffer size is rejected")
+    public void checkThatAnInvalidBufferSizeIsRejected() {
+        Throwable exception = assertThrows(IllegalArgumentException.class,
+                () -> new BasketChannelReader(channelOf(ByteBuffer.allocate(0)), codec, 0));
+        assertEquals("Invalid buffer size 0.", exception.getMessage());
+    }
+
+    private static ReadableByteChannel channelOf(final ByteBuffer written) {
+        return Channels.newChannel(new ByteArrayInputStream(Arrays.copyOf(written.array(), written.position())));
+    }
+}
@@ -0,0 +1,146 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.wire;
+
+import com.wcl.pricebasket.entities.Basket;
+import com.wcl.pricebasket.entities.Product;
+import org.junit.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BasketCodecTest {
+    private final BasketCodec testSubject = new BasketCodec();
+
+    @Test
+    @DisplayName("Check that baskets survive a round trip")
+    public void checkThatBasketsSurviveARoundTrip() {
+        final Basket first = basketOf(Product.APPLES, Product.MILK, Product.APPLES);
+        final Basket second = basketOf(Product.SOUP);
+        second.add(Product.BREAD, 1_000L);
+        final ByteBuffer buffer = ByteBuffer.allocate(64);
+        testSubject.encode(first, buffer);
+        testSubject.encode(second, buffer);
+        buffer.flip();
+
+        final Basket decoded = new Basket();
+        assertTrue(testSubject.decode(buffer, decoded));
+        assertEquals(first, decoded);
+        decoded.clear();
+        assertTrue(testSubject.decode(buffer, decoded));
+        assertEquals(second, decoded);
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    @DisplayName("Check that a basket is far smaller than its text")
+    public void checkThatABasketIsFarSmallerThanItsText() {
+        final ByteBuffer buffer = ByteBuffer.allocate(64);
+        testSubject.encode(basketOf(Product.APPLES, Product.MILK, Product.BREAD), buffer);
+
+        assertArrayEquals(new byte[] {3, 0, 1, 2, 1, 1, 1}, Arrays.copyOf(buffer.array(), buffer.position()));
+        assertTrue(buffer.position() * 4 < "Pricebasket Apples Milk Bread".length());
+    }
+
+    @Test
+    @DisplayName("Check that a partial basket is left in the buffer until the rest arrives")
+    public void checkThatAPartialBasketIsLeftInTheBuffer() {
+        final ByteBuffer encoded = ByteBuffer.allocate(64);
+        testSubject.encode(basketOf(Product.APPLES, Product.SOUP), encoded);
+        encoded.flip();
+
+        final Basket decoded = new Basket();
+        for (int length = 0; length < encoded.limit(); length++) {
+            final ByteBuffer partial = ByteBuffer.wrap(encoded.array(), 0, length);
+            assertFalse(testSubject.decode(partial, decoded));
+            assertEquals(0, partial.position());
+            assertTrue(decoded.isEmpty());
+        }
+        assertTrue(testSubject.decode(encoded, decoded));
+    }
+
+    @Test
+    @DisplayName("Check that an invalid basket is read past without changing the basket")
+    public void checkThatAnInvalidBasketIsReadPast() {
+        final ByteBuffer buffer = ByteBuffer.wrap(new byte[] {2, 0, 1, 9, 1, 1, 3, 2});
+        final Basket decoded = new Basket();
+
+        Throwable exception = assertThrows(IllegalArgumentException.class, () -> testSubject.decode(buffer, decoded));
+        assertEquals("No such product id 9.", exception.getMessage());
+        assertTrue(decoded.isEmpty());
+        assertEquals(5, buffer.position());
+
+        assertTrue(testSubject.decode(buffer, decoded));
+        assertEquals(2L, decoded.getQuantity(Product.SOUP));
+    }
+
+    @Test
+    @DisplayName("Check that empty baskets and zero quantities are rejected")
+    public void checkThatEmptyBasketsAndZeroQuantitiesAreRejected() {
+        Throwable exception = assertThrows(IllegalArgumentException.class,
+                () -> testSubject.decode(ByteBuffer.wrap(new byte[] {0}), new Basket()));
+        assertEquals("No products to purchase were entered.", exception.getMessage());
+
+        exception = assertThrows(IllegalArgumentException.class,
+                () -> testSubject.decode(ByteBuffer.wrap(new byte[] {1, 0, 0}), new Basket()));
+        assertEquals("Invalid quantity 0.", exception.getMessage());
+
+        exception = assertThrows(IllegalArgumentException.class,
+                () -> testSubject.encode(new Basket(), ByteBuffer.allocate(8)));
+        assertEquals("No products to purchase were entered.", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Check that repeated products and quantities too large to add are rejected, leaving the basket as is")
+    public void checkThatRepeatedProductsAndOverflowingQuantitiesAreRejected() {
+        final ByteBuffer repeated = ByteBuffer.allocate(32);
+        VarInts.writeUnsigned(repeated, 2);
+        VarInts.writeUnsigned(repeated, Product.BREAD.ordinal());
+        VarInts.writeUnsigned(repeated, Long.MAX_VALUE);
+        VarInts.writeUnsigned(repeated, Product.BREAD.ordinal());
+        VarInts.writeUnsigned(repeated, 1);
+        repeated.flip();
+        final Basket decoded = new Basket();
+
+        Throwable exception = assertThrows(IllegalArgumentException.class, () -> testSubject.decode(repeated, decoded));
+        assertEquals("Product id 1 is repeated.", exception.getMessage());
+        assertTrue(decoded.isEmpty());
+        assertFalse(repeated.hasRemaining());
+
+        final ByteBuffer tooLarge = ByteBuffer.allocate(16);
+        VarInts.writeUnsigned(tooLarge, 1);
+        VarInts.writeUnsigned(tooLarge, Product.BREAD.ordinal());
+        VarInts.writeUnsigned(tooLarge, Long.MAX_VALUE);
+        tooLarge.flip();
+        decoded.add(Product.BREAD);
+
+        exception = assertThrows(IllegalArgumentException.class, () -> testSubject.decode(tooLarge, decoded));
+        assertEquals("Quantity 9223372036854775807 of product id 1 is too large.", exception.getMessage());
+        assertEquals(1L, decoded.getQuantity(Product.BREAD));
+    }
+
+    @Test
+    @DisplayName("Check that a basket too large for the buffer leaves it unchanged")
+    public void checkThatABasketTooLargeForTheBufferLeavesItUnchanged() {
+        final ByteBuffer buffer = ByteBuffer.allocate(4);
+        buffer.put((byte) 7);
+
+        assertThrows(BufferOverflowException.class,
+                () -> testSubject.encode(basketOf(Product.APPLES, Product.MILK), buffer));
+        assertEquals(1, buffer.position());
+    }
+
+    private static Basket basketOf(final Product... products) {
+        final Basket basket = new Basket();
+        for (final Product product : products) {
+            basket.add(product);
+        }
+        return basket;
+    }
+}
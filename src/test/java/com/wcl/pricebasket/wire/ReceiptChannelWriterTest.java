@@ -0,0 +1,74 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.wire;
+
+import com.wcl.pricebasket.entities.Basket;
+import com.wcl.pricebasket.entities.Product;
+import com.wcl.pricebasket.offers.DiscountOffer;
+import com.wcl.pricebasket.receipt.LazyReceipt;
+import com.wcl.pricebasket.receipt.ReceiptGenerator;
+import org.junit.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReceiptChannelWriterTest {
+    private final List<DiscountOffer> offers = Collections.singletonList(
+            new DiscountOffer("Apples 10% off",
+                              DiscountOffer.triggeredBy(Product.APPLES),
+                              p -> p.contains(Product.APPLES),
+                              p -> p.getQuantity(Product.APPLES) * 10L));
+    private final ReceiptGenerator receiptGenerator = new ReceiptGenerator(offers);
+    private final ReceiptCodec codec = new ReceiptCodec();
+    private final ByteArrayOutputStream written = new ByteArrayOutputStream();
+
+    @Test
+    @DisplayName("Check that receipts are written in order once the buffer fills or is flushed")
+    public void checkThatReceiptsAreWrittenInOrder() throws IOException {
+        final ReceiptChannelWriter testSubject = new ReceiptChannelWriter(Channels.newChannel(written), codec, 16);
+        final LazyReceipt[] receipts = new LazyReceipt[20];
+        for (int i = 0; i < receipts.length; i++) {
+            final Basket basket = new Basket();
+            basket.add(Product.APPLES, i + 1L);
+            receipts[i] = receiptGenerator.generateLazyReceipt(basket);
+            testSubject.write(receipts[i]);
+        }
+        assertTrue(written.size() > 0);
+        testSubject.flush();
+
+        final ByteBuffer buffer = ByteBuffer.wrap(written.toByteArray());
+        for (final LazyReceipt receipt : receipts) {
+            assertEquals(receipt.toReceipt(), codec.decode(buffer, offers, 1L));
+        }
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    @DisplayName("Check that a receipt longer than the buffer is reported")
+    public void checkThatAReceiptLongerThanTheBufferIsReported() {
+        final ReceiptChannelWriter testSubject = new ReceiptChannelWriter(Channels.newChannel(written), codec, 4);
+        final Basket basket = new Basket();
+        basket.add(Product.APPLES);
+
+        Throwable exception = assertThrows(IllegalArgumentException.class,
+                () -> testSubject.write(receiptGenerator.generateLazyReceipt(basket)));
+        assertEquals("Receipt too long.", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Check that an invalid buffer size is rejected")
+    public void checkThatAnInvalidBufferSizeIsRejected() {
+        Throwable exception = assertThrows(IllegalArgumentException.class,
+                () -> new ReceiptChannelWriter(Channels.newChannel(written), codec, 0));
+        assertEquals("Invalid buffer size 0.", exception.getMessage());
+    }
+}
@@ -0,0 +1,102 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.wire;
+
+import com.wcl.pricebasket.entities.Basket;
+import com.wcl.pricebasket.entities.Product;
+import com.wcl.pricebasket.offers.DiscountOffer;
+import com.wcl.pricebasket.receipt.LazyReceipt;
+import com.wcl.pricebasket.receipt.ReceiptGenerator;
+import org.junit.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReceiptCodecTest {
+    private final List<DiscountOffer> offers = Arrays.asList(
+            new DiscountOffer("Apples 10% off",
+                              DiscountOffer.triggeredBy(Product.APPLES),
+                              p -> p.contains(Product.APPLES),
+                              p -> p.getQuantity(Product.APPLES) * 10L),
+            new DiscountOffer("Soup 1p off",
+                              DiscountOffer.triggeredBy(Product.SOUP),
+                              p -> true,
+                              p -> 1L));
+    private final ReceiptGenerator receiptGenerator = new ReceiptGenerator(offers);
+    private final ReceiptCodec testSubject = new ReceiptCodec();
+
+    @Test
+    @DisplayName("Check that receipts survive a round trip")
+    public void checkThatReceiptsSurviveARoundTrip() {
+        final LazyReceipt first = receiptGenerator.generateLazyReceipt(basketOf(Product.APPLES, Product.SOUP));
+        final LazyReceipt second = receiptGenerator.generateLazyReceipt(basketOf(Product.MILK));
+        final ByteBuffer buffer = ByteBuffer.allocate(64);
+        testSubject.encode(first, buffer);
+        testSubject.encode(second, buffer);
+        buffer.flip();
+
+        assertEquals(first.toReceipt(), testSubject.decode(buffer, offers, 1L));
+        assertEquals(second.toReceipt(), testSubject.decode(buffer, offers, 1L));
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    @DisplayName("Check that a partial receipt is left in the buffer until the rest arrives")
+    public void checkThatAPartialReceiptIsLeftInTheBuffer() {
+        final ByteBuffer encoded = ByteBuffer.allocate(64);
+        testSubject.encode(receiptGenerator.generateLazyReceipt(basketOf(Product.APPLES, Product.SOUP)), encoded);
+        encoded.flip();
+
+        for (int length = 0; length < encoded.limit(); length++) {
+            final ByteBuffer partial = ByteBuffer.wrap(encoded.array(), 0, length);
+            assertNull(testSubject.decode(partial, offers, 1L));
+            assertEquals(0, partial.position());
+        }
+        assertNotNull(testSubject.decode(encoded, offers, 1L));
+    }
+
+    @Test
+    @DisplayName("Check that a receipt priced with other offers is read past and rejected")
+    public void checkThatAReceiptPricedWithOtherOffersIsRejected() {
+        final ByteBuffer buffer = ByteBuffer.allocate(64);
+        testSubject.encode(receiptGenerator.generateLazyReceipt(basketOf(Product.APPLES, Product.SOUP)), buffer);
+        final int endOfFirstReceipt = buffer.position();
+        buffer.flip();
+
+        Throwable exception = assertThrows(IllegalArgumentException.class,
+                () -> testSubject.decode(buffer, offers, 2L));
+        assertEquals("Receipt priced with offer version 1 but expected 2.", exception.getMessage());
+        assertEquals(endOfFirstReceipt, buffer.position());
+
+        buffer.rewind();
+        exception = assertThrows(IllegalArgumentException.class,
+                () -> testSubject.decode(buffer, offers.subList(0, 1), 1L));
+        assertEquals("No such offer id 1.", exception.getMessage());
+        assertEquals(endOfFirstReceipt, buffer.position());
+    }
+
+    @Test
+    @DisplayName("Check that a receipt too large for the buffer leaves it unchanged")
+    public void checkThatAReceiptTooLargeForTheBufferLeavesItUnchanged() {
+        final ByteBuffer buffer = ByteBuffer.allocate(4);
+
+        assertThrows(BufferOverflowException.class,
+                () -> testSubject.encode(receiptGenerator.generateLazyReceipt(basketOf(Product.APPLES)), buffer));
+        assertEquals(0, buffer.position());
+    }
+
+    private static Basket basketOf(final Product... products) {
+        final Basket basket = new Basket();
+        for (final Product product : products) {
+            basket.add(product);
+        }
+        return basket;
+    }
+}
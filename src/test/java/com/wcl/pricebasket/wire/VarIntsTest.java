@@ -0,0 +1,81 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.wire;
+
+import org.junit.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VarIntsTest {
+    @Test
+    @DisplayName("Check that unsigned values survive a round trip")
+    public void checkThatUnsignedValuesSurviveARoundTrip() {
+        final long[] values = {0L, 1L, 127L, 128L, 16_383L, 16_384L, Integer.MAX_VALUE, Long.MAX_VALUE, -1L};
+        final ByteBuffer buffer = ByteBuffer.allocate(values.length * VarInts.MAXIMUM_LENGTH);
+        for (final long value : values) {
+            VarInts.writeUnsigned(buffer, value);
+        }
+        buffer.flip();
+
+        for (final long value : values) {
+            assertEquals(value, VarInts.readUnsigned(buffer));
+        }
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    @DisplayName("Check that small values take a single byte, whatever their sign")
+    public void checkThatSmallValuesTakeASingleByte() {
+        final ByteBuffer buffer = ByteBuffer.allocate(VarInts.MAXIMUM_LENGTH);
+        VarInts.writeUnsigned(buffer, 127L);
+        assertEquals(1, buffer.position());
+
+        buffer.clear();
+        VarInts.writeSigned(buffer, -64L);
+        assertEquals(1, buffer.position());
+        buffer.flip();
+        assertEquals(-64L, VarInts.readSigned(buffer));
+    }
+
+    @Test
+    @DisplayName("Check that signed values survive a round trip")
+    public void checkThatSignedValuesSurviveARoundTrip() {
+        final long[] values = {0L, -1L, 1L, -65L, 65L, Long.MIN_VALUE, Long.MAX_VALUE};
+        final ByteBuffer buffer = ByteBuffer.allocate(values.length * VarInts.MAXIMUM_LENGTH);
+        for (final long value : values) {
+            VarInts.writeSigned(buffer, value);
+        }
+        buffer.flip();
+
+        for (final long value : values) {
+            assertEquals(value, VarInts.readSigned(buffer));
+        }
+    }
+
+    @Test
+    @DisplayName("Check that running out of space or input is reported")
+    public void checkThatRunningOutOfSpaceOrInputIsReported() {
+        assertThrows(BufferOverflowException.class, () -> VarInts.writeUnsigned(ByteBuffer.allocate(1), 128L));
+        assertThrows(BufferUnderflowException.class,
+                () -> VarInts.readUnsigned(ByteBuffer.wrap(new byte[] {(byte) 0x80})));
+    }
+
+    @Test
+    @DisplayName("Check that an over long value is rejected")
+    public void checkThatAnOverLongValueIsRejected() {
+        final byte[] bytes = new byte[VarInts.MAXIMUM_LENGTH + 1];
+        Arrays.fill(bytes, (byte) 0x80);
+
+        Throwable exception = assertThrows(IllegalArgumentException.class,
+                () -> VarInts.readUnsigned(ByteBuffer.wrap(bytes)));
+        assertEquals("Malformed variable length integer.", exception.getMessage());
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.workload;
+
+import org.junit.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BasketSizeDistributionTest {
+    private final Random random = new Random(7L);
+
+    @Test
+    @DisplayName("Check that a fixed distribution always gives the same size")
+    public void checkThatAFixedDistributionAlwaysGivesTheSameSize() {
+        final BasketSizeDistribution testSubject = BasketSizeDistribution.fixed(5);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(5, testSubject.sample(random));
+        }
+        assertEquals("fixed:5", testSubject.toString());
+    }
+
+    @Test
+    @DisplayName("Check that a uniform distribution covers its whole range and no more")
+    public void checkThatAUniformDistributionCoversItsRange() {
+        final BasketSizeDistribution testSubject = BasketSizeDistribution.uniform(2, 4);
+        final int[] counts = new int[6];
+
+        for (int i = 0; i < 1000; i++) {
+            counts[testSubject.sample(random)]++;
+        }
+
+        assertEquals(0, counts[0] + counts[1] + counts[5]);
+        assertTrue(counts[2] > 0 && counts[3] > 0 && counts[4] > 0);
+        assertEquals("uniform:2-4", testSubject.toString());
+    }
+
+    @Test
+    @DisplayName("Check that a geometric distribution has the mean requested")
+    public void checkThatAGeometricDistributionHasTheMeanRequested() {
+        final BasketSizeDistribution testSubject = BasketSizeDistribution.geometric(8);
+        final int numberOfSamples = 100_000;
+        long total = 0;
+
+        for (int i = 0; i < numberOfSamples; i++) {
+            final int size = testSubject.sample(random);
+            assertTrue(size >= 1);
+            total += size;
+        }
+
+        assertEquals(8.0, (double) total / numberOfSamples, 0.2);
+        assertEquals(1, BasketSizeDistribution.geometric(1).sample(random));
+    }
+
+    @Test
+    @DisplayName("Check that specifications are parsed")
+    public void checkThatSpecificationsAreParsed() {
+        assertEquals("fixed:3", BasketSizeDistribution.parse("fixed:3").toString());
+        assertEquals("uniform:1-20", BasketSizeDistribution.parse("uniform:1-20").toString());
+        assertEquals("geometric:8.0", BasketSizeDistribution.parse("geometric:8").toString());
+    }
+
+    @Test
+    @DisplayName("Check that invalid specifications are rejected")
+    public void checkThatInvalidSpecificationsAreRejected() {
+        for (final String specification : new String[] {"fixed", "fixed:x", "uniform:5", "normal:3", ""}) {
+            final Throwable exception = assertThrows(IllegalArgumentException.class,
+                                                     () -> BasketSizeDistribution.parse(specification));
+            assertEquals(String.format("Invalid basket size distribution %s.", specification), exception.getMessage());
+        }
+
+        Throwable exception = assertThrows(IllegalArgumentException.class, () -> BasketSizeDistribution.fixed(0));
+        assertEquals("Invalid basket size 0.", exception.getMessage());
+
+        exception = assertThrows(IllegalArgumentException.class, () -> BasketSizeDistribution.parse("uniform:5-2"));
+        assertEquals("Invalid basket size range 5-2.", exception.getMessage());
+
+        exception = assertThrows(IllegalArgumentException.class, () -> BasketSizeDistribution.geometric(0.5));
+        assertEquals("Invalid mean basket size 0.5.", exception.getMessage());
+    }
+}
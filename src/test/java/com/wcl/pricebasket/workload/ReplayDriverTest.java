@@ -0,0 +1,130 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.workload;
+
+import org.junit.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReplayDriverTest {
+    @Test
+    @DisplayName("Check that every basket is priced in order and rejections are counted")
+    public void checkThatEveryBasketIsPricedInOrder() {
+        final List<String> priced = new ArrayList<>();
+        final ReplayDriver testSubject = new ReplayDriver(basket -> {
+            if (basket.contains("Bananas")) {
+                throw new IllegalArgumentException("No such product Bananas.");
+            }
+            priced.add(basket);
+            return basket;
+        });
+
+        final ReplayReport report = testSubject.replay(Arrays.asList("Pricebasket Apples",
+                                                                     "Pricebasket Bananas",
+                                                                     "Pricebasket Milk"), 0);
+
+        assertEquals(Arrays.asList("Pricebasket Apples", "Pricebasket Milk"), priced);
+        assertEquals(2L, report.getBasketsPriced());
+        assertEquals(1L, report.getBasketsRejected());
+        assertTrue(report.getMedianNanos() <= report.getPercentile99Nanos());
+        assertTrue(report.getPercentile99Nanos() <= report.getMaxNanos());
+        assertTrue(report.getThroughputPerSecond() > 0);
+    }
+
+    @Test
+    @DisplayName("Check that rejected baskets are timed apart from those priced")
+    public void checkThatRejectedBasketsAreTimedApart() {
+        final ReplayDriver testSubject = new ReplayDriver(basket -> {
+            if (basket.contains("Bananas")) {
+                sleep(20);
+                throw new IllegalArgumentException("No such product Bananas.");
+            }
+            return basket;
+        });
+
+        final ReplayReport report = testSubject.replay(Arrays.asList("Pricebasket Apples",
+                                                                     "Pricebasket Bananas",
+                                                                     "Pricebasket Milk"), 0);
+
+        assertTrue(report.getMaxNanos() < TimeUnit.MILLISECONDS.toNanos(20),
+                   String.format("Max %dns.", report.getMaxNanos()));
+        assertTrue(report.getRejectedMedianNanos() >= TimeUnit.MILLISECONDS.toNanos(19),
+                   String.format("Rejected median %dns.", report.getRejectedMedianNanos()));
+        assertTrue(report.getRejectedMedianNanos() <= report.getRejectedMaxNanos());
+    }
+
+    @Test
+    @DisplayName("Check that baskets are paced at the target rate")
+    public void checkThatBasketsArePacedAtTheTargetRate() {
+        final ReplayDriver testSubject = new ReplayDriver(basket -> basket);
+
+        final ReplayReport report = testSubject.replay(Collections.nCopies(21, "Pricebasket Apples"), 1000);
+
+        // The last of 21 baskets is sent 20ms after the first.
+        assertTrue(report.getElapsedNanos() >= TimeUnit.MILLISECONDS.toNanos(20),
+                   String.format("Elapsed %dns.", report.getElapsedNanos()));
+        assertEquals(1000, report.getThroughputPerSecond(), 100);
+    }
+
+    @Test
+    @DisplayName("Check that a stall counts against the baskets queued behind it")
+    public void checkThatAStallCountsAgainstTheBasketsQueuedBehindIt() {
+        final ReplayDriver testSubject = new ReplayDriver(basket -> {
+            if ("stall".equals(basket)) {
+                sleep(50);
+            }
+            return basket;
+        });
+        final List<String> baskets = new ArrayList<>(Collections.nCopies(10, "go"));
+        baskets.set(0, "stall");
+
+        final ReplayReport report = testSubject.replay(baskets, 1000);
+
+        // Sent every millisecond, the nine baskets behind the stall wait most of its 50ms.
+        assertTrue(report.getMedianNanos() >= TimeUnit.MILLISECONDS.toNanos(40),
+                   String.format("Median %dns.", report.getMedianNanos()));
+    }
+
+    @Test
+    @DisplayName("Check that recorded baskets are read without blank lines")
+    public void checkThatRecordedBasketsAreReadWithoutBlankLines() throws IOException {
+        final Path path = Files.createTempFile("baskets", ".txt");
+        try {
+            Files.write(path, Arrays.asList("Pricebasket Apples", "", "  ", "Pricebasket Soup"),
+                        StandardCharsets.UTF_8);
+
+            assertEquals(Arrays.asList("Pricebasket Apples", "Pricebasket Soup"), ReplayDriver.readBaskets(path));
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    @DisplayName("Check that a negative target rate is rejected")
+    public void checkThatANegativeTargetRateIsRejected() {
+        final Throwable exception = assertThrows(IllegalArgumentException.class,
+                () -> new ReplayDriver(basket -> basket).replay(Collections.singletonList("x"), -1));
+        assertEquals("Invalid target rate -1.0.", exception.getMessage());
+    }
+
+    private static void sleep(final long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.workload;
+
+import com.wcl.pricebasket.catalog.ProductCatalog;
+import com.wcl.pricebasket.entities.Product;
+import com.wcl.pricebasket.parser.PricebasketParser;
+import org.junit.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WorkloadGeneratorTest {
+    @Test
+    @DisplayName("Check that generated baskets can be parsed and have the sizes requested")
+    public void checkThatGeneratedBasketsCanBeParsed() {
+        final WorkloadGenerator testSubject = new WorkloadGenerator(ProductCatalog.INSTANCE,
+                                                                    BasketSizeDistribution.fixed(6), 1.0, 1L);
+        final PricebasketParser parser = new PricebasketParser(ProductCatalog.INSTANCE);
+
+        for (final String basket : testSubject.generate(100)) {
+            assertTrue(basket.startsWith("Pricebasket "));
+            assertEquals(6, parser.retrieveShoppingList(basket).size());
+        }
+    }
+
+    @Test
+    @DisplayName("Check that the same seed generates the same baskets")
+    public void checkThatTheSameSeedGeneratesTheSameBaskets() {
+        final List<String> first = new WorkloadGenerator(ProductCatalog.INSTANCE,
+                                                         BasketSizeDistribution.uniform(1, 10), 1.0, 99L).generate(50);
+        final List<String> second = new WorkloadGenerator(ProductCatalog.INSTANCE,
+                                                          BasketSizeDistribution.uniform(1, 10), 1.0, 99L).generate(50);
+        final List<String> other = new WorkloadGenerator(ProductCatalog.INSTANCE,
+                                                         BasketSizeDistribution.uniform(1, 10), 1.0, 100L).generate(50);
+
+        assertEquals(first, second);
+        assertNotEquals(first, other);
+    }
+
+    @Test
+    @DisplayName("Check that the lowest numbered products are the most popular")
+    public void checkThatTheLowestNumberedProductsAreTheMostPopular() {
+        final WorkloadGenerator testSubject = new WorkloadGenerator(ProductCatalog.INSTANCE,
+                                                                    BasketSizeDistribution.fixed(10), 1.5, 3L);
+        final String baskets = String.join(" ", testSubject.generate(1000));
+
+        final int apples = countOccurrences(baskets, Product.APPLES.getProductName());
+        final int soup = countOccurrences(baskets, Product.SOUP.getProductName());
+        assertTrue(apples > 4 * soup, String.format("Apples %d, soup %d.", apples, soup));
+    }
+
+    @Test
+    @DisplayName("Check that baskets are written one per line")
+    public void checkThatBasketsAreWrittenOnePerLine() throws IOException {
+        final WorkloadGenerator testSubject = new WorkloadGenerator(ProductCatalog.INSTANCE,
+                                                                    BasketSizeDistribution.fixed(2), 0, 5L);
+        final StringWriter output = new StringWriter();
+
+        testSubject.write(output, 3);
+
+        final String[] lines = output.toString().split(System.lineSeparator());
+        assertEquals(3, lines.length);
+        assertEquals(new WorkloadGenerator(ProductCatalog.INSTANCE, BasketSizeDistribution.fixed(2), 0, 5L)
+                             .generate(3), Arrays.asList(lines));
+    }
+
+    private static int countOccurrences(final String text, final String word) {
+        int count = 0;
+        for (int index = text.indexOf(word); index >= 0; index = text.indexOf(word, index + 1)) {
+            count++;
+        }
+        return count;
+    }
+}
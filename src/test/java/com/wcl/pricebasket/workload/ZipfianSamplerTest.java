@@ -0,0 +1,75 @@
+/**
+ * Copyright (c) 2019 Warnett Consulting Ltd
+ * All rights reserved
+ **/
+package com.wcl.pricebasket.workload;
+
+import org.junit.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ZipfianSamplerTest {
+    @Test
+    @DisplayName("Check that the probabilities follow the exponent and sum to one")
+    public void checkThatTheProbabilitiesFollowTheExponent() {
+        final ZipfianSampler testSubject = new ZipfianSampler(4, 1.0);
+
+        // Weights 1, 1/2, 1/3 and 1/4 sum to 25/12.
+        assertEquals(4, testSubject.size());
+        assertEquals(12.0 / 25, testSubject.getProbability(0), 1e-12);
+        assertEquals(6.0 / 25, testSubject.getProbability(1), 1e-12);
+        assertEquals(4.0 / 25, testSubject.getProbability(2), 1e-12);
+        assertEquals(3.0 / 25, testSubject.getProbability(3), 1e-12);
+    }
+
+    @Test
+    @DisplayName("Check that samples are drawn in proportion to their probabilities")
+    public void checkThatSamplesAreDrawnInProportion() {
+        final ZipfianSampler testSubject = new ZipfianSampler(4, 1.0);
+        final Random random = new Random(42L);
+        final int[] counts = new int[4];
+        final int numberOfSamples = 100_000;
+
+        for (int i = 0; i < numberOfSamples; i++) {
+            counts[testSubject.sample(random)]++;
+        }
+
+        for (int rank = 0; rank < counts.length; rank++) {
+            assertEquals(testSubject.getProbability(rank), (double) counts[rank] / numberOfSamples, 0.01);
+        }
+    }
+
+    @Test
+    @DisplayName("Check that an exponent of zero picks every item equally often")
+    public void checkThatAnExponentOfZeroIsUniform() {
+        final ZipfianSampler testSubject = new ZipfianSampler(5, 0);
+
+        for (int rank = 0; rank < 5; rank++) {
+            assertEquals(0.2, testSubject.getProbability(rank), 1e-12);
+        }
+    }
+
+    @Test
+    @DisplayName("Check that a single item is always picked")
+    public void checkThatASingleItemIsAlwaysPicked() {
+        final ZipfianSampler testSubject = new ZipfianSampler(1, 2.0);
+        final Random random = new Random(1L);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0, testSubject.sample(random));
+        }
+    }
+
+    @Test
+    @DisplayName("Check that invalid parameters are rejected")
+    public void checkThatInvalidParametersAreRejected() {
+        Throwable exception = assertThrows(IllegalArgumentException.class, () -> new ZipfianSampler(0, 1.0));
+        assertEquals("Invalid number of items 0.", exception.getMessage());
+
+        exception = assertThrows(IllegalArgumentException.class, () -> new ZipfianSampler(4, -0.5));
+        assertEquals("Invalid exponent -0.5.", exception.getMessage());
+    }
+}